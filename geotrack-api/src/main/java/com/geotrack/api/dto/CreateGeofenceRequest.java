@@ -1,15 +1,27 @@
 package com.geotrack.api.dto;
 
+import com.geotrack.common.model.AssetType;
+import com.geotrack.common.model.Circle;
 import com.geotrack.common.model.FenceType;
+import com.geotrack.common.model.PositionSource;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Request DTO for creating a geofence.
- * Coordinates are [longitude, latitude] pairs forming a closed polygon.
+ * Coordinates are [longitude, latitude] pairs forming a closed polygon;
+ * alternatively {@code circle} gives a centre and radius instead (exactly one of the two).
+ * Omitted asset types or position sources mean the fence applies to all of them.
+ * Asset types are limited to those a position reveals through its source
+ * (VESSEL from AIS, AIRCRAFT from ADS-B); others are rejected.
+ * {@code dwellMinutes}, when set, raises an alert once an asset has stayed inside that long.
+ * {@code bufferMetres}, when positive, adds an "approaching" zone that wide around the fence.
  */
 public record CreateGeofenceRequest(
         @NotBlank(message = "Name is required")
@@ -21,12 +33,23 @@ public record CreateGeofenceRequest(
         @NotNull(message = "Fence type is required")
         FenceType fenceType,
 
-        @NotNull(message = "Coordinates are required")
         @Size(min = 3, message = "At least 3 coordinate pairs required for a polygon")
         List<double[]> coordinates,
 
         boolean alertOnEnter,
-        boolean alertOnExit
+        boolean alertOnExit,
+
+        Set<AssetType> assetTypes,
+
+        Set<PositionSource> positionSources,
+
+        @Positive(message = "Dwell minutes must be positive")
+        Integer dwellMinutes,
+
+        @PositiveOrZero(message = "Buffer must not be negative")
+        Double bufferMetres,
+
+        Circle circle
 ) {
     public CreateGeofenceRequest {
         if (!alertOnEnter && !alertOnExit) {
@@ -34,5 +57,7 @@ public record CreateGeofenceRequest(
             alertOnEnter = true;
             alertOnExit = true;
         }
+        assetTypes = assetTypes != null ? Set.copyOf(assetTypes) : Set.of();
+        positionSources = positionSources != null ? Set.copyOf(positionSources) : Set.of();
     }
 }
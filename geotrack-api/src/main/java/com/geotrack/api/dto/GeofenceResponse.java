@@ -1,8 +1,12 @@
 package com.geotrack.api.dto;
 
+import com.geotrack.common.model.AssetType;
+import com.geotrack.common.model.Circle;
 import com.geotrack.common.model.FenceType;
+import com.geotrack.common.model.PositionSource;
 
 import java.time.Instant;
+import java.util.Set;
 import java.util.UUID;
 
 public record GeofenceResponse(
@@ -13,5 +17,10 @@ public record GeofenceResponse(
         boolean active,
         boolean alertOnEnter,
         boolean alertOnExit,
+        Set<AssetType> assetTypes,
+        Set<PositionSource> positionSources,
+        Integer dwellMinutes,
+        Double bufferMetres,
+        Circle circle,
         Instant createdAt
 ) {}
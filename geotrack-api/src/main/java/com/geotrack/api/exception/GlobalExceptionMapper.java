@@ -1,6 +1,7 @@
 package com.geotrack.api.exception;
 
 import com.geotrack.api.service.AssetService;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
@@ -36,7 +37,9 @@ public class GlobalExceptionMapper implements ExceptionMapper<Exception> {
     }
 
     private Response error(Response.Status status, String error, String message) {
+        // Explicitly JSON, so errors from endpoints producing other types still render
         return Response.status(status)
+                .type(MediaType.APPLICATION_JSON)
                 .entity(new ErrorResponse(error, message, status.getStatusCode()))
                 .build();
     }
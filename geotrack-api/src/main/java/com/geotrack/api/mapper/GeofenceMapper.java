@@ -3,6 +3,7 @@ package com.geotrack.api.mapper;
 import com.geotrack.api.dto.GeofenceResponse;
 import com.geotrack.api.model.GeofenceEntity;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 /**
@@ -13,5 +14,6 @@ public interface GeofenceMapper {
 
     GeofenceMapper INSTANCE = Mappers.getMapper(GeofenceMapper.class);
 
+    @Mapping(target = "circle", expression = "java(entity.circle())")
     GeofenceResponse toResponse(GeofenceEntity entity);
 }
@@ -1,15 +1,22 @@
 package com.geotrack.api.model;
 
+import com.geotrack.common.model.AssetType;
+import com.geotrack.common.model.Circle;
 import com.geotrack.common.model.FenceType;
+import com.geotrack.common.model.PositionSource;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
 
 import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * JPA entity for geofence zones stored as PostGIS polygons.
+ * Circular fences also keep their centre and radius, with {@code geometry} as their outline.
  */
 @Entity
 @Table(name = "geofences")
@@ -31,6 +38,14 @@ public class GeofenceEntity extends PanacheEntityBase {
     @Column(name = "geometry", columnDefinition = "geometry(Polygon, 4326)", nullable = false)
     public Polygon geometry;
 
+    /** Centre of a circular fence; null for polygons */
+    @Column(name = "centre", columnDefinition = "geometry(Point, 4326)")
+    public Point centre;
+
+    /** Radius of a circular fence in metres; null for polygons */
+    @Column(name = "radius_metres")
+    public Double radiusMetres;
+
     @Column(name = "buffer_metres")
     public Double bufferMetres = 0.0;
 
@@ -42,10 +57,31 @@ public class GeofenceEntity extends PanacheEntityBase {
     @Column(name = "alert_on_exit")
     public boolean alertOnExit = true;
 
+    /** Asset types this fence applies to; empty = all */
+    @Column(name = "asset_types", columnDefinition = "jsonb", nullable = false)
+    @org.hibernate.annotations.JdbcTypeCode(org.hibernate.type.SqlTypes.JSON)
+    public Set<AssetType> assetTypes = new HashSet<>();
+
+    /** Position sources this fence applies to; empty = all */
+    @Column(name = "position_sources", columnDefinition = "jsonb", nullable = false)
+    @org.hibernate.annotations.JdbcTypeCode(org.hibernate.type.SqlTypes.JSON)
+    public Set<PositionSource> positionSources = new HashSet<>();
+
+    /** Minutes inside before a dwell alert; null = no dwell alerts */
+    @Column(name = "dwell_minutes")
+    public Integer dwellMinutes;
+
     @Column(columnDefinition = "jsonb")
     @org.hibernate.annotations.JdbcTypeCode(org.hibernate.type.SqlTypes.JSON)
     public String metadata;
 
     @Column(name = "created_at")
     public Instant createdAt = Instant.now();
+
+    /**
+     * Centre and radius of a circular fence, or null for a polygon.
+     */
+    public Circle circle() {
+        return radiusMetres != null ? new Circle(centre.getX(), centre.getY(), radiusMetres) : null;
+    }
 }
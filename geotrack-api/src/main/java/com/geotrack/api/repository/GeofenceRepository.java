@@ -27,18 +27,32 @@ public class GeofenceRepository implements PanacheRepositoryBase<GeofenceEntity,
     }
 
     /**
-     * Find all active geofences that contain a given point using PostGIS ST_Contains.
+     * Find all active geofences that contain a given point using PostGIS ST_Contains,
+     * counting a fence's {@code buffer_metres} zone as part of it (geodesic
+     * distance, as the processing service applies it). Circular fences are
+     * matched by distance from their centre rather than by their outline.
      *
      * @param longitude point longitude
      * @param latitude  point latitude
-     * @return geofences containing the point
+     * @return geofences containing the point or with it inside their buffer
      */
     @SuppressWarnings("unchecked")
     public List<GeofenceEntity> findContainingPoint(double longitude, double latitude) {
         return em.createNativeQuery("""
                 SELECT g.* FROM geofences g
                 WHERE g.active = true
-                  AND ST_Contains(g.geometry, ST_SetSRID(ST_MakePoint(:lon, :lat), 4326))
+                  AND CASE WHEN g.radius_metres IS NOT NULL
+                      THEN ST_DWithin(
+                               g.centre::geography,
+                               ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography,
+                               g.radius_metres + COALESCE(g.buffer_metres, 0))
+                      ELSE ST_Contains(g.geometry, ST_SetSRID(ST_MakePoint(:lon, :lat), 4326))
+                           OR (g.buffer_metres > 0
+                               AND ST_DWithin(
+                                   g.geometry::geography,
+                                   ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography,
+                                   g.buffer_metres))
+                  END
                 """, GeofenceEntity.class)
                 .setParameter("lon", longitude)
                 .setParameter("lat", latitude)
@@ -5,10 +5,12 @@ import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
 import jakarta.inject.Inject;
+import org.hibernate.jpa.HibernateHints;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository for position data with PostGIS spatial query support.
@@ -30,6 +32,19 @@ public class PositionRepository implements PanacheRepositoryBase<PositionEntity,
                 .list();
     }
 
+    /**
+     * Stream an asset's positions within a time range, oldest first, fetched
+     * from the database in blocks and read-only. Must be consumed, and closed,
+     * inside a transaction.
+     */
+    public Stream<PositionEntity> streamByAssetAndTimeRange(UUID assetId, Instant from, Instant to) {
+        return find("assetId = ?1 AND timestamp BETWEEN ?2 AND ?3 ORDER BY timestamp",
+                assetId, from, to)
+                .withHint(HibernateHints.HINT_FETCH_SIZE, 1000)
+                .withHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream();
+    }
+
     /**
      * Find the latest position for each asset.
      * Uses DISTINCT ON (PostgreSQL extension) for efficient latest-per-group.
@@ -83,13 +83,17 @@ public class AssetResource {
 
     @GET
     @Path("/{id}/positions")
-    @Operation(summary = "Get position history for an asset")
+    @Operation(summary = "Get position history for an asset",
+            description = "Optionally simplified for display: tolerance drops points within that many metres "
+                    + "of the simplified trail, maxPoints caps the number returned")
     public List<PositionResponse> getPositionHistory(
             @PathParam("id") String assetId,
             @QueryParam("from") Instant from,
             @QueryParam("to") Instant to,
-            @QueryParam("limit") @DefaultValue("1000") int limit) {
+            @QueryParam("limit") @DefaultValue("1000") int limit,
+            @QueryParam("tolerance") Double toleranceMetres,
+            @QueryParam("maxPoints") Integer maxPoints) {
 
-        return positionService.getPositionHistory(assetId, from, to, limit);
+        return positionService.getPositionHistory(assetId, from, to, limit, toleranceMetres, maxPoints);
     }
 }
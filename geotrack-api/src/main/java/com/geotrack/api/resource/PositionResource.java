@@ -3,11 +3,13 @@ package com.geotrack.api.resource;
 import com.geotrack.api.dto.PositionResponse;
 import com.geotrack.api.dto.SubmitPositionRequest;
 import com.geotrack.api.service.PositionService;
+import com.geotrack.common.codec.TrajectoryCodec;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
@@ -52,15 +54,39 @@ public class PositionResource {
 
     @GET
     @Path("/history")
-    @Operation(summary = "Get position history for an asset by string ID (handles special characters)")
+    @Operation(summary = "Get position history for an asset by string ID (handles special characters)",
+            description = "Optionally simplified for display: tolerance drops points within that many metres "
+                    + "of the simplified trail, maxPoints caps the number returned")
     public List<PositionResponse> getPositionHistoryByQuery(
             @QueryParam("assetId") String assetId,
             @QueryParam("from") String fromStr,
             @QueryParam("to") String toStr,
-            @QueryParam("limit") @DefaultValue("1000") int limit) {
+            @QueryParam("limit") @DefaultValue("1000") int limit,
+            @QueryParam("tolerance") Double toleranceMetres,
+            @QueryParam("maxPoints") Integer maxPoints) {
 
         Instant from = fromStr != null ? Instant.parse(fromStr) : null;
         Instant to = toStr != null ? Instant.parse(toStr) : null;
-        return positionService.getPositionHistory(assetId, from, to, limit);
+        return positionService.getPositionHistory(assetId, from, to, limit, toleranceMetres, maxPoints);
+    }
+
+    @GET
+    @Path("/history/export")
+    @Produces(TrajectoryCodec.MEDIA_TYPE)
+    @Operation(summary = "Export an asset's full position history as a compact trajectory",
+            description = "Oldest first, delta-encoded by TrajectoryCodec in geotrack-common "
+                    + "(roughly 10 bytes a position); defaults to the last 24 hours")
+    public Response exportPositionHistory(
+            @QueryParam("assetId") String assetId,
+            @QueryParam("from") String fromStr,
+            @QueryParam("to") String toStr) {
+
+        if (assetId == null || assetId.isBlank()) {
+            throw new IllegalArgumentException("assetId is required");
+        }
+        Instant from = fromStr != null ? Instant.parse(fromStr) : null;
+        Instant to = toStr != null ? Instant.parse(toStr) : null;
+        StreamingOutput trajectory = output -> positionService.exportPositionHistory(assetId, from, to, output);
+        return Response.ok(trajectory).build();
     }
 }
@@ -0,0 +1,85 @@
+package com.geotrack.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geotrack.api.model.GeofenceEntity;
+import com.geotrack.common.event.GeofenceChanged;
+import io.quarkus.logging.Log;
+import io.smallrye.reactive.messaging.kafka.KafkaRecord;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.reactive.messaging.Channel;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.locationtech.jts.io.WKTWriter;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes geofence edits to the 'geofence.changes' topic so processing
+ * instances can apply them without reloading every fence.
+ * <p>
+ * Records are keyed by geofence ID, keeping each fence's changes in order.
+ * <p>
+ * A change is captured from the entity inside the caller's transaction but only
+ * sent once that transaction commits, so a rolled-back edit is never broadcast
+ * and processing never sees a fence PostGIS does not hold. Send failures are
+ * logged; instances that miss a change pick it up on their next bulk load.
+ */
+@ApplicationScoped
+public class GeofenceChangePublisher {
+
+    @Inject
+    @Channel("geofence-changes")
+    Emitter<String> changeEmitter;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Event<GeofenceChanged> committedChanges;
+
+    public void publishUpserted(GeofenceEntity entity) {
+        publish(GeofenceChanged.upserted(
+                entity.id, entity.name, entity.fenceType,
+                new WKTWriter().write(entity.geometry),
+                entity.bufferMetres != null ? entity.bufferMetres : 0.0,
+                entity.alertOnEnter, entity.alertOnExit,
+                Set.copyOf(entity.assetTypes), Set.copyOf(entity.positionSources),
+                entity.dwellMinutes,
+                entity.circle()
+        ));
+    }
+
+    public void publishDeactivated(GeofenceEntity entity) {
+        publish(GeofenceChanged.deactivated(entity.id));
+    }
+
+    private void publish(GeofenceChanged change) {
+        // Delivered to onCommitted once the current transaction commits, or at once outside one
+        committedChanges.fire(change);
+    }
+
+    void onCommitted(@Observes(during = TransactionPhase.AFTER_SUCCESS) GeofenceChanged change) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            Log.errorf(e, "Failed to serialise GeofenceChanged event");
+            return;
+        }
+        changeEmitter.send(KafkaRecord.of(change.geofenceId().toString(), json)
+                .withAck(() -> {
+                    Log.infof("Published geofence %s: %s", change.changeType(), change.geofenceId());
+                    return CompletableFuture.completedFuture(null);
+                })
+                .withNack(failure -> {
+                    Log.errorf(failure, "Failed to publish geofence %s: %s",
+                            change.changeType(), change.geofenceId());
+                    return CompletableFuture.completedFuture(null);
+                }));
+    }
+}
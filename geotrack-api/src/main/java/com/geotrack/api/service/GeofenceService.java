@@ -5,25 +5,36 @@ import com.geotrack.api.dto.GeofenceResponse;
 import com.geotrack.api.mapper.GeofenceMapper;
 import com.geotrack.api.model.GeofenceEntity;
 import com.geotrack.api.repository.GeofenceRepository;
+import com.geotrack.common.model.AssetType;
+import com.geotrack.common.model.Circle;
 import com.geotrack.common.spatial.SpatialEngine;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
 
 @ApplicationScoped
 public class GeofenceService {
 
+    private static final List<AssetType> DETECTABLE_ASSET_TYPES = Arrays.stream(AssetType.values())
+            .filter(AssetType::isDetectable)
+            .toList();
+
     private final GeofenceRepository geofenceRepository;
     private final GeofenceMapper geofenceMapper;
+    private final GeofenceChangePublisher changePublisher;
     private final SpatialEngine spatialEngine;
 
     @Inject
-    public GeofenceService(GeofenceRepository geofenceRepository, GeofenceMapper geofenceMapper) {
+    public GeofenceService(GeofenceRepository geofenceRepository, GeofenceMapper geofenceMapper,
+                           GeofenceChangePublisher changePublisher) {
         this.geofenceRepository = geofenceRepository;
         this.geofenceMapper = geofenceMapper;
+        this.changePublisher = changePublisher;
         this.spatialEngine = new SpatialEngine();
     }
 
@@ -51,11 +62,33 @@ public class GeofenceService {
         entity.name = request.name();
         entity.description = request.description();
         entity.fenceType = request.fenceType();
-        entity.geometry = spatialEngine.createPolygon(request.coordinates());
+        if ((request.coordinates() == null) == (request.circle() == null)) {
+            throw new IllegalArgumentException("A geofence needs either polygon coordinates or a circle");
+        }
+        for (AssetType assetType : request.assetTypes()) {
+            if (!assetType.isDetectable()) {
+                throw new IllegalArgumentException("Geofences cannot be restricted to asset type " + assetType
+                        + ": it cannot be told from a position. Supported: " + DETECTABLE_ASSET_TYPES);
+            }
+        }
+        Circle circle = request.circle();
+        if (circle != null) {
+            entity.geometry = spatialEngine.createCircularFence(
+                    circle.longitude(), circle.latitude(), circle.radiusMetres());
+            entity.centre = spatialEngine.createPoint(circle.longitude(), circle.latitude());
+            entity.radiusMetres = circle.radiusMetres();
+        } else {
+            entity.geometry = spatialEngine.createPolygon(request.coordinates());
+        }
         entity.alertOnEnter = request.alertOnEnter();
         entity.alertOnExit = request.alertOnExit();
+        entity.assetTypes = new HashSet<>(request.assetTypes());
+        entity.positionSources = new HashSet<>(request.positionSources());
+        entity.dwellMinutes = request.dwellMinutes();
+        entity.bufferMetres = request.bufferMetres() != null ? request.bufferMetres() : 0.0;
 
         geofenceRepository.persist(entity);
+        changePublisher.publishUpserted(entity);
         return geofenceMapper.toResponse(entity);
     }
 
@@ -65,5 +98,6 @@ public class GeofenceService {
                 .orElseThrow(() -> new RuntimeException("Geofence not found: " + id));
         entity.active = false;
         geofenceRepository.persist(entity);
+        changePublisher.publishDeactivated(entity);
     }
 }
@@ -5,6 +5,9 @@ import com.geotrack.api.dto.SubmitPositionRequest;
 import com.geotrack.api.mapper.PositionMapper;
 import com.geotrack.api.model.PositionEntity;
 import com.geotrack.api.repository.PositionRepository;
+import com.geotrack.common.codec.TrajectoryCodec;
+import com.geotrack.common.codec.TrajectoryWriter;
+import com.geotrack.common.spatial.SpatialEngine;
 import com.geotrack.common.validation.CoordinateValidator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.Counter;
@@ -14,9 +17,14 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Business logic for position ingestion and retrieval.
@@ -30,6 +38,7 @@ public class PositionService {
     private final PositionCacheService cacheService;
     private final ObjectMapper objectMapper;
     private final Counter positionsProcessed;
+    private final SpatialEngine spatialEngine;
 
     @Inject
     public PositionService(PositionRepository positionRepository, PositionMapper positionMapper,
@@ -42,6 +51,7 @@ public class PositionService {
         this.positionsProcessed = Counter.builder("geotrack.positions.processed")
                 .description("Total positions processed")
                 .register(meterRegistry);
+        this.spatialEngine = new SpatialEngine();
     }
 
     @Transactional
@@ -94,21 +104,92 @@ public class PositionService {
     }
 
     public List<PositionResponse> getPositionHistory(String assetIdStr, Instant from, Instant to, int limit) {
+        return getPositionHistory(assetIdStr, from, to, limit, null, null);
+    }
+
+    /**
+     * Position history, optionally simplified for display: points within
+     * {@code toleranceMetres} of the simplified trail are dropped, then the
+     * least significant until at most {@code maxPoints} remain. Either may be
+     * null; with both null the raw history is returned.
+     */
+    public List<PositionResponse> getPositionHistory(String assetIdStr, Instant from, Instant to, int limit,
+                                                     Double toleranceMetres, Integer maxPoints) {
+        if (from == null) from = Instant.now().minusSeconds(86400); // Default: last 24h
+        if (to == null) to = Instant.now();
+
+        UUID assetId = toAssetUuid(assetIdStr);
+        List<PositionResponse> history = positionRepository.findByAssetAndTimeRange(assetId, from, to, limit)
+                .stream()
+                .map(positionMapper::toResponse)
+                .toList();
+        if (toleranceMetres == null && maxPoints == null) {
+            return history;
+        }
+        return simplify(history,
+                toleranceMetres != null ? toleranceMetres : 0,
+                maxPoints != null ? maxPoints : Integer.MAX_VALUE);
+    }
+
+    /**
+     * Writes an asset's full position history between two instants to
+     * {@code output} in {@link TrajectoryCodec} form, oldest first. Rows are
+     * streamed from the database and encoded as they arrive, so the range is
+     * never held in memory.
+     *
+     * @return Number of positions written
+     */
+    @Transactional
+    public int exportPositionHistory(String assetIdStr, Instant from, Instant to, OutputStream output)
+            throws IOException {
         if (from == null) from = Instant.now().minusSeconds(86400); // Default: last 24h
         if (to == null) to = Instant.now();
 
-        // Try parsing as UUID first; if not a UUID, derive one from the string
-        // (same approach as WebSocketBridge for simulator asset IDs like "TYNE-BUS-01")
-        UUID assetId;
+        TrajectoryWriter writer = new TrajectoryWriter(output, assetIdStr, null);
+        try (Stream<PositionEntity> rows = positionRepository.streamByAssetAndTimeRange(
+                toAssetUuid(assetIdStr), from, to)) {
+            Iterator<PositionEntity> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                PositionEntity row = iterator.next();
+                writer.write(row.timestamp, row.getLatitude(), row.getLongitude(),
+                        orZero(row.altitude), orZero(row.speed), orZero(row.heading));
+                // Keep the persistence context from growing with the export
+                positionRepository.getEntityManager().detach(row);
+            }
+        }
+        writer.flush();
+        return writer.count();
+    }
+
+    /**
+     * Try parsing as UUID first; if not a UUID, derive one from the string
+     * (same approach as WebSocketBridge for simulator asset IDs like "TYNE-BUS-01")
+     */
+    private static UUID toAssetUuid(String assetIdStr) {
         try {
-            assetId = UUID.fromString(assetIdStr);
+            return UUID.fromString(assetIdStr);
         } catch (IllegalArgumentException e) {
-            assetId = UUID.nameUUIDFromBytes(assetIdStr.getBytes());
+            return UUID.nameUUIDFromBytes(assetIdStr.getBytes());
         }
+    }
 
-        return positionRepository.findByAssetAndTimeRange(assetId, from, to, limit)
-                .stream()
-                .map(positionMapper::toResponse)
-                .toList();
+    private static double orZero(Double value) {
+        return value != null ? value : 0;
+    }
+
+    private List<PositionResponse> simplify(List<PositionResponse> history, double toleranceMetres, int maxPoints) {
+        int count = history.size();
+        double[] longitudes = new double[count];
+        double[] latitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            longitudes[i] = history.get(i).longitude();
+            latitudes[i] = history.get(i).latitude();
+        }
+        int[] kept = spatialEngine.simplify(longitudes, latitudes, count, toleranceMetres, maxPoints);
+        List<PositionResponse> simplified = new ArrayList<>(kept.length);
+        for (int index : kept) {
+            simplified.add(history.get(index));
+        }
+        return simplified;
     }
 }
@@ -1,8 +1,14 @@
 package com.geotrack.api.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.geotrack.api.model.PositionEntity;
 import com.geotrack.api.repository.PositionRepository;
 import com.geotrack.api.resource.TrackingWebSocket;
+import com.geotrack.common.codec.BinaryCodec;
+import com.geotrack.common.event.PositionUpdated;
+import com.geotrack.common.event.TrackingEvent;
+import com.geotrack.common.model.Position;
 import io.quarkus.logging.Log;
 import io.smallrye.reactive.messaging.annotations.Blocking;
 import io.vertx.core.json.JsonObject;
@@ -11,6 +17,7 @@ import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -25,18 +32,26 @@ import java.util.UUID;
  *   → Processing Service → Kafka (position.processed / alert.geofence)
  *   → THIS BRIDGE → PostGIS + WebSocket → Angular Map
  * </pre>
+ * Records may be JSON or {@link BinaryCodec} binary, told apart by their first
+ * byte. JSON is forwarded to the browser as-is; binary events are decoded and
+ * re-rendered as the same JSON, so clients never see the difference. A record
+ * that cannot be decoded is logged and skipped, never allowed to fail the
+ * channel and stop the bridge for every client.
  */
 @ApplicationScoped
 public class WebSocketBridge {
 
     private final TrackingWebSocket trackingWebSocket;
     private final PositionRepository positionRepository;
+    private final ObjectMapper objectMapper;
 
     @Inject
     public WebSocketBridge(TrackingWebSocket trackingWebSocket,
-                           PositionRepository positionRepository) {
+                           PositionRepository positionRepository,
+                           ObjectMapper objectMapper) {
         this.trackingWebSocket = trackingWebSocket;
         this.positionRepository = positionRepository;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -45,20 +60,36 @@ public class WebSocketBridge {
     @Incoming("ws-positions")
     @Blocking
     @Transactional
-    public void onProcessedPosition(String payload) {
+    public void onProcessedPosition(byte[] payload) {
         Log.debugf("Broadcasting position to %d WebSocket clients",
                 trackingWebSocket.getConnectionCount());
 
+        PositionUpdated decoded;
+        String json;
+        try {
+            decoded = BinaryCodec.isBinary(payload)
+                    ? (PositionUpdated) BinaryCodec.decodeEvent(payload)
+                    : null;
+            json = decoded != null ? toJson(decoded) : new String(payload, StandardCharsets.UTF_8);
+        } catch (RuntimeException e) {
+            Log.errorf(e, "Skipping undecodable processed position (%d bytes)", payload.length);
+            return;
+        }
+
         // Persist to PostGIS for historical queries and initial load
         try {
-            persistPosition(payload);
+            if (decoded != null) {
+                persistPosition(decoded);
+            } else {
+                persistPosition(json);
+            }
         } catch (Exception e) {
             Log.warnf("Failed to persist position: %s", e.getMessage());
         }
 
         String wsMessage = """
                 {"type":"POSITION_UPDATED","payload":%s}
-                """.formatted(payload).trim();
+                """.formatted(json).trim();
 
         trackingWebSocket.broadcast(wsMessage);
     }
@@ -68,17 +99,39 @@ public class WebSocketBridge {
      */
     @Incoming("ws-alerts")
     @Blocking
-    public void onGeofenceAlert(String payload) {
+    public void onGeofenceAlert(byte[] payload) {
         Log.warnf("Broadcasting alert to %d WebSocket clients",
                 trackingWebSocket.getConnectionCount());
 
+        String json;
+        String type;
+        try {
+            if (BinaryCodec.isBinary(payload)) {
+                TrackingEvent event = BinaryCodec.decodeEvent(payload);
+                json = toJson(event);
+                type = messageType(event.getClass().getSimpleName());
+            } else {
+                json = new String(payload, StandardCharsets.UTF_8);
+                type = messageType(new JsonObject(json).getString("eventType"));
+            }
+        } catch (RuntimeException e) {
+            Log.errorf(e, "Skipping undecodable geofence alert (%d bytes)", payload.length);
+            return;
+        }
+
         String wsMessage = """
-                {"type":"GEOFENCE_BREACHED","payload":%s}
-                """.formatted(payload).trim();
+                {"type":"%s","payload":%s}
+                """.formatted(type, json).trim();
 
         trackingWebSocket.broadcast(wsMessage);
     }
 
+    private void persistPosition(PositionUpdated event) {
+        Position position = event.position();
+        persistPosition(event.assetId(), position.latitude(), position.longitude(),
+                position.altitude(), position.speed(), position.heading(), position.timestamp());
+    }
+
     private void persistPosition(String payload) {
         JsonObject json = new JsonObject(payload);
         String assetId = json.getString("assetId");
@@ -99,6 +152,11 @@ public class WebSocketBridge {
 
         Instant timestamp = ts != null ? Instant.parse(ts) : Instant.now();
 
+        persistPosition(assetId, latitude, longitude, altitude, speed, heading, timestamp);
+    }
+
+    private void persistPosition(String assetId, double latitude, double longitude, double altitude,
+                                 double speed, double heading, Instant timestamp) {
         PositionEntity entity = PositionEntity.fromCoordinates(
                 UUID.nameUUIDFromBytes(assetId.getBytes()),
                 longitude, latitude, timestamp
@@ -111,4 +169,29 @@ public class WebSocketBridge {
         positionRepository.persist(entity);
         Log.debugf("Persisted position for %s at [%.6f, %.6f]", assetId, latitude, longitude);
     }
+
+    /**
+     * WebSocket message type for an alert, from the event's {@code eventType}.
+     * Records from producers that predate {@code eventType} carry none and
+     * keep the breach type they were always sent with.
+     */
+    static String messageType(String eventType) {
+        return switch (eventType == null ? "" : eventType) {
+            case "GeofenceApproached" -> "GEOFENCE_APPROACHED";
+            case "GeofenceExited" -> "GEOFENCE_EXITED";
+            case "GeofenceDwellExceeded" -> "GEOFENCE_DWELL";
+            case "SpeedLimitExceeded" -> "SPEED_EXCEEDED";
+            case "AssetOffline" -> "ASSET_OFFLINE";
+            default -> "GEOFENCE_BREACHED";
+        };
+    }
+
+    /** A decoded binary event as the JSON processing would otherwise have published */
+    private String toJson(TrackingEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render " + event.getClass().getSimpleName(), e);
+        }
+    }
 }
@@ -0,0 +1,8 @@
+-- V3: Geofence applicability
+-- Fences can be limited to particular asset types (e.g. harbour zones for
+-- VESSELs) and/or position sources (e.g. ADS_B for airport approaches).
+-- Stored as JSON arrays of enum names; an empty array means "applies to all".
+
+ALTER TABLE geofences
+    ADD COLUMN asset_types JSONB NOT NULL DEFAULT '[]'::jsonb,
+    ADD COLUMN position_sources JSONB NOT NULL DEFAULT '[]'::jsonb;
@@ -0,0 +1,6 @@
+-- V4: Geofence dwell alerts
+-- Minutes an asset may stay inside a fence before a dwell (loiter) alert is
+-- raised. NULL means the fence never raises dwell alerts.
+
+ALTER TABLE geofences
+    ADD COLUMN dwell_minutes INTEGER CHECK (dwell_minutes > 0);
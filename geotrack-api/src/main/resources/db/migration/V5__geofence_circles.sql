@@ -0,0 +1,9 @@
+-- V5: Native circular geofences
+-- A circle keeps its centre and ground radius so it can be evaluated by
+-- distance. The geometry column still holds its polygon outline, for maps and
+-- the spatial index. Both columns are NULL for polygon fences.
+
+ALTER TABLE geofences
+    ADD COLUMN centre GEOMETRY(Point, 4326),
+    ADD COLUMN radius_metres DOUBLE PRECISION CHECK (radius_metres > 0),
+    ADD CONSTRAINT geofences_circle_complete CHECK ((centre IS NULL) = (radius_metres IS NULL));
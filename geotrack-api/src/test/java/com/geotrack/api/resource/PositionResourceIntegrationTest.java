@@ -1,13 +1,18 @@
 package com.geotrack.api.resource;
 
+import com.geotrack.common.codec.TrajectoryCodec;
+import com.geotrack.common.model.Position;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
 import org.junit.jupiter.api.*;
 
 import java.time.Instant;
+import java.util.List;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Integration tests for Position API endpoints.
@@ -148,4 +153,64 @@ class PositionResourceIntegrationTest {
             .then()
                 .statusCode(400);
     }
+
+    @Test
+    @Order(7)
+    @DisplayName("GET /api/v1/positions/history — should cap a simplified history at maxPoints")
+    void shouldSimplifyPositionHistory() {
+        given()
+                .queryParam("assetId", assetId)
+                .queryParam("maxPoints", 2)
+                .queryParam("tolerance", 5)
+            .when()
+                .get("/api/v1/positions/history")
+            .then()
+                .statusCode(200)
+                .body("$.size()", allOf(greaterThanOrEqualTo(1), lessThanOrEqualTo(2)));
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("GET /api/v1/assets/{id}/positions — should reject a point budget under two")
+    void shouldRejectTinyPointBudget() {
+        given()
+                .queryParam("maxPoints", 1)
+            .when()
+                .get("/api/v1/assets/{id}/positions", assetId)
+            .then()
+                .statusCode(400);
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("GET /api/v1/positions/history/export — should export the history as a trajectory")
+    void shouldExportTrajectory() {
+        byte[] trajectory = given()
+                .queryParam("assetId", assetId)
+            .when()
+                .get("/api/v1/positions/history/export")
+            .then()
+                .statusCode(200)
+                .contentType(TrajectoryCodec.MEDIA_TYPE)
+            .extract()
+                .asByteArray();
+
+        List<Position> positions = TrajectoryCodec.decode(trajectory);
+        assertEquals(2, positions.size());
+        assertEquals(assetId, positions.get(0).assetId());
+        assertTrue(!positions.get(1).timestamp().isBefore(positions.get(0).timestamp()), "Oldest first");
+        assertEquals(54.9783, positions.get(0).latitude(), 1e-6);
+        assertEquals(45.0, positions.get(0).speed(), 0.05);
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("GET /api/v1/positions/history/export — should require an asset ID")
+    void shouldRequireAssetIdForExport() {
+        given()
+            .when()
+                .get("/api/v1/positions/history/export")
+            .then()
+                .statusCode(400);
+    }
 }
@@ -5,6 +5,8 @@ import com.geotrack.api.dto.GeofenceResponse;
 import com.geotrack.api.mapper.GeofenceMapper;
 import com.geotrack.api.model.GeofenceEntity;
 import com.geotrack.api.repository.GeofenceRepository;
+import com.geotrack.common.model.AssetType;
+import com.geotrack.common.model.Circle;
 import com.geotrack.common.model.FenceType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -22,6 +24,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -36,6 +39,9 @@ class GeofenceServiceTest {
     @Mock
     GeofenceRepository geofenceRepository;
 
+    @Mock
+    GeofenceChangePublisher changePublisher;
+
     GeofenceService geofenceService;
 
     private static final GeometryFactory GF = new GeometryFactory(new PrecisionModel(), 4326);
@@ -44,7 +50,7 @@ class GeofenceServiceTest {
 
     @BeforeEach
     void setUp() {
-        geofenceService = new GeofenceService(geofenceRepository, geofenceMapper);
+        geofenceService = new GeofenceService(geofenceRepository, geofenceMapper, changePublisher);
     }
 
     private GeofenceEntity makeEntity(String name, FenceType type, boolean active) {
@@ -148,7 +154,8 @@ class GeofenceServiceTest {
 
             var request = new CreateGeofenceRequest(
                     "Newcastle Centre", "City centre zone",
-                    FenceType.INCLUSION, coords, true, true);
+                    FenceType.INCLUSION, coords, true, true,
+                    Set.of(AssetType.VESSEL), null, 30, 250.0, null);
 
             doAnswer(inv -> {
                 GeofenceEntity e = inv.getArgument(0);
@@ -165,6 +172,53 @@ class GeofenceServiceTest {
             verify(geofenceRepository).persist(captor.capture());
             assertThat(captor.getValue().geometry).isNotNull();
             assertThat(captor.getValue().geometry).isInstanceOf(Polygon.class);
+            assertThat(captor.getValue().assetTypes).containsExactly(AssetType.VESSEL);
+            assertThat(captor.getValue().positionSources).isEmpty();
+            assertThat(captor.getValue().dwellMinutes).isEqualTo(30);
+            assertThat(captor.getValue().bufferMetres).isEqualTo(250.0);
+            verify(changePublisher).publishUpserted(captor.getValue());
+        }
+
+        @Test
+        @DisplayName("creates circular geofence keeping its centre and radius")
+        void createsCircle() {
+            var request = new CreateGeofenceRequest(
+                    "Depot", null, FenceType.INCLUSION, null, true, true,
+                    null, null, null, null, new Circle(-1.6131, 54.9738, 500));
+
+            GeofenceResponse result = geofenceService.create(request);
+
+            ArgumentCaptor<GeofenceEntity> captor = ArgumentCaptor.forClass(GeofenceEntity.class);
+            verify(geofenceRepository).persist(captor.capture());
+            assertThat(captor.getValue().radiusMetres).isEqualTo(500.0);
+            assertThat(captor.getValue().centre.getX()).isEqualTo(-1.6131);
+            assertThat(captor.getValue().geometry.contains(captor.getValue().centre)).isTrue();
+            assertThat(result.circle()).isEqualTo(new Circle(-1.6131, 54.9738, 500));
+        }
+
+        @Test
+        @DisplayName("rejects a request with both or neither of coordinates and circle")
+        void rejectsAmbiguousShape() {
+            var neither = new CreateGeofenceRequest(
+                    "Depot", null, FenceType.INCLUSION, null, true, true, null, null, null, null, null);
+
+            assertThatThrownBy(() -> geofenceService.create(neither))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verifyNoInteractions(geofenceRepository, changePublisher);
+        }
+
+        @Test
+        @DisplayName("rejects an asset type that cannot be told from a position")
+        void rejectsUndetectableAssetType() {
+            var vehiclesOnly = new CreateGeofenceRequest(
+                    "Depot", null, FenceType.INCLUSION, null, true, true,
+                    Set.of(AssetType.VESSEL, AssetType.VEHICLE), null, null, null, new Circle(-1.6131, 54.9738, 500));
+
+            assertThatThrownBy(() -> geofenceService.create(vehiclesOnly))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("VEHICLE")
+                    .hasMessageContaining("[VESSEL, AIRCRAFT]");
+            verifyNoInteractions(geofenceRepository, changePublisher);
         }
     }
 
@@ -182,6 +236,7 @@ class GeofenceServiceTest {
 
             assertThat(entity.active).isFalse();
             verify(geofenceRepository).persist(entity);
+            verify(changePublisher).publishDeactivated(entity);
         }
 
         @Test
@@ -192,6 +247,7 @@ class GeofenceServiceTest {
 
             assertThatThrownBy(() -> geofenceService.delete(id))
                     .isInstanceOf(RuntimeException.class);
+            verifyNoInteractions(changePublisher);
         }
     }
 }
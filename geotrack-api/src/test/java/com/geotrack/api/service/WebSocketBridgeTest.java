@@ -0,0 +1,137 @@
+package com.geotrack.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geotrack.api.model.PositionEntity;
+import com.geotrack.api.repository.PositionRepository;
+import com.geotrack.api.resource.TrackingWebSocket;
+import com.geotrack.common.codec.BinaryCodec;
+import com.geotrack.common.codec.TrackingEventSerializer;
+import com.geotrack.common.event.GeofenceApproached;
+import com.geotrack.common.event.GeofenceBreached;
+import com.geotrack.common.event.GeofenceDwellExceeded;
+import com.geotrack.common.event.PositionUpdated;
+import com.geotrack.common.model.Position;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WebSocketBridge")
+class WebSocketBridgeTest {
+
+    private static final Position POSITION =
+            Position.of("VESSEL-001", 54.9783, -1.6178, Instant.parse("2025-06-01T12:00:00Z"));
+
+    @Mock
+    TrackingWebSocket trackingWebSocket;
+
+    @Mock
+    PositionRepository positionRepository;
+
+    WebSocketBridge bridge;
+
+    @BeforeEach
+    void setUp() {
+        bridge = new WebSocketBridge(trackingWebSocket, positionRepository,
+                new ObjectMapper().findAndRegisterModules());
+    }
+
+    private static GeofenceBreached breach() {
+        return GeofenceBreached.create("VESSEL-001", UUID.randomUUID(), "Tyne Harbour", POSITION);
+    }
+
+    @Nested
+    @DisplayName("onProcessedPosition")
+    class OnProcessedPosition {
+
+        @Test
+        @DisplayName("persists and broadcasts a binary position")
+        void broadcastsBinaryPosition() {
+            bridge.onProcessedPosition(BinaryCodec.encode(PositionUpdated.create(POSITION, null)));
+
+            ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+            verify(trackingWebSocket).broadcast(message.capture());
+            assertThat(message.getValue()).startsWith("{\"type\":\"POSITION_UPDATED\"").contains("VESSEL-001");
+            verify(positionRepository).persist(any(PositionEntity.class));
+        }
+
+        @Test
+        @DisplayName("skips a truncated binary record without throwing")
+        void skipsTruncatedRecord() {
+            byte[] encoded = BinaryCodec.encode(PositionUpdated.create(POSITION, null));
+
+            bridge.onProcessedPosition(Arrays.copyOf(encoded, encoded.length / 2));
+
+            verifyNoInteractions(positionRepository);
+            verify(trackingWebSocket, never()).broadcast(any());
+        }
+
+        @Test
+        @DisplayName("skips a binary event that is not a position")
+        void skipsWrongEventType() {
+            bridge.onProcessedPosition(BinaryCodec.encode(breach()));
+
+            verifyNoInteractions(positionRepository);
+            verify(trackingWebSocket, never()).broadcast(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("onGeofenceAlert")
+    class OnGeofenceAlert {
+
+        @Test
+        @DisplayName("types a binary alert by its event class")
+        void typesBinaryAlert() {
+            bridge.onGeofenceAlert(BinaryCodec.encode(
+                    GeofenceApproached.create("VESSEL-001", UUID.randomUUID(), "Tyne Harbour", POSITION)));
+
+            ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+            verify(trackingWebSocket).broadcast(message.capture());
+            assertThat(message.getValue()).startsWith("{\"type\":\"GEOFENCE_APPROACHED\"");
+        }
+
+        @Test
+        @DisplayName("types a JSON alert by its eventType")
+        void typesJsonAlert() {
+            byte[] payload;
+            try (TrackingEventSerializer serializer = new TrackingEventSerializer()) {
+                serializer.configure(Map.of(), false);
+                payload = serializer.serialize("alert.geofence", GeofenceDwellExceeded.create(
+                        "VESSEL-001", UUID.randomUUID(), "Tyne Harbour",
+                        Instant.parse("2025-06-01T11:00:00Z"), Duration.ofMinutes(30)));
+            }
+
+            bridge.onGeofenceAlert(payload);
+
+            ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+            verify(trackingWebSocket).broadcast(message.capture());
+            assertThat(message.getValue()).startsWith("{\"type\":\"GEOFENCE_DWELL\"");
+        }
+
+        @Test
+        @DisplayName("skips an undecodable binary alert without throwing")
+        void skipsUndecodableAlert() {
+            byte[] encoded = BinaryCodec.encode(breach());
+
+            bridge.onGeofenceAlert(Arrays.copyOf(encoded, 4));
+
+            verify(trackingWebSocket, never()).broadcast(any());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.geotrack.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entry point of {@code benchmarks.jar}: the standard JMH command line, except
+ * that results are also written as JSON unless {@code -rf}/{@code -rff} say
+ * otherwise, so every run leaves a machine-readable record to compare
+ * releases against:
+ * <pre>
+ * java -jar geotrack-benchmarks/target/benchmarks.jar                 # everything
+ * java -jar geotrack-benchmarks/target/benchmarks.jar CheckPosition   # a regex, as with JMH
+ * </pre>
+ * Files go to {@code jmh-results/<timestamp>.json} under the working directory,
+ * or to the directory named by {@code -Dgeotrack.benchmarks.results}.
+ */
+public final class BenchmarkRunner {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine;
+        try {
+            commandLine = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            // Listing and help are JMH's business
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue() && !commandLine.getResult().hasValue()) {
+            Path directory = Path.of(System.getProperty("geotrack.benchmarks.results", "jmh-results"));
+            Files.createDirectories(directory);
+            Path file = directory.resolve(LocalDateTime.now().format(TIMESTAMP) + ".json");
+            options.resultFormat(ResultFormatType.JSON).result(file.toString());
+            System.out.println("Writing results to " + file.toAbsolutePath());
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package com.geotrack.benchmarks.geofence;
+
+import com.geotrack.common.model.Circle;
+import com.geotrack.common.model.Position;
+import com.geotrack.common.model.PositionSource;
+import com.geotrack.common.spatial.SpatialEngine;
+import com.geotrack.processing.geofence.GeofenceEngine;
+import org.locationtech.jts.geom.Polygon;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GeofenceEngine#checkPosition} end to end — index query, containment
+ * and per-asset state — as both the fence count and the tracked asset count grow.
+ * <p>
+ * Fences are small squares, one in five a circle, scattered across the UK;
+ * each asset moves in short hops around a home point in the same box, so
+ * assets keep crossing fence boundaries and the state store holds
+ * {@code assetCount} live entries.
+ * <pre>
+ * java -jar geotrack-benchmarks/target/benchmarks.jar CheckPositionBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckPositionBenchmark {
+
+    private static final double MIN_LON = -8.0;
+    private static final double MAX_LON = 1.8;
+    private static final double MIN_LAT = 50.0;
+    private static final double MAX_LAT = 59.0;
+    private static final double FENCE_SIZE_DEGREES = 0.05;
+    private static final double HOP_DEGREES = 0.02;
+    private static final int POSITION_COUNT = 16_384;
+
+    @Param({"100", "1000", "10000"})
+    int fenceCount;
+
+    @Param({"100", "10000"})
+    int assetCount;
+
+    private GeofenceEngine engine;
+    private Position[] positions;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        SpatialEngine spatial = new SpatialEngine();
+        SplittableRandom random = new SplittableRandom(42);
+        engine = new GeofenceEngine();
+
+        List<GeofenceEngine.Geofence> fences = new ArrayList<>(fenceCount);
+        for (int i = 0; i < fenceCount; i++) {
+            double lon = random.nextDouble(MIN_LON, MAX_LON - FENCE_SIZE_DEGREES);
+            double lat = random.nextDouble(MIN_LAT, MAX_LAT - FENCE_SIZE_DEGREES);
+            if (i % 5 == 0) {
+                Polygon outline = spatial.createCircularFence(lon, lat, 2000);
+                fences.add(new GeofenceEngine.Geofence(UUID.randomUUID(), "Depot " + i, outline)
+                        .withCircle(new Circle(lon, lat, 2000)));
+                continue;
+            }
+            Polygon fence = spatial.createPolygon(List.of(
+                    new double[]{lon, lat},
+                    new double[]{lon + FENCE_SIZE_DEGREES, lat},
+                    new double[]{lon + FENCE_SIZE_DEGREES, lat + FENCE_SIZE_DEGREES},
+                    new double[]{lon, lat + FENCE_SIZE_DEGREES}
+            ));
+            fences.add(new GeofenceEngine.Geofence(UUID.randomUUID(), "Fence " + i, fence));
+        }
+        engine.registerGeofences(fences);
+
+        double[] homeLon = new double[assetCount];
+        double[] homeLat = new double[assetCount];
+        for (int a = 0; a < assetCount; a++) {
+            homeLon[a] = random.nextDouble(MIN_LON, MAX_LON);
+            homeLat[a] = random.nextDouble(MIN_LAT, MAX_LAT);
+        }
+        positions = new Position[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            int a = i % assetCount;
+            positions[i] = new Position(UUID.randomUUID(), "ASSET-" + a,
+                    homeLat[a] + random.nextDouble(-HOP_DEGREES, HOP_DEGREES),
+                    homeLon[a] + random.nextDouble(-HOP_DEGREES, HOP_DEGREES),
+                    0, 0, 0, Instant.now(), PositionSource.GPS);
+        }
+        // Every asset has state before measurement starts
+        for (Position position : positions) {
+            engine.checkPosition(position);
+        }
+    }
+
+    @Benchmark
+    public List<GeofenceEngine.GeofenceTransition> checkPosition() {
+        cursor = (cursor + 1) & (POSITION_COUNT - 1);
+        return engine.checkPosition(positions[cursor]);
+    }
+}
@@ -0,0 +1,137 @@
+package com.geotrack.benchmarks.geofence;
+
+import com.geotrack.common.model.Position;
+import com.geotrack.common.model.PositionSource;
+import com.geotrack.common.spatial.SpatialEngine;
+import com.geotrack.processing.geofence.GeofenceEngine;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Linear fence scan vs STRtree-indexed lookup as the fence count grows.
+ * <p>
+ * Fences are small squares scattered across the UK bounding box; positions are
+ * drawn from the same box, so most points match zero or one fence — the shape
+ * of real traffic against depot and port zones.
+ * <pre>
+ * java -jar geotrack-benchmarks/target/benchmarks.jar GeofenceIndexBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeofenceIndexBenchmark {
+
+    private static final double MIN_LON = -8.0;
+    private static final double MAX_LON = 1.8;
+    private static final double MIN_LAT = 50.0;
+    private static final double MAX_LAT = 59.0;
+    private static final double FENCE_SIZE_DEGREES = 0.05;
+    private static final int POSITION_COUNT = 4096;
+
+    @Param({"10", "100", "1000", "5000"})
+    int fenceCount;
+
+    private final SpatialEngine spatial = new SpatialEngine();
+    private List<Polygon> fences;
+    private STRtree index;
+    private GeofenceEngine engine;
+    private Position[] positions;
+    private List<Position> positionBatch;
+    private Point[] points;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        fences = new ArrayList<>(fenceCount);
+        index = new STRtree();
+        engine = new GeofenceEngine();
+        List<GeofenceEngine.Geofence> registrations = new ArrayList<>(fenceCount);
+
+        for (int i = 0; i < fenceCount; i++) {
+            double lon = random.nextDouble(MIN_LON, MAX_LON - FENCE_SIZE_DEGREES);
+            double lat = random.nextDouble(MIN_LAT, MAX_LAT - FENCE_SIZE_DEGREES);
+            Polygon fence = spatial.createPolygon(List.of(
+                    new double[]{lon, lat},
+                    new double[]{lon + FENCE_SIZE_DEGREES, lat},
+                    new double[]{lon + FENCE_SIZE_DEGREES, lat + FENCE_SIZE_DEGREES},
+                    new double[]{lon, lat + FENCE_SIZE_DEGREES}
+            ));
+            fences.add(fence);
+            index.insert(fence.getEnvelopeInternal(), fence);
+            registrations.add(new GeofenceEngine.Geofence(UUID.randomUUID(), "Fence " + i, fence));
+        }
+        index.build();
+        engine.registerGeofences(registrations);
+
+        positions = new Position[POSITION_COUNT];
+        points = new Point[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            double lon = random.nextDouble(MIN_LON, MAX_LON);
+            double lat = random.nextDouble(MIN_LAT, MAX_LAT);
+            positions[i] = new Position(UUID.randomUUID(), "ASSET-" + (i % 256), lat, lon,
+                    0, 0, 0, Instant.now(), PositionSource.GPS);
+            points[i] = spatial.createPoint(lon, lat);
+        }
+        positionBatch = List.of(positions);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        Point point = nextPoint();
+        int matches = 0;
+        for (Polygon fence : fences) {
+            if (fence.contains(point)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int indexedLookup() {
+        Point point = nextPoint();
+        int matches = 0;
+        for (Object candidate : index.query(point.getEnvelopeInternal())) {
+            if (((Polygon) candidate).contains(point)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public void engineCheckPosition(Blackhole blackhole) {
+        blackhole.consume(engine.checkPosition(positions[nextIndex()]));
+    }
+
+    /** All 4096 positions (256 assets) per call; scores are per position */
+    @Benchmark
+    @OperationsPerInvocation(POSITION_COUNT)
+    public void engineCheckPositions(Blackhole blackhole) {
+        blackhole.consume(engine.checkPositions(positionBatch));
+    }
+
+    private Point nextPoint() {
+        return points[nextIndex()];
+    }
+
+    private int nextIndex() {
+        cursor = (cursor + 1) & (POSITION_COUNT - 1);
+        return cursor;
+    }
+}
@@ -0,0 +1,109 @@
+package com.geotrack.benchmarks.geofence;
+
+import com.geotrack.common.model.Position;
+import com.geotrack.common.model.PositionSource;
+import com.geotrack.common.spatial.SpatialEngine;
+import com.geotrack.processing.geofence.GeofenceEngine;
+import org.locationtech.jts.algorithm.locate.IndexedPointInAreaLocator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Location;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-check cost of a single detailed fence: raw {@code Polygon.contains}
+ * vs an indexed point-in-area locator built once up front.
+ * <p>
+ * The fence is a concave star outline of 500–5,000 vertices, matching the
+ * port and depot polygons seen in production. Half the positions fall inside
+ * the fence's bounding box, half outside, so the envelope fast-reject is exercised.
+ * {@code engineCheckPosition} runs with and without a 100 m cell cover.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PreparedFenceBenchmark {
+
+    private static final double CENTRE_LON = -1.44;
+    private static final double CENTRE_LAT = 55.01;
+    private static final int POSITION_COUNT = 1024;
+
+    @Param({"500", "5000"})
+    int vertexCount;
+
+    /** Engine cell-cover resolution; 0 = exact locator only */
+    @Param({"0", "100"})
+    double cellSizeMetres;
+
+    private Polygon fence;
+    private IndexedPointInAreaLocator locator;
+    private GeofenceEngine engine;
+    private Point[] points;
+    private Coordinate[] coordinates;
+    private Position[] positions;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        SpatialEngine spatial = new SpatialEngine();
+        List<double[]> ring = new ArrayList<>(vertexCount);
+        for (int i = 0; i < vertexCount; i++) {
+            double angle = 2 * Math.PI * i / vertexCount;
+            double radius = 0.02 + 0.01 * Math.cos(5 * angle);
+            ring.add(new double[]{
+                    CENTRE_LON + radius * Math.cos(angle),
+                    CENTRE_LAT + radius * Math.sin(angle)});
+        }
+        fence = spatial.createPolygon(ring);
+        locator = new IndexedPointInAreaLocator(fence);
+        engine = new GeofenceEngine(spatial, GeofenceEngine.Settings.DEFAULTS.withCellCover(cellSizeMetres, 65_536));
+        engine.registerGeofence(UUID.randomUUID(), "Port", fence);
+
+        SplittableRandom random = new SplittableRandom(42);
+        points = new Point[POSITION_COUNT];
+        coordinates = new Coordinate[POSITION_COUNT];
+        positions = new Position[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            // Even indices near the fence, odd indices well outside its envelope
+            double spread = (i % 2 == 0) ? 0.03 : 0.5;
+            double lon = CENTRE_LON + random.nextDouble(-spread, spread);
+            double lat = CENTRE_LAT + random.nextDouble(-spread, spread);
+            points[i] = spatial.createPoint(lon, lat);
+            coordinates[i] = new Coordinate(lon, lat);
+            positions[i] = new Position(UUID.randomUUID(), "ASSET-1", lat, lon,
+                    0, 0, 0, Instant.now(), PositionSource.GPS);
+        }
+    }
+
+    @Benchmark
+    public boolean rawContains() {
+        return fence.contains(points[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean indexedLocator() {
+        return locator.locate(coordinates[nextIndex()]) == Location.INTERIOR;
+    }
+
+    @Benchmark
+    public void engineCheckPosition(Blackhole blackhole) {
+        blackhole.consume(engine.checkPosition(positions[nextIndex()]));
+    }
+
+    private int nextIndex() {
+        cursor = (cursor + 1) & (POSITION_COUNT - 1);
+        return cursor;
+    }
+}
@@ -0,0 +1,117 @@
+package com.geotrack.benchmarks.geofence;
+
+import com.geotrack.common.model.Position;
+import com.geotrack.common.model.PositionSource;
+import com.geotrack.common.spatial.SpatialEngine;
+import com.geotrack.processing.geofence.GeofenceEngine;
+import com.geotrack.processing.geofence.GeofenceStateBackend;
+import com.geotrack.processing.geofence.RedisStateBackend;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.Request;
+import org.locationtech.jts.geom.Polygon;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch geofence throughput with state kept in memory vs shared through Redis.
+ * <p>
+ * Each call checks one Kafka-poll-sized batch of 512 positions from 128 assets
+ * against 1,000 fences. With Redis the batch adds one pipelined read (for
+ * assets whose near-cache lease has lapsed) and one pipelined write;
+ * {@code redis-no-near-cache} sets the lease to zero, so every batch pays both
+ * round trips. The Redis variants need a server, by default on localhost:
+ * <pre>
+ * docker compose up -d redis
+ * java -Dgeotrack.redis.url=redis://localhost:6379 -jar geotrack-benchmarks/target/benchmarks.jar StateBackendBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StateBackendBenchmark {
+
+    private static final double MIN_LON = -8.0;
+    private static final double MAX_LON = 1.8;
+    private static final double MIN_LAT = 50.0;
+    private static final double MAX_LAT = 59.0;
+    private static final double FENCE_SIZE_DEGREES = 0.05;
+    private static final int FENCE_COUNT = 1000;
+    private static final int BATCH_SIZE = 512;
+    private static final int ASSET_COUNT = 128;
+
+    @Param({"memory", "redis", "redis-no-near-cache"})
+    String backend;
+
+    private Vertx vertx;
+    private Redis redis;
+    private GeofenceEngine engine;
+    private List<Position> batch;
+
+    @Setup
+    public void setUp() {
+        SpatialEngine spatial = new SpatialEngine();
+        GeofenceEngine.Settings settings = GeofenceEngine.Settings.DEFAULTS;
+        GeofenceStateBackend stateBackend = null;
+        if (!backend.equals("memory")) {
+            vertx = Vertx.vertx();
+            redis = Redis.createClient(vertx, System.getProperty("geotrack.redis.url", "redis://localhost:6379"));
+            // Fail the run rather than measure a backend degrading on every call
+            redis.sendAndAwait(Request.cmd(Command.PING));
+            stateBackend = new RedisStateBackend(redis, Duration.ofMinutes(10));
+            if (backend.equals("redis-no-near-cache")) {
+                settings = settings.withNearCacheTtl(Duration.ZERO);
+            }
+        }
+        engine = new GeofenceEngine(spatial, settings, stateBackend);
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<GeofenceEngine.Geofence> fences = new ArrayList<>(FENCE_COUNT);
+        for (int i = 0; i < FENCE_COUNT; i++) {
+            double lon = random.nextDouble(MIN_LON, MAX_LON - FENCE_SIZE_DEGREES);
+            double lat = random.nextDouble(MIN_LAT, MAX_LAT - FENCE_SIZE_DEGREES);
+            Polygon fence = spatial.createPolygon(List.of(
+                    new double[]{lon, lat},
+                    new double[]{lon + FENCE_SIZE_DEGREES, lat},
+                    new double[]{lon + FENCE_SIZE_DEGREES, lat + FENCE_SIZE_DEGREES},
+                    new double[]{lon, lat + FENCE_SIZE_DEGREES}
+            ));
+            fences.add(new GeofenceEngine.Geofence(UUID.randomUUID(), "Fence " + i, fence));
+        }
+        engine.registerGeofences(fences);
+
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new Position(UUID.randomUUID(), "ASSET-" + (i % ASSET_COUNT),
+                    random.nextDouble(MIN_LAT, MAX_LAT), random.nextDouble(MIN_LON, MAX_LON),
+                    0, 0, 0, Instant.now(), PositionSource.GPS));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (redis != null) {
+            redis.close();
+            vertx.closeAndAwait();
+        }
+    }
+
+    /** Scores are per position */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void checkPositions(Blackhole blackhole) {
+        blackhole.consume(engine.checkPositions(batch));
+    }
+}
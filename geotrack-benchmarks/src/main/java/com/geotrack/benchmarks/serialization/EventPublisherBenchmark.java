@@ -0,0 +1,71 @@
+package com.geotrack.benchmarks.serialization;
+
+import com.geotrack.common.codec.TrackingEventSerializer;
+import com.geotrack.common.event.GeofenceBreached;
+import com.geotrack.common.event.PositionUpdated;
+import com.geotrack.common.model.Position;
+import com.geotrack.common.model.PositionSource;
+import com.geotrack.processing.publisher.EventPublisher;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialisation of the events {@link EventPublisher} sends: the
+ * {@code PositionUpdated} every processed position produces (with and without
+ * the previous position) and the {@code GeofenceBreached} raised on entries.
+ * <p>
+ * Measures the {@link TrackingEventSerializer} its channels use, in the
+ * default JSON format, rather than the publisher itself, whose
+ * {@code io.quarkus.logging.Log} calls only work once Quarkus has rewritten
+ * them at build time. {@link BinaryCodecBenchmark} compares the binary format.
+ * <pre>
+ * java -jar geotrack-benchmarks/target/benchmarks.jar EventPublisherBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventPublisherBenchmark {
+
+    private TrackingEventSerializer serializer;
+    private PositionUpdated update;
+    private PositionUpdated updateWithPrevious;
+    private GeofenceBreached breach;
+
+    @Setup
+    public void setUp() {
+        serializer = new TrackingEventSerializer();
+        serializer.configure(Map.of(), false);
+
+        Instant now = Instant.now();
+        Position previous = new Position(UUID.randomUUID(), "VESSEL-0042", 54.9783, -1.6178,
+                0, 12.5, 87.0, now.minusSeconds(10), PositionSource.AIS);
+        Position current = new Position(UUID.randomUUID(), "VESSEL-0042", 54.9785, -1.6150,
+                0, 12.7, 88.0, now, PositionSource.AIS);
+        update = PositionUpdated.create(current, null);
+        updateWithPrevious = PositionUpdated.create(current, previous);
+        breach = GeofenceBreached.create("VESSEL-0042", UUID.randomUUID(), "Tyne Harbour", current);
+    }
+
+    @Benchmark
+    public byte[] positionUpdated() {
+        return serializer.serialize("position.processed", update);
+    }
+
+    @Benchmark
+    public byte[] positionUpdatedWithPrevious() {
+        return serializer.serialize("position.processed", updateWithPrevious);
+    }
+
+    @Benchmark
+    public byte[] geofenceBreached() {
+        return serializer.serialize("alert.geofence", breach);
+    }
+}
@@ -0,0 +1,71 @@
+package com.geotrack.benchmarks.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geotrack.processing.consumer.PositionEventConsumer;
+import com.geotrack.processing.consumer.PositionEventConsumer.RawPositionEvent;
+import com.geotrack.processing.consumer.RawPositionEventReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a {@code position.raw} record as {@link PositionEventConsumer} does,
+ * with the {@code ObjectMapper} configured as Quarkus configures it.
+ * <p>
+ * Covers the consumer's {@link RawPositionEventReader} against the plain
+ * {@code objectMapper.readValue} it replaced, rather than {@code consume}
+ * itself, whose {@code io.quarkus.logging.Log} calls only work once Quarkus
+ * has rewritten them at build time.
+ * <pre>
+ * java -jar geotrack-benchmarks/target/benchmarks.jar PositionEventConsumerBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PositionEventConsumerBenchmark {
+
+    private static final int PAYLOAD_COUNT = 1024;
+
+    private ObjectMapper objectMapper;
+    private RawPositionEventReader reader;
+    private byte[][] payloads;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Json.objectMapper();
+        reader = new RawPositionEventReader(objectMapper);
+
+        // As published by the ingestion service and the simulator
+        SplittableRandom random = new SplittableRandom(42);
+        payloads = new byte[PAYLOAD_COUNT][];
+        for (int i = 0; i < PAYLOAD_COUNT; i++) {
+            payloads[i] = String.format(Locale.ROOT,
+                    "{\"assetId\":\"VESSEL-%04d\",\"latitude\":%.6f,\"longitude\":%.6f,\"altitude\":%.1f,"
+                            + "\"speed\":%.1f,\"heading\":%.1f,\"timestamp\":\"2025-06-01T12:%02d:%02d.%03dZ\","
+                            + "\"source\":\"AIS\"}",
+                    i % 256, random.nextDouble(50.0, 59.0), random.nextDouble(-8.0, 1.8),
+                    0.0, random.nextDouble(0, 30), random.nextDouble(0, 360),
+                    i % 60, (i * 7) % 60, i % 1000).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public RawPositionEvent parse() throws Exception {
+        cursor = (cursor + 1) & (PAYLOAD_COUNT - 1);
+        return objectMapper.readValue(payloads[cursor], RawPositionEvent.class);
+    }
+
+    @Benchmark
+    public RawPositionEvent parseStreaming() throws Exception {
+        cursor = (cursor + 1) & (PAYLOAD_COUNT - 1);
+        return reader.read(payloads[cursor]);
+    }
+}
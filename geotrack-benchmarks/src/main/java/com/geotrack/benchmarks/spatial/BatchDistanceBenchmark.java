@@ -0,0 +1,81 @@
+package com.geotrack.benchmarks.spatial;
+
+import com.geotrack.common.spatial.BatchDistance;
+import com.geotrack.common.spatial.DistanceStrategy;
+import com.geotrack.common.spatial.SpatialEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One reference point against a batch of latest positions: the Vector API
+ * kernels of {@link BatchDistance} against the scalar
+ * {@link SpatialEngine#distancesMetres} loop with the same strategy.
+ * <p>
+ * The fork enables {@code jdk.incubator.vector}; the setup fails if the
+ * kernels would silently fall back to scalar code, so the comparison is real.
+ * Points lie within a few hundred kilometres of Newcastle.
+ * <pre>
+ * java -jar geotrack-benchmarks/target/benchmarks.jar BatchDistanceBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class BatchDistanceBenchmark {
+
+    private static final double FROM_LON = -1.6178;
+    private static final double FROM_LAT = 54.9783;
+
+    @Param({"64", "4096", "65536"})
+    int count;
+
+    private final SpatialEngine spatial = new SpatialEngine();
+    private double[] longitudes;
+    private double[] latitudes;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        if (!BatchDistance.isVectorized()) {
+            throw new IllegalStateException("Vector API not enabled in the benchmark JVM");
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        longitudes = new double[count];
+        latitudes = new double[count];
+        out = new double[count];
+        for (int i = 0; i < count; i++) {
+            longitudes[i] = FROM_LON + random.nextDouble(-3, 3);
+            latitudes[i] = FROM_LAT + random.nextDouble(-2, 2);
+        }
+    }
+
+    @Benchmark
+    public double[] scalarHaversine() {
+        spatial.distancesMetres(FROM_LON, FROM_LAT, longitudes, latitudes, count, out, DistanceStrategy.HAVERSINE);
+        return out;
+    }
+
+    @Benchmark
+    public double[] vectorHaversine() {
+        BatchDistance.haversineMetres(FROM_LON, FROM_LAT, longitudes, latitudes, count, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] scalarEquirectangular() {
+        spatial.distancesMetres(FROM_LON, FROM_LAT, longitudes, latitudes, count, out,
+                DistanceStrategy.EQUIRECTANGULAR);
+        return out;
+    }
+
+    @Benchmark
+    public double[] vectorEquirectangular() {
+        BatchDistance.equirectangularMetres(FROM_LON, FROM_LAT, longitudes, latitudes, count, out);
+        return out;
+    }
+}
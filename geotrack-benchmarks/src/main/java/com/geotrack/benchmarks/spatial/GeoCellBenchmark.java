@@ -0,0 +1,69 @@
+package com.geotrack.benchmarks.spatial;
+
+import com.geotrack.common.spatial.GeoCell;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GeoCell} encoding throughput — one call per position when cells are
+ * used as Kafka, cache or shard keys — alongside the decode and neighbour
+ * lookups that grid aggregation adds on top.
+ * <p>
+ * Points are spread across the UK.
+ * <pre>
+ * java -jar geotrack-benchmarks/target/benchmarks.jar GeoCellBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeoCellBenchmark {
+
+    private static final int POINT_COUNT = 1024;
+
+    @Param({"12", "20", "29"})
+    int level;
+
+    private double[] longitudes;
+    private double[] latitudes;
+    private long[] cells;
+    private final long[] neighbours = new long[8];
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        longitudes = new double[POINT_COUNT];
+        latitudes = new double[POINT_COUNT];
+        cells = new long[POINT_COUNT];
+        for (int i = 0; i < POINT_COUNT; i++) {
+            longitudes[i] = random.nextDouble(-8.0, 1.8);
+            latitudes[i] = random.nextDouble(50.0, 59.0);
+            cells[i] = GeoCell.encode(longitudes[i], latitudes[i], level);
+        }
+    }
+
+    @Benchmark
+    public long encode() {
+        cursor = (cursor + 1) & (POINT_COUNT - 1);
+        return GeoCell.encode(longitudes[cursor], latitudes[cursor], level);
+    }
+
+    @Benchmark
+    public double decodeCentre() {
+        cursor = (cursor + 1) & (POINT_COUNT - 1);
+        return GeoCell.centreLongitude(cells[cursor]) + GeoCell.centreLatitude(cells[cursor]);
+    }
+
+    @Benchmark
+    public long[] neighbours() {
+        cursor = (cursor + 1) & (POINT_COUNT - 1);
+        GeoCell.neighbours(cells[cursor], neighbours);
+        return neighbours;
+    }
+}
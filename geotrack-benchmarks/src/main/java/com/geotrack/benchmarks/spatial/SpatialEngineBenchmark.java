@@ -0,0 +1,101 @@
+package com.geotrack.benchmarks.spatial;
+
+import com.geotrack.common.spatial.DistanceStrategy;
+import com.geotrack.common.spatial.SpatialEngine;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distance and route length — the per-position maths behind speed checks and
+ * route reconstruction — by Vincenty and by each cheaper {@link DistanceStrategy}.
+ * <p>
+ * Point pairs are a few kilometres apart around the UK, as between successive
+ * samples of one asset; routes are random walks of {@code routePoints} such hops.
+ * <pre>
+ * java -jar geotrack-benchmarks/target/benchmarks.jar SpatialEngineBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpatialEngineBenchmark {
+
+    private static final int PAIR_COUNT = 1024;
+    private static final double HOP_DEGREES = 0.05;
+
+    /** Only {@link #routeLengthMetres} is measured per route length */
+    @State(Scope.Benchmark)
+    public static class Route {
+
+        @Param({"100", "10000"})
+        int routePoints;
+
+        LineString line;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom random = new SplittableRandom(7);
+            Coordinate[] walk = new Coordinate[routePoints];
+            double lon = -1.6178;
+            double lat = 54.9783;
+            for (int i = 0; i < routePoints; i++) {
+                walk[i] = new Coordinate(lon, lat);
+                lon += random.nextDouble(-HOP_DEGREES, HOP_DEGREES);
+                lat += random.nextDouble(-HOP_DEGREES, HOP_DEGREES);
+            }
+            line = new SpatialEngine().getGeometryFactory().createLineString(walk);
+        }
+    }
+
+    /** Only {@link #distanceMetresWithStrategy} is measured per strategy */
+    @State(Scope.Benchmark)
+    public static class Strategy {
+
+        @Param({"VINCENTY", "HAVERSINE", "EQUIRECTANGULAR"})
+        DistanceStrategy strategy;
+    }
+
+    private final SpatialEngine spatial = new SpatialEngine();
+    private Point[] from;
+    private Point[] to;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        from = new Point[PAIR_COUNT];
+        to = new Point[PAIR_COUNT];
+        for (int i = 0; i < PAIR_COUNT; i++) {
+            double lon = random.nextDouble(-6.0, 1.0);
+            double lat = random.nextDouble(50.5, 58.0);
+            from[i] = spatial.createPoint(lon, lat);
+            to[i] = spatial.createPoint(lon + random.nextDouble(-HOP_DEGREES, HOP_DEGREES),
+                    lat + random.nextDouble(-HOP_DEGREES, HOP_DEGREES));
+        }
+    }
+
+    @Benchmark
+    public double distanceMetres() {
+        cursor = (cursor + 1) & (PAIR_COUNT - 1);
+        return spatial.distanceMetres(from[cursor], to[cursor]);
+    }
+
+    @Benchmark
+    public double routeLengthMetres(Route route) {
+        return spatial.routeLengthMetres(route.line);
+    }
+
+    @Benchmark
+    public double distanceMetresWithStrategy(Strategy strategy) {
+        cursor = (cursor + 1) & (PAIR_COUNT - 1);
+        return spatial.distanceMetres(from[cursor], to[cursor], strategy.strategy);
+    }
+}
@@ -0,0 +1,393 @@
+package com.geotrack.common.codec;
+
+import com.geotrack.common.event.*;
+import com.geotrack.common.model.Position;
+import com.geotrack.common.model.PositionSource;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Fixed-layout binary encoding of {@link Position} and the {@link TrackingEvent}
+ * records — the {@link WireFormat#BINARY} alternative to JSON on Kafka topics.
+ * <p>
+ * Every payload starts with a format version and a type byte. Fields follow in
+ * record-component order, big-endian, so a reader can find any numeric field of
+ * a position at a fixed offset:
+ * <pre>
+ *   0  byte    format version, currently {@value #VERSION}
+ *   1  byte    type: 0 = Position, 1–7 = TrackingEvent records, see {@link #typeOf}
+ *
+ * Position (70 bytes + asset ID):
+ *  +0  byte    flags: 1 = has id
+ *  +1  long×2  id, or zeros
+ * +17  double  latitude, longitude, altitude, speed, heading
+ * +57  long    timestamp epoch seconds
+ * +65  int     timestamp nanos
+ * +69  byte    source ordinal; 0xFF = none
+ * +70  string  asset ID
+ *
+ * TrackingEvent:
+ *  +0  long×2  event ID
+ * +16  long    occurred-at epoch seconds
+ * +24  int     occurred-at nanos
+ * +28  string  asset ID
+ *      …       the record's remaining components in order
+ * </pre>
+ * Strings are an unsigned short UTF-8 length (0xFFFF = null) then the bytes.
+ * Instants and Durations are seconds and nanos; positions nested in events are
+ * preceded by a presence byte. Event IDs, geofence IDs, instants and durations
+ * must not be null.
+ * <p>
+ * Versions stay below {@code 0x09}, the lowest byte a JSON document can start
+ * with, so {@link #isBinary} tells the two formats apart from the first byte.
+ * Decoding rejects versions it does not know rather than guessing.
+ */
+public final class BinaryCodec {
+
+    /** Current format version, written as the first byte */
+    public static final byte VERSION = 1;
+
+    private static final byte TYPE_POSITION = 0;
+    private static final byte TYPE_POSITION_UPDATED = 1;
+    private static final byte TYPE_GEOFENCE_APPROACHED = 2;
+    private static final byte TYPE_GEOFENCE_BREACHED = 3;
+    private static final byte TYPE_GEOFENCE_EXITED = 4;
+    private static final byte TYPE_GEOFENCE_DWELL_EXCEEDED = 5;
+    private static final byte TYPE_ASSET_OFFLINE = 6;
+    private static final byte TYPE_SPEED_LIMIT_EXCEEDED = 7;
+
+    private static final int HEADER_SIZE = 2;
+    private static final int POSITION_FIXED_SIZE = 70;
+    private static final int EVENT_FIXED_SIZE = 28;
+    private static final int UUID_SIZE = 16;
+    private static final int INSTANT_SIZE = 12;
+
+    private static final int FLAG_HAS_ID = 1;
+    private static final int NO_SOURCE = 0xFF;
+    private static final int NULL_STRING = 0xFFFF;
+    private static final PositionSource[] SOURCES = PositionSource.values();
+
+    private BinaryCodec() {
+        // Utility class — no instantiation
+    }
+
+    /**
+     * Whether a payload is in this binary format rather than JSON, judged by
+     * its first byte alone. Says nothing about whether it will decode.
+     */
+    public static boolean isBinary(byte[] payload) {
+        return payload.length > 0 && payload[0] > 0 && payload[0] < '\t';
+    }
+
+    // ========================================================================
+    // Encoding
+    // ========================================================================
+
+    public static byte[] encode(Position position) {
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + positionSize(position));
+        out.put(VERSION).put(TYPE_POSITION);
+        putPosition(out, position);
+        return out.array();
+    }
+
+    public static byte[] encode(TrackingEvent event) {
+        int size = HEADER_SIZE + EVENT_FIXED_SIZE + stringSize(event.assetId()) + switch (event) {
+            case PositionUpdated e -> optionalPositionSize(e.position()) + optionalPositionSize(e.previousPosition());
+            case GeofenceApproached e -> geofenceSize(e.geofenceName()) + optionalPositionSize(e.position());
+            case GeofenceBreached e -> geofenceSize(e.geofenceName()) + optionalPositionSize(e.position());
+            case GeofenceExited e -> geofenceSize(e.geofenceName()) + optionalPositionSize(e.position());
+            case GeofenceDwellExceeded e -> geofenceSize(e.geofenceName()) + INSTANT_SIZE + INSTANT_SIZE;
+            case AssetOffline e -> INSTANT_SIZE + INSTANT_SIZE;
+            case SpeedLimitExceeded e -> Double.BYTES * 2 + optionalPositionSize(e.position());
+        };
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.put(VERSION).put(typeOf(event));
+        putUuid(out, event.eventId(), "eventId");
+        putInstant(out, event.occurredAt(), "occurredAt");
+        putString(out, event.assetId());
+        switch (event) {
+            case PositionUpdated e -> {
+                putOptionalPosition(out, e.position());
+                putOptionalPosition(out, e.previousPosition());
+            }
+            case GeofenceApproached e -> {
+                putGeofence(out, e.geofenceId(), e.geofenceName());
+                putOptionalPosition(out, e.position());
+            }
+            case GeofenceBreached e -> {
+                putGeofence(out, e.geofenceId(), e.geofenceName());
+                putOptionalPosition(out, e.position());
+            }
+            case GeofenceExited e -> {
+                putGeofence(out, e.geofenceId(), e.geofenceName());
+                putOptionalPosition(out, e.position());
+            }
+            case GeofenceDwellExceeded e -> {
+                putGeofence(out, e.geofenceId(), e.geofenceName());
+                putInstant(out, e.enteredAt(), "enteredAt");
+                putDuration(out, e.dwellThreshold(), "dwellThreshold");
+            }
+            case AssetOffline e -> {
+                putInstant(out, e.lastSeenAt(), "lastSeenAt");
+                putDuration(out, e.silenceDuration(), "silenceDuration");
+            }
+            case SpeedLimitExceeded e -> {
+                out.putDouble(e.currentSpeedKmh());
+                out.putDouble(e.limitKmh());
+                putOptionalPosition(out, e.position());
+            }
+        }
+        return out.array();
+    }
+
+    /** Type byte written for an event */
+    static byte typeOf(TrackingEvent event) {
+        return switch (event) {
+            case PositionUpdated e -> TYPE_POSITION_UPDATED;
+            case GeofenceApproached e -> TYPE_GEOFENCE_APPROACHED;
+            case GeofenceBreached e -> TYPE_GEOFENCE_BREACHED;
+            case GeofenceExited e -> TYPE_GEOFENCE_EXITED;
+            case GeofenceDwellExceeded e -> TYPE_GEOFENCE_DWELL_EXCEEDED;
+            case AssetOffline e -> TYPE_ASSET_OFFLINE;
+            case SpeedLimitExceeded e -> TYPE_SPEED_LIMIT_EXCEEDED;
+        };
+    }
+
+    private static int positionSize(Position position) {
+        return POSITION_FIXED_SIZE + stringSize(position.assetId());
+    }
+
+    private static int optionalPositionSize(Position position) {
+        return 1 + (position != null ? positionSize(position) : 0);
+    }
+
+    private static int geofenceSize(String geofenceName) {
+        return UUID_SIZE + stringSize(geofenceName);
+    }
+
+    private static int stringSize(String value) {
+        return Short.BYTES + (value != null ? utf8Length(value) : 0);
+    }
+
+    private static void putPosition(ByteBuffer out, Position position) {
+        UUID id = position.id();
+        out.put((byte) (id != null ? FLAG_HAS_ID : 0));
+        out.putLong(id != null ? id.getMostSignificantBits() : 0);
+        out.putLong(id != null ? id.getLeastSignificantBits() : 0);
+        out.putDouble(position.latitude());
+        out.putDouble(position.longitude());
+        out.putDouble(position.altitude());
+        out.putDouble(position.speed());
+        out.putDouble(position.heading());
+        out.putLong(position.timestamp().getEpochSecond());
+        out.putInt(position.timestamp().getNano());
+        out.put((byte) (position.source() != null ? position.source().ordinal() : NO_SOURCE));
+        putString(out, position.assetId());
+    }
+
+    private static void putOptionalPosition(ByteBuffer out, Position position) {
+        out.put((byte) (position != null ? 1 : 0));
+        if (position != null) {
+            putPosition(out, position);
+        }
+    }
+
+    private static void putGeofence(ByteBuffer out, UUID geofenceId, String geofenceName) {
+        putUuid(out, geofenceId, "geofenceId");
+        putString(out, geofenceName);
+    }
+
+    private static void putUuid(ByteBuffer out, UUID value, String name) {
+        Objects.requireNonNull(value, () -> name + " must not be null");
+        out.putLong(value.getMostSignificantBits());
+        out.putLong(value.getLeastSignificantBits());
+    }
+
+    private static void putInstant(ByteBuffer out, Instant value, String name) {
+        Objects.requireNonNull(value, () -> name + " must not be null");
+        out.putLong(value.getEpochSecond());
+        out.putInt(value.getNano());
+    }
+
+    private static void putDuration(ByteBuffer out, Duration value, String name) {
+        Objects.requireNonNull(value, () -> name + " must not be null");
+        out.putLong(value.getSeconds());
+        out.putInt(value.getNano());
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putShort((short) NULL_STRING);
+            return;
+        }
+        int length = utf8Length(value);
+        out.putShort((short) length);
+        if (length == value.length()) {
+            // ASCII — asset IDs almost always are
+            for (int i = 0; i < length; i++) {
+                out.put((byte) value.charAt(i));
+            }
+        } else {
+            out.put(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /** UTF-8 length without encoding; unpaired surrogates count as the '?' Java substitutes */
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    bytes += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    bytes += 2;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    // Encoded as a single '?'
+                } else {
+                    bytes += 2;
+                }
+            }
+        }
+        if (bytes >= NULL_STRING) {
+            throw new IllegalArgumentException("String too long to encode: " + bytes + " UTF-8 bytes");
+        }
+        return bytes;
+    }
+
+    // ========================================================================
+    // Decoding
+    // ========================================================================
+
+    /**
+     * @throws IllegalArgumentException if the payload is not a binary Position
+     *                                  of a known version, or is truncated
+     */
+    public static Position decodePosition(byte[] payload) {
+        ByteBuffer in = header(payload);
+        byte type = in.get();
+        if (type != TYPE_POSITION) {
+            throw new IllegalArgumentException("Expected a binary Position, got type " + type);
+        }
+        try {
+            return getPosition(in, payload);
+        } catch (BufferUnderflowException e) {
+            throw truncated(payload);
+        } catch (DateTimeException e) {
+            throw corrupt(payload, e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the payload is not a binary
+     *                                  TrackingEvent of a known version, or is truncated
+     */
+    public static TrackingEvent decodeEvent(byte[] payload) {
+        ByteBuffer in = header(payload);
+        byte type = in.get();
+        if (type < TYPE_POSITION_UPDATED || type > TYPE_SPEED_LIMIT_EXCEEDED) {
+            throw new IllegalArgumentException("Expected a binary TrackingEvent, got type " + type);
+        }
+        try {
+            UUID eventId = getUuid(in);
+            Instant occurredAt = getInstant(in);
+            String assetId = getString(in, payload);
+            return switch (type) {
+                case TYPE_POSITION_UPDATED -> new PositionUpdated(eventId, assetId, occurredAt,
+                        getOptionalPosition(in, payload), getOptionalPosition(in, payload));
+                case TYPE_GEOFENCE_APPROACHED -> new GeofenceApproached(eventId, assetId, occurredAt,
+                        getUuid(in), getString(in, payload), getOptionalPosition(in, payload));
+                case TYPE_GEOFENCE_BREACHED -> new GeofenceBreached(eventId, assetId, occurredAt,
+                        getUuid(in), getString(in, payload), getOptionalPosition(in, payload));
+                case TYPE_GEOFENCE_EXITED -> new GeofenceExited(eventId, assetId, occurredAt,
+                        getUuid(in), getString(in, payload), getOptionalPosition(in, payload));
+                case TYPE_GEOFENCE_DWELL_EXCEEDED -> new GeofenceDwellExceeded(eventId, assetId, occurredAt,
+                        getUuid(in), getString(in, payload), getInstant(in), getDuration(in));
+                case TYPE_ASSET_OFFLINE -> new AssetOffline(eventId, assetId, occurredAt,
+                        getInstant(in), getDuration(in));
+                case TYPE_SPEED_LIMIT_EXCEEDED -> new SpeedLimitExceeded(eventId, assetId, occurredAt,
+                        in.getDouble(), in.getDouble(), getOptionalPosition(in, payload));
+                default -> throw new IllegalStateException("Unreachable type " + type);
+            };
+        } catch (BufferUnderflowException e) {
+            throw truncated(payload);
+        } catch (DateTimeException e) {
+            throw corrupt(payload, e);
+        }
+    }
+
+    private static ByteBuffer header(byte[] payload) {
+        if (payload.length < HEADER_SIZE) {
+            throw truncated(payload);
+        }
+        if (payload[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary format version " + payload[0]);
+        }
+        return ByteBuffer.wrap(payload, 1, payload.length - 1);
+    }
+
+    private static Position getPosition(ByteBuffer in, byte[] payload) {
+        boolean hasId = (in.get() & FLAG_HAS_ID) != 0;
+        UUID id = getUuid(in);
+        double latitude = in.getDouble();
+        double longitude = in.getDouble();
+        double altitude = in.getDouble();
+        double speed = in.getDouble();
+        double heading = in.getDouble();
+        Instant timestamp = getInstant(in);
+        int source = in.get() & 0xFF;
+        if (source != NO_SOURCE && source >= SOURCES.length) {
+            throw new IllegalArgumentException("Unknown position source " + source);
+        }
+        String assetId = getString(in, payload);
+        return new Position(hasId ? id : null, assetId, latitude, longitude, altitude, speed, heading,
+                timestamp, source != NO_SOURCE ? SOURCES[source] : null);
+    }
+
+    private static Position getOptionalPosition(ByteBuffer in, byte[] payload) {
+        return in.get() != 0 ? getPosition(in, payload) : null;
+    }
+
+    private static UUID getUuid(ByteBuffer in) {
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    private static Instant getInstant(ByteBuffer in) {
+        return Instant.ofEpochSecond(in.getLong(), in.getInt());
+    }
+
+    private static Duration getDuration(ByteBuffer in) {
+        return Duration.ofSeconds(in.getLong(), in.getInt());
+    }
+
+    private static String getString(ByteBuffer in, byte[] payload) {
+        int length = in.getShort() & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        int start = in.position();
+        in.position(start + length);
+        return new String(payload, start, length, StandardCharsets.UTF_8);
+    }
+
+    private static IllegalArgumentException truncated(byte[] payload) {
+        return new IllegalArgumentException("Truncated binary payload of " + payload.length + " bytes");
+    }
+
+    private static IllegalArgumentException corrupt(byte[] payload, DateTimeException cause) {
+        return new IllegalArgumentException("Corrupt binary payload of " + payload.length + " bytes", cause);
+    }
+}
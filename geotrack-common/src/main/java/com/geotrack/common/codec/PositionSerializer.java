@@ -0,0 +1,15 @@
+package com.geotrack.common.codec;
+
+import com.geotrack.common.model.Position;
+
+/**
+ * Kafka value serializer for {@link Position}, as JSON or binary per
+ * {@link WireFormat#CONFIG}.
+ */
+public class PositionSerializer extends WireFormatSerializer<Position> {
+
+    @Override
+    byte[] encode(Position position) {
+        return BinaryCodec.encode(position);
+    }
+}
@@ -0,0 +1,15 @@
+package com.geotrack.common.codec;
+
+import com.geotrack.common.event.TrackingEvent;
+
+/**
+ * Kafka value serializer for any {@link TrackingEvent}, as JSON or binary per
+ * {@link WireFormat#CONFIG}.
+ */
+public class TrackingEventSerializer extends WireFormatSerializer<TrackingEvent> {
+
+    @Override
+    byte[] encode(TrackingEvent event) {
+        return BinaryCodec.encode(event);
+    }
+}
@@ -0,0 +1,165 @@
+package com.geotrack.common.codec;
+
+import com.geotrack.common.model.Position;
+import com.geotrack.common.model.PositionSource;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static com.geotrack.common.codec.TrajectoryCodec.*;
+
+/**
+ * Streams positions back out of the {@link TrajectoryCodec} format, one
+ * {@link #next} at a time, reading the underlying stream in blocks.
+ * <p>
+ * The current position's fields are available as primitives, so a caller
+ * that only plots or aggregates allocates nothing per position;
+ * {@link #position} builds a {@link Position} when one is wanted. Not
+ * thread-safe.
+ */
+public final class TrajectoryReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_ASSET_ID_BYTES = 1 << 16;
+    private static final PositionSource[] SOURCES = PositionSource.values();
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int offset;
+    private int limit;
+
+    private final String assetId;
+    private final PositionSource source;
+
+    private long time;
+    private long latitude;
+    private long longitude;
+    private long altitude;
+    private long speed;
+    private long heading;
+
+    /**
+     * Open a trajectory, reading its header.
+     *
+     * @throws StreamCorruptedException if the stream is not a trajectory of a known version
+     */
+    public TrajectoryReader(InputStream in) throws IOException {
+        this.in = in;
+        int version = readByte();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Unsupported trajectory format version " + version);
+        }
+        int sourceOrdinal = readByte();
+        if (sourceOrdinal != NO_SOURCE && sourceOrdinal >= SOURCES.length) {
+            throw new StreamCorruptedException("Unknown position source " + sourceOrdinal);
+        }
+        this.source = sourceOrdinal != NO_SOURCE ? SOURCES[sourceOrdinal] : null;
+        long idLength = readVarint();
+        if (idLength > MAX_ASSET_ID_BYTES) {
+            throw new StreamCorruptedException("Asset ID of " + idLength + " bytes");
+        }
+        byte[] id = new byte[(int) idLength];
+        for (int i = 0; i < id.length; i++) {
+            id[i] = (byte) readByte();
+        }
+        this.assetId = new String(id, StandardCharsets.UTF_8);
+    }
+
+    public String assetId() {
+        return assetId;
+    }
+
+    /** Source of every position in the run, or null */
+    public PositionSource source() {
+        return source;
+    }
+
+    /**
+     * Advance to the next position.
+     *
+     * @return false at the end of the trajectory
+     * @throws EOFException if the stream ends part way through a position
+     */
+    public boolean next() throws IOException {
+        if (offset == limit && fill() <= 0) {
+            return false;
+        }
+        time += unzigzag(readVarint());
+        latitude += unzigzag(readVarint());
+        longitude += unzigzag(readVarint());
+        altitude += unzigzag(readVarint());
+        speed += unzigzag(readVarint());
+        heading = Math.floorMod(heading + unzigzag(readVarint()), HEADING_TURN);
+        return true;
+    }
+
+    public long epochMillis() {
+        return time;
+    }
+
+    public Instant timestamp() {
+        return Instant.ofEpochMilli(time);
+    }
+
+    public double latitude() {
+        return latitude / DEGREE_SCALE;
+    }
+
+    public double longitude() {
+        return longitude / DEGREE_SCALE;
+    }
+
+    public double altitude() {
+        return altitude / ALTITUDE_SCALE;
+    }
+
+    public double speed() {
+        return speed / SPEED_SCALE;
+    }
+
+    public double heading() {
+        return heading / HEADING_SCALE;
+    }
+
+    /** The current position, without an id */
+    public Position position() {
+        return new Position(null, assetId, latitude(), longitude(), altitude(), speed(), heading(),
+                timestamp(), source);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Varint longer than 64 bits");
+    }
+
+    private int readByte() throws IOException {
+        if (offset == limit && fill() <= 0) {
+            throw new EOFException("Trajectory ends part way through a record");
+        }
+        return buffer[offset++] & 0xFF;
+    }
+
+    private int fill() throws IOException {
+        int read = in.read(buffer, 0, BUFFER_SIZE);
+        offset = 0;
+        limit = Math.max(read, 0);
+        return read;
+    }
+}
@@ -0,0 +1,145 @@
+package com.geotrack.common.codec;
+
+import com.geotrack.common.model.Position;
+import com.geotrack.common.model.PositionSource;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static com.geotrack.common.codec.TrajectoryCodec.*;
+
+/**
+ * Streams one asset's positions out in the {@link TrajectoryCodec} format.
+ * <p>
+ * Bytes are gathered in a small buffer and handed to the stream in blocks,
+ * so export loops can write a position at a time. Positions are expected in
+ * time order, which keeps the deltas small, but any order decodes correctly.
+ * Not thread-safe.
+ */
+public final class TrajectoryWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 8192;
+    /** Six varints of at most 10 bytes each */
+    private static final int MAX_POSITION_BYTES = 60;
+
+    private final OutputStream out;
+    private final String assetId;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int length;
+    private int count;
+
+    private long lastTime;
+    private long lastLatitude;
+    private long lastLongitude;
+    private long lastAltitude;
+    private long lastSpeed;
+    private long lastHeading;
+
+    /**
+     * Start a trajectory, writing its header.
+     *
+     * @param source Source of every position in the run, or null
+     */
+    public TrajectoryWriter(OutputStream out, String assetId, PositionSource source) throws IOException {
+        this.out = out;
+        this.assetId = assetId;
+        byte[] id = assetId.getBytes(StandardCharsets.UTF_8);
+        buffer[length++] = VERSION;
+        buffer[length++] = (byte) (source != null ? source.ordinal() : NO_SOURCE);
+        putVarint(id.length);
+        out.write(buffer, 0, length);
+        out.write(id);
+        length = 0;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the position belongs to another asset
+     */
+    public void write(Position position) throws IOException {
+        if (!assetId.equals(position.assetId())) {
+            throw new IllegalArgumentException(
+                    "Trajectory of " + assetId + " cannot hold a position of " + position.assetId());
+        }
+        write(position.timestamp(), position.latitude(), position.longitude(),
+                position.altitude(), position.speed(), position.heading());
+    }
+
+    /**
+     * Append a position from its parts, for callers that never build a
+     * {@link Position}.
+     */
+    public void write(Instant timestamp, double latitude, double longitude,
+                      double altitude, double speed, double heading) throws IOException {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException(
+                    "Coordinate out of range: [" + latitude + ", " + longitude + "]");
+        }
+        flushBuffer(MAX_POSITION_BYTES);
+
+        long time = timestamp.toEpochMilli();
+        long lat = Math.round(latitude * DEGREE_SCALE);
+        long lon = Math.round(longitude * DEGREE_SCALE);
+        long alt = Math.round(altitude * ALTITUDE_SCALE);
+        long spd = Math.round(speed * SPEED_SCALE);
+        long hdg = Math.floorMod(Math.round(heading * HEADING_SCALE), HEADING_TURN);
+
+        long turn = hdg - lastHeading;
+        if (turn >= HEADING_TURN / 2) {
+            turn -= HEADING_TURN;
+        } else if (turn < -HEADING_TURN / 2) {
+            turn += HEADING_TURN;
+        }
+
+        putVarint(zigzag(time - lastTime));
+        putVarint(zigzag(lat - lastLatitude));
+        putVarint(zigzag(lon - lastLongitude));
+        putVarint(zigzag(alt - lastAltitude));
+        putVarint(zigzag(spd - lastSpeed));
+        putVarint(zigzag(turn));
+
+        lastTime = time;
+        lastLatitude = lat;
+        lastLongitude = lon;
+        lastAltitude = alt;
+        lastSpeed = spd;
+        lastHeading = hdg;
+        count++;
+    }
+
+    /** Positions written so far */
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer(BUFFER_SIZE);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+
+    private void putVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    /** Hand the buffer to the stream unless {@code needed} more bytes still fit */
+    private void flushBuffer(int needed) throws IOException {
+        if (length > BUFFER_SIZE - needed) {
+            out.write(buffer, 0, length);
+            length = 0;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.geotrack.common.codec;
+
+import java.util.Locale;
+
+/**
+ * Encoding of a Kafka record value.
+ * <p>
+ * Producers pick one through {@link #CONFIG} in their channel configuration;
+ * consumers call {@link #of} on each record, so JSON and binary producers can
+ * share a topic while services are switched over one at a time.
+ */
+public enum WireFormat {
+
+    /** UTF-8 JSON, as Jackson writes the records */
+    JSON,
+
+    /** {@link BinaryCodec} */
+    BINARY;
+
+    /** Producer configuration key read by {@link PositionSerializer} and {@link TrackingEventSerializer} */
+    public static final String CONFIG = "geotrack.wire-format";
+
+    /** Format of a record value, from its first byte */
+    public static WireFormat of(byte[] payload) {
+        return BinaryCodec.isBinary(payload) ? BINARY : JSON;
+    }
+
+    /**
+     * @param name "json" or "binary", in any case
+     * @throws IllegalArgumentException for any other name
+     */
+    public static WireFormat parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "Unknown wire format '" + name + "'; expected json or binary", e);
+        }
+    }
+}
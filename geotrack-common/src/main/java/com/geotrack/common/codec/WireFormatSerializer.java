@@ -0,0 +1,51 @@
+package com.geotrack.common.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Kafka serializer writing either JSON or {@link BinaryCodec}, as chosen by
+ * {@link WireFormat#CONFIG} in the producer configuration (JSON when unset).
+ * <p>
+ * JSON matches what the services' Quarkus-managed {@code ObjectMapper}
+ * writes: ISO-8601 instants rather than timestamps.
+ */
+abstract class WireFormatSerializer<T> implements Serializer<T> {
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private WireFormat format = WireFormat.JSON;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object configured = configs.get(WireFormat.CONFIG);
+        if (configured != null) {
+            format = WireFormat.parse(configured.toString());
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+        if (format == WireFormat.BINARY) {
+            return encode(data);
+        }
+        try {
+            return JSON.writeValueAsBytes(data);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Failed to serialise " + data.getClass().getSimpleName(), e);
+        }
+    }
+
+    abstract byte[] encode(T data);
+}
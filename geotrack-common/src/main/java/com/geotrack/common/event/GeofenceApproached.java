@@ -0,0 +1,27 @@
+package com.geotrack.common.event;
+
+import com.geotrack.common.model.Position;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Emitted when an asset comes within a geofence's buffer zone without yet
+ * being inside the fence itself — an early warning of a likely breach.
+ */
+public record GeofenceApproached(
+        UUID eventId,
+        String assetId,
+        Instant occurredAt,
+        UUID geofenceId,
+        String geofenceName,
+        Position position
+) implements TrackingEvent {
+
+    public static GeofenceApproached create(String assetId, UUID geofenceId, String geofenceName, Position position) {
+        return new GeofenceApproached(
+                UUID.randomUUID(), assetId, Instant.now(),
+                geofenceId, geofenceName, position
+        );
+    }
+}
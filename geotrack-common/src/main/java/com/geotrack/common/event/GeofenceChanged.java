@@ -0,0 +1,62 @@
+package com.geotrack.common.event;
+
+import com.geotrack.common.model.AssetType;
+import com.geotrack.common.model.Circle;
+import com.geotrack.common.model.FenceType;
+import com.geotrack.common.model.PositionSource;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published on {@code geofence.changes} whenever a geofence is created, edited
+ * or deactivated, so processing instances can update their fence set in place.
+ * <p>
+ * Keyed by geofence ID, so changes to one fence stay ordered. Not a
+ * {@link TrackingEvent}: it describes configuration, not an asset.
+ *
+ * @param geometryWkt     polygon in WGS84 as WKT (a circle's outline); null for deactivations
+ * @param assetTypes      asset types the fence applies to; empty = all
+ * @param positionSources position sources the fence applies to; empty = all
+ * @param dwellMinutes    minutes inside before a dwell alert; null = no dwell alerts
+ * @param circle          centre and radius of a circular fence; null for polygons
+ */
+public record GeofenceChanged(
+        UUID eventId,
+        Instant occurredAt,
+        UUID geofenceId,
+        ChangeType changeType,
+        String name,
+        FenceType fenceType,
+        String geometryWkt,
+        double bufferMetres,
+        boolean alertOnEnter,
+        boolean alertOnExit,
+        Set<AssetType> assetTypes,
+        Set<PositionSource> positionSources,
+        Integer dwellMinutes,
+        Circle circle
+) {
+
+    public enum ChangeType { UPSERTED, DEACTIVATED }
+
+    public static GeofenceChanged upserted(UUID geofenceId, String name, FenceType fenceType,
+                                           String geometryWkt, double bufferMetres,
+                                           boolean alertOnEnter, boolean alertOnExit,
+                                           Set<AssetType> assetTypes, Set<PositionSource> positionSources,
+                                           Integer dwellMinutes, Circle circle) {
+        return new GeofenceChanged(
+                UUID.randomUUID(), Instant.now(), geofenceId, ChangeType.UPSERTED,
+                name, fenceType, geometryWkt, bufferMetres, alertOnEnter, alertOnExit,
+                assetTypes, positionSources, dwellMinutes, circle
+        );
+    }
+
+    public static GeofenceChanged deactivated(UUID geofenceId) {
+        return new GeofenceChanged(
+                UUID.randomUUID(), Instant.now(), geofenceId, ChangeType.DEACTIVATED,
+                null, null, null, 0, false, false, Set.of(), Set.of(), null, null
+        );
+    }
+}
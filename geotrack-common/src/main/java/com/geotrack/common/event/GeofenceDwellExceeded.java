@@ -0,0 +1,28 @@
+package com.geotrack.common.event;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Emitted when an asset has stayed inside a geofence for longer than the
+ * fence's dwell threshold. Raised once per visit, while the asset is still inside.
+ */
+public record GeofenceDwellExceeded(
+        UUID eventId,
+        String assetId,
+        Instant occurredAt,
+        UUID geofenceId,
+        String geofenceName,
+        Instant enteredAt,
+        Duration dwellThreshold
+) implements TrackingEvent {
+
+    public static GeofenceDwellExceeded create(String assetId, UUID geofenceId, String geofenceName,
+                                               Instant enteredAt, Duration dwellThreshold) {
+        return new GeofenceDwellExceeded(
+                UUID.randomUUID(), assetId, Instant.now(),
+                geofenceId, geofenceName, enteredAt, dwellThreshold
+        );
+    }
+}
@@ -1,5 +1,7 @@
 package com.geotrack.common.event;
 
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
 import java.time.Instant;
 import java.util.UUID;
 
@@ -10,11 +12,18 @@ import java.util.UUID;
  * enabling exhaustive pattern matching in switch expressions (Java 21).
  * If a new event type is added, every switch that doesn't handle it
  * becomes a compile error — no runtime surprises.
+ * <p>
+ * JSON carries the record's simple class name in {@code eventType}, since
+ * several events share the same fields and consumers cannot tell them apart
+ * otherwise.
  */
+@JsonTypeInfo(use = JsonTypeInfo.Id.SIMPLE_NAME, property = "eventType")
 public sealed interface TrackingEvent permits
         PositionUpdated,
+        GeofenceApproached,
         GeofenceBreached,
         GeofenceExited,
+        GeofenceDwellExceeded,
         AssetOffline,
         SpeedLimitExceeded {
 
@@ -9,5 +9,19 @@ public enum AssetType {
     VESSEL,
     PERSONNEL,
     AIRCRAFT,
-    SENSOR
+    SENSOR;
+
+    /**
+     * Whether processing can tell this type from a position alone, i.e. some
+     * {@link PositionSource} implies it. Geofences can only be restricted to
+     * these; a restriction to any other type would never match.
+     */
+    public boolean isDetectable() {
+        for (PositionSource source : PositionSource.values()) {
+            if (source.impliedAssetType() == this) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,29 @@
+package com.geotrack.common.model;
+
+/**
+ * A circular zone on the Earth's surface — a centre and a ground radius.
+ * <p>
+ * Circles are kept in this form end to end, rather than as polygons, so they
+ * can be evaluated with a distance comparison at any latitude.
+ *
+ * @param longitude    Centre WGS84 longitude (-180 to 180)
+ * @param latitude     Centre WGS84 latitude (-90 to 90)
+ * @param radiusMetres Radius in metres along the ground
+ */
+public record Circle(double longitude, double latitude, double radiusMetres) {
+
+    public Circle {
+        if (latitude < -90 || latitude > 90) {
+            throw new IllegalArgumentException(
+                    "Latitude must be between -90 and 90, got: " + latitude);
+        }
+        if (longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException(
+                    "Longitude must be between -180 and 180, got: " + longitude);
+        }
+        if (!(radiusMetres > 0)) {
+            throw new IllegalArgumentException(
+                    "Radius must be positive, got: " + radiusMetres);
+        }
+    }
+}
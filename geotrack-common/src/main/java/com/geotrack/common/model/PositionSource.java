@@ -10,5 +10,18 @@ public enum PositionSource {
     AIS,        // Automatic Identification System (maritime)
     ADS_B,      // Automatic Dependent Surveillance (aviation)
     MANUAL,
-    SIMULATED
+    SIMULATED;
+
+    /**
+     * Asset type every position from this source belongs to, where the feed
+     * only carries one kind of asset: AIS → VESSEL, ADS-B → AIRCRAFT. Null
+     * (unknown) otherwise.
+     */
+    public AssetType impliedAssetType() {
+        return switch (this) {
+            case AIS -> AssetType.VESSEL;
+            case ADS_B -> AssetType.AIRCRAFT;
+            case GPS, GLONASS, GALILEO, MANUAL, SIMULATED -> null;
+        };
+    }
 }
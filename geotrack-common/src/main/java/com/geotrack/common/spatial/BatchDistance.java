@@ -0,0 +1,87 @@
+package com.geotrack.common.spatial;
+
+/**
+ * Distances from one reference point to many others, over structure-of-arrays
+ * longitude and latitude buffers — for proximity and speed-sanity jobs that
+ * measure a whole batch of latest positions at once.
+ * <p>
+ * When the JVM runs with {@code --add-modules jdk.incubator.vector}, the
+ * kernels use the Vector API and process as many points per instruction as
+ * the CPU's widest SIMD registers hold. Otherwise they fall back to a scalar
+ * loop over {@link DistanceStrategy}, with the same results to within a few
+ * ulps. {@code -Dgeotrack.spatial.vector=false} forces the scalar path.
+ * <p>
+ * Accuracy is that of {@link DistanceStrategy#HAVERSINE} and
+ * {@link DistanceStrategy#EQUIRECTANGULAR} respectively; there is no Vincenty
+ * kernel, since its iteration count varies per point.
+ */
+public final class BatchDistance {
+
+    private static final boolean VECTORIZED = Boolean.parseBoolean(
+            System.getProperty("geotrack.spatial.vector", "true"))
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private BatchDistance() {
+    }
+
+    /** Whether the kernels run on the Vector API rather than the scalar fallback */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Great-circle distances from one point to each of a batch.
+     *
+     * @param fromLon    Longitude of the reference point
+     * @param fromLat    Latitude of the reference point
+     * @param longitudes Longitudes of the other points
+     * @param latitudes  Latitudes of the other points
+     * @param count      Number of points to measure, from index 0
+     * @param out        Receives the distances in metres; at least {@code count} long
+     */
+    public static void haversineMetres(double fromLon, double fromLat, double[] longitudes, double[] latitudes,
+                                       int count, double[] out) {
+        checkBounds(longitudes, latitudes, count, out);
+        if (VECTORIZED) {
+            VectorDistanceKernel.haversineMetres(fromLon, fromLat, longitudes, latitudes, count, out);
+        } else {
+            scalarMetres(DistanceStrategy.HAVERSINE, fromLon, fromLat, longitudes, latitudes, 0, count, out);
+        }
+    }
+
+    /**
+     * Equirectangular distances from one point to each of a batch — for points
+     * within tens of kilometres of the reference.
+     *
+     * @param fromLon    Longitude of the reference point
+     * @param fromLat    Latitude of the reference point
+     * @param longitudes Longitudes of the other points
+     * @param latitudes  Latitudes of the other points
+     * @param count      Number of points to measure, from index 0
+     * @param out        Receives the distances in metres; at least {@code count} long
+     */
+    public static void equirectangularMetres(double fromLon, double fromLat, double[] longitudes,
+                                             double[] latitudes, int count, double[] out) {
+        checkBounds(longitudes, latitudes, count, out);
+        if (VECTORIZED) {
+            VectorDistanceKernel.equirectangularMetres(fromLon, fromLat, longitudes, latitudes, count, out);
+        } else {
+            scalarMetres(DistanceStrategy.EQUIRECTANGULAR, fromLon, fromLat, longitudes, latitudes, 0, count, out);
+        }
+    }
+
+    /** The scalar path, also used by the vector kernels for the tail of a batch */
+    static void scalarMetres(DistanceStrategy strategy, double fromLon, double fromLat,
+                             double[] longitudes, double[] latitudes, int from, int to, double[] out) {
+        for (int i = from; i < to; i++) {
+            out[i] = strategy.distanceMetres(fromLat, fromLon, latitudes[i], longitudes[i]);
+        }
+    }
+
+    private static void checkBounds(double[] longitudes, double[] latitudes, int count, double[] out) {
+        if (count < 0 || count > longitudes.length || count > latitudes.length || count > out.length) {
+            throw new IllegalArgumentException("Count " + count + " exceeds a buffer: longitudes "
+                    + longitudes.length + ", latitudes " + latitudes.length + ", out " + out.length);
+        }
+    }
+}
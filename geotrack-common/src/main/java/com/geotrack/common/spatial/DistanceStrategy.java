@@ -0,0 +1,210 @@
+package com.geotrack.common.spatial;
+
+/**
+ * Ways of measuring the ground distance between two WGS84 coordinates, from
+ * exact and slow to approximate and cheap.
+ * <p>
+ * Each strategy documents its error against the WGS84 ellipsoid as a bound on
+ * the relative error, valid for latitudes within ±80°. {@link #VINCENTY} is the
+ * reference and what {@link SpatialEngine#distanceMetres} uses by default; the
+ * others are for bulk work — speed sanity checks, proximity scans — where a
+ * fraction of a percent does not matter. {@link #cheapest} picks one for a
+ * required accuracy. For many comparisons around one latitude see
+ * {@link LocalDistance}.
+ * <p>
+ * All methods take (latitude, longitude) pairs in degrees.
+ */
+public enum DistanceStrategy {
+
+    /**
+     * Vincenty's inverse formula on the WGS84 ellipsoid. Accurate to ~0.5 mm,
+     * and treated as exact. For nearly antipodal points, where the iteration
+     * does not converge, it falls back to {@link #HAVERSINE}.
+     */
+    VINCENTY {
+        @Override
+        public double distanceMetres(double lat1, double lon1, double lat2, double lon2) {
+            return vincenty(lat1, lon1, lat2, lon2);
+        }
+
+        @Override
+        public double relativeErrorBound(double distanceMetres) {
+            return 0;
+        }
+    },
+
+    /**
+     * Great-circle distance on a sphere of mean Earth radius. Ignores the
+     * Earth's flattening, so it is within 0.6% of the ellipsoid at any distance.
+     */
+    HAVERSINE {
+        @Override
+        public double distanceMetres(double lat1, double lon1, double lat2, double lon2) {
+            return haversine(lat1, lon1, lat2, lon2);
+        }
+
+        @Override
+        public double relativeErrorBound(double distanceMetres) {
+            return SPHERE_ERROR;
+        }
+    },
+
+    /**
+     * Pythagoras on a plane scaled by the cosine of the mean latitude — one
+     * cosine and one square root. Adds roughly (d/R)²/(8·cos²φ) to the sphere's
+     * error, so it is as good as {@link #HAVERSINE} for hops of tens of
+     * kilometres and degrades quickly beyond a few hundred.
+     */
+    EQUIRECTANGULAR {
+        @Override
+        public double distanceMetres(double lat1, double lon1, double lat2, double lon2) {
+            double x = wrapLongitude(lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) * 0.5));
+            double y = lat2 - lat1;
+            return METRES_PER_DEGREE * Math.sqrt(x * x + y * y);
+        }
+
+        @Override
+        public double relativeErrorBound(double distanceMetres) {
+            double angle = distanceMetres / SpatialEngine.EARTH_RADIUS_METRES;
+            return SPHERE_ERROR + PLANE_ERROR_FACTOR * angle * angle;
+        }
+    };
+
+    /** WGS84 semi-major axis (metres) */
+    private static final double A = 6_378_137.0;
+    /** WGS84 flattening */
+    private static final double F = 1.0 / 298.257223563;
+    /** Semi-minor axis */
+    private static final double B = A * (1 - F);
+    /** Second eccentricity squared, (a² − b²) / b² */
+    private static final double EP2 = (A * A - B * B) / (B * B);
+    private static final int VINCENTY_MAX_ITERATIONS = 200;
+
+    /** Mean-radius sphere against the ellipsoid, worst case (measured 0.56%) */
+    static final double SPHERE_ERROR = 0.006;
+    /** 1 / (8·cos²80°), bounding the plane's curvature error within ±80° */
+    static final double PLANE_ERROR_FACTOR = 4.2;
+    static final double METRES_PER_DEGREE = Math.toRadians(SpatialEngine.EARTH_RADIUS_METRES);
+
+    /**
+     * Distance between two coordinates in metres.
+     *
+     * @param lat1 Latitude of point 1 (degrees)
+     * @param lon1 Longitude of point 1 (degrees)
+     * @param lat2 Latitude of point 2 (degrees)
+     * @param lon2 Longitude of point 2 (degrees)
+     * @return Distance in metres
+     */
+    public abstract double distanceMetres(double lat1, double lon1, double lat2, double lon2);
+
+    /**
+     * Worst-case relative error against the WGS84 ellipsoid for points up to
+     * {@code distanceMetres} apart, within ±80° latitude.
+     */
+    public abstract double relativeErrorBound(double distanceMetres);
+
+    /**
+     * The cheapest strategy whose error stays within {@code maxRelativeError}
+     * for every pair of points up to {@code maxDistanceMetres} apart.
+     * {@link #VINCENTY} qualifies for any accuracy.
+     *
+     * @param maxRelativeError  Acceptable error as a fraction of the distance (0.01 = 1%)
+     * @param maxDistanceMetres Longest distance that will be measured
+     * @return The cheapest qualifying strategy
+     */
+    public static DistanceStrategy cheapest(double maxRelativeError, double maxDistanceMetres) {
+        if (EQUIRECTANGULAR.relativeErrorBound(maxDistanceMetres) <= maxRelativeError) {
+            return EQUIRECTANGULAR;
+        }
+        if (HAVERSINE.relativeErrorBound(maxDistanceMetres) <= maxRelativeError) {
+            return HAVERSINE;
+        }
+        return VINCENTY;
+    }
+
+    /** Longitude difference folded into [-180, 180], so hops across the antimeridian stay short */
+    static double wrapLongitude(double dLon) {
+        if (dLon > 180) {
+            return dLon - 360;
+        }
+        return dLon < -180 ? dLon + 360 : dLon;
+    }
+
+    // ========================================================================
+    // Formulae
+    // ========================================================================
+
+    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double sinHalfDLat = Math.sin(Math.toRadians(lat2 - lat1) * 0.5);
+        double sinHalfDLon = Math.sin(Math.toRadians(lon2 - lon1) * 0.5);
+        double h = sinHalfDLat * sinHalfDLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinHalfDLon * sinHalfDLon;
+        return 2 * SpatialEngine.EARTH_RADIUS_METRES * Math.asin(Math.sqrt(Math.min(h, 1.0)));
+    }
+
+    private static double vincenty(double lat1, double lon1, double lat2, double lon2) {
+        double deltaLambda = Math.toRadians(lon2 - lon1);
+
+        // Reduced latitudes U1, U2 from tan U = (1 - f) tan φ, without the arc-tangent
+        double tanU1 = (1 - F) * Math.tan(Math.toRadians(lat1));
+        double tanU2 = (1 - F) * Math.tan(Math.toRadians(lat2));
+        double cosU1 = 1 / Math.sqrt(1 + tanU1 * tanU1);
+        double cosU2 = 1 / Math.sqrt(1 + tanU2 * tanU2);
+        double sinU1 = tanU1 * cosU1;
+        double sinU2 = tanU2 * cosU2;
+
+        double lambda = deltaLambda;
+        double lambdaPrev;
+        int iterations = 0;
+
+        double sinSigma;
+        double cosSigma;
+        double sigma;
+        double cos2Alpha;
+        double cos2SigmaM;
+
+        do {
+            double sinLambda = Math.sin(lambda);
+            double cosLambda = Math.cos(lambda);
+            double p = cosU2 * sinLambda;
+            double q = cosU1 * sinU2 - sinU1 * cosU2 * cosLambda;
+            sinSigma = Math.sqrt(p * p + q * q);
+            if (sinSigma == 0) return 0; // Co-incident points
+
+            cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
+            sigma = Math.atan2(sinSigma, cosSigma);
+            double sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma;
+            cos2Alpha = 1 - sinAlpha * sinAlpha;
+            cos2SigmaM = (cos2Alpha != 0)
+                    ? cosSigma - 2 * sinU1 * sinU2 / cos2Alpha
+                    : 0;
+
+            // C coefficient in Vincenty's correction formula
+            double correctionC = F / 16 * cos2Alpha * (4 + F * (4 - 3 * cos2Alpha));
+            lambdaPrev = lambda;
+            lambda = deltaLambda + (1 - correctionC) * F * sinAlpha
+                    * (sigma + correctionC * sinSigma
+                    * (cos2SigmaM + correctionC * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
+        } while (Math.abs(lambda - lambdaPrev) > 1e-12 && ++iterations < VINCENTY_MAX_ITERATIONS);
+
+        if (iterations >= VINCENTY_MAX_ITERATIONS) {
+            // Failed to converge (nearly antipodal) — fall back to Haversine
+            return haversine(lat1, lon1, lat2, lon2);
+        }
+
+        double uSquared = cos2Alpha * EP2;
+        // Vincenty coefficients A and B (named a2/b2 for camelCase compliance)
+        double a2 = 1 + uSquared / 16384
+                * (4096 + uSquared * (-768 + uSquared * (320 - 175 * uSquared)));
+        double b2 = uSquared / 1024
+                * (256 + uSquared * (-128 + uSquared * (74 - 47 * uSquared)));
+        double deltaSigma = b2 * sinSigma
+                * (cos2SigmaM + b2 / 4
+                * (cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)
+                - b2 / 6 * cos2SigmaM
+                * (-3 + 4 * sinSigma * sinSigma)
+                * (-3 + 4 * cos2SigmaM * cos2SigmaM)));
+
+        return B * a2 * (sigma - deltaSigma);
+    }
+}
@@ -0,0 +1,338 @@
+package com.geotrack.common.spatial;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical grid cells packed into a {@code long} — for partition keys,
+ * cache keys, grid aggregation and shard routing without a string round-trip.
+ * <p>
+ * At level {@code L} the world is split into 2<sup>L</sup> × 2<sup>L</sup>
+ * equal-angle cells (level 16 is ~600 m × 300 m at the equator, level 20 ~40 m
+ * × 20 m). A cell id holds the cell's Morton code — longitude and latitude bits
+ * interleaved — left-aligned above a 5-bit level:
+ * <pre>
+ *  bit 63   62 ........................................ 5   4 ... 0
+ *  [ 0 ][ x₁y₁ x₂y₂ … x_Ly_L  0 0 … 0                  ][  level  ]
+ * </pre>
+ * so ids are non-negative, a cell's descendants share its prefix, sorting by
+ * id keeps nearby cells mostly together, and {@link #parent} is a mask.
+ * <p>
+ * Encoding and neighbour lookup are a few shifts and multiplies and allocate
+ * nothing. Points on a cell edge belong to the cell east or north of it; the
+ * antimeridian wraps, the poles do not.
+ */
+public final class GeoCell {
+
+    /** Finest level: 29 bits per axis, ~7 cm of longitude at the equator */
+    public static final int MAX_LEVEL = 29;
+
+    /** Returned where there is no cell, e.g. north of the north pole */
+    public static final long NONE = -1L;
+
+    private static final int LEVEL_BITS = 5;
+    private static final long LEVEL_MASK = (1L << LEVEL_BITS) - 1;
+
+    /** Cells are grown by this much (~0.1 mm) when tested against a geometry, absorbing rounding */
+    private static final double CELL_EPSILON_DEGREES = 1e-9;
+
+    private GeoCell() {
+        // Utility class — no instantiation
+    }
+
+    /**
+     * Cell containing a coordinate.
+     *
+     * @param longitude WGS84 longitude (-180 to 180)
+     * @param latitude  WGS84 latitude (-90 to 90)
+     * @param level     0 (the whole world) to {@link #MAX_LEVEL}
+     * @return Cell id
+     */
+    public static long encode(double longitude, double latitude, int level) {
+        checkLevel(level);
+        long side = 1L << level;
+        long x = Math.min((long) ((longitude + 180.0) * (side / 360.0)), side - 1);
+        long y = Math.min((long) ((latitude + 90.0) * (side / 180.0)), side - 1);
+        return pack(Math.max(x, 0), Math.max(y, 0), level);
+    }
+
+    public static int level(long cell) {
+        return (int) (cell & LEVEL_MASK);
+    }
+
+    /** Column of the cell, counting east from the antimeridian, 0 to 2<sup>level</sup> − 1 */
+    public static long x(long cell) {
+        return compact(morton(cell) >>> 1);
+    }
+
+    /** Row of the cell, counting north from the south pole, 0 to 2<sup>level</sup> − 1 */
+    public static long y(long cell) {
+        return compact(morton(cell));
+    }
+
+    /** Cell at a level from its column and row */
+    public static long fromXY(long x, long y, int level) {
+        checkLevel(level);
+        long side = 1L << level;
+        if (x < 0 || x >= side || y < 0 || y >= side) {
+            throw new IllegalArgumentException(
+                    "Cell (" + x + ", " + y + ") is outside the level " + level + " grid");
+        }
+        return pack(x, y, level);
+    }
+
+    public static double minLongitude(long cell) {
+        return x(cell) * (360.0 / (1L << level(cell))) - 180.0;
+    }
+
+    public static double maxLongitude(long cell) {
+        return (x(cell) + 1) * (360.0 / (1L << level(cell))) - 180.0;
+    }
+
+    public static double minLatitude(long cell) {
+        return y(cell) * (180.0 / (1L << level(cell))) - 90.0;
+    }
+
+    public static double maxLatitude(long cell) {
+        return (y(cell) + 1) * (180.0 / (1L << level(cell))) - 90.0;
+    }
+
+    public static double centreLongitude(long cell) {
+        return (x(cell) + 0.5) * (360.0 / (1L << level(cell))) - 180.0;
+    }
+
+    public static double centreLatitude(long cell) {
+        return (y(cell) + 0.5) * (180.0 / (1L << level(cell))) - 90.0;
+    }
+
+    /** Bounds of the cell in (longitude, latitude) */
+    public static Envelope envelope(long cell) {
+        return new Envelope(minLongitude(cell), maxLongitude(cell), minLatitude(cell), maxLatitude(cell));
+    }
+
+    /** The cell one level up containing this one */
+    public static long parent(long cell) {
+        return parent(cell, level(cell) - 1);
+    }
+
+    /**
+     * The ancestor at a coarser level.
+     *
+     * @param level 0 to this cell's level
+     */
+    public static long parent(long cell, int level) {
+        if (level < 0 || level > level(cell)) {
+            throw new IllegalArgumentException(
+                    "Parent level must be between 0 and " + level(cell) + ", got: " + level);
+        }
+        long keep = -1L << (LEVEL_BITS + 2 * (MAX_LEVEL - level));
+        return (cell & keep) | level;
+    }
+
+    /**
+     * One of the four cells a level down.
+     *
+     * @param quadrant 0 to 3: bit 1 set for the eastern half, bit 0 for the northern
+     */
+    public static long child(long cell, int quadrant) {
+        int level = level(cell) + 1;
+        checkLevel(level);
+        return pack(x(cell) * 2 + (quadrant >> 1 & 1), y(cell) * 2 + (quadrant & 1), level);
+    }
+
+    /**
+     * Whether {@code cell} is {@code ancestor} or lies within it.
+     */
+    public static boolean contains(long ancestor, long cell) {
+        int level = level(ancestor);
+        return level <= level(cell) && parent(cell, level) == ancestor;
+    }
+
+    /**
+     * The cell {@code dx} columns east and {@code dy} rows north at the same
+     * level, wrapping across the antimeridian.
+     *
+     * @return The neighbouring cell, or {@link #NONE} beyond a pole
+     */
+    public static long neighbour(long cell, int dx, int dy) {
+        int level = level(cell);
+        long side = 1L << level;
+        long y = y(cell) + dy;
+        if (y < 0 || y >= side) {
+            return NONE;
+        }
+        long x = Math.floorMod(x(cell) + dx, side);
+        return pack(x, y, level);
+    }
+
+    /**
+     * The up to eight cells around this one, clockwise from north. Cells
+     * beyond a pole are left out; at levels 0 and 1 the antimeridian wrap can
+     * repeat a cell.
+     *
+     * @param out Receives the neighbours; at least 8 long
+     * @return Number of neighbours written
+     */
+    public static int neighbours(long cell, long[] out) {
+        int count = 0;
+        count = add(out, count, neighbour(cell, 0, 1));
+        count = add(out, count, neighbour(cell, 1, 1));
+        count = add(out, count, neighbour(cell, 1, 0));
+        count = add(out, count, neighbour(cell, 1, -1));
+        count = add(out, count, neighbour(cell, 0, -1));
+        count = add(out, count, neighbour(cell, -1, -1));
+        count = add(out, count, neighbour(cell, -1, 0));
+        count = add(out, count, neighbour(cell, -1, 1));
+        return count;
+    }
+
+    /**
+     * Every cell at a level that the geometry touches, in ascending id order.
+     * <p>
+     * Descends from the whole world, skipping cells outside the geometry's
+     * envelope, filling cells the geometry wholly contains without further
+     * tests, and testing only the cells its boundary crosses.
+     *
+     * @param geometry Area to cover, in WGS84
+     * @param level    Level of the returned cells
+     * @param maxCells Largest acceptable cover
+     * @return Ascending cell ids
+     * @throws IllegalArgumentException if the cover would exceed {@code maxCells}
+     */
+    public static long[] cover(Geometry geometry, int level, int maxCells) {
+        checkLevel(level);
+        Cover cover = new Cover(geometry, level, maxCells);
+        if (!geometry.isEmpty()) {
+            cover.visit(0, 0, 0);
+        }
+        long[] cells = Arrays.copyOf(cover.cells, cover.size);
+        Arrays.sort(cells);
+        return cells;
+    }
+
+    // ========================================================================
+    // Bit packing
+    // ========================================================================
+
+    private static long pack(long x, long y, int level) {
+        long morton = spread(x) << 1 | spread(y);
+        return morton << (LEVEL_BITS + 2 * (MAX_LEVEL - level)) | level;
+    }
+
+    /** Interleaved bits of the cell, right-aligned */
+    private static long morton(long cell) {
+        return cell >>> (LEVEL_BITS + 2 * (MAX_LEVEL - level(cell)));
+    }
+
+    /** Bits of a value up to 32 bits long moved to the even positions */
+    private static long spread(long v) {
+        v &= 0xFFFFFFFFL;
+        v = (v | v << 16) & 0x0000FFFF0000FFFFL;
+        v = (v | v << 8) & 0x00FF00FF00FF00FFL;
+        v = (v | v << 4) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | v << 2) & 0x3333333333333333L;
+        return (v | v << 1) & 0x5555555555555555L;
+    }
+
+    /** Inverse of {@link #spread}: the even bits gathered back together */
+    private static long compact(long v) {
+        v &= 0x5555555555555555L;
+        v = (v | v >>> 1) & 0x3333333333333333L;
+        v = (v | v >>> 2) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | v >>> 4) & 0x00FF00FF00FF00FFL;
+        v = (v | v >>> 8) & 0x0000FFFF0000FFFFL;
+        return (v | v >>> 16) & 0xFFFFFFFFL;
+    }
+
+    private static int add(long[] out, int count, long cell) {
+        if (cell != NONE) {
+            out[count++] = cell;
+        }
+        return count;
+    }
+
+    private static void checkLevel(int level) {
+        if (level < 0 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException(
+                    "Level must be between 0 and " + MAX_LEVEL + ", got: " + level);
+        }
+    }
+
+    /** State of one {@link #cover} descent */
+    private static final class Cover {
+
+        private final PreparedGeometry prepared;
+        private final GeometryFactory factory;
+        private final Envelope bounds;
+        private final int level;
+        private final int maxCells;
+        private long[] cells = new long[64];
+        private int size;
+
+        Cover(Geometry geometry, int level, int maxCells) {
+            this.prepared = PreparedGeometryFactory.prepare(geometry);
+            this.factory = geometry.getFactory();
+            this.bounds = geometry.getEnvelopeInternal();
+            this.level = level;
+            this.maxCells = maxCells;
+        }
+
+        void visit(long x, long y, int cellLevel) {
+            double lonStep = 360.0 / (1L << cellLevel);
+            double latStep = 180.0 / (1L << cellLevel);
+            Envelope cell = new Envelope(
+                    x * lonStep - 180.0 - CELL_EPSILON_DEGREES, (x + 1) * lonStep - 180.0 + CELL_EPSILON_DEGREES,
+                    y * latStep - 90.0 - CELL_EPSILON_DEGREES, (y + 1) * latStep - 90.0 + CELL_EPSILON_DEGREES);
+            if (!bounds.intersects(cell)) {
+                return;
+            }
+            Geometry box = factory.toGeometry(cell);
+            if (cellLevel == level) {
+                if (prepared.intersects(box)) {
+                    add(x, y);
+                }
+                return;
+            }
+            if (prepared.containsProperly(box)) {
+                // Wholly inside: every descendant at the target level is in the cover
+                int shift = level - cellLevel;
+                long span = 1L << shift;
+                if ((long) size + span * span > maxCells) {
+                    tooMany();
+                }
+                for (long cx = x << shift; cx < (x + 1) << shift; cx++) {
+                    for (long cy = y << shift; cy < (y + 1) << shift; cy++) {
+                        add(cx, cy);
+                    }
+                }
+                return;
+            }
+            if (!prepared.intersects(box)) {
+                return;
+            }
+            for (int quadrant = 0; quadrant < 4; quadrant++) {
+                visit(x * 2 + (quadrant >> 1), y * 2 + (quadrant & 1), cellLevel + 1);
+            }
+        }
+
+        private void add(long x, long y) {
+            if (size == maxCells) {
+                tooMany();
+            }
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, Math.min(cells.length * 2, maxCells));
+            }
+            cells[size++] = pack(x, y, level);
+        }
+
+        private void tooMany() {
+            throw new IllegalArgumentException(
+                    "Cover exceeds " + maxCells + " cells at level " + level + "; choose a coarser level");
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.geotrack.common.spatial;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Polyline simplification behind {@link SpatialEngine#simplify}: Douglas-Peucker
+ * to a ground tolerance, then Visvalingam-Whyatt down to a point budget.
+ * <p>
+ * Both work on a local plane in metres — longitudes scaled by the cosine of the
+ * track's mean latitude — which is exact enough for the few kilometres a
+ * tolerance spans. Results are indices into the input, ascending, always
+ * including the first and last point, so callers keep their own per-point data.
+ */
+final class LineSimplifier {
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int count;
+
+    LineSimplifier(double[] longitudes, double[] latitudes, int count) {
+        this.count = count;
+        this.xs = new double[count];
+        this.ys = new double[count];
+        if (count == 0) {
+            return;
+        }
+        double meanLat = 0;
+        for (int i = 0; i < count; i++) {
+            meanLat += latitudes[i];
+        }
+        double xScale = Math.cos(Math.toRadians(meanLat / count)) * DistanceStrategy.METRES_PER_DEGREE;
+        double lon0 = longitudes[0];
+        for (int i = 0; i < count; i++) {
+            // Relative to the first point, so a track across the antimeridian stays contiguous
+            xs[i] = DistanceStrategy.wrapLongitude(longitudes[i] - lon0) * xScale;
+            ys[i] = latitudes[i] * DistanceStrategy.METRES_PER_DEGREE;
+        }
+    }
+
+    /** Every index, for when no tolerance is applied */
+    int[] all() {
+        int[] indices = new int[count];
+        Arrays.setAll(indices, i -> i);
+        return indices;
+    }
+
+    /**
+     * Douglas-Peucker: keep the point furthest from each chord while it is
+     * more than {@code toleranceMetres} away, recursing on both halves.
+     * Iterative, so long tracks cannot overflow the stack.
+     */
+    int[] douglasPeucker(double toleranceMetres) {
+        if (count <= 2) {
+            return all();
+        }
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+        int kept = 2;
+        double toleranceSquared = toleranceMetres * toleranceMetres;
+
+        int[] stack = new int[2 * count];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = count - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            int furthest = -1;
+            double furthestSquared = toleranceSquared;
+            for (int i = first + 1; i < last; i++) {
+                double d = segmentDistanceSquared(i, first, last);
+                if (d > furthestSquared) {
+                    furthestSquared = d;
+                    furthest = i;
+                }
+            }
+            if (furthest >= 0) {
+                keep[furthest] = true;
+                kept++;
+                stack[top++] = first;
+                stack[top++] = furthest;
+                stack[top++] = furthest;
+                stack[top++] = last;
+            }
+        }
+
+        int[] indices = new int[kept];
+        for (int i = 0, k = 0; i < count; i++) {
+            if (keep[i]) {
+                indices[k++] = i;
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Visvalingam-Whyatt: repeatedly drop the point whose triangle with its
+     * neighbours has the smallest area until at most {@code maxPoints} remain.
+     *
+     * @param candidates ascending indices to simplify further, e.g. a Douglas-Peucker result
+     */
+    int[] visvalingam(int[] candidates, int maxPoints) {
+        int n = candidates.length;
+        if (n <= maxPoints || n <= 2) {
+            return candidates;
+        }
+        // Doubly linked list over positions in candidates
+        int[] prev = new int[n];
+        int[] next = new int[n];
+        double[] area = new double[n];
+        int[] stamp = new int[n];
+        PriorityQueue<Vertex> queue = new PriorityQueue<>(n);
+        for (int k = 0; k < n; k++) {
+            prev[k] = k - 1;
+            next[k] = k + 1;
+        }
+        for (int k = 1; k < n - 1; k++) {
+            area[k] = triangleArea(candidates[k - 1], candidates[k], candidates[k + 1]);
+            queue.add(new Vertex(area[k], k, 0));
+        }
+
+        int remaining = n;
+        double floor = 0;
+        while (remaining > maxPoints) {
+            Vertex v = queue.poll();
+            if (v.stamp != stamp[v.position]) {
+                continue; // Superseded by a later area for the same point
+            }
+            int k = v.position;
+            // A point's effective area never falls below that of one already removed
+            floor = Math.max(floor, v.area);
+            int p = prev[k];
+            int q = next[k];
+            next[p] = q;
+            prev[q] = p;
+            stamp[k] = -1;
+            remaining--;
+            if (p > 0) {
+                requeue(queue, candidates, prev, next, area, stamp, p, floor);
+            }
+            if (q < n - 1) {
+                requeue(queue, candidates, prev, next, area, stamp, q, floor);
+            }
+        }
+
+        int[] indices = new int[remaining];
+        for (int k = 0, i = 0; k < n; k = next[k]) {
+            indices[i++] = candidates[k];
+        }
+        return indices;
+    }
+
+    private void requeue(PriorityQueue<Vertex> queue, int[] candidates, int[] prev, int[] next,
+                         double[] area, int[] stamp, int k, double floor) {
+        area[k] = Math.max(floor, triangleArea(candidates[prev[k]], candidates[k], candidates[next[k]]));
+        queue.add(new Vertex(area[k], k, ++stamp[k]));
+    }
+
+    private double triangleArea(int a, int b, int c) {
+        return Math.abs((xs[b] - xs[a]) * (ys[c] - ys[a]) - (xs[c] - xs[a]) * (ys[b] - ys[a])) * 0.5;
+    }
+
+    /** Squared distance from point i to the segment first–last (not the infinite line, so loops work) */
+    private double segmentDistanceSquared(int i, int first, int last) {
+        double dx = xs[last] - xs[first];
+        double dy = ys[last] - ys[first];
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared > 0
+                ? Math.clamp(((xs[i] - xs[first]) * dx + (ys[i] - ys[first]) * dy) / lengthSquared, 0.0, 1.0)
+                : 0;
+        double ex = xs[first] + t * dx - xs[i];
+        double ey = ys[first] + t * dy - ys[i];
+        return ex * ex + ey * ey;
+    }
+
+    private record Vertex(double area, int position, int stamp) implements Comparable<Vertex> {
+        @Override
+        public int compareTo(Vertex other) {
+            return Double.compare(area, other.area);
+        }
+    }
+}
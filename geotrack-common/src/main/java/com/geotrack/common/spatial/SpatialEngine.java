@@ -1,5 +1,6 @@
 package com.geotrack.common.spatial;
 
+import org.locationtech.jts.algorithm.CGAlgorithmsDD;
 import org.locationtech.jts.geom.*;
 
 import java.util.List;
@@ -14,14 +15,21 @@ import java.util.List;
  * This is the ISO/OGC standard but opposite to how most people think
  * about coordinates (lat, lon). All public methods in this class
  * accept (longitude, latitude) to match JTS conventions.
+ * <p>
+ * Hot paths should prefer the primitive overloads, which take coordinates as
+ * doubles and walk {@link CoordinateSequence}s in place, so a check allocates
+ * no {@code Point} or {@code Coordinate} just to read two numbers.
  */
 public class SpatialEngine {
 
     /** WGS84 — the GPS coordinate system */
     public static final int SRID_WGS84 = 4326;
 
-    /** Approximate metres per degree of latitude */
-    private static final double METRES_PER_DEGREE_LAT = 111_320.0;
+    /** Mean Earth radius (IUGG), for spherical projections and distances */
+    public static final double EARTH_RADIUS_METRES = 6_371_008.8;
+
+    /** Vertices in a circular fence polygon */
+    private static final int CIRCLE_VERTICES = 64;
 
     private final GeometryFactory geometryFactory;
 
@@ -68,8 +76,12 @@ public class SpatialEngine {
     /**
      * Create a circular geofence approximated as a polygon.
      * <p>
-     * Note: This uses a simple degree-based approximation. For high-precision
-     * work at extreme latitudes, a proper geodesic buffer should be used.
+     * Vertices are placed at the true ground distance from the centre along 64
+     * evenly spaced bearings (spherical Earth), so the polygon stays round at
+     * any latitude. It is inscribed in the circle, falling short of the radius
+     * by at most 0.12% between vertices — fine for display and spatial
+     * indexing; containment checks that must be exact should compare distances
+     * to the centre instead.
      *
      * @param centreLon  Centre longitude
      * @param centreLat  Centre latitude
@@ -77,10 +89,83 @@ public class SpatialEngine {
      * @return Polygon approximating a circle
      */
     public Polygon createCircularFence(double centreLon, double centreLat, double radiusMetres) {
-        Point centre = createPoint(centreLon, centreLat);
-        double radiusDegrees = radiusMetres / METRES_PER_DEGREE_LAT;
-        // JTS buffer with 64 segments gives a smooth circle approximation
-        return (Polygon) centre.buffer(radiusDegrees, 64);
+        double lat1 = Math.toRadians(centreLat);
+        double lon1 = Math.toRadians(centreLon);
+        double angle = radiusMetres / EARTH_RADIUS_METRES;
+        double sinLat1 = Math.sin(lat1);
+        double cosLat1 = Math.cos(lat1);
+        double sinAngle = Math.sin(angle);
+        double cosAngle = Math.cos(angle);
+
+        Coordinate[] ring = new Coordinate[CIRCLE_VERTICES + 1];
+        for (int i = 0; i < CIRCLE_VERTICES; i++) {
+            // Counter-clockwise from due north, as JTS expects for shells
+            double bearing = -2 * Math.PI * i / CIRCLE_VERTICES;
+            double sinLat2 = sinLat1 * cosAngle + cosLat1 * sinAngle * Math.cos(bearing);
+            double lon2 = lon1 + Math.atan2(Math.sin(bearing) * sinAngle * cosLat1, cosAngle - sinLat1 * sinLat2);
+            ring[i] = new Coordinate(Math.toDegrees(lon2), Math.toDegrees(Math.asin(sinLat2)));
+        }
+        ring[CIRCLE_VERTICES] = ring[0];
+        return geometryFactory.createPolygon(ring);
+    }
+
+    /**
+     * Buffer a polygon outwards by a ground distance in metres.
+     * <p>
+     * The polygon is projected onto an azimuthal equidistant plane centred on
+     * its centroid, buffered there in metres and projected back, so the buffer
+     * is the same width on the ground in every direction at any latitude —
+     * unlike a buffer in degrees, which narrows east–west away from the equator.
+     * Distortion stays within a few metres for fences up to a few hundred
+     * kilometres across. Intended for one-off use when a fence is registered.
+     *
+     * @param polygon Fence polygon in WGS84
+     * @param metres  Buffer distance in metres (positive)
+     * @return The polygon grown by {@code metres}, with SRID 4326
+     */
+    public Polygon bufferGeodesic(Polygon polygon, double metres) {
+        if (!(metres > 0)) {
+            throw new IllegalArgumentException("Buffer distance must be positive: " + metres);
+        }
+        Point centroid = polygon.getCentroid();
+        double lat0 = Math.toRadians(centroid.getY());
+        double lon0 = Math.toRadians(centroid.getX());
+        double sinLat0 = Math.sin(lat0);
+        double cosLat0 = Math.cos(lat0);
+
+        Geometry projected = polygon.copy();
+        projected.apply((CoordinateFilter) c -> {
+            double lat = Math.toRadians(c.y);
+            double dLon = Math.toRadians(c.x) - lon0;
+            double cosC = sinLat0 * Math.sin(lat) + cosLat0 * Math.cos(lat) * Math.cos(dLon);
+            double angle = Math.acos(Math.max(-1.0, Math.min(1.0, cosC)));
+            double k = angle == 0 ? 1.0 : angle / Math.sin(angle);
+            c.x = EARTH_RADIUS_METRES * k * Math.cos(lat) * Math.sin(dLon);
+            c.y = EARTH_RADIUS_METRES * k * (cosLat0 * Math.sin(lat) - sinLat0 * Math.cos(lat) * Math.cos(dLon));
+        });
+        projected.geometryChanged();
+
+        Geometry buffered = projected.buffer(metres, 16);
+        buffered.apply((CoordinateFilter) c -> {
+            double rho = Math.hypot(c.x, c.y);
+            if (rho == 0) {
+                c.x = centroid.getX();
+                c.y = centroid.getY();
+                return;
+            }
+            double angle = rho / EARTH_RADIUS_METRES;
+            double sinC = Math.sin(angle);
+            double cosC = Math.cos(angle);
+            double lat = Math.asin(cosC * sinLat0 + c.y * sinC * cosLat0 / rho);
+            double lon = lon0 + Math.atan2(c.x * sinC, rho * cosLat0 * cosC - c.y * sinLat0 * sinC);
+            c.x = Math.toDegrees(lon);
+            c.y = Math.toDegrees(lat);
+        });
+        buffered.geometryChanged();
+        if (!(buffered instanceof Polygon result)) {
+            throw new IllegalArgumentException("Buffer did not produce a single polygon: " + buffered.getGeometryType());
+        }
+        return result;
     }
 
     /**
@@ -107,6 +192,49 @@ public class SpatialEngine {
         return polygon.contains(point);
     }
 
+    /**
+     * Check if a coordinate lies in the interior of a polygon, with the same
+     * semantics as {@code Polygon.contains(Point)} — boundary points are not
+     * contained — but without allocating a point. Walks the rings in place,
+     * so cost is linear in the vertex count; fences checked repeatedly are
+     * better served by a prepared geometry.
+     *
+     * @param polygon   The containing geometry
+     * @param longitude WGS84 longitude
+     * @param latitude  WGS84 latitude
+     * @return true if the coordinate is strictly inside
+     */
+    public boolean contains(Polygon polygon, double longitude, double latitude) {
+        if (polygon.isEmpty() || !polygon.getEnvelopeInternal().contains(longitude, latitude)) {
+            return false;
+        }
+        if (locateInRing(polygon.getExteriorRing().getCoordinateSequence(), longitude, latitude)
+                != Location.INTERIOR) {
+            return false;
+        }
+        for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+            if (locateInRing(polygon.getInteriorRingN(i).getCoordinateSequence(), longitude, latitude)
+                    != Location.EXTERIOR) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check each coordinate of a batch for containment, as
+     * {@link #contains(Polygon, double, double)}.
+     *
+     * @param polygon The containing geometry
+     * @param points  Coordinates to test, read in place
+     * @param inside  Receives one result per point; at least {@code points.size()} long
+     */
+    public void contains(Polygon polygon, CoordinateSequence points, boolean[] inside) {
+        for (int i = 0; i < points.size(); i++) {
+            inside[i] = contains(polygon, points.getX(i), points.getY(i));
+        }
+    }
+
     /**
      * Calculate the geodesic distance between two points in metres.
      * Uses the Vincenty formula for accuracy on the WGS84 ellipsoid.
@@ -116,7 +244,71 @@ public class SpatialEngine {
      * @return Distance in metres
      */
     public double distanceMetres(Point a, Point b) {
-        return vincentyDistance(a.getY(), a.getX(), b.getY(), b.getX());
+        return distanceMetres(a, b, DistanceStrategy.VINCENTY);
+    }
+
+    /**
+     * Calculate the distance between two points in metres with a chosen
+     * strategy — see {@link DistanceStrategy} for the accuracy of each.
+     *
+     * @param a        First point
+     * @param b        Second point
+     * @param strategy How to measure
+     * @return Distance in metres
+     */
+    public double distanceMetres(Point a, Point b, DistanceStrategy strategy) {
+        return strategy.distanceMetres(a.getY(), a.getX(), b.getY(), b.getX());
+    }
+
+    /**
+     * Calculate the geodesic distance between two coordinates in metres (Vincenty).
+     *
+     * @param lon1 Longitude of the first point
+     * @param lat1 Latitude of the first point
+     * @param lon2 Longitude of the second point
+     * @param lat2 Latitude of the second point
+     * @return Distance in metres
+     */
+    public double distanceMetres(double lon1, double lat1, double lon2, double lat2) {
+        return DistanceStrategy.VINCENTY.distanceMetres(lat1, lon1, lat2, lon2);
+    }
+
+    /**
+     * Calculate the distance between two coordinates in metres with a chosen strategy.
+     */
+    public double distanceMetres(double lon1, double lat1, double lon2, double lat2, DistanceStrategy strategy) {
+        return strategy.distanceMetres(lat1, lon1, lat2, lon2);
+    }
+
+    /**
+     * Calculate the distance from one coordinate to each of a batch, held as
+     * parallel longitude and latitude arrays.
+     *
+     * @param fromLon    Longitude of the reference point
+     * @param fromLat    Latitude of the reference point
+     * @param longitudes Longitudes of the other points
+     * @param latitudes  Latitudes of the other points
+     * @param count      Number of points to measure, from index 0
+     * @param out        Receives the distances in metres; at least {@code count} long
+     * @param strategy   How to measure
+     */
+    public void distancesMetres(double fromLon, double fromLat, double[] longitudes, double[] latitudes,
+                                int count, double[] out, DistanceStrategy strategy) {
+        for (int i = 0; i < count; i++) {
+            out[i] = strategy.distanceMetres(fromLat, fromLon, latitudes[i], longitudes[i]);
+        }
+    }
+
+    /**
+     * Calculate the distance from one coordinate to each point of a sequence, read in place.
+     *
+     * @param out Receives the distances in metres; at least {@code points.size()} long
+     */
+    public void distancesMetres(double fromLon, double fromLat, CoordinateSequence points,
+                                double[] out, DistanceStrategy strategy) {
+        for (int i = 0; i < points.size(); i++) {
+            out[i] = strategy.distanceMetres(fromLat, fromLon, points.getY(i), points.getX(i));
+        }
     }
 
     /**
@@ -127,9 +319,18 @@ public class SpatialEngine {
      * @return Bearing in degrees (0-360, 0 = North)
      */
     public double bearing(Point from, Point to) {
-        double lat1 = Math.toRadians(from.getY());
-        double lat2 = Math.toRadians(to.getY());
-        double dLon = Math.toRadians(to.getX() - from.getX());
+        return bearing(from.getX(), from.getY(), to.getX(), to.getY());
+    }
+
+    /**
+     * Calculate the initial bearing from one coordinate to another.
+     *
+     * @return Bearing in degrees (0-360, 0 = North)
+     */
+    public double bearing(double fromLon, double fromLat, double toLon, double toLat) {
+        double lat1 = Math.toRadians(fromLat);
+        double lat2 = Math.toRadians(toLat);
+        double dLon = Math.toRadians(toLon - fromLon);
 
         double y = Math.sin(dLon) * Math.cos(lat2);
         double x = Math.cos(lat1) * Math.sin(lat2)
@@ -146,124 +347,147 @@ public class SpatialEngine {
      * @return Total distance in metres
      */
     public double routeLengthMetres(LineString route) {
+        return routeLengthMetres(route, DistanceStrategy.VINCENTY);
+    }
+
+    /**
+     * Calculate the total length of a route in metres with a chosen strategy.
+     *
+     * @param route    LineString representing the route
+     * @param strategy How to measure each segment
+     * @return Total distance in metres
+     */
+    public double routeLengthMetres(LineString route, DistanceStrategy strategy) {
+        return routeLengthMetres(route.getCoordinateSequence(), strategy);
+    }
+
+    /**
+     * Calculate the total length of a sequence of points in metres, reading
+     * the sequence in place rather than copying it out as coordinates.
+     *
+     * @param points   Ordered points of the route
+     * @param strategy How to measure each segment
+     * @return Total distance in metres
+     */
+    public double routeLengthMetres(CoordinateSequence points, DistanceStrategy strategy) {
         double total = 0;
-        Coordinate[] coords = route.getCoordinates();
-        for (int i = 1; i < coords.length; i++) {
-            total += vincentyDistance(
-                    coords[i - 1].y, coords[i - 1].x,
-                    coords[i].y, coords[i].x
-            );
+        int size = points.size();
+        if (size < 2) {
+            return total;
+        }
+        double prevLon = points.getX(0);
+        double prevLat = points.getY(0);
+        for (int i = 1; i < size; i++) {
+            double lon = points.getX(i);
+            double lat = points.getY(i);
+            total += strategy.distanceMetres(prevLat, prevLon, lat, lon);
+            prevLon = lon;
+            prevLat = lat;
         }
         return total;
     }
 
     /**
-     * Get the underlying GeometryFactory for advanced operations.
+     * Simplify a track for display, returning the indices of the points to keep.
+     * <p>
+     * Douglas-Peucker first drops every point within {@code toleranceMetres} of
+     * the simplified line; if more than {@code maxPoints} remain,
+     * Visvalingam-Whyatt then removes the least significant until the budget
+     * is met. Either step can be switched off. The first and last points are
+     * always kept, and indices come back in ascending order.
+     *
+     * @param longitudes      Longitudes of the track, in order
+     * @param latitudes       Latitudes of the track, in order
+     * @param count           Number of points, from index 0
+     * @param toleranceMetres Ground distance a point may deviate from the result; 0 for none
+     * @param maxPoints       Most points to keep (at least 2); {@code Integer.MAX_VALUE} for no limit
+     * @return Ascending indices of the kept points
+     * @throws IllegalArgumentException if the tolerance is negative or the budget below 2
      */
-    public GeometryFactory getGeometryFactory() {
-        return geometryFactory;
+    public int[] simplify(double[] longitudes, double[] latitudes, int count,
+                          double toleranceMetres, int maxPoints) {
+        if (!(toleranceMetres >= 0)) {
+            throw new IllegalArgumentException("Tolerance must not be negative, got: " + toleranceMetres);
+        }
+        if (maxPoints < 2) {
+            throw new IllegalArgumentException("A simplified track needs at least 2 points, got: " + maxPoints);
+        }
+        LineSimplifier simplifier = new LineSimplifier(longitudes, latitudes, count);
+        int[] kept = toleranceMetres > 0 ? simplifier.douglasPeucker(toleranceMetres) : simplifier.all();
+        return simplifier.visvalingam(kept, maxPoints);
     }
 
-    // ========================================================================
-    // Vincenty formula — geodesic distance on WGS84 ellipsoid
-    // ========================================================================
-
     /**
-     * Vincenty's inverse formula for geodesic distance.
-     * Accurate to ~0.5mm on the WGS84 ellipsoid.
+     * Simplify a route to a ground tolerance (Douglas-Peucker).
      *
-     * @param lat1 Latitude of point 1 (degrees)
-     * @param lon1 Longitude of point 1 (degrees)
-     * @param lat2 Latitude of point 2 (degrees)
-     * @param lon2 Longitude of point 2 (degrees)
-     * @return Distance in metres
+     * @param route           Route to simplify
+     * @param toleranceMetres Ground distance a point may deviate from the result
+     * @return The simplified route, sharing the route's factory
      */
-    private double vincentyDistance(double lat1, double lon1, double lat2, double lon2) {
-        double a = 6_378_137.0;          // WGS84 semi-major axis (metres)
-        double f = 1.0 / 298.257223563;  // WGS84 flattening
-        double b = a * (1 - f);          // Semi-minor axis
-
-        double phi1 = Math.toRadians(lat1);
-        double phi2 = Math.toRadians(lat2);
-        double deltaLambda = Math.toRadians(lon2 - lon1);
-
-        // U1, U2 = reduced latitudes in Vincenty formula
-        double u1 = Math.atan((1 - f) * Math.tan(phi1));
-        double u2 = Math.atan((1 - f) * Math.tan(phi2));
-        double sinU1 = Math.sin(u1);
-        double cosU1 = Math.cos(u1);
-        double sinU2 = Math.sin(u2);
-        double cosU2 = Math.cos(u2);
-
-        double lambda = deltaLambda;
-        double lambdaPrev;
-        int iterations = 0;
-
-        double sinSigma;
-        double cosSigma;
-        double sigma;
-        double sinAlpha;
-        double cos2Alpha;
-        double cos2SigmaM;
-
-        do {
-            double sinLambda = Math.sin(lambda);
-            double cosLambda = Math.cos(lambda);
-            sinSigma = Math.sqrt(
-                    Math.pow(cosU2 * sinLambda, 2)
-                    + Math.pow(cosU1 * sinU2 - sinU1 * cosU2 * cosLambda, 2)
-            );
-            if (sinSigma == 0) return 0; // Co-incident points
-
-            cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
-            sigma = Math.atan2(sinSigma, cosSigma);
-            sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma;
-            cos2Alpha = 1 - sinAlpha * sinAlpha;
-            cos2SigmaM = (cos2Alpha != 0)
-                    ? cosSigma - 2 * sinU1 * sinU2 / cos2Alpha
-                    : 0;
-
-            // C coefficient in Vincenty's correction formula
-            double correctionC = f / 16 * cos2Alpha * (4 + f * (4 - 3 * cos2Alpha));
-            lambdaPrev = lambda;
-            lambda = deltaLambda + (1 - correctionC) * f * sinAlpha
-                    * (sigma + correctionC * sinSigma
-                    * (cos2SigmaM + correctionC * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
-        } while (Math.abs(lambda - lambdaPrev) > 1e-12 && ++iterations < 200);
-
-        if (iterations >= 200) {
-            // Failed to converge — fall back to Haversine
-            return haversineDistance(lat1, lon1, lat2, lon2);
+    public LineString simplify(LineString route, double toleranceMetres) {
+        CoordinateSequence points = route.getCoordinateSequence();
+        int size = points.size();
+        double[] longitudes = new double[size];
+        double[] latitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            longitudes[i] = points.getX(i);
+            latitudes[i] = points.getY(i);
         }
+        int[] kept = simplify(longitudes, latitudes, size, toleranceMetres, Integer.MAX_VALUE);
+        Coordinate[] coords = new Coordinate[kept.length];
+        for (int i = 0; i < kept.length; i++) {
+            coords[i] = points.getCoordinateCopy(kept[i]);
+        }
+        return route.getFactory().createLineString(coords);
+    }
 
-        double uSquared = cos2Alpha * (a * a - b * b) / (b * b);
-        // Vincenty coefficients A and B (named a2/b2 for camelCase compliance)
-        double a2 = 1 + uSquared / 16384
-                * (4096 + uSquared * (-768 + uSquared * (320 - 175 * uSquared)));
-        double b2 = uSquared / 1024
-                * (256 + uSquared * (-128 + uSquared * (74 - 47 * uSquared)));
-        double deltaSigma = b2 * sinSigma
-                * (cos2SigmaM + b2 / 4
-                * (cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)
-                - b2 / 6 * cos2SigmaM
-                * (-3 + 4 * sinSigma * sinSigma)
-                * (-3 + 4 * cos2SigmaM * cos2SigmaM)));
-
-        return b * a2 * (sigma - deltaSigma);
+    /**
+     * Get the underlying GeometryFactory for advanced operations.
+     */
+    public GeometryFactory getGeometryFactory() {
+        return geometryFactory;
     }
 
     /**
-     * Haversine formula — simpler, slightly less accurate fallback.
-     * Treats Earth as a perfect sphere (mean radius 6,371km).
+     * Ray-crossing point-in-ring test on primitive coordinates, after JTS's
+     * {@code RayCrossingCounter}, with the same robust orientation predicate.
      */
-    private double haversineDistance(double lat1, double lon1, double lat2, double lon2) {
-        double earthRadius = 6_371_000; // Earth mean radius in metres
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return earthRadius * c;
+    private static int locateInRing(CoordinateSequence ring, double x, double y) {
+        int crossings = 0;
+        double x1 = ring.getX(0);
+        double y1 = ring.getY(0);
+        for (int i = 1; i < ring.size(); i++) {
+            double x2 = ring.getX(i);
+            double y2 = ring.getY(i);
+            if (x1 < x && x2 < x) {
+                // Segment entirely to the left of the ray
+                x1 = x2;
+                y1 = y2;
+                continue;
+            }
+            if (x == x2 && y == y2) {
+                return Location.BOUNDARY;
+            }
+            if (y1 == y && y2 == y) {
+                // Horizontal segment on the ray's line
+                if (x >= Math.min(x1, x2) && x <= Math.max(x1, x2)) {
+                    return Location.BOUNDARY;
+                }
+            } else if ((y1 > y && y2 <= y) || (y2 > y && y1 <= y)) {
+                int orientation = CGAlgorithmsDD.orientationIndex(x1, y1, x2, y2, x, y);
+                if (orientation == 0) {
+                    return Location.BOUNDARY;
+                }
+                if (y2 < y1) {
+                    orientation = -orientation;
+                }
+                if (orientation > 0) {
+                    crossings++;
+                }
+            }
+            x1 = x2;
+            y1 = y2;
+        }
+        return (crossings & 1) == 1 ? Location.INTERIOR : Location.EXTERIOR;
     }
 }
@@ -0,0 +1,62 @@
+package com.geotrack.common.spatial;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementations behind {@link BatchDistance}. Only loaded when
+ * {@code jdk.incubator.vector} is in the boot layer — nothing else may refer
+ * to this class.
+ * <p>
+ * Each loop handles {@code SPECIES.length()} points per iteration with the
+ * same formulae as {@link DistanceStrategy}; the remainder goes through the
+ * scalar path.
+ */
+final class VectorDistanceKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double HALF_RADIANS_PER_DEGREE = Math.PI / 360;
+    private static final double RADIANS_PER_DEGREE = Math.PI / 180;
+    private static final double DIAMETER_METRES = 2 * SpatialEngine.EARTH_RADIUS_METRES;
+
+    private VectorDistanceKernel() {
+    }
+
+    static void haversineMetres(double fromLon, double fromLat, double[] longitudes, double[] latitudes,
+                                int count, double[] out) {
+        double cosFromLat = Math.cos(Math.toRadians(fromLat));
+        int upper = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector lat = DoubleVector.fromArray(SPECIES, latitudes, i);
+            DoubleVector lon = DoubleVector.fromArray(SPECIES, longitudes, i);
+            DoubleVector sinHalfDLat = lat.sub(fromLat).mul(HALF_RADIANS_PER_DEGREE).lanewise(VectorOperators.SIN);
+            DoubleVector sinHalfDLon = lon.sub(fromLon).mul(HALF_RADIANS_PER_DEGREE).lanewise(VectorOperators.SIN);
+            DoubleVector cosLat = lat.mul(RADIANS_PER_DEGREE).lanewise(VectorOperators.COS);
+            DoubleVector h = sinHalfDLat.mul(sinHalfDLat)
+                    .add(cosLat.mul(cosFromLat).mul(sinHalfDLon).mul(sinHalfDLon))
+                    .min(1.0);
+            h.sqrt().lanewise(VectorOperators.ASIN).mul(DIAMETER_METRES).intoArray(out, i);
+        }
+        BatchDistance.scalarMetres(DistanceStrategy.HAVERSINE, fromLon, fromLat, longitudes, latitudes, i, count, out);
+    }
+
+    static void equirectangularMetres(double fromLon, double fromLat, double[] longitudes, double[] latitudes,
+                                      int count, double[] out) {
+        int upper = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector lat = DoubleVector.fromArray(SPECIES, latitudes, i);
+            DoubleVector dLon = DoubleVector.fromArray(SPECIES, longitudes, i).sub(fromLon);
+            // Fold into [-180, 180] so hops across the antimeridian stay short
+            dLon = dLon.sub(360, dLon.compare(VectorOperators.GT, 180))
+                    .add(360, dLon.compare(VectorOperators.LT, -180));
+            DoubleVector x = dLon.mul(lat.add(fromLat).mul(HALF_RADIANS_PER_DEGREE).lanewise(VectorOperators.COS));
+            DoubleVector y = lat.sub(fromLat);
+            x.mul(x).add(y.mul(y)).sqrt().mul(DistanceStrategy.METRES_PER_DEGREE).intoArray(out, i);
+        }
+        BatchDistance.scalarMetres(DistanceStrategy.EQUIRECTANGULAR, fromLon, fromLat, longitudes, latitudes,
+                i, count, out);
+    }
+}
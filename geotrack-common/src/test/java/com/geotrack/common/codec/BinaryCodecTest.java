@@ -0,0 +1,169 @@
+package com.geotrack.common.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.geotrack.common.event.*;
+import com.geotrack.common.model.Position;
+import com.geotrack.common.model.PositionSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BinaryCodec and the wire-format Kafka serializers.
+ */
+class BinaryCodecTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T12:34:56.789123456Z");
+
+    private static final Position POSITION = new Position(UUID.randomUUID(), "VESSEL-0042",
+            54.9783, -1.6178, 12.5, 18.2, 87.0, NOW, PositionSource.AIS);
+
+    private static final Position PREVIOUS = new Position(UUID.randomUUID(), "VESSEL-0042",
+            54.9780, -1.6200, 12.5, 17.9, 86.0, NOW.minusSeconds(10), PositionSource.AIS);
+
+    // ========================================================================
+    // Round trips
+    // ========================================================================
+
+    @Nested
+    @DisplayName("Round Trips")
+    class RoundTrips {
+
+        @Test
+        @DisplayName("Position should survive encode and decode unchanged")
+        void positionShouldRoundTrip() {
+            byte[] payload = BinaryCodec.encode(POSITION);
+
+            assertEquals(POSITION, BinaryCodec.decodePosition(payload));
+            assertEquals(2 + 70 + 2 + "VESSEL-0042".length(), payload.length, "Fixed layout plus the asset ID");
+        }
+
+        @Test
+        @DisplayName("Position without id or source should round-trip its nulls")
+        void positionNullsShouldRoundTrip() {
+            Position bare = new Position(null, "TRUCK-7", 51.5, -0.12, 0, 0, 0, NOW, null);
+
+            assertEquals(bare, BinaryCodec.decodePosition(BinaryCodec.encode(bare)));
+        }
+
+        @Test
+        @DisplayName("Every TrackingEvent type should round-trip")
+        void everyEventShouldRoundTrip() {
+            UUID fence = UUID.randomUUID();
+            List<TrackingEvent> events = List.of(
+                    PositionUpdated.create(POSITION, null),
+                    PositionUpdated.create(POSITION, PREVIOUS),
+                    GeofenceApproached.create("VESSEL-0042", fence, "Tyne Harbour", POSITION),
+                    GeofenceBreached.create("VESSEL-0042", fence, "Tyne Harbour", POSITION),
+                    GeofenceExited.create("VESSEL-0042", fence, null, POSITION),
+                    GeofenceDwellExceeded.create("VESSEL-0042", fence, "Tyne Harbour",
+                            NOW.minusSeconds(900), Duration.ofMinutes(10)),
+                    new AssetOffline(UUID.randomUUID(), "VESSEL-0042", NOW, NOW.minusSeconds(600),
+                            Duration.ofSeconds(600, 250)),
+                    new SpeedLimitExceeded(UUID.randomUUID(), "VESSEL-0042", NOW, 31.5, 25.0, POSITION)
+            );
+
+            for (TrackingEvent event : events) {
+                assertEquals(event, BinaryCodec.decodeEvent(BinaryCodec.encode(event)),
+                        event.getClass().getSimpleName());
+            }
+        }
+
+        @Test
+        @DisplayName("Non-ASCII strings should be length-prefixed in UTF-8 bytes")
+        void nonAsciiShouldRoundTrip() {
+            GeofenceBreached breach = GeofenceBreached.create("BÅT-ø1", UUID.randomUUID(),
+                    "Göteborg hamn 🚢", POSITION);
+
+            assertEquals(breach, BinaryCodec.decodeEvent(BinaryCodec.encode(breach)));
+        }
+    }
+
+    // ========================================================================
+    // Format detection and rejection
+    // ========================================================================
+
+    @Nested
+    @DisplayName("Format Detection")
+    class FormatDetection {
+
+        @Test
+        @DisplayName("Should tell binary payloads from JSON by the first byte")
+        void shouldDetectFormat() {
+            assertEquals(WireFormat.BINARY, WireFormat.of(BinaryCodec.encode(POSITION)));
+            assertEquals(WireFormat.JSON, WireFormat.of("{\"assetId\":\"X\"}".getBytes(StandardCharsets.UTF_8)));
+            assertEquals(WireFormat.JSON, WireFormat.of(" \n{}".getBytes(StandardCharsets.UTF_8)));
+            assertEquals(WireFormat.JSON, WireFormat.of(new byte[0]));
+        }
+
+        @Test
+        @DisplayName("Should reject unknown versions, wrong types and truncated payloads")
+        void shouldRejectBadPayloads() {
+            byte[] payload = BinaryCodec.encode(POSITION);
+
+            byte[] future = payload.clone();
+            future[0] = 2;
+            assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodePosition(future));
+            assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodeEvent(payload));
+            assertThrows(IllegalArgumentException.class,
+                    () -> BinaryCodec.decodePosition(Arrays.copyOf(payload, payload.length - 1)));
+            assertThrows(IllegalArgumentException.class, () -> BinaryCodec.decodePosition(new byte[]{1}));
+        }
+
+        @Test
+        @DisplayName("Should parse format names case-insensitively")
+        void shouldParseFormatNames() {
+            assertEquals(WireFormat.BINARY, WireFormat.parse(" Binary "));
+            assertEquals(WireFormat.JSON, WireFormat.parse("json"));
+            assertThrows(IllegalArgumentException.class, () -> WireFormat.parse("avro"));
+        }
+    }
+
+    // ========================================================================
+    // Kafka serializers
+    // ========================================================================
+
+    @Nested
+    @DisplayName("Serializers")
+    class Serializers {
+
+        @Test
+        @DisplayName("Should write JSON by default, matching the services' ObjectMapper")
+        void shouldDefaultToJson() throws Exception {
+            ObjectMapper mapper = new ObjectMapper()
+                    .registerModule(new JavaTimeModule())
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+            PositionUpdated event = PositionUpdated.create(POSITION, null);
+
+            try (TrackingEventSerializer serializer = new TrackingEventSerializer()) {
+                serializer.configure(Map.of(), false);
+                assertArrayEquals(mapper.writeValueAsBytes(event), serializer.serialize("position.processed", event));
+            }
+        }
+
+        @Test
+        @DisplayName("Should write BinaryCodec when configured for binary")
+        void shouldWriteBinaryWhenConfigured() {
+            try (PositionSerializer serializer = new PositionSerializer()) {
+                serializer.configure(Map.of(WireFormat.CONFIG, "binary"), false);
+                byte[] payload = serializer.serialize("position.raw", POSITION);
+
+                assertEquals(WireFormat.BINARY, WireFormat.of(payload));
+                assertEquals(POSITION, BinaryCodec.decodePosition(payload));
+                assertNull(serializer.serialize("position.raw", null));
+            }
+        }
+    }
+}
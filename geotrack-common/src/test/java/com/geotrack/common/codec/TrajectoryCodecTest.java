@@ -0,0 +1,180 @@
+package com.geotrack.common.codec;
+
+import com.geotrack.common.model.Position;
+import com.geotrack.common.model.PositionSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TrajectoryCodec and its streaming writer and reader.
+ */
+class TrajectoryCodecTest {
+
+    private static final Instant START = Instant.parse("2025-06-01T12:00:00Z");
+
+    /** A vessel heading roughly east out of the Tyne, reporting every 10 seconds */
+    private static List<Position> voyage(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Position> positions = new ArrayList<>(count);
+        double lat = 55.0090;
+        double lon = -1.4400;
+        double heading = 80;
+        for (int i = 0; i < count; i++) {
+            heading = Math.floorMod(Math.round((heading + random.nextDouble(-3, 3)) * 10), 3600) / 10.0;
+            lat += 0.0004 * Math.cos(Math.toRadians(heading));
+            lon += 0.0007 * Math.sin(Math.toRadians(heading));
+            positions.add(new Position(UUID.randomUUID(), "VESSEL-0042", lat, lon, 0,
+                    random.nextDouble(10, 14), heading, START.plusSeconds(10L * i), PositionSource.AIS));
+        }
+        return positions;
+    }
+
+    private static void assertClose(Position expected, Position actual) {
+        assertEquals(expected.assetId(), actual.assetId());
+        assertEquals(expected.source(), actual.source());
+        assertEquals(expected.timestamp().toEpochMilli(), actual.timestamp().toEpochMilli());
+        assertEquals(expected.latitude(), actual.latitude(), 0.5e-7);
+        assertEquals(expected.longitude(), actual.longitude(), 0.5e-7);
+        assertEquals(expected.altitude(), actual.altitude(), 0.05);
+        assertEquals(expected.speed(), actual.speed(), 0.05);
+        assertEquals(expected.heading() % 360, actual.heading(), 0.05);
+        assertNull(actual.id(), "Ids are not kept");
+    }
+
+    // ========================================================================
+    // Round trips
+    // ========================================================================
+
+    @Nested
+    @DisplayName("Round Trips")
+    class RoundTrips {
+
+        @Test
+        @DisplayName("Should decode every position to within its quantisation")
+        void shouldRoundTripWithinQuantisation() {
+            List<Position> voyage = voyage(500);
+
+            List<Position> decoded = TrajectoryCodec.decode(TrajectoryCodec.encode(voyage));
+
+            assertEquals(voyage.size(), decoded.size());
+            for (int i = 0; i < voyage.size(); i++) {
+                assertClose(voyage.get(i), decoded.get(i));
+            }
+        }
+
+        @Test
+        @DisplayName("Should take a fraction of the bytes of the binary event format")
+        void shouldBeCompact() {
+            List<Position> voyage = voyage(1000);
+
+            int trajectoryBytes = TrajectoryCodec.encode(voyage).length;
+            int binaryBytes = voyage.stream().mapToInt(p -> BinaryCodec.encode(p).length).sum();
+
+            assertTrue(trajectoryBytes < 12 * voyage.size(), trajectoryBytes + " bytes");
+            assertTrue(trajectoryBytes * 7 < binaryBytes);
+        }
+
+        @Test
+        @DisplayName("Should cross the antimeridian and wrap headings the short way")
+        void shouldHandleWraparound() {
+            List<Position> positions = List.of(
+                    new Position(null, "AIRCRAFT-7", -16.5, 179.9999, 11000, 850, 359.9, START, null),
+                    new Position(null, "AIRCRAFT-7", -16.5, -179.9999, 11000, 850, 0.1, START.plusSeconds(1), null),
+                    new Position(null, "AIRCRAFT-7", -16.6, -179.9, 10990.5, 849.5, 360, START.plusSeconds(2), null));
+
+            List<Position> decoded = TrajectoryCodec.decode(TrajectoryCodec.encode(positions));
+
+            for (int i = 0; i < positions.size(); i++) {
+                assertClose(positions.get(i), decoded.get(i));
+            }
+            assertEquals(0.0, decoded.get(2).heading(), "360° is due north");
+        }
+
+        @Test
+        @DisplayName("Should reject positions of another asset")
+        void shouldRejectMixedAssets() {
+            List<Position> mixed = List.of(Position.of("A", 54.9, -1.6, START), Position.of("B", 54.9, -1.6, START));
+
+            assertThrows(IllegalArgumentException.class, () -> TrajectoryCodec.encode(mixed));
+            assertThrows(IllegalArgumentException.class, () -> TrajectoryCodec.encode(List.of()));
+        }
+    }
+
+    // ========================================================================
+    // Streaming
+    // ========================================================================
+
+    @Nested
+    @DisplayName("Streaming")
+    class Streaming {
+
+        @Test
+        @DisplayName("Primitive writes and reads should match the Position API")
+        void primitivesShouldMatchPositions() throws Exception {
+            List<Position> voyage = voyage(3000);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (TrajectoryWriter writer = new TrajectoryWriter(bytes, "VESSEL-0042", PositionSource.AIS)) {
+                for (Position p : voyage) {
+                    writer.write(p.timestamp(), p.latitude(), p.longitude(), p.altitude(), p.speed(), p.heading());
+                }
+                assertEquals(voyage.size(), writer.count());
+            }
+            assertArrayEquals(TrajectoryCodec.encode(voyage), bytes.toByteArray(),
+                    "Blocks spanning the writer's buffer should not change the output");
+
+            try (TrajectoryReader reader = new TrajectoryReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+                assertEquals("VESSEL-0042", reader.assetId());
+                assertEquals(PositionSource.AIS, reader.source());
+                int i = 0;
+                while (reader.next()) {
+                    assertEquals(voyage.get(i).latitude(), reader.latitude(), 0.5e-7);
+                    assertEquals(voyage.get(i).timestamp().toEpochMilli(), reader.epochMillis());
+                    i++;
+                }
+                assertEquals(voyage.size(), i);
+            }
+        }
+
+        @Test
+        @DisplayName("An empty run should be just the header")
+        void emptyRunShouldDecode() throws Exception {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            new TrajectoryWriter(bytes, "TRUCK-1", null).close();
+
+            try (TrajectoryReader reader = new TrajectoryReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+                assertEquals("TRUCK-1", reader.assetId());
+                assertNull(reader.source());
+                assertFalse(reader.next());
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject truncated streams and unknown versions")
+        void shouldRejectBadStreams() throws Exception {
+            byte[] encoded = TrajectoryCodec.encode(voyage(10));
+
+            byte[] truncated = Arrays.copyOf(encoded, encoded.length - 1);
+            UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> TrajectoryCodec.decode(truncated));
+            assertInstanceOf(EOFException.class, e.getCause());
+
+            byte[] future = encoded.clone();
+            future[0] = 2;
+            assertThrows(StreamCorruptedException.class, () -> new TrajectoryReader(new ByteArrayInputStream(future)));
+        }
+    }
+}
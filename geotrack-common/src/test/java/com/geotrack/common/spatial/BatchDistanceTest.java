@@ -0,0 +1,87 @@
+package com.geotrack.common.spatial;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BatchDistance — whichever path the JVM selects (the build
+ * enables the Vector API for tests) must agree with {@link DistanceStrategy}.
+ */
+class BatchDistanceTest {
+
+    private static final double FROM_LON = -1.6178;
+    private static final double FROM_LAT = 54.9783;
+
+    @ParameterizedTest(name = "{0} points")
+    @ValueSource(ints = {0, 1, 7, 1000})
+    @DisplayName("Haversine batch should match the scalar strategy, tail included")
+    void haversineShouldMatchScalar(int count) {
+        double[][] batch = randomBatch(count);
+        double[] out = new double[count];
+
+        BatchDistance.haversineMetres(FROM_LON, FROM_LAT, batch[0], batch[1], count, out);
+
+        for (int i = 0; i < count; i++) {
+            double expected = DistanceStrategy.HAVERSINE.distanceMetres(FROM_LAT, FROM_LON, batch[1][i], batch[0][i]);
+            assertEquals(expected, out[i], 1e-6, "point " + i);
+        }
+    }
+
+    @ParameterizedTest(name = "{0} points")
+    @ValueSource(ints = {0, 1, 7, 1000})
+    @DisplayName("Equirectangular batch should match the scalar strategy, tail included")
+    void equirectangularShouldMatchScalar(int count) {
+        double[][] batch = randomBatch(count);
+        double[] out = new double[count];
+
+        BatchDistance.equirectangularMetres(FROM_LON, FROM_LAT, batch[0], batch[1], count, out);
+
+        for (int i = 0; i < count; i++) {
+            double expected = DistanceStrategy.EQUIRECTANGULAR.distanceMetres(
+                    FROM_LAT, FROM_LON, batch[1][i], batch[0][i]);
+            assertEquals(expected, out[i], 1e-6, "point " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Equirectangular batch should measure short hops across the antimeridian")
+    void equirectangularShouldWrapAntimeridian() {
+        double[] longitudes = new double[16];
+        double[] latitudes = new double[16];
+        Arrays.fill(longitudes, -179.99);
+        double[] out = new double[16];
+
+        BatchDistance.equirectangularMetres(179.99, 0, longitudes, latitudes, 16, out);
+
+        for (double distance : out) {
+            assertEquals(2_224, distance, 5);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a count beyond the buffers")
+    void shouldRejectOversizedCount() {
+        double[] small = new double[4];
+        assertThrows(IllegalArgumentException.class, () ->
+                BatchDistance.haversineMetres(FROM_LON, FROM_LAT, small, small, 5, new double[8]));
+    }
+
+    /** Longitudes and latitudes within a few hundred kilometres of Newcastle */
+    private static double[][] randomBatch(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] longitudes = new double[count];
+        double[] latitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            longitudes[i] = FROM_LON + random.nextDouble(-3, 3);
+            latitudes[i] = FROM_LAT + random.nextDouble(-2, 2);
+        }
+        return new double[][]{longitudes, latitudes};
+    }
+}
@@ -0,0 +1,180 @@
+package com.geotrack.common.spatial;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GeoCell — pure bit arithmetic and one JTS cover.
+ */
+class GeoCellTest {
+
+    private static final double NEWCASTLE_LON = -1.6178;
+    private static final double NEWCASTLE_LAT = 54.9783;
+
+    @Nested
+    @DisplayName("Encoding")
+    class Encoding {
+
+        @ParameterizedTest(name = "level {0}")
+        @ValueSource(ints = {0, 1, 8, 16, 24, GeoCell.MAX_LEVEL})
+        @DisplayName("Encoded cell should contain the point and decode to its level")
+        void encodedCellShouldContainPoint(int level) {
+            long cell = GeoCell.encode(NEWCASTLE_LON, NEWCASTLE_LAT, level);
+
+            assertTrue(cell >= 0, "Ids are non-negative");
+            assertEquals(level, GeoCell.level(cell));
+            assertTrue(GeoCell.minLongitude(cell) <= NEWCASTLE_LON && NEWCASTLE_LON < GeoCell.maxLongitude(cell));
+            assertTrue(GeoCell.minLatitude(cell) <= NEWCASTLE_LAT && NEWCASTLE_LAT < GeoCell.maxLatitude(cell));
+            assertEquals(cell, GeoCell.fromXY(GeoCell.x(cell), GeoCell.y(cell), level));
+        }
+
+        @Test
+        @DisplayName("Corners of the world should fall in the corner cells")
+        void cornersShouldClamp() {
+            int level = 12;
+            long last = (1L << level) - 1;
+
+            long southWest = GeoCell.encode(-180, -90, level);
+            long northEast = GeoCell.encode(180, 90, level);
+
+            assertEquals(0, GeoCell.x(southWest));
+            assertEquals(0, GeoCell.y(southWest));
+            assertEquals(last, GeoCell.x(northEast));
+            assertEquals(last, GeoCell.y(northEast));
+        }
+
+        @Test
+        @DisplayName("Centre of a cell should encode back to the same cell")
+        void centreShouldRoundTrip() {
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < 1000; i++) {
+                long cell = GeoCell.encode(random.nextDouble(-180, 180), random.nextDouble(-90, 90), 20);
+                assertEquals(cell, GeoCell.encode(GeoCell.centreLongitude(cell), GeoCell.centreLatitude(cell), 20));
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject levels outside 0 to MAX_LEVEL")
+        void shouldRejectBadLevel() {
+            assertThrows(IllegalArgumentException.class, () -> GeoCell.encode(0, 0, -1));
+            assertThrows(IllegalArgumentException.class, () -> GeoCell.encode(0, 0, GeoCell.MAX_LEVEL + 1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Hierarchy")
+    class Hierarchy {
+
+        @Test
+        @DisplayName("Parent should be the coarser encoding of the same point")
+        void parentShouldMatchCoarserEncoding() {
+            long fine = GeoCell.encode(NEWCASTLE_LON, NEWCASTLE_LAT, 20);
+
+            assertEquals(GeoCell.encode(NEWCASTLE_LON, NEWCASTLE_LAT, 19), GeoCell.parent(fine));
+            assertEquals(GeoCell.encode(NEWCASTLE_LON, NEWCASTLE_LAT, 10), GeoCell.parent(fine, 10));
+            assertEquals(0, GeoCell.parent(fine, 0), "Level 0 is the whole world");
+        }
+
+        @Test
+        @DisplayName("Children should tile their parent")
+        void childrenShouldTileParent() {
+            long parent = GeoCell.encode(NEWCASTLE_LON, NEWCASTLE_LAT, 10);
+
+            for (int quadrant = 0; quadrant < 4; quadrant++) {
+                long child = GeoCell.child(parent, quadrant);
+                assertEquals(parent, GeoCell.parent(child));
+                assertTrue(GeoCell.contains(parent, child));
+            }
+            assertFalse(GeoCell.contains(GeoCell.child(parent, 0), parent));
+            assertFalse(GeoCell.contains(parent, GeoCell.encode(-0.1276, 51.5074, 12)), "London is elsewhere");
+        }
+    }
+
+    @Nested
+    @DisplayName("Neighbours")
+    class Neighbours {
+
+        @Test
+        @DisplayName("Interior cell should have eight distinct adjacent neighbours")
+        void interiorCellShouldHaveEight() {
+            long cell = GeoCell.encode(NEWCASTLE_LON, NEWCASTLE_LAT, 16);
+            long[] out = new long[8];
+
+            assertEquals(8, GeoCell.neighbours(cell, out));
+            assertEquals(8, Arrays.stream(out).distinct().count());
+            for (long neighbour : out) {
+                assertTrue(Math.abs(GeoCell.x(neighbour) - GeoCell.x(cell)) <= 1);
+                assertTrue(Math.abs(GeoCell.y(neighbour) - GeoCell.y(cell)) <= 1);
+            }
+        }
+
+        @Test
+        @DisplayName("Should wrap across the antimeridian but not across a pole")
+        void shouldWrapAntimeridianOnly() {
+            long east = GeoCell.encode(179.9999, 0, 16);
+            assertEquals(GeoCell.encode(-179.9999, 0, 16), GeoCell.neighbour(east, 1, 0));
+
+            long polar = GeoCell.encode(0, 89.9999, 16);
+            assertEquals(GeoCell.NONE, GeoCell.neighbour(polar, 0, 1));
+            assertEquals(5, GeoCell.neighbours(polar, new long[8]));
+        }
+    }
+
+    @Nested
+    @DisplayName("Polygon Cover")
+    class PolygonCover {
+
+        private final SpatialEngine engine = new SpatialEngine();
+
+        private final Polygon tyneside = engine.createPolygon(List.of(
+                new double[]{-1.75, 54.90},
+                new double[]{-1.40, 54.95},
+                new double[]{-1.45, 55.10},
+                new double[]{-1.70, 55.05}
+        ));
+
+        @Test
+        @DisplayName("Cover should include the cell of every point inside the polygon")
+        void coverShouldIncludeInteriorPoints() {
+            long[] cover = GeoCell.cover(tyneside, 14, 10_000);
+
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < 2000; i++) {
+                double lon = random.nextDouble(-1.75, -1.40);
+                double lat = random.nextDouble(54.90, 55.10);
+                if (engine.contains(tyneside, lon, lat)) {
+                    assertTrue(Arrays.binarySearch(cover, GeoCell.encode(lon, lat, 14)) >= 0,
+                            "(%f, %f)".formatted(lon, lat));
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Every cover cell should touch the polygon")
+        void coverShouldBeTight() {
+            long[] cover = GeoCell.cover(tyneside, 14, 10_000);
+
+            assertTrue(cover.length > 0);
+            for (long cell : cover) {
+                assertEquals(14, GeoCell.level(cell));
+                assertTrue(tyneside.intersects(engine.getGeometryFactory().toGeometry(GeoCell.envelope(cell))));
+            }
+        }
+
+        @Test
+        @DisplayName("Should refuse a cover beyond maxCells")
+        void shouldRefuseOversizedCover() {
+            assertThrows(IllegalArgumentException.class, () -> GeoCell.cover(tyneside, 20, 1_000));
+        }
+    }
+}
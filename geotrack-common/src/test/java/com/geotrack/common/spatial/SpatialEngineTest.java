@@ -7,10 +7,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
 
 import java.util.List;
+import java.util.SplittableRandom;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -116,6 +118,20 @@ class SpatialEngineTest {
             Point centre = engine.createPoint(-1.6178, 54.9783);
             assertTrue(circle.contains(centre));
         }
+
+        @ParameterizedTest(name = "latitude {0}")
+        @CsvSource({"0.0", "54.97", "70.0"})
+        @DisplayName("Circle vertices should lie at the radius in every direction")
+        void circleShouldBeRoundAtAnyLatitude(double latitude) {
+            Polygon circle = engine.createCircularFence(-1.6178, latitude, 1000);
+            Point centre = engine.createPoint(-1.6178, latitude);
+
+            assertTrue(circle.isValid());
+            for (var vertex : circle.getCoordinates()) {
+                // Spherical placement, measured on the ellipsoid: within 0.7%
+                assertEquals(1000, engine.distanceMetres(centre, engine.createPoint(vertex.x, vertex.y)), 7);
+            }
+        }
     }
 
     // ========================================================================
@@ -153,6 +169,30 @@ class SpatialEngineTest {
             assertFalse(engine.contains(northEastEngland, london));
         }
 
+        @Test
+        @DisplayName("Primitive containment should agree with Polygon.contains, holes and boundary included")
+        void primitiveContainsShouldMatchJts() {
+            Polygon withHole = engine.getGeometryFactory().createPolygon(
+                    northEastEngland.getExteriorRing(),
+                    new LinearRing[]{engine.createPolygon(List.of(
+                            new double[]{-2.0, 54.8},
+                            new double[]{-1.5, 54.8},
+                            new double[]{-1.5, 55.2},
+                            new double[]{-2.0, 55.2}
+                    )).getExteriorRing()});
+
+            for (double lon = -2.75; lon <= -0.75; lon += 0.125) {
+                for (double lat = 54.25; lat <= 55.75; lat += 0.1) {
+                    Point point = engine.createPoint(lon, lat);
+                    assertEquals(withHole.contains(point), engine.contains(withHole, lon, lat),
+                            "(%f, %f)".formatted(lon, lat));
+                }
+            }
+            assertFalse(engine.contains(withHole, -2.5, 55.0), "On the shell");
+            assertFalse(engine.contains(withHole, -1.5, 55.0), "On the hole");
+            assertTrue(engine.contains(withHole, -1.25, 55.0));
+        }
+
         @ParameterizedTest
         @CsvSource({
                 "-1.6178, 54.9783, true",   // Newcastle
@@ -212,6 +252,22 @@ class SpatialEngineTest {
                     "Short distance should be between 500m and 2km, got: " + distance);
         }
 
+        @Test
+        @DisplayName("Primitive and batch distances should match the Point overload")
+        void primitiveShouldMatchPoints() {
+            Point newcastle = engine.createPoint(-1.6178, 54.9783);
+            Point london = engine.createPoint(-0.1276, 51.5074);
+            double expected = engine.distanceMetres(newcastle, london);
+
+            assertEquals(expected, engine.distanceMetres(-1.6178, 54.9783, -0.1276, 51.5074));
+
+            double[] out = new double[2];
+            engine.distancesMetres(-1.6178, 54.9783, new double[]{-0.1276, -1.6178},
+                    new double[]{51.5074, 54.9783}, 2, out, DistanceStrategy.VINCENTY);
+            assertEquals(expected, out[0]);
+            assertEquals(0.0, out[1]);
+        }
+
         @Test
         @DisplayName("Should handle antipodal points")
         void antipodalPoints() {
@@ -225,6 +281,70 @@ class SpatialEngineTest {
         }
     }
 
+    // ========================================================================
+    // Distance strategies
+    // ========================================================================
+
+    @Nested
+    @DisplayName("Distance Strategies")
+    class DistanceStrategies {
+
+        @ParameterizedTest(name = "{0}")
+        @CsvSource({"HAVERSINE", "EQUIRECTANGULAR"})
+        @DisplayName("Approximations should stay within their documented bound of Vincenty")
+        void shouldStayWithinBound(DistanceStrategy strategy) {
+            double[][] hops = {
+                    {54.9783, -1.6178, 54.9783, -1.6050},   // Across Newcastle
+                    {54.9783, -1.6178, 54.7753, -1.5491},   // Newcastle to Durham
+                    {60.1699, 24.9384, 60.4518, 22.2666},   // Helsinki to Turku
+                    {-33.8688, 151.2093, -33.9, 151.3}      // Sydney
+            };
+            for (double[] hop : hops) {
+                double exact = DistanceStrategy.VINCENTY.distanceMetres(hop[0], hop[1], hop[2], hop[3]);
+                double approx = strategy.distanceMetres(hop[0], hop[1], hop[2], hop[3]);
+                assertEquals(exact, approx, exact * strategy.relativeErrorBound(exact));
+            }
+        }
+
+        @Test
+        @DisplayName("Default distance should be Vincenty")
+        void defaultShouldBeVincenty() {
+            Point newcastle = engine.createPoint(-1.6178, 54.9783);
+            Point london = engine.createPoint(-0.1276, 51.5074);
+
+            assertEquals(engine.distanceMetres(newcastle, london, DistanceStrategy.VINCENTY),
+                    engine.distanceMetres(newcastle, london));
+        }
+
+        @Test
+        @DisplayName("Equirectangular should measure short hops across the antimeridian")
+        void equirectangularShouldWrapAntimeridian() {
+            double distance = DistanceStrategy.EQUIRECTANGULAR.distanceMetres(0, 179.99, 0, -179.99);
+            assertEquals(2_224, distance, 5);
+        }
+
+        @Test
+        @DisplayName("Should pick the cheapest strategy meeting the accuracy")
+        void shouldPickCheapest() {
+            assertEquals(DistanceStrategy.EQUIRECTANGULAR, DistanceStrategy.cheapest(0.01, 50_000));
+            assertEquals(DistanceStrategy.HAVERSINE, DistanceStrategy.cheapest(0.01, 5_000_000));
+            assertEquals(DistanceStrategy.VINCENTY, DistanceStrategy.cheapest(0.001, 1_000));
+        }
+
+        @Test
+        @DisplayName("Cached-cosine distance should match equirectangular near its latitude")
+        void localDistanceShouldMatchNearReference() {
+            LocalDistance local = new LocalDistance(54.97);
+            double exact = DistanceStrategy.VINCENTY.distanceMetres(54.9783, -1.6178, 54.9783, -1.6050);
+
+            double distance = local.distanceMetres(54.9783, -1.6178, 54.9783, -1.6050);
+
+            assertEquals(exact, distance, exact * local.relativeErrorBound(exact, 0.01));
+            assertTrue(local.isWithin(54.9783, -1.6178, 54.9783, -1.6050, 850));
+            assertFalse(local.isWithin(54.9783, -1.6178, 54.9783, -1.6050, 800));
+        }
+    }
+
     // ========================================================================
     // Bearing calculations
     // ========================================================================
@@ -296,5 +416,147 @@ class SpatialEngineTest {
             // Newcastle to Durham: ~24km
             assertEquals(24_000, length, 5_000);
         }
+
+        @Test
+        @DisplayName("Route length over the coordinate sequence should match per-segment distances")
+        void routeLengthShouldSumSegments() {
+            LineString route = engine.createLineString(List.of(
+                    new double[]{-1.6178, 54.9783},  // Newcastle
+                    new double[]{-1.5491, 54.7753},   // Durham
+                    new double[]{-1.3249, 54.5653}    // Darlington
+            ));
+
+            double expected = engine.distanceMetres(-1.6178, 54.9783, -1.5491, 54.7753)
+                    + engine.distanceMetres(-1.5491, 54.7753, -1.3249, 54.5653);
+
+            assertEquals(expected, engine.routeLengthMetres(route), 1e-6);
+            assertEquals(0.0, engine.routeLengthMetres(
+                    route.getFactory().createLineString(), DistanceStrategy.VINCENTY));
+        }
+    }
+
+    // ========================================================================
+    // Route simplification
+    // ========================================================================
+
+    @Nested
+    @DisplayName("Route Simplification")
+    class RouteSimplification {
+
+        /** Metres per degree of latitude, near enough for building test tracks */
+        private static final double METRES_PER_DEGREE = 111_195.0;
+
+        @Test
+        @DisplayName("Should drop points within the tolerance of a straight track")
+        void shouldDropPointsWithinTolerance() {
+            // Due north from Newcastle with a 3 m wobble every 100 m
+            int count = 100;
+            double[] lons = new double[count];
+            double[] lats = new double[count];
+            for (int i = 0; i < count; i++) {
+                lats[i] = 54.9783 + i * 100 / METRES_PER_DEGREE;
+                lons[i] = -1.6178 + (i % 2 == 0 ? 3 : -3) / (METRES_PER_DEGREE * Math.cos(Math.toRadians(55)));
+            }
+
+            assertArrayEquals(new int[]{0, count - 1}, engine.simplify(lons, lats, count, 10, Integer.MAX_VALUE));
+            assertEquals(count, engine.simplify(lons, lats, count, 1, Integer.MAX_VALUE).length);
+        }
+
+        @Test
+        @DisplayName("Should keep a detour beyond the tolerance")
+        void shouldKeepDetour() {
+            double offset = 50 / (METRES_PER_DEGREE * Math.cos(Math.toRadians(55)));
+            double[] lats = {55.0, 55.001, 55.002, 55.003, 55.004};
+            double[] lons = {-1.6, -1.6, -1.6 + offset, -1.6, -1.6};
+
+            assertArrayEquals(new int[]{0, 1, 2, 3, 4}, engine.simplify(lons, lats, 5, 20, Integer.MAX_VALUE));
+            assertArrayEquals(new int[]{0, 4}, engine.simplify(lons, lats, 5, 60, Integer.MAX_VALUE));
+        }
+
+        @Test
+        @DisplayName("Should cut a long track to the point budget, keeping its ends")
+        void shouldMeetPointBudget() {
+            int count = 1000;
+            double[] lons = new double[count];
+            double[] lats = new double[count];
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 1; i < count; i++) {
+                lons[i] = lons[i - 1] + random.nextDouble(-0.001, 0.001);
+                lats[i] = lats[i - 1] + random.nextDouble(-0.001, 0.001);
+            }
+
+            int[] kept = engine.simplify(lons, lats, count, 0, 50);
+
+            assertEquals(50, kept.length);
+            assertEquals(0, kept[0]);
+            assertEquals(count - 1, kept[kept.length - 1]);
+            for (int i = 1; i < kept.length; i++) {
+                assertTrue(kept[i] > kept[i - 1], "Indices ascend");
+            }
+        }
+
+        @Test
+        @DisplayName("Should simplify a LineString")
+        void shouldSimplifyLineString() {
+            LineString route = engine.createLineString(List.of(
+                    new double[]{-1.6178, 54.9783},
+                    new double[]{-1.6177, 54.9800},   // ~6 m off the chord
+                    new double[]{-1.6178, 54.9820}
+            ));
+
+            LineString simplified = engine.simplify(route, 20);
+
+            assertEquals(2, simplified.getNumPoints());
+            assertEquals(route.getCoordinateN(2), simplified.getCoordinateN(1));
+        }
+
+        @Test
+        @DisplayName("Should reject a negative tolerance or a budget under two points")
+        void shouldRejectBadArguments() {
+            double[] coords = {0, 1, 2};
+            assertThrows(IllegalArgumentException.class, () -> engine.simplify(coords, coords, 3, -1, 10));
+            assertThrows(IllegalArgumentException.class, () -> engine.simplify(coords, coords, 3, 0, 1));
+        }
+    }
+
+    // ========================================================================
+    // Geodesic buffers
+    // ========================================================================
+
+    @Nested
+    @DisplayName("Geodesic Buffer")
+    class GeodesicBuffer {
+
+        /** Point {@code metres} due east of (lon, lat) */
+        private Point eastOf(double lon, double lat, double metres) {
+            return engine.createPoint(lon + metres / (111_320.0 * Math.cos(Math.toRadians(lat))), lat);
+        }
+
+        @ParameterizedTest(name = "at latitude {0}")
+        @CsvSource({"0.0", "54.97", "70.0"})
+        @DisplayName("Buffer width should be true on the ground at any latitude")
+        void widthShouldBeTrueOnGround(double lat) {
+            Polygon fence = engine.createPolygon(List.of(
+                    new double[]{-1.65, lat},
+                    new double[]{-1.58, lat},
+                    new double[]{-1.58, lat + 0.04},
+                    new double[]{-1.65, lat + 0.04}
+            ));
+            Polygon buffered = engine.bufferGeodesic(fence, 500);
+            double midLat = lat + 0.02;
+
+            assertTrue(buffered.contains(eastOf(-1.58, midLat, 450)), "450 m out is within the buffer");
+            assertFalse(buffered.contains(eastOf(-1.58, midLat, 550)), "550 m out is beyond it");
+            assertTrue(buffered.contains(engine.createPoint(-1.58, lat - 450 / 111_320.0)));
+            assertFalse(buffered.contains(engine.createPoint(-1.58, lat - 550 / 111_320.0)));
+            assertEquals(SpatialEngine.SRID_WGS84, buffered.getSRID());
+        }
+
+        @Test
+        @DisplayName("Should reject non-positive distances")
+        void shouldRejectNonPositive() {
+            Polygon fence = engine.createCircularFence(-1.6131, 54.9738, 1000);
+            assertThrows(IllegalArgumentException.class, () -> engine.bufferGeodesic(fence, 0));
+        }
     }
 }
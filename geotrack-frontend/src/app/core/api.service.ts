@@ -48,10 +48,12 @@ export class ApiService {
     return this.http.get<AssetPosition[]>(`${this.baseUrl}/positions/latest`);
   }
 
-  getPositionHistory(assetId: string, from?: string, to?: string): Observable<AssetPosition[]> {
+  /** maxPoints asks the API for a simplified trail of at most that many points */
+  getPositionHistory(assetId: string, from?: string, to?: string, maxPoints?: number): Observable<AssetPosition[]> {
     let params = new HttpParams().set('assetId', assetId);
     if (from) params = params.set('from', from);
     if (to) params = params.set('to', to);
+    if (maxPoints) params = params.set('maxPoints', maxPoints);
     return this.http.get<AssetPosition[]>(`${this.baseUrl}/positions/history`, { params });
   }
 
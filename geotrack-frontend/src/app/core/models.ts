@@ -45,7 +45,8 @@ export interface Alert {
 }
 
 export interface TrackingEvent {
-  type: 'POSITION_UPDATED' | 'GEOFENCE_BREACHED' | 'GEOFENCE_EXITED' | 'SPEED_EXCEEDED';
+  type: 'POSITION_UPDATED' | 'GEOFENCE_APPROACHED' | 'GEOFENCE_BREACHED' | 'GEOFENCE_EXITED'
+    | 'GEOFENCE_DWELL' | 'SPEED_EXCEEDED' | 'ASSET_OFFLINE';
   payload: AssetPosition | Alert;
 }
 
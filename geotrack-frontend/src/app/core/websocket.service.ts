@@ -21,7 +21,7 @@ export class WebSocketService implements OnDestroy {
   /** Observable stream of real-time position updates */
   readonly positionUpdates$: Observable<AssetPosition>;
 
-  /** Observable stream of alert events (geofence breaches, speed violations) */
+  /** Observable stream of alert events (geofence approaches, breaches, exits and dwells, speed violations) */
   readonly alerts$: Observable<Alert>;
 
   /** Connection status */
@@ -53,9 +53,12 @@ export class WebSocketService implements OnDestroy {
 
     this.alerts$ = shared$.pipe(
       filter(event =>
+        event.type === 'GEOFENCE_APPROACHED' ||
         event.type === 'GEOFENCE_BREACHED' ||
         event.type === 'GEOFENCE_EXITED' ||
-        event.type === 'SPEED_EXCEEDED'
+        event.type === 'GEOFENCE_DWELL' ||
+        event.type === 'SPEED_EXCEEDED' ||
+        event.type === 'ASSET_OFFLINE'
       ),
       map(event => event.payload as Alert)
     );
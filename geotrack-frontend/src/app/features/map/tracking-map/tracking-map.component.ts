@@ -189,7 +189,7 @@ export class TrackingMapComponent implements OnInit, OnDestroy {
         const trailFrom = new Date(Date.now() - 1800000).toISOString(); // last 30 minutes
         from$(positions).pipe(
           mergeMap(pos =>
-            this.apiService.getPositionHistory(pos.assetId, trailFrom).pipe(
+            this.apiService.getPositionHistory(pos.assetId, trailFrom, undefined, this.MAX_TRAIL_POINTS).pipe(
               catchError(() => of([] as AssetPosition[]))
             ),
             6 // max 6 concurrent requests
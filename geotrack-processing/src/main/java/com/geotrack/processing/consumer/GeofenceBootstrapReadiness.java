@@ -0,0 +1,32 @@
+package com.geotrack.processing.consumer;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * Not ready until the active geofences have been loaded from PostGIS.
+ * <p>
+ * Until then every position would be evaluated against no fences and raise
+ * nothing, so the instance is held out of service while the load retries.
+ */
+@Readiness
+@ApplicationScoped
+public class GeofenceBootstrapReadiness implements HealthCheck {
+
+    private final GeofenceChangeConsumer changeConsumer;
+
+    @Inject
+    public GeofenceBootstrapReadiness(GeofenceChangeConsumer changeConsumer) {
+        this.changeConsumer = changeConsumer;
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named("geofence-bootstrap")
+                .status(changeConsumer.isBootstrapped())
+                .build();
+    }
+}
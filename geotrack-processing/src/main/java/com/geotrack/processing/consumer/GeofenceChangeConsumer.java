@@ -0,0 +1,216 @@
+package com.geotrack.processing.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geotrack.common.event.GeofenceChanged;
+import com.geotrack.processing.geofence.GeofenceEngine;
+import com.geotrack.processing.geofence.GeofenceEngine.Geofence;
+import com.geotrack.processing.geofence.GeofenceLoader;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.reactive.messaging.annotations.Blocking;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.io.WKTReader;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@link GeofenceEngine} in step with the geofences stored by the API.
+ * <p>
+ * On startup every active fence is bulk-loaded from PostGIS into a single
+ * registry snapshot. After that, edits arrive on the 'geofence.changes' topic
+ * and are applied one fence at a time — the engine swaps snapshots atomically,
+ * so position evaluation never pauses for a reload.
+ * <p>
+ * No edit can fall between the load and the topic: on first assignment
+ * {@link GeofenceChangesRebalanceListener} seeks the topic back to
+ * {@link #replayFrom()}, a moment before the load began. Changes that arrive
+ * while the bootstrap is still pending are held back and replayed after it, so
+ * a fence edited during startup ends in its latest state — applying an edit the
+ * load already saw is harmless. Checkpointed per-asset state is restored
+ * between the load and the replay, once the fences it refers to are registered.
+ * <p>
+ * A failed load is retried until it succeeds. Until then the service reports
+ * itself not ready ({@link GeofenceBootstrapReadiness}), and
+ * {@link PositionEventConsumer} holds incoming positions in
+ * {@link #awaitBootstrap()} rather than evaluating them against no fences and
+ * committing their offsets.
+ */
+@ApplicationScoped
+public class GeofenceChangeConsumer {
+
+    private static final GeometryFactory WGS84 = new GeometryFactory(new PrecisionModel(), 4326);
+
+    /** Allowance for producer clock skew when seeking the topic by record timestamp */
+    static final Duration REPLAY_MARGIN = Duration.ofMinutes(1);
+
+    private final GeofenceEngine geofenceEngine;
+    private final GeofenceLoader geofenceLoader;
+    private final ObjectMapper objectMapper;
+    private final long retryIntervalMillis;
+    private final ScheduledExecutorService retryScheduler;
+
+    /** Taken before any load attempt, so every edit the load could miss was published after it */
+    private final Instant createdAt = Instant.now();
+
+    /** Changes received before the bootstrap finished; null once it has. Guarded by {@code this} */
+    private List<GeofenceChanged> pending = new ArrayList<>();
+
+    /** Released once the bootstrap has finished, held changes included */
+    private final CountDownLatch bootstrapped = new CountDownLatch(1);
+
+    @Inject
+    public GeofenceChangeConsumer(
+            GeofenceEngine geofenceEngine,
+            GeofenceLoader geofenceLoader,
+            ObjectMapper objectMapper,
+            @ConfigProperty(name = "geotrack.geofence.bootstrap.retry-interval-ms", defaultValue = "5000")
+            long retryIntervalMillis) {
+        this.geofenceEngine = geofenceEngine;
+        this.geofenceLoader = geofenceLoader;
+        this.objectMapper = objectMapper;
+        this.retryIntervalMillis = retryIntervalMillis;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "geofence-bootstrap");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        bootstrapOrRetry();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        retryScheduler.shutdownNow();
+    }
+
+    private void bootstrapOrRetry() {
+        if (!bootstrap()) {
+            Log.warnf("Retrying geofence bootstrap in %d ms", retryIntervalMillis);
+            retryScheduler.schedule(this::bootstrapOrRetry, retryIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Where the 'geofence.changes' topic must be read from so the bootstrap misses no edit */
+    public Instant replayFrom() {
+        return createdAt.minus(REPLAY_MARGIN);
+    }
+
+    /** Whether the active fences have been loaded, i.e. positions are evaluated against them */
+    public synchronized boolean isBootstrapped() {
+        return pending == null;
+    }
+
+    /**
+     * Block until the active fences have been loaded and asset state restored.
+     *
+     * @throws InterruptedException if interrupted while waiting, e.g. on shutdown
+     */
+    public void awaitBootstrap() throws InterruptedException {
+        bootstrapped.await();
+    }
+
+    /**
+     * Load all active geofences, restore asset state, then apply any changes
+     * that raced the load. A failed load leaves the engine untouched and the
+     * changes held back for the next attempt.
+     *
+     * @return Whether the fences are loaded, now or by an earlier call
+     */
+    synchronized boolean bootstrap() {
+        if (pending == null) {
+            return true;
+        }
+        List<Geofence> fences;
+        try {
+            fences = geofenceLoader.loadActive();
+        } catch (Exception e) {
+            Log.errorf(e, "Failed to load geofences from PostGIS (%d changes held back)", pending.size());
+            return false;
+        }
+        geofenceEngine.registerGeofences(fences);
+
+        try {
+            int restored = geofenceEngine.restoreState();
+            Log.infof("Restored geofence state for %d assets", restored);
+        } catch (Exception e) {
+            Log.errorf(e, "Failed to restore geofence state — assets start UNKNOWN");
+        }
+
+        List<GeofenceChanged> replay = pending;
+        pending = null;
+        replay.forEach(this::apply);
+        bootstrapped.countDown();
+
+        Log.infof("Loaded %d active geofences (%d changes replayed)", fences.size(), replay.size());
+        return true;
+    }
+
+    /**
+     * Consumes geofence edits published by the API.
+     * A malformed change is logged and skipped; it must not stop later edits.
+     */
+    @Incoming("geofence-changes")
+    @Blocking
+    public synchronized void consume(String payload) {
+        GeofenceChanged change;
+        try {
+            change = objectMapper.readValue(payload, GeofenceChanged.class);
+        } catch (Exception e) {
+            Log.errorf(e, "Failed to parse geofence change: %s", payload);
+            return;
+        }
+
+        if (pending != null) {
+            pending.add(change);
+            return;
+        }
+        apply(change);
+    }
+
+    private void apply(GeofenceChanged change) {
+        try {
+            switch (change.changeType()) {
+                case UPSERTED -> geofenceEngine.registerGeofence(toGeofence(change));
+                case DEACTIVATED -> geofenceEngine.removeGeofence(change.geofenceId());
+            }
+            Log.debugf("Applied geofence %s: %s (registry version %d)",
+                    change.changeType(), change.geofenceId(), geofenceEngine.getRegistryVersion());
+        } catch (Exception e) {
+            Log.errorf(e, "Failed to apply geofence change for %s", change.geofenceId());
+        }
+    }
+
+    private static Geofence toGeofence(GeofenceChanged change) throws Exception {
+        // WKTReader is not thread-safe; changes are rare enough to build one each time
+        Polygon geometry = (Polygon) new WKTReader(WGS84).read(change.geometryWkt());
+        return new Geofence(
+                change.geofenceId(),
+                change.name(),
+                geometry,
+                change.fenceType(),
+                change.alertOnEnter(),
+                change.alertOnExit(),
+                change.bufferMetres(),
+                change.assetTypes(),
+                change.positionSources(),
+                GeofenceLoader.dwellThreshold(change.dwellMinutes()),
+                change.circle()
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package com.geotrack.processing.consumer;
+
+import io.quarkus.logging.Log;
+import io.smallrye.common.annotation.Identifier;
+import io.smallrye.reactive.messaging.kafka.KafkaConsumerRebalanceListener;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Positions the 'geofence.changes' consumer so the startup bulk load misses
+ * no edit.
+ * <p>
+ * Each instance reads the topic in its own consumer group, which never commits
+ * offsets: the broker then deletes the group once the instance leaves, rather
+ * than keeping an orphaned group per restart. Starting from the latest offset
+ * at assignment would lose any edit published between the PostGIS read and
+ * the assignment, so a partition is sought back to
+ * {@link GeofenceChangeConsumer#replayFrom()} instead. A partition revoked and
+ * then assigned again resumes from where it was revoked, held here in place of
+ * a committed offset; one that was lost is replayed from the start again, which
+ * is harmless as edits are idempotent.
+ * <p>
+ * Runs on the Kafka polling thread.
+ */
+@ApplicationScoped
+@Identifier("geofence-changes-rebalancer")
+public class GeofenceChangesRebalanceListener implements KafkaConsumerRebalanceListener {
+
+    private final GeofenceChangeConsumer changeConsumer;
+    /** Where each revoked partition had been read up to */
+    private final Map<TopicPartition, Long> revokedAt = new HashMap<>();
+
+    @Inject
+    public GeofenceChangesRebalanceListener(GeofenceChangeConsumer changeConsumer) {
+        this.changeConsumer = changeConsumer;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        long from = changeConsumer.replayFrom().toEpochMilli();
+        Map<TopicPartition, Long> query = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            Long resumeAt = revokedAt.remove(partition);
+            if (resumeAt != null) {
+                consumer.seek(partition, resumeAt);
+            } else {
+                query.put(partition, from);
+            }
+        }
+        if (query.isEmpty()) {
+            return;
+        }
+
+        Map<TopicPartition, OffsetAndTimestamp> offsets = consumer.offsetsForTimes(query);
+        for (TopicPartition partition : query.keySet()) {
+            OffsetAndTimestamp offset = offsets.get(partition);
+            if (offset != null) {
+                consumer.seek(partition, offset.offset());
+                Log.debugf("Replaying geofence changes on %s from offset %d", partition, offset.offset());
+            } else {
+                // Nothing published since: the load saw every edit
+                consumer.seekToEnd(List.of(partition));
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsRevoked(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            revokedAt.put(partition, consumer.position(partition));
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // Positions of lost partitions cannot be read: replay them from the start
+        partitions.forEach(revokedAt::remove);
+    }
+}
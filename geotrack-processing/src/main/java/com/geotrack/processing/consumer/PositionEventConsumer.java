@@ -1,127 +1,438 @@
 package com.geotrack.processing.consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geotrack.common.codec.BinaryCodec;
+import com.geotrack.common.event.GeofenceApproached;
 import com.geotrack.common.event.GeofenceBreached;
 import com.geotrack.common.event.GeofenceExited;
 import com.geotrack.common.event.PositionUpdated;
 import com.geotrack.common.model.Position;
 import com.geotrack.common.model.PositionSource;
 import com.geotrack.common.validation.CoordinateValidator;
+import com.geotrack.processing.engine.KeyedLaneExecutor;
 import com.geotrack.processing.geofence.GeofenceEngine;
 import com.geotrack.processing.geofence.GeofenceEngine.GeofenceTransition;
 import com.geotrack.processing.publisher.EventPublisher;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
 import io.smallrye.reactive.messaging.annotations.Blocking;
+import io.smallrye.reactive.messaging.kafka.KafkaRecord;
+import io.smallrye.reactive.messaging.kafka.KafkaRecordBatch;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 /**
  * Kafka consumer for raw position events.
  * <p>
- * Consumes from the 'position.raw' topic, validates, enriches,
- * checks geofences, and publishes processed events.
+ * Consumes from the 'position.raw' topic a whole poll at a time, validates and
+ * enriches each record, checks geofences, and publishes processed events.
+ * Until {@link GeofenceChangeConsumer} has loaded the fences the first batch is
+ * held, and with it the polling, so no position is evaluated against an empty
+ * registry and acknowledged past before the fences are there.
  * <p>
- * {@code @Blocking} ensures processing runs on a worker thread (or virtual thread),
+ * Positions are evaluated on a {@link KeyedLaneExecutor}: each asset hashes to
+ * one of N lanes, so an asset's positions are processed in order while other
+ * assets' run in parallel, and a single partition can use every core. Each lane
+ * checks its share of a batch on its own thread with
+ * {@link GeofenceEngine#checkPositionsInOrder}, so the lanes are the only
+ * parallelism. With a shared state backend the batch's asset state is read
+ * once before the lanes start and written once after they have all finished,
+ * writes in poll order on a single {@code geofence-state-writer} thread.
+ * The polling thread moves on to the next batch once this one is queued, up to
+ * {@code geotrack.processing.max-pending-batches} in flight. Every position
+ * they hold is published through the processed-position emitter, so startup
+ * fails unless the emitter's buffer and Kafka's in-flight limit can take that
+ * many at once; otherwise sends would be refused under load.
+ * <p>
+ * Batches are acknowledged in poll order, each once every lane has finished its
+ * share and Kafka has acknowledged every event it produced, so no offset is
+ * committed before all lanes have passed it. A record that cannot be decoded,
+ * or whose events could not be published, is dead-lettered on its own; if a
+ * lane fails before publishing anything, all of its records are. The rest of
+ * the batch carries on.
+ * <p>
+ * The assets seen on each partition are remembered, so that when a rebalance
+ * revokes the partition {@link PositionRebalanceListener} can release their
+ * near-cache leases: if the partition comes back after another instance has
+ * had it, their state is re-read from the shared backend rather than trusted.
+ * <p>
+ * Records may be JSON or {@link BinaryCodec} binary, told apart by their first
+ * byte, so producers can switch formats independently of this service.
+ * <p>
+ * {@code @Blocking} ensures decoding runs on a worker thread (or virtual thread),
  * keeping the Vert.x event loop free.
  */
 @ApplicationScoped
 public class PositionEventConsumer {
 
     private final GeofenceEngine geofenceEngine;
+    private final GeofenceChangeConsumer changeConsumer;
     private final EventPublisher eventPublisher;
-    private final ObjectMapper objectMapper;
+    private final RawPositionEventReader rawReader;
+    private final DistributionSummary batchSize;
+    private final KeyedLaneExecutor lanes;
+    private final Semaphore pendingBatches;
+
+    /** Assets seen on each assigned partition since it was assigned */
+    private final Map<Integer, Set<String>> assetsByPartition = new ConcurrentHashMap<>();
+
+    /** Writes batches' asset state to the shared backend, if there is one */
+    private final ExecutorService stateWriter;
+
+    /** Acknowledgement of the latest batch; each batch's ack waits for the one before */
+    private CompletableFuture<Void> lastAck = CompletableFuture.completedFuture(null);
+
+    /** State write of the latest batch; each batch's write waits for the one before */
+    private CompletableFuture<Void> lastStore = CompletableFuture.completedFuture(null);
 
     @Inject
     public PositionEventConsumer(
             GeofenceEngine geofenceEngine,
+            GeofenceChangeConsumer changeConsumer,
             EventPublisher eventPublisher,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @ConfigProperty(name = "geotrack.processing.lanes", defaultValue = "0")
+            int laneCount,
+            @ConfigProperty(name = "geotrack.processing.max-pending-batches", defaultValue = "2")
+            int maxPendingBatches,
+            @ConfigProperty(name = "geotrack.kafka.batch.max-records", defaultValue = "500")
+            int maxRecords,
+            @ConfigProperty(name = "mp.messaging.emitter.default-buffer-size", defaultValue = "128")
+            int emitterBufferSize,
+            @ConfigProperty(name = "mp.messaging.outgoing.position-processed.max-inflight-messages",
+                    defaultValue = "1024")
+            int maxInflightMessages) {
+        checkEmitterCapacity(maxRecords, Math.max(1, maxPendingBatches), emitterBufferSize, maxInflightMessages);
         this.geofenceEngine = geofenceEngine;
+        this.changeConsumer = changeConsumer;
         this.eventPublisher = eventPublisher;
-        this.objectMapper = objectMapper;
+        this.rawReader = new RawPositionEventReader(objectMapper);
+        this.batchSize = DistributionSummary.builder("geotrack.positions.batch.size")
+                .description("Raw position records per consumed poll batch")
+                .baseUnit("records")
+                .register(meterRegistry);
+        this.lanes = new KeyedLaneExecutor("position-lane",
+                laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors());
+        this.pendingBatches = new Semaphore(Math.max(1, maxPendingBatches));
+        this.stateWriter = geofenceEngine.hasStateBackend()
+                ? Executors.newSingleThreadExecutor(Thread.ofVirtual().name("geofence-state-writer").factory())
+                : null;
+    }
+
+    /**
+     * Fail fast unless the processed-position emitter can hold every position
+     * of every pending batch: those it cannot buffer or hand to Kafka are refused.
+     */
+    static void checkEmitterCapacity(int maxRecords, int maxPendingBatches,
+                                     int emitterBufferSize, int maxInflightMessages) {
+        long inFlight = (long) maxRecords * maxPendingBatches;
+        // 0 lifts Kafka's in-flight limit
+        if (maxInflightMessages > 0 && inFlight > (long) emitterBufferSize + maxInflightMessages) {
+            throw new IllegalArgumentException(("geotrack.kafka.batch.max-records (%d) x "
+                    + "geotrack.processing.max-pending-batches (%d) = %d positions in flight, more than the "
+                    + "position-processed emitter buffer (%d) plus max-inflight-messages (%d) can hold")
+                    .formatted(maxRecords, maxPendingBatches, inFlight, emitterBufferSize, maxInflightMessages));
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        lanes.close();
+        if (stateWriter != null) {
+            stateWriter.close();
+        }
     }
 
     /**
-     * Consumes raw position events from Kafka.
-     * SmallRye Reactive Messaging handles deserialization, offset commits,
-     * and back-pressure automatically.
+     * Consumes a poll's worth of raw position events from Kafka.
+     * Batch size and wait are the channel's {@code max.poll.records} and
+     * {@code fetch.max.wait.ms}; acknowledging the batch commits its offsets.
+     * <p>
+     * Returns once the batch is queued on its lanes, blocking first until the
+     * fences are loaded and while {@code max-pending-batches} earlier batches
+     * are still in flight.
      */
     @Incoming("position-raw")
     @Blocking
-    public void consume(String payload) {
-        try {
-            RawPositionEvent raw = objectMapper.readValue(payload, RawPositionEvent.class);
+    public CompletionStage<Void> consume(KafkaRecordBatch<String, byte[]> batch) {
+        List<KafkaRecord<String, byte[]>> records = batch.getRecords();
+        batchSize.record(records.size());
 
-            // Validate coordinates
-            if (!CoordinateValidator.isValidCoordinate(raw.latitude(), raw.longitude())) {
-                Log.warnf("Invalid coordinates for asset %s: [%f, %f] — discarding",
-                        raw.assetId(), raw.latitude(), raw.longitude());
-                return;
+        if (!changeConsumer.isBootstrapped()) {
+            Log.infof("Holding %d position events until the geofences are loaded", records.size());
+            try {
+                changeConsumer.awaitBootstrap();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // Shutting down: left unacknowledged, so the partition's next owner re-reads it
+                return CompletableFuture.completedFuture(null);
             }
+        }
 
-            if (CoordinateValidator.isNullIsland(raw.latitude(), raw.longitude())) {
-                Log.warnf("Null Island position for asset %s — discarding", raw.assetId());
-                return;
+        int laneCount = lanes.laneCount();
+        @SuppressWarnings("unchecked")
+        List<Position>[] lanePositions = new List[laneCount];
+        @SuppressWarnings("unchecked")
+        List<KafkaRecord<String, byte[]>>[] laneRecords = new List[laneCount];
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        Set<String> assetIds = new LinkedHashSet<>();
+        for (KafkaRecord<String, byte[]> record : records) {
+            Position position;
+            try {
+                position = toPosition(record.getPayload());
+            } catch (Exception e) {
+                Log.errorf(e, "Failed to process position event: %s", describe(record.getPayload()));
+                // SmallRye DLQ strategy will route this record alone to position.dlq
+                pending.add(record.nack(new PositionProcessingException("Position processing failed", e))
+                        .toCompletableFuture());
+                continue;
             }
+            if (position != null) {
+                assetsByPartition.computeIfAbsent(record.getPartition(), p -> ConcurrentHashMap.newKeySet())
+                        .add(position.assetId());
+                assetIds.add(position.assetId());
+                int lane = lanes.laneOf(position.assetId());
+                if (lanePositions[lane] == null) {
+                    lanePositions[lane] = new ArrayList<>();
+                    laneRecords[lane] = new ArrayList<>();
+                }
+                lanePositions[lane].add(position);
+                laneRecords[lane].add(record);
+            }
+        }
 
-            // Create domain position
-            Position position = new Position(
-                    UUID.randomUUID(),
-                    raw.assetId(),
-                    raw.latitude(),
-                    raw.longitude(),
-                    raw.altitude(),
-                    raw.speed(),
-                    raw.heading(),
-                    raw.timestamp() != null ? raw.timestamp() : Instant.now(),
-                    PositionSource.GPS
-            );
+        // Back-pressure: hold this worker, and with it the next poll, until a batch completes
+        pendingBatches.acquireUninterruptibly();
+        List<String> batchAssets = List.copyOf(assetIds);
+        geofenceEngine.loadStates(batchAssets);
+        List<CompletableFuture<?>> evaluations = new ArrayList<>(laneCount);
+        for (int lane = 0; lane < laneCount; lane++) {
+            List<Position> positions = lanePositions[lane];
+            if (positions != null) {
+                CompletableFuture<List<CompletableFuture<Void>>> evaluated =
+                        lanes.submit(lane, () -> process(positions));
+                evaluations.add(evaluated);
+                pending.add(deliver(evaluated, laneRecords[lane]));
+            }
+        }
+        if (stateWriter != null && !batchAssets.isEmpty()) {
+            pending.add(storeAfter(evaluations, batchAssets));
+        }
 
-            Log.debugf("Processing position for asset %s at [%f, %f]",
-                    position.assetId(), position.latitude(), position.longitude());
+        CompletableFuture<Void> previousAck = lastAck;
+        lastAck = CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new))
+                .exceptionally(failure -> null) // Dead-lettered records are already logged
+                .thenCombine(previousAck, (done, previous) -> previous)
+                .thenCompose(ignored -> batch.ack())
+                .handle((acked, failure) -> {
+                    pendingBatches.release();
+                    if (failure != null) {
+                        Log.errorf(failure, "Failed to acknowledge batch of %d position events", records.size());
+                    }
+                    return null;
+                });
+        return CompletableFuture.completedFuture(null);
+    }
 
-            // Check geofences
-            var transitions = geofenceEngine.checkPosition(position);
+    /**
+     * Release the near-cache leases of every asset seen on these partitions,
+     * which this instance no longer owns.
+     */
+    void releasePartitions(Collection<Integer> partitions) {
+        List<String> assetIds = new ArrayList<>();
+        for (Integer partition : partitions) {
+            Set<String> assets = assetsByPartition.remove(partition);
+            if (assets != null) {
+                assetIds.addAll(assets);
+            }
+        }
+        geofenceEngine.releaseLeases(assetIds);
+    }
+
+    /**
+     * Write the batch's asset state once every lane has evaluated its share,
+     * after the previous batch's write.
+     */
+    private CompletableFuture<Void> storeAfter(List<CompletableFuture<?>> evaluations, List<String> assetIds) {
+        CompletableFuture<Void> previousStore = lastStore;
+        lastStore = CompletableFuture.allOf(evaluations.toArray(CompletableFuture[]::new))
+                .exceptionally(failure -> null) // A failed lane's records are dead-lettered; what it evaluated stands
+                .thenCombine(previousStore, (evaluated, previous) -> previous)
+                .thenRunAsync(() -> geofenceEngine.storeStates(assetIds), stateWriter)
+                .exceptionally(failure -> {
+                    Log.errorf(failure, "Failed to store geofence state for %d assets", assetIds.size());
+                    return null;
+                });
+        return lastStore;
+    }
+
+    /**
+     * Deliver one lane's share of a batch, completing once each record's
+     * events are published or the record dead-lettered. Only records that
+     * were not fully processed go to position.dlq: every record of a lane that
+     * failed before publishing, otherwise just those with a failed send.
+     */
+    private CompletableFuture<Void> deliver(CompletableFuture<List<CompletableFuture<Void>>> evaluated,
+                                            List<KafkaRecord<String, byte[]>> records) {
+        return evaluated.handle((published, e) -> {
+            if (e != null) {
+                Log.errorf(e, "Failed to process %d position events", records.size());
+                PositionProcessingException failure = new PositionProcessingException("Position processing failed", e);
+                return CompletableFuture.allOf(records.stream()
+                        .map(record -> record.nack(failure).toCompletableFuture())
+                        .toArray(CompletableFuture[]::new));
+            }
+            CompletableFuture<?>[] delivered = new CompletableFuture<?>[records.size()];
+            for (int i = 0; i < delivered.length; i++) {
+                KafkaRecord<String, byte[]> record = records.get(i);
+                delivered[i] = published.get(i).exceptionallyCompose(sendFailure -> {
+                    Log.errorf(sendFailure, "Failed to publish events for position: %s", describe(record.getPayload()));
+                    return record.nack(new PositionProcessingException("Position publishing failed", sendFailure))
+                            .toCompletableFuture();
+                });
+            }
+            return CompletableFuture.allOf(delivered);
+        }).thenCompose(done -> done);
+    }
+
+    /**
+     * Decode, validate and enrich one record.
+     *
+     * @return The position, or null if it is invalid and should be discarded
+     */
+    private Position toPosition(byte[] payload) throws IOException {
+        RawPositionEvent raw = BinaryCodec.isBinary(payload)
+                ? RawPositionEvent.of(BinaryCodec.decodePosition(payload))
+                : rawReader.read(payload);
+
+        // Validate coordinates
+        if (!CoordinateValidator.isValidCoordinate(raw.latitude(), raw.longitude())) {
+            Log.warnf("Invalid coordinates for asset %s: [%f, %f] — discarding",
+                    raw.assetId(), raw.latitude(), raw.longitude());
+            return null;
+        }
+
+        if (CoordinateValidator.isNullIsland(raw.latitude(), raw.longitude())) {
+            Log.warnf("Null Island position for asset %s — discarding", raw.assetId());
+            return null;
+        }
+
+        // Create domain position
+        return new Position(
+                UUID.randomUUID(),
+                raw.assetId(),
+                raw.latitude(),
+                raw.longitude(),
+                raw.altitude(),
+                raw.speed(),
+                raw.heading(),
+                raw.timestamp() != null ? raw.timestamp() : Instant.now(),
+                raw.source() != null ? raw.source() : PositionSource.GPS
+        );
+    }
+
+    /**
+     * Check geofences for a lane's positions and publish each position's alerts,
+     * then the position itself.
+     *
+     * @return One future per position, completing once all its events are sent
+     */
+    private List<CompletableFuture<Void>> process(List<Position> positions) {
+        List<List<GeofenceTransition>> transitions = geofenceEngine.checkPositionsInOrder(positions);
+
+        List<CompletableFuture<Void>> published = new ArrayList<>(positions.size());
+        for (int i = 0; i < positions.size(); i++) {
+            published.add(publish(positions.get(i), transitions.get(i)));
+        }
+        return published;
+    }
+
+    /** Publish one position's alerts, then the position itself */
+    private CompletableFuture<Void> publish(Position position, List<GeofenceTransition> transitions) {
+        List<CompletableFuture<Void>> sends = new ArrayList<>(transitions.size() + 1);
+        try {
             for (GeofenceTransition transition : transitions) {
-                if (transition.isEntry()) {
-                    eventPublisher.publishGeofenceBreach(
-                            GeofenceBreached.create(
-                                    position.assetId(),
-                                    transition.geofenceId(),
-                                    transition.geofenceName(),
-                                    position
-                            )
-                    );
-                } else if (transition.isExit()) {
-                    eventPublisher.publishGeofenceExit(
-                            GeofenceExited.create(
-                                    position.assetId(),
-                                    transition.geofenceId(),
-                                    transition.geofenceName(),
-                                    position
-                            )
-                    );
+                CompletionStage<Void> sent = publishTransition(transition, position);
+                if (sent != null) {
+                    sends.add(sent.toCompletableFuture());
                 }
             }
 
             // Publish processed position
-            eventPublisher.publishProcessedPosition(
+            sends.add(eventPublisher.publishProcessedPosition(
                     PositionUpdated.create(position, null)
-            );
+            ).toCompletableFuture());
+        } catch (RuntimeException e) {
+            // e.g. an emitter refusing the send: this position alone is unprocessed
+            return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new));
+    }
 
-        } catch (Exception e) {
-            Log.errorf(e, "Failed to process position event: %s", payload);
-            // SmallRye DLQ strategy will route this to position.dlq
-            throw new PositionProcessingException("Position processing failed", e);
+    private CompletionStage<Void> publishTransition(GeofenceTransition transition, Position position) {
+        if (transition.isEntry()) {
+            return eventPublisher.publishGeofenceBreach(
+                    GeofenceBreached.create(
+                            position.assetId(),
+                            transition.geofenceId(),
+                            transition.geofenceName(),
+                            position
+                    )
+            );
+        } else if (transition.isExit()) {
+            return eventPublisher.publishGeofenceExit(
+                    GeofenceExited.create(
+                            position.assetId(),
+                            transition.geofenceId(),
+                            transition.geofenceName(),
+                            position
+                    )
+            );
+        } else if (transition.isApproach()) {
+            return eventPublisher.publishGeofenceApproach(
+                    GeofenceApproached.create(
+                            position.assetId(),
+                            transition.geofenceId(),
+                            transition.geofenceName(),
+                            position
+                    )
+            );
         }
+        return null;
+    }
+
+    private static String describe(byte[] payload) {
+        return BinaryCodec.isBinary(payload)
+                ? "binary, " + payload.length + " bytes"
+                : new String(payload, StandardCharsets.UTF_8);
     }
 
     /**
      * Raw position event DTO — matches the JSON published by ingestion.
+     * {@code source} is optional and defaults to GPS; AIS and ADS-B feeds set it,
+     * which also selects the vessel- and aircraft-only geofences.
      */
     public record RawPositionEvent(
             String assetId,
@@ -130,6 +441,15 @@ public class PositionEventConsumer {
             double altitude,
             double speed,
             double heading,
-            Instant timestamp
-    ) {}
+            Instant timestamp,
+            PositionSource source
+    ) {
+
+        /** From a binary-encoded position; its id is replaced like any other raw event's */
+        static RawPositionEvent of(Position position) {
+            return new RawPositionEvent(position.assetId(), position.latitude(), position.longitude(),
+                    position.altitude(), position.speed(), position.heading(),
+                    position.timestamp(), position.source());
+        }
+    }
 }
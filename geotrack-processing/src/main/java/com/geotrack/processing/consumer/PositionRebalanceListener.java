@@ -0,0 +1,48 @@
+package com.geotrack.processing.consumer;
+
+import io.quarkus.logging.Log;
+import io.smallrye.common.annotation.Identifier;
+import io.smallrye.reactive.messaging.kafka.KafkaConsumerRebalanceListener;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+
+/**
+ * Hands assets back to the shared state backend when their 'position.raw'
+ * partitions leave this instance.
+ * <p>
+ * Near-cache leases are time-based, so without this an instance that loses a
+ * partition and later gets it back could go on trusting state that another
+ * instance has moved on in the meantime. Revoked and lost partitions alike
+ * release the leases of every asset seen on them.
+ * <p>
+ * Runs on the Kafka polling thread.
+ */
+@ApplicationScoped
+@Identifier("position-raw-rebalancer")
+public class PositionRebalanceListener implements KafkaConsumerRebalanceListener {
+
+    private final PositionEventConsumer positionConsumer;
+
+    @Inject
+    public PositionRebalanceListener(PositionEventConsumer positionConsumer) {
+        this.positionConsumer = positionConsumer;
+    }
+
+    @Override
+    public void onPartitionsRevoked(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        positionConsumer.releasePartitions(partitions.stream().map(TopicPartition::partition).toList());
+        Log.debugf("Released geofence state leases for revoked partitions %s", partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        onPartitionsRevoked(consumer, partitions);
+    }
+}
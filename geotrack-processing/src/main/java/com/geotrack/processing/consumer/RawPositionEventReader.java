@@ -0,0 +1,211 @@
+package com.geotrack.processing.consumer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geotrack.common.model.PositionSource;
+import com.geotrack.processing.consumer.PositionEventConsumer.RawPositionEvent;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Reads a JSON {@link RawPositionEvent} straight from a Kafka record's bytes
+ * with a streaming {@link JsonParser} — no String decode, no databind record
+ * construction, numbers read as primitives and ISO-8601 UTC timestamps parsed
+ * by hand.
+ * <p>
+ * Only the shapes the producers actually send take this path: the event's own
+ * fields (plus the {@code id} of a serialised {@code Position}), numbers as
+ * numbers, and timestamps of the form {@code 2025-06-01T12:34:56.789Z}.
+ * Anything else — unknown fields, coerced types, offsets, epoch numbers — is
+ * handed to the {@link ObjectMapper} exactly as before, so the result never
+ * differs from {@code objectMapper.readValue}, only the cost.
+ * <p>
+ * Thread-safe: each call creates its own parser.
+ */
+public final class RawPositionEventReader {
+
+    private static final PositionSource[] SOURCES = PositionSource.values();
+
+    private final ObjectMapper objectMapper;
+    private final JsonFactory factory;
+
+    public RawPositionEventReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.factory = objectMapper.getFactory();
+    }
+
+    /**
+     * @throws IOException if the payload is not valid JSON or cannot be bound
+     *                     to a RawPositionEvent by the ObjectMapper either
+     */
+    public RawPositionEvent read(byte[] payload) throws IOException {
+        RawPositionEvent event = readFast(payload);
+        return event != null ? event : objectMapper.readValue(payload, RawPositionEvent.class);
+    }
+
+    /** The event, or null if the payload needs the ObjectMapper */
+    private RawPositionEvent readFast(byte[] payload) throws IOException {
+        String assetId = null;
+        double latitude = 0;
+        double longitude = 0;
+        double altitude = 0;
+        double speed = 0;
+        double heading = 0;
+        Instant timestamp = null;
+        PositionSource source = null;
+
+        try (JsonParser parser = factory.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "assetId" -> {
+                        if (value != JsonToken.VALUE_STRING) return null;
+                        assetId = parser.getText();
+                    }
+                    case "latitude" -> {
+                        if (!isNumber(value)) return null;
+                        latitude = parser.getDoubleValue();
+                    }
+                    case "longitude" -> {
+                        if (!isNumber(value)) return null;
+                        longitude = parser.getDoubleValue();
+                    }
+                    case "altitude" -> {
+                        if (!isNumber(value)) return null;
+                        altitude = parser.getDoubleValue();
+                    }
+                    case "speed" -> {
+                        if (!isNumber(value)) return null;
+                        speed = parser.getDoubleValue();
+                    }
+                    case "heading" -> {
+                        if (!isNumber(value)) return null;
+                        heading = parser.getDoubleValue();
+                    }
+                    case "timestamp" -> {
+                        if (value == JsonToken.VALUE_NULL) {
+                            timestamp = null;
+                            continue;
+                        }
+                        if (value != JsonToken.VALUE_STRING) return null;
+                        timestamp = parseUtcInstant(parser.getTextCharacters(),
+                                parser.getTextOffset(), parser.getTextLength());
+                        if (timestamp == null) return null;
+                    }
+                    case "source" -> {
+                        if (value == JsonToken.VALUE_NULL) {
+                            source = null;
+                            continue;
+                        }
+                        if (value != JsonToken.VALUE_STRING) return null;
+                        source = sourceNamed(parser.getText());
+                        if (source == null) return null;
+                    }
+                    case "id" -> parser.skipChildren(); // A serialised Position's id; not part of the event
+                    default -> {
+                        return null;
+                    }
+                }
+            }
+            if (token != JsonToken.END_OBJECT || parser.nextToken() != null) {
+                return null;
+            }
+        }
+        return new RawPositionEvent(assetId, latitude, longitude, altitude, speed, heading, timestamp, source);
+    }
+
+    private static boolean isNumber(JsonToken token) {
+        return token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT;
+    }
+
+    private static PositionSource sourceNamed(String name) {
+        for (PositionSource source : SOURCES) {
+            if (source.name().equals(name)) {
+                return source;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parse {@code yyyy-MM-ddTHH:mm:ss[.fraction]Z} without a formatter.
+     *
+     * @return The instant, or null for any other form or an out-of-range field
+     */
+    static Instant parseUtcInstant(char[] text, int offset, int length) {
+        // yyyy-MM-ddTHH:mm:ssZ is 20 characters; up to 9 fraction digits after a '.'
+        if (length < 20 || length > 30 || text[offset + length - 1] != 'Z'
+                || text[offset + 4] != '-' || text[offset + 7] != '-' || text[offset + 10] != 'T'
+                || text[offset + 13] != ':' || text[offset + 16] != ':') {
+            return null;
+        }
+        int year = digits(text, offset, 4);
+        int month = digits(text, offset + 5, 2);
+        int day = digits(text, offset + 8, 2);
+        int hour = digits(text, offset + 11, 2);
+        int minute = digits(text, offset + 14, 2);
+        int second = digits(text, offset + 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+
+        int nanos = 0;
+        int fractionDigits = length - 21;
+        if (fractionDigits >= 0) {
+            if (text[offset + 19] != '.' || fractionDigits == 0) {
+                return null;
+            }
+            int fraction = digits(text, offset + 20, fractionDigits);
+            if (fraction < 0) {
+                return null;
+            }
+            nanos = fraction;
+            for (int i = fractionDigits; i < 9; i++) {
+                nanos *= 10;
+            }
+        }
+
+        long epochSecond = daysFromCivil(year, month, day) * 86_400L + hour * 3600L + minute * 60L + second;
+        return Instant.ofEpochSecond(epochSecond, nanos);
+    }
+
+    /** Unsigned decimal of {@code count} digits, or -1 if any is not a digit */
+    private static int digits(char[] text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = text[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /** Days since 1970-01-01 of a proleptic Gregorian date (Howard Hinnant's algorithm) */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+}
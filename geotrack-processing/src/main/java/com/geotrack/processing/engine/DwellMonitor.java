@@ -0,0 +1,76 @@
+package com.geotrack.processing.engine;
+
+import com.geotrack.common.event.GeofenceDwellExceeded;
+import com.geotrack.processing.geofence.GeofenceEngine;
+import com.geotrack.processing.geofence.GeofenceEngine.GeofenceDwell;
+import com.geotrack.processing.publisher.EventPublisher;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the geofence engine's dwell timers and publishes the resulting
+ * {@link GeofenceDwellExceeded} alerts.
+ * <p>
+ * Dwell alerts have no position of their own to trigger them — an asset parked
+ * inside a fence may stop reporting altogether — so a single background thread
+ * advances the timer wheel once a second.
+ */
+@ApplicationScoped
+public class DwellMonitor {
+
+    private static final long TICK_MILLIS = 1_000;
+
+    private final GeofenceEngine geofenceEngine;
+    private final EventPublisher eventPublisher;
+    private final ScheduledExecutorService scheduler;
+
+    @Inject
+    public DwellMonitor(GeofenceEngine geofenceEngine, EventPublisher eventPublisher) {
+        this.geofenceEngine = geofenceEngine;
+        this.eventPublisher = eventPublisher;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "geofence-dwell");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        scheduler.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Publish a dwell alert for every timer due by now.
+     * Failures are logged: an exception would cancel the periodic task.
+     */
+    void tick() {
+        try {
+            List<GeofenceDwell> dwells = geofenceEngine.expireDwellTimers(Instant.now());
+            for (GeofenceDwell dwell : dwells) {
+                eventPublisher.publishGeofenceDwell(GeofenceDwellExceeded.create(
+                        dwell.assetId(),
+                        dwell.geofenceId(),
+                        dwell.geofenceName(),
+                        dwell.enteredAt(),
+                        dwell.dwellThreshold()
+                ));
+            }
+        } catch (Exception e) {
+            Log.errorf(e, "Failed to expire geofence dwell timers");
+        }
+    }
+}
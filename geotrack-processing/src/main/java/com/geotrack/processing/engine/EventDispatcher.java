@@ -23,8 +23,10 @@ public class EventDispatcher {
     public String dispatch(TrackingEvent event) {
         return switch (event) {
             case PositionUpdated pu -> handlePositionUpdate(pu);
+            case GeofenceApproached ga -> handleGeofenceApproach(ga);
             case GeofenceBreached gb -> handleGeofenceBreach(gb);
             case GeofenceExited ge -> handleGeofenceExit(ge);
+            case GeofenceDwellExceeded gd -> handleGeofenceDwell(gd);
             case AssetOffline ao -> handleAssetOffline(ao);
             case SpeedLimitExceeded sle -> handleSpeedLimit(sle);
             // No default needed — sealed interface guarantees exhaustiveness
@@ -39,6 +41,12 @@ public class EventDispatcher {
         return "Position updated for " + event.assetId();
     }
 
+    private String handleGeofenceApproach(GeofenceApproached event) {
+        Log.infof("Asset %s approaching geofence '%s'",
+                event.assetId(), event.geofenceName());
+        return "Geofence approach by " + event.assetId() + " to " + event.geofenceName();
+    }
+
     private String handleGeofenceBreach(GeofenceBreached event) {
         Log.warnf("ALERT: Asset %s breached geofence '%s'",
                 event.assetId(), event.geofenceName());
@@ -51,6 +59,12 @@ public class EventDispatcher {
         return "Geofence exit for " + event.assetId() + " from " + event.geofenceName();
     }
 
+    private String handleGeofenceDwell(GeofenceDwellExceeded event) {
+        Log.warnf("ALERT: Asset %s inside geofence '%s' since %s (threshold: %s)",
+                event.assetId(), event.geofenceName(), event.enteredAt(), event.dwellThreshold());
+        return "Geofence dwell exceeded by " + event.assetId() + " in " + event.geofenceName();
+    }
+
     private String handleAssetOffline(AssetOffline event) {
         Log.warnf("Asset %s offline since %s (silence: %s)",
                 event.assetId(), event.lastSeenAt(), event.silenceDuration());
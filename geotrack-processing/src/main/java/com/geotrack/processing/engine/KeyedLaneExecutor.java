@@ -0,0 +1,79 @@
+package com.geotrack.processing.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks on a fixed number of ordered lanes, each a single virtual thread.
+ * <p>
+ * Callers pick a task's lane by its key with {@link #laneOf}, so everything for
+ * one key — one asset, say — runs one task at a time in submission order, while
+ * other lanes run alongside. Keys share lanes rather than getting a queue each,
+ * so there is nothing to create or clean up per key.
+ * <p>
+ * Being virtual, a lane blocked in a task (e.g. on a Redis round trip) frees its
+ * carrier thread for the other lanes; CPU-bound lanes run up to one per core.
+ */
+public final class KeyedLaneExecutor implements AutoCloseable {
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+    private final ExecutorService[] lanes;
+
+    /**
+     * @param name      Thread name prefix; lane {@code i} is {@code name-i}
+     * @param laneCount Number of lanes, at least 1
+     */
+    public KeyedLaneExecutor(String name, int laneCount) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("Lane count must be at least 1, got " + laneCount);
+        }
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(Thread.ofVirtual().name(name + "-" + i).factory());
+        }
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    /** The lane for a key — the same for the executor's lifetime; null keys share lane 0 */
+    public int laneOf(String key) {
+        if (key == null) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    /**
+     * Queue a task on a lane, after every task already submitted to it.
+     *
+     * @return The task's result, or its exception
+     */
+    public <T> CompletableFuture<T> submit(int lane, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, lanes[lane]);
+    }
+
+    /**
+     * Stop accepting tasks and wait (up to 10 seconds) for those already queued.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS);
+        try {
+            for (ExecutorService lane : lanes) {
+                lane.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.geotrack.processing.engine;
+
+import com.geotrack.processing.geofence.GeofenceEngine;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checkpoints the geofence engine's per-asset state, plus once
+ * more on shutdown so a rolling restart resumes exactly where it stopped.
+ * <p>
+ * Each checkpoint only writes the assets that changed since the previous one.
+ * A crash loses at most one interval of changes; those assets simply resume
+ * from slightly older state. Ticks before the startup bootstrap has restored
+ * state write nothing (see {@link GeofenceEngine#checkpointState()}), so a
+ * slow bootstrap cannot overwrite the checkpoint it is about to restore.
+ */
+@ApplicationScoped
+public class StateCheckpointer {
+
+    private final GeofenceEngine geofenceEngine;
+    private final long intervalMillis;
+    private final ScheduledExecutorService scheduler;
+
+    @Inject
+    public StateCheckpointer(
+            GeofenceEngine geofenceEngine,
+            @ConfigProperty(name = "geotrack.geofence.checkpoint.interval-ms", defaultValue = "5000")
+            long intervalMillis) {
+        this.geofenceEngine = geofenceEngine;
+        this.intervalMillis = intervalMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "geofence-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        scheduler.scheduleWithFixedDelay(this::checkpoint, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpoint();
+    }
+
+    /**
+     * Failures are logged: an exception would cancel the periodic task.
+     */
+    void checkpoint() {
+        try {
+            long start = System.nanoTime();
+            int written = geofenceEngine.checkpointState();
+            if (written > 0) {
+                Log.debugf("Checkpointed geofence state for %d assets in %d ms",
+                        written, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } catch (Exception e) {
+            Log.errorf(e, "Failed to checkpoint geofence state");
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.geotrack.processing.geofence;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Variable-length binary record of one asset's geofence state, shared by the
+ * checkpoint file and external state backends.
+ * <p>
+ * Records are self-describing — fences are stored by ID rather than registry
+ * slot — so they stay meaningful in another process, where slots are handed
+ * out differently. Each carries a CRC32C, so a torn or corrupted record is
+ * rejected rather than misread, and a generation, so the newer of two records
+ * for the same asset can be told apart. A record grows with the asset's
+ * fences, so however many it is inside there is room for all of them.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ *   0  int    CRC32C of bytes [4, length)
+ *   4  int    length of the whole record
+ *   8  long   generation; 0 = empty
+ *  16  long   last sample time, epoch millis, as given to {@link #begin}
+ *  24  double last longitude
+ *  32  double last latitude
+ *  40  int    inside-fence count
+ *  44  int    approaching-fence count
+ *  48  int    dwell count
+ *  52  short  asset ID length (UTF-8 bytes)
+ *  54  byte   flags: 1 = has last position, 2 = stub
+ *  55         asset ID
+ *      16 × n inside, then approaching, fence IDs
+ *      12 × m dwells (inside index, entered-at epoch millis)
+ * </pre>
+ * A stub names only the asset and generation of a record kept elsewhere, for
+ * a container with no room for the record itself (see {@link StateCheckpoint}).
+ * <p>
+ * An encoder instance is not thread-safe; decoding is static.
+ */
+final class AssetStateCodec {
+
+    static final int MAX_ASSET_ID_BYTES = 0xFFFF;
+
+    private static final int FLAG_HAS_LAST_POSITION = 1;
+    private static final int FLAG_STUB = 2;
+
+    private static final int OFFSET_LENGTH = 4;
+    private static final int OFFSET_GENERATION = 8;
+    private static final int OFFSET_TIMESTAMP = 16;
+    private static final int OFFSET_LONGITUDE = 24;
+    private static final int OFFSET_LATITUDE = 32;
+    private static final int OFFSET_INSIDE_COUNT = 40;
+    private static final int OFFSET_APPROACHING_COUNT = 44;
+    private static final int OFFSET_DWELL_COUNT = 48;
+    private static final int OFFSET_ID_LENGTH = 52;
+    private static final int OFFSET_FLAGS = 54;
+    private static final int OFFSET_ASSET_ID = 55;
+    private static final int FENCE_ENTRY = 16;
+    private static final int DWELL_ENTRY = 12;
+
+    /**
+     * An asset's state as decoded from a record. A stub decodes with no fences
+     * and {@code hasLastPosition} false.
+     */
+    record AssetState(String assetId, long generation, boolean stub, boolean hasLastPosition,
+                      double lastLongitude, double lastLatitude, long lastTimestampMillis,
+                      List<UUID> insideFences, List<UUID> approachingFences,
+                      Map<UUID, Instant> dwellEnteredAt) {}
+
+    /** Record being encoded */
+    private byte[] assetId;
+    private long generation;
+    private boolean hasLastPosition;
+    private double longitude;
+    private double latitude;
+    private long timestampMillis;
+    /** Most then least significant bits of each fence ID, inside fences first */
+    private long[] fences = new long[32];
+    private int insideCount;
+    private int approachingCount;
+    private int[] dwellIndexes = new int[4];
+    private long[] dwellMillis = new long[4];
+    private int dwellCount;
+    private final CRC32C crc = new CRC32C();
+
+    /**
+     * Start encoding an asset's record.
+     *
+     * @return false if the asset ID is too long to store; nothing is encoded
+     */
+    boolean begin(String assetId, long generation, boolean hasLastPosition,
+                  double longitude, double latitude, long timestampMillis) {
+        byte[] id = assetId.getBytes(StandardCharsets.UTF_8);
+        insideCount = 0;
+        approachingCount = 0;
+        dwellCount = 0;
+        if (id.length > MAX_ASSET_ID_BYTES) {
+            this.assetId = null;
+            return false;
+        }
+        this.assetId = id;
+        this.generation = generation;
+        this.hasLastPosition = hasLastPosition;
+        this.longitude = longitude;
+        this.latitude = latitude;
+        this.timestampMillis = timestampMillis;
+        return true;
+    }
+
+    /**
+     * Add a fence the asset is inside. All inside fences are added before any
+     * approaching ones.
+     *
+     * @return the fence's index for {@link #addDwell}
+     */
+    int addInside(UUID fenceId) {
+        putFence(fenceId);
+        return insideCount++;
+    }
+
+    /** Add a fence whose buffer zone the asset is in */
+    void addApproaching(UUID fenceId) {
+        putFence(fenceId);
+        approachingCount++;
+    }
+
+    private void putFence(UUID fenceId) {
+        int at = (insideCount + approachingCount) * 2;
+        if (at == fences.length) {
+            fences = Arrays.copyOf(fences, at * 2);
+        }
+        fences[at] = fenceId.getMostSignificantBits();
+        fences[at + 1] = fenceId.getLeastSignificantBits();
+    }
+
+    /** Record the time the asset entered an inside fence with a pending dwell */
+    void addDwell(int insideIndex, Instant enteredAt) {
+        if (dwellCount == dwellIndexes.length) {
+            dwellIndexes = Arrays.copyOf(dwellIndexes, dwellCount * 2);
+            dwellMillis = Arrays.copyOf(dwellMillis, dwellCount * 2);
+        }
+        dwellIndexes[dwellCount] = insideIndex;
+        dwellMillis[dwellCount] = enteredAt.toEpochMilli();
+        dwellCount++;
+    }
+
+    /**
+     * Seal the record.
+     *
+     * @return a new array holding just the record
+     */
+    byte[] finish() {
+        int fenceCount = insideCount + approachingCount;
+        ByteBuffer record = header(OFFSET_ASSET_ID + assetId.length
+                + fenceCount * FENCE_ENTRY + dwellCount * DWELL_ENTRY, hasLastPosition ? FLAG_HAS_LAST_POSITION : 0);
+        record.putInt(OFFSET_INSIDE_COUNT, insideCount);
+        record.putInt(OFFSET_APPROACHING_COUNT, approachingCount);
+        record.putInt(OFFSET_DWELL_COUNT, dwellCount);
+        record.putDouble(OFFSET_LONGITUDE, longitude);
+        record.putDouble(OFFSET_LATITUDE, latitude);
+        record.putLong(OFFSET_TIMESTAMP, timestampMillis);
+        record.position(OFFSET_ASSET_ID + assetId.length);
+        for (int i = 0; i < fenceCount * 2; i++) {
+            record.putLong(fences[i]);
+        }
+        for (int d = 0; d < dwellCount; d++) {
+            record.putInt(dwellIndexes[d]).putLong(dwellMillis[d]);
+        }
+        return seal(record);
+    }
+
+    /**
+     * Seal a stub of the record being encoded: its asset and generation only,
+     * marked as kept elsewhere.
+     *
+     * @return a new array holding just the stub
+     */
+    byte[] stub() {
+        return seal(header(OFFSET_ASSET_ID + assetId.length, FLAG_STUB));
+    }
+
+    private ByteBuffer header(int length, int flags) {
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(OFFSET_LENGTH, length);
+        record.putLong(OFFSET_GENERATION, generation);
+        record.putShort(OFFSET_ID_LENGTH, (short) assetId.length);
+        record.put(OFFSET_FLAGS, (byte) flags);
+        record.put(OFFSET_ASSET_ID, assetId);
+        return record;
+    }
+
+    private byte[] seal(ByteBuffer record) {
+        crc.reset();
+        crc.update(record.array(), 4, record.capacity() - 4);
+        record.putInt(0, (int) crc.getValue());
+        return record.array();
+    }
+
+    /**
+     * Decode the record at {@code offset}; anything after it is ignored.
+     *
+     * @return the state, or null if the record is empty, truncated or corrupt
+     */
+    static AssetState decode(byte[] bytes, int offset) {
+        int available = bytes.length - offset;
+        if (available < OFFSET_ASSET_ID) {
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.wrap(bytes, offset, available).slice();
+        int length = record.getInt(OFFSET_LENGTH);
+        long generation = record.getLong(OFFSET_GENERATION);
+        if (generation == 0 || length < OFFSET_ASSET_ID || length > available) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset + 4, length - 4);
+        if (record.getInt(0) != (int) crc.getValue()) {
+            return null;
+        }
+
+        int idLength = record.getShort(OFFSET_ID_LENGTH) & 0xFFFF;
+        int insideCount = record.getInt(OFFSET_INSIDE_COUNT);
+        int approachingCount = record.getInt(OFFSET_APPROACHING_COUNT);
+        int dwellCount = record.getInt(OFFSET_DWELL_COUNT);
+        if (insideCount < 0 || approachingCount < 0 || dwellCount < 0
+                || OFFSET_ASSET_ID + idLength + ((long) insideCount + approachingCount) * FENCE_ENTRY
+                + (long) dwellCount * DWELL_ENTRY != length) {
+            return null;
+        }
+        String assetId = new String(bytes, offset + OFFSET_ASSET_ID, idLength, StandardCharsets.UTF_8);
+        int flags = record.get(OFFSET_FLAGS);
+        if ((flags & FLAG_STUB) != 0) {
+            return new AssetState(assetId, generation, true, false, 0, 0, 0, List.of(), List.of(), Map.of());
+        }
+
+        record.position(OFFSET_ASSET_ID + idLength);
+        List<UUID> inside = new ArrayList<>(insideCount);
+        for (int i = 0; i < insideCount; i++) {
+            inside.add(new UUID(record.getLong(), record.getLong()));
+        }
+        List<UUID> approaching = new ArrayList<>(approachingCount);
+        for (int i = 0; i < approachingCount; i++) {
+            approaching.add(new UUID(record.getLong(), record.getLong()));
+        }
+        Map<UUID, Instant> dwells = new HashMap<>();
+        for (int d = 0; d < dwellCount; d++) {
+            int index = record.getInt();
+            long enteredAt = record.getLong();
+            if (index >= 0 && index < insideCount) {
+                dwells.put(inside.get(index), Instant.ofEpochMilli(enteredAt));
+            }
+        }
+        return new AssetState(assetId, generation, false, (flags & FLAG_HAS_LAST_POSITION) != 0,
+                record.getDouble(OFFSET_LONGITUDE), record.getDouble(OFFSET_LATITUDE),
+                record.getLong(OFFSET_TIMESTAMP), inside, approaching, dwells);
+    }
+}
@@ -0,0 +1,138 @@
+package com.geotrack.processing.geofence;
+
+import org.locationtech.jts.algorithm.locate.PointOnGeometryLocator;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Location;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+
+/**
+ * A regular grid over a fence's bounding box with every cell pre-classified as
+ * fully inside, fully outside, or crossing the fence boundary.
+ * <p>
+ * A cell is only INSIDE or OUTSIDE when the boundary does not touch it at all,
+ * so every point in it — edges included — has that location. Points in such
+ * cells are answered with a subtraction, a multiplication and an array read;
+ * only BOUNDARY cells fall through to the exact point-in-polygon test.
+ * <p>
+ * Cells are roughly square on the ground: the requested size in metres is
+ * converted to degrees at the fence's centre latitude, then coarsened if the
+ * grid would exceed {@code maxCells}, which bounds memory at one byte per cell.
+ */
+final class FenceCellCover {
+
+    static final byte OUTSIDE = 0;
+    static final byte INSIDE = 1;
+    static final byte BOUNDARY = 2;
+
+    private static final double METRES_PER_DEGREE_LAT = 111_320.0;
+
+    /** Cells are grown by this much (~0.1 mm) when testing the boundary, absorbing index rounding */
+    private static final double CELL_EPSILON_DEGREES = 1e-9;
+
+    /** Array header plus fields, for the memory estimate */
+    private static final int OBJECT_OVERHEAD_BYTES = 64;
+
+    private final double minLon;
+    private final double minLat;
+    private final double lonCellsPerDegree;
+    private final double latCellsPerDegree;
+    private final int cols;
+    private final int rows;
+    private final byte[] cells;
+
+    private FenceCellCover(double minLon, double minLat, double lonCellsPerDegree, double latCellsPerDegree,
+                           int cols, int rows) {
+        this.minLon = minLon;
+        this.minLat = minLat;
+        this.lonCellsPerDegree = lonCellsPerDegree;
+        this.latCellsPerDegree = latCellsPerDegree;
+        this.cols = cols;
+        this.rows = rows;
+        this.cells = new byte[cols * rows];
+    }
+
+    /**
+     * Classify every cell of a grid over the polygon's envelope.
+     *
+     * @param locator point locator for the same polygon, used to place non-boundary cells
+     */
+    static FenceCellCover build(Polygon polygon, PointOnGeometryLocator locator,
+                                double cellSizeMetres, int maxCells) {
+        Envelope envelope = polygon.getEnvelopeInternal();
+        double latStep = cellSizeMetres / METRES_PER_DEGREE_LAT;
+        double lonStep = latStep / Math.max(Math.cos(Math.toRadians(envelope.centre().y)), 0.01);
+
+        double cellCount = Math.ceil(envelope.getWidth() / lonStep) * Math.ceil(envelope.getHeight() / latStep);
+        if (cellCount > maxCells) {
+            double scale = Math.sqrt(cellCount / maxCells);
+            latStep *= scale;
+            lonStep *= scale;
+        }
+        int cols = Math.max(1, (int) Math.ceil(envelope.getWidth() / lonStep));
+        int rows = Math.max(1, (int) Math.ceil(envelope.getHeight() / latStep));
+        // Rounding can leave the grid a row or column over the cap; trim it back
+        while ((long) cols * rows > maxCells && (cols > 1 || rows > 1)) {
+            if (cols >= rows) {
+                cols--;
+            } else {
+                rows--;
+            }
+        }
+        lonStep = Math.max(envelope.getWidth() / cols, Double.MIN_NORMAL);
+        latStep = Math.max(envelope.getHeight() / rows, Double.MIN_NORMAL);
+
+        FenceCellCover cover = new FenceCellCover(envelope.getMinX(), envelope.getMinY(),
+                1.0 / lonStep, 1.0 / latStep, cols, rows);
+        PreparedGeometry boundary = PreparedGeometryFactory.prepare(polygon.getBoundary());
+
+        for (int row = 0; row < rows; row++) {
+            double south = envelope.getMinY() + row * latStep;
+            for (int col = 0; col < cols; col++) {
+                double west = envelope.getMinX() + col * lonStep;
+                Envelope cell = new Envelope(west, west + lonStep, south, south + latStep);
+                cell.expandBy(CELL_EPSILON_DEGREES);
+                byte classification;
+                if (boundary.intersects(polygon.getFactory().toGeometry(cell))) {
+                    classification = BOUNDARY;
+                } else {
+                    // Untouched by the boundary, so the whole cell shares its centre's location
+                    classification = locator.locate(cell.centre()) == Location.INTERIOR ? INSIDE : OUTSIDE;
+                }
+                cover.cells[row * cols + col] = classification;
+            }
+        }
+        return cover;
+    }
+
+    /**
+     * Classification of the cell holding a point. The caller must already have
+     * checked that the point lies within the fence envelope.
+     */
+    byte classify(double longitude, double latitude) {
+        int col = Math.min((int) ((longitude - minLon) * lonCellsPerDegree), cols - 1);
+        int row = Math.min((int) ((latitude - minLat) * latCellsPerDegree), rows - 1);
+        return cells[row * cols + col];
+    }
+
+    int cellCount() {
+        return cells.length;
+    }
+
+    /** Number of cells with the given classification */
+    int count(byte classification) {
+        int count = 0;
+        for (byte cell : cells) {
+            if (cell == classification) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Approximate retained heap size */
+    long memoryBytes() {
+        return OBJECT_OVERHEAD_BYTES + cells.length;
+    }
+}
@@ -0,0 +1,154 @@
+package com.geotrack.processing.geofence;
+
+import com.geotrack.common.model.Circle;
+import com.geotrack.common.spatial.SpatialEngine;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
+
+/**
+ * Evaluation structure for a circular fence: containment is a distance
+ * comparison against the centre rather than a point-in-polygon test.
+ * <p>
+ * Points are first rejected against the circle's bounding box (exact for a
+ * spherical cap, so it is as tight as it can be at any latitude). A cap that
+ * reaches across the antimeridian or over a pole is boxed over every
+ * longitude instead, since a box cannot wrap; the distance test, which
+ * wraps naturally, then decides alone. Survivors
+ * get a haversine half-chord compared with one precomputed per radius, so
+ * neither the square root nor the arc-tangent of a full distance is ever
+ * taken. The fence and its buffer zone are decided by the same single
+ * computation. Distances are on a sphere of mean Earth radius — within 0.7%
+ * of the ellipsoid, far tighter than the 64-gon this replaces.
+ */
+final class GeodesicCircle {
+
+    private static final double R = SpatialEngine.EARTH_RADIUS_METRES;
+
+    private final double centreLon;
+    private final double centreLat;
+    private final double cosCentreLat;
+    private final double radiusMetres;
+    /** Haversine half-chord at the fence radius, and at the radius plus buffer */
+    private final double coreThreshold;
+    private final double outerThreshold;
+    private final Envelope coreEnvelope;
+    private final Envelope outerEnvelope;
+
+    GeodesicCircle(Circle circle, double bufferMetres) {
+        this.centreLon = circle.longitude();
+        this.centreLat = circle.latitude();
+        this.cosCentreLat = Math.cos(Math.toRadians(centreLat));
+        this.radiusMetres = circle.radiusMetres();
+        double outerMetres = radiusMetres + Math.max(bufferMetres, 0);
+        this.coreThreshold = halfChord(radiusMetres);
+        this.outerThreshold = halfChord(outerMetres);
+        this.coreEnvelope = envelope(radiusMetres);
+        this.outerEnvelope = envelope(outerMetres);
+    }
+
+    /** Envelope of the fence itself */
+    Envelope coreEnvelope() {
+        return coreEnvelope;
+    }
+
+    /** Envelope including the buffer zone; the core envelope when unbuffered */
+    Envelope outerEnvelope() {
+        return outerEnvelope;
+    }
+
+    boolean isBuffered() {
+        return outerThreshold > coreThreshold;
+    }
+
+    /**
+     * {@link PreparedGeofence#ZONE_INSIDE}, {@link PreparedGeofence#ZONE_APPROACHING}
+     * or {@link PreparedGeofence#ZONE_OUTSIDE}. Points on the circle itself are
+     * outside it, as for polygon fences.
+     */
+    int zone(double longitude, double latitude) {
+        if (!outerEnvelope.contains(longitude, latitude)) {
+            return PreparedGeofence.ZONE_OUTSIDE;
+        }
+        double a = halfChordTo(longitude, latitude);
+        if (a < coreThreshold) {
+            return PreparedGeofence.ZONE_INSIDE;
+        }
+        return a < outerThreshold ? PreparedGeofence.ZONE_APPROACHING : PreparedGeofence.ZONE_OUTSIDE;
+    }
+
+    boolean contains(double longitude, double latitude) {
+        return coreEnvelope.contains(longitude, latitude) && halfChordTo(longitude, latitude) < coreThreshold;
+    }
+
+    /**
+     * Whether a path passes through the circle's interior — some segment comes
+     * closer to the centre than the radius. Measured on a local equirectangular
+     * plane around the centre, which is ample for the few-kilometre hops
+     * between successive samples.
+     */
+    boolean crossedBy(LineString path) {
+        CoordinateSequence points = path.getCoordinateSequence();
+        double metresPerDegree = Math.toRadians(R);
+        double radiusSquared = radiusMetres * radiusMetres;
+        double x0 = wrap(points.getX(0) - centreLon) * cosCentreLat * metresPerDegree;
+        double y0 = (points.getY(0) - centreLat) * metresPerDegree;
+        for (int i = 1; i < points.size(); i++) {
+            double x1 = wrap(points.getX(i) - centreLon) * cosCentreLat * metresPerDegree;
+            double y1 = (points.getY(i) - centreLat) * metresPerDegree;
+            double dx = x1 - x0;
+            double dy = y1 - y0;
+            double lengthSquared = dx * dx + dy * dy;
+            // Closest point of the segment to the centre (the origin)
+            double t = lengthSquared > 0 ? Math.clamp(-(x0 * dx + y0 * dy) / lengthSquared, 0.0, 1.0) : 0;
+            double cx = x0 + t * dx;
+            double cy = y0 + t * dy;
+            if (cx * cx + cy * cy < radiusSquared) {
+                return true;
+            }
+            x0 = x1;
+            y0 = y1;
+        }
+        return false;
+    }
+
+    /** A longitude difference in [-180, 180), so points just across ±180 from the centre are near it */
+    private static double wrap(double dLon) {
+        return dLon - 360 * Math.floor((dLon + 180) / 360);
+    }
+
+    /** sin²(d / 2R) for the point — monotonic in the distance d from the centre */
+    private double halfChordTo(double longitude, double latitude) {
+        double sinHalfDLat = Math.sin(Math.toRadians(latitude - centreLat) * 0.5);
+        double sinHalfDLon = Math.sin(Math.toRadians(longitude - centreLon) * 0.5);
+        return sinHalfDLat * sinHalfDLat
+                + cosCentreLat * Math.cos(Math.toRadians(latitude)) * sinHalfDLon * sinHalfDLon;
+    }
+
+    private static double halfChord(double metres) {
+        double angle = metres / R;
+        if (angle >= Math.PI) {
+            // Beyond half the circumference every point on Earth is inside
+            return Double.POSITIVE_INFINITY;
+        }
+        double sinHalfAngle = Math.sin(angle * 0.5);
+        return sinHalfAngle * sinHalfAngle;
+    }
+
+    /** Bounding box of the spherical cap of the given radius */
+    private Envelope envelope(double metres) {
+        double angle = metres / R;
+        double minLat = centreLat - Math.toDegrees(angle);
+        double maxLat = centreLat + Math.toDegrees(angle);
+        if (minLat <= -90 || maxLat >= 90) {
+            // The cap covers a pole, so every longitude
+            return new Envelope(-180, 180, Math.max(minLat, -90), Math.min(maxLat, 90));
+        }
+        double dLon = Math.toDegrees(Math.asin(Math.min(Math.sin(angle) / cosCentreLat, 1.0)));
+        if (centreLon - dLon < -180 || centreLon + dLon > 180) {
+            // The cap wraps across the antimeridian, which a box cannot follow
+            return new Envelope(-180, 180, minLat, maxLat);
+        }
+        return new Envelope(centreLon - dLon, centreLon + dLon, minLat, maxLat);
+    }
+}
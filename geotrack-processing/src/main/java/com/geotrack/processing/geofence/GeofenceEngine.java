@@ -1,15 +1,35 @@
 package com.geotrack.processing.geofence;
 
+import com.geotrack.common.model.AssetType;
+import com.geotrack.common.model.Circle;
+import com.geotrack.common.model.FenceType;
 import com.geotrack.common.model.Position;
+import com.geotrack.common.model.PositionSource;
+import com.geotrack.common.spatial.DistanceStrategy;
 import com.geotrack.common.spatial.SpatialEngine;
+import com.geotrack.processing.geofence.GeofenceRegistry.Snapshot;
+import com.geotrack.processing.geofence.GeofenceStateStore.AssetFenceState;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.literal.NamedLiteral;
 import jakarta.inject.Inject;
-import org.locationtech.jts.geom.Point;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.index.strtree.STRtree;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Geofence detection engine.
@@ -17,15 +37,124 @@ import java.util.concurrent.ConcurrentHashMap;
  * Checks positions against registered geofences and detects
  * state transitions (OUTSIDE → INSIDE = breach, INSIDE → OUTSIDE = exit).
  * <p>
- * Uses an in-memory state map for tracking per-asset geofence state.
- * In production, this would be backed by Redis for cross-instance consistency.
+ * Registered fences are bulk-loaded into a JTS {@link STRtree}, so each position
+ * only runs the exact containment test on fences whose envelope contains it.
+ * Each fence is prepared once at registration ({@link PreparedGeofence}), so that
+ * exact test is an indexed point-in-area lookup rather than a full JTS predicate.
+ * Because non-candidate fences are never visited, per-asset state records the
+ * fences the asset is currently INSIDE — anything else it has already been
+ * evaluated against is implicitly OUTSIDE.
+ * <p>
+ * Fences live in a copy-on-write {@link GeofenceRegistry}: each check reads one
+ * immutable snapshot, so fences can be added, replaced or removed at runtime
+ * while consumer threads keep evaluating.
+ * <p>
+ * With {@code geotrack.geofence.cell-cover.cell-size-metres} set, each fence also
+ * gets a pre-classified {@link FenceCellCover}, so points well inside or outside
+ * a fence are answered without a point-in-polygon test at all.
+ * <p>
+ * In swept-segment mode the index is queried with the envelope of the path from
+ * the asset's previous position instead of the point alone, so a fence crossed
+ * entirely between two samples (fast aircraft, sparse polling) still yields an
+ * entry followed by an exit. It is still one index query per position. The path
+ * is only assumed straight over a short hop: samples further apart than
+ * {@code swept-segments.max-gap} or {@code swept-segments.max-distance-metres}
+ * fall back to a point check, rather than raising alerts for fences the asset
+ * may never have been near.
+ * <p>
+ * Fences may be restricted to particular asset types and position sources;
+ * positions are only tested against the fences applicable to their class.
+ * <p>
+ * A fence with {@code bufferMetres} is indexed under its precomputed geodesic
+ * buffer, and positions in the buffer but not the fence are APPROACHING it —
+ * raised as an early warning when an asset arrives there from OUTSIDE.
+ * <p>
+ * Circular fences (depots, yards) keep their centre and radius and are tested
+ * by geodesic distance through a {@link GeodesicCircle} — exact at any
+ * latitude, and cheaper than walking the edges of a polygon outline.
+ * <p>
+ * Fences with a dwell threshold start a timer on a {@link HierarchicalTimingWheel}
+ * when an asset goes INSIDE and cancel it when the asset leaves, so detecting
+ * "inside for more than N minutes" never scans asset state: a periodic
+ * {@link #expireDwellTimers} only touches the timers that have come due.
+ * <p>
+ * Uses an in-memory {@link GeofenceStateStore} (interned asset ordinals and an
+ * inside-bitset per asset) for tracking per-asset geofence state. With
+ * {@code geotrack.geofence.checkpoint.path} set, that state is checkpointed
+ * incrementally to a memory-mapped {@link StateCheckpoint} and restored on
+ * startup, so a restart does not reset every asset to UNKNOWN.
+ * <p>
+ * With {@code geotrack.geofence.state.backend} set (e.g. {@code redis}), state is
+ * also shared through a {@link GeofenceStateBackend}, so instances agree when a
+ * partition rebalance moves assets between them. The in-memory store becomes a
+ * near-cache: an asset's state is re-read only once it has gone unseen for
+ * {@code geotrack.geofence.state.near-cache-ttl}, and written back after every
+ * check — one pipelined round trip each way per batch.
  */
 @ApplicationScoped
 public class GeofenceEngine {
 
-    public enum GeofenceState { INSIDE, OUTSIDE, UNKNOWN }
+    public enum GeofenceState { INSIDE, APPROACHING, OUTSIDE, UNKNOWN }
 
-    public record Geofence(UUID id, String name, Polygon geometry) {}
+    /**
+     * A monitored zone. Entries and exits are only reported when the matching
+     * alert flag is set (approaches count as entries); state is tracked either
+     * way. A positive {@code bufferMetres} adds an APPROACHING zone that wide
+     * around the fence. Empty {@code assetTypes}
+     * or {@code positionSources} mean the fence applies to all of them. A
+     * non-null {@code dwellThreshold} raises a {@link GeofenceDwell} once an
+     * asset has stayed inside that long. A non-null {@code circle} makes it a
+     * circular fence, evaluated by distance from the centre; {@code geometry}
+     * is then just its polygon outline.
+     */
+    public record Geofence(UUID id, String name, Polygon geometry, FenceType fenceType,
+                           boolean alertOnEnter, boolean alertOnExit, double bufferMetres,
+                           Set<AssetType> assetTypes, Set<PositionSource> positionSources,
+                           Duration dwellThreshold, Circle circle) {
+
+        public Geofence {
+            assetTypes = assetTypes != null ? Set.copyOf(assetTypes) : Set.of();
+            positionSources = positionSources != null ? Set.copyOf(positionSources) : Set.of();
+        }
+
+        /** Polygon fence */
+        public Geofence(UUID id, String name, Polygon geometry, FenceType fenceType,
+                        boolean alertOnEnter, boolean alertOnExit, double bufferMetres,
+                        Set<AssetType> assetTypes, Set<PositionSource> positionSources,
+                        Duration dwellThreshold) {
+            this(id, name, geometry, fenceType, alertOnEnter, alertOnExit, bufferMetres,
+                    assetTypes, positionSources, dwellThreshold, null);
+        }
+
+        /** Fence applying to every asset type and position source */
+        public Geofence(UUID id, String name, Polygon geometry, FenceType fenceType,
+                        boolean alertOnEnter, boolean alertOnExit, double bufferMetres) {
+            this(id, name, geometry, fenceType, alertOnEnter, alertOnExit, bufferMetres, Set.of(), Set.of(), null);
+        }
+
+        /** Inclusion fence alerting on both entry and exit */
+        public Geofence(UUID id, String name, Polygon geometry) {
+            this(id, name, geometry, FenceType.INCLUSION, true, true, 0.0);
+        }
+
+        /** Copy restricted to the given asset types and position sources */
+        public Geofence withApplicability(Set<AssetType> assetTypes, Set<PositionSource> positionSources) {
+            return new Geofence(id, name, geometry, fenceType, alertOnEnter, alertOnExit, bufferMetres,
+                    assetTypes, positionSources, dwellThreshold, circle);
+        }
+
+        /** Copy raising a dwell alert after {@code dwellThreshold} inside; null disables */
+        public Geofence withDwellThreshold(Duration dwellThreshold) {
+            return new Geofence(id, name, geometry, fenceType, alertOnEnter, alertOnExit, bufferMetres,
+                    assetTypes, positionSources, dwellThreshold, circle);
+        }
+
+        /** Copy evaluated as {@code circle}, with {@code geometry} as its outline; null makes it a polygon fence */
+        public Geofence withCircle(Circle circle) {
+            return new Geofence(id, name, geometry, fenceType, alertOnEnter, alertOnExit, bufferMetres,
+                    assetTypes, positionSources, dwellThreshold, circle);
+        }
+    }
 
     public record GeofenceTransition(
             UUID geofenceId,
@@ -39,93 +168,998 @@ public class GeofenceEngine {
             return previousState != GeofenceState.INSIDE && currentState == GeofenceState.INSIDE;
         }
 
+        /** Left the fence — whether for its buffer zone or beyond */
         public boolean isExit() {
-            return previousState == GeofenceState.INSIDE && currentState == GeofenceState.OUTSIDE;
+            return previousState == GeofenceState.INSIDE
+                    && (currentState == GeofenceState.OUTSIDE || currentState == GeofenceState.APPROACHING);
+        }
+
+        /** Arrived in the fence's buffer zone from outside it */
+        public boolean isApproach() {
+            return previousState == GeofenceState.OUTSIDE && currentState == GeofenceState.APPROACHING;
         }
     }
 
+    /**
+     * An asset that has stayed inside a fence past its dwell threshold.
+     *
+     * @param enteredAt timestamp of the position that first found it inside
+     */
+    public record GeofenceDwell(
+            UUID geofenceId,
+            String geofenceName,
+            String assetId,
+            Instant enteredAt,
+            Duration dwellThreshold
+    ) {}
+
+    /**
+     * Evaluation tuning, bound from {@code geotrack.geofence.*}.
+     *
+     * @param cellSizeMetres   cell-cover resolution; 0 or less disables covers
+     * @param maxCellsPerFence cap on cover cells per fence
+     * @param sweptSegments    also test the path from the previous position, not just the point
+     * @param maxSweepGap      longest time between samples still swept as a straight path
+     * @param maxSweepMetres   longest distance between samples still swept as a straight path
+     * @param checkpointPath   state checkpoint file; null disables checkpointing
+     * @param nearCacheTtl     how long an asset's state is trusted locally before it is
+     *                         re-read from the {@link GeofenceStateBackend}, if there is one
+     */
+    public record Settings(double cellSizeMetres, int maxCellsPerFence, boolean sweptSegments,
+                           Duration maxSweepGap, double maxSweepMetres,
+                           Path checkpointPath, Duration nearCacheTtl) {
+
+        /** Point checks only, no cell covers, no checkpoint */
+        public static final Settings DEFAULTS = new Settings(0, 65_536, false,
+                Duration.ofMinutes(2), 50_000, null, Duration.ofSeconds(30));
+
+        public Settings withCellCover(double cellSizeMetres, int maxCellsPerFence) {
+            return new Settings(cellSizeMetres, maxCellsPerFence, sweptSegments,
+                    maxSweepGap, maxSweepMetres, checkpointPath, nearCacheTtl);
+        }
+
+        public Settings withSweptSegments(boolean sweptSegments) {
+            return new Settings(cellSizeMetres, maxCellsPerFence, sweptSegments,
+                    maxSweepGap, maxSweepMetres, checkpointPath, nearCacheTtl);
+        }
+
+        public Settings withSweepLimits(Duration maxSweepGap, double maxSweepMetres) {
+            return new Settings(cellSizeMetres, maxCellsPerFence, sweptSegments,
+                    maxSweepGap, maxSweepMetres, checkpointPath, nearCacheTtl);
+        }
+
+        public Settings withCheckpoint(Path checkpointPath) {
+            return new Settings(cellSizeMetres, maxCellsPerFence, sweptSegments,
+                    maxSweepGap, maxSweepMetres, checkpointPath, nearCacheTtl);
+        }
+
+        public Settings withNearCacheTtl(Duration nearCacheTtl) {
+            return new Settings(cellSizeMetres, maxCellsPerFence, sweptSegments,
+                    maxSweepGap, maxSweepMetres, checkpointPath, nearCacheTtl);
+        }
+    }
+
+    /** Below this many positions a batch is checked on the calling thread */
+    private static final int PARALLEL_BATCH_THRESHOLD = 64;
+
+    /** Positions per fork-join leaf, so tiny per-asset groups are not forked one by one */
+    private static final int POSITIONS_PER_TASK = 32;
+
+    /** Dwell timer resolution */
+    private static final long DWELL_TICK_MILLIS = 1_000;
+
     private final SpatialEngine spatialEngine;
-    private final List<Geofence> registeredFences = new ArrayList<>();
+    private final Settings settings;
+    private final GeofenceRegistry registry;
+
+    /** Shared state store; null keeps state in this process only */
+    private final GeofenceStateBackend stateBackend;
+    private final long nearCacheTtlNanos;
+    private final long maxSweepGapMillis;
+
+    /** State tracking: per-asset inside-bitset keyed by interned asset ordinal */
+    private final GeofenceStateStore stateStore = new GeofenceStateStore();
+
+    /** Pending dwell timers, one per asset inside a fence with a dwell threshold. Guarded by itself */
+    private final HierarchicalTimingWheel<DwellTimer> dwellTimers =
+            new HierarchicalTimingWheel<>(DWELL_TICK_MILLIS, System.currentTimeMillis());
 
-    /** State tracking: key = "assetId:geofenceId", value = current state */
-    private final Map<String, GeofenceState> stateMap = new ConcurrentHashMap<>();
+    /** Opened on first use. Guarded by {@code checkpointLock} */
+    private StateCheckpoint checkpoint;
+    private long checkpointedRegistryVersion = -1;
+    /** Whether {@link #restoreState()} has run; nothing is checkpointed before. Guarded by {@code checkpointLock} */
+    private boolean restoreAttempted;
+    private final Object checkpointLock = new Object();
 
     @Inject
-    public GeofenceEngine(SpatialEngine spatialEngine) {
+    public GeofenceEngine(
+            SpatialEngine spatialEngine,
+            @ConfigProperty(name = "geotrack.geofence.cell-cover.cell-size-metres", defaultValue = "0")
+            double cellSizeMetres,
+            @ConfigProperty(name = "geotrack.geofence.cell-cover.max-cells", defaultValue = "65536")
+            int maxCellsPerFence,
+            @ConfigProperty(name = "geotrack.geofence.swept-segments", defaultValue = "false")
+            boolean sweptSegments,
+            @ConfigProperty(name = "geotrack.geofence.swept-segments.max-gap", defaultValue = "2m")
+            Duration maxSweepGap,
+            @ConfigProperty(name = "geotrack.geofence.swept-segments.max-distance-metres", defaultValue = "50000")
+            double maxSweepMetres,
+            @ConfigProperty(name = "geotrack.geofence.checkpoint.path")
+            Optional<String> checkpointPath,
+            @ConfigProperty(name = "geotrack.geofence.state.backend", defaultValue = "memory")
+            String stateBackend,
+            @ConfigProperty(name = "geotrack.geofence.state.near-cache-ttl", defaultValue = "30s")
+            Duration nearCacheTtl,
+            @Any Instance<GeofenceStateBackend> stateBackends,
+            MeterRegistry meterRegistry) {
+        this(spatialEngine, new Settings(cellSizeMetres, maxCellsPerFence, sweptSegments,
+                maxSweepGap, maxSweepMetres, checkpointPath.filter(p -> !p.isBlank()).map(Path::of).orElse(null), nearCacheTtl),
+                selectBackend(stateBackend, stateBackends));
+        Gauge.builder("geotrack.geofence.count", this, GeofenceEngine::getGeofenceCount)
+                .description("Geofences currently registered")
+                .register(meterRegistry);
+        Gauge.builder("geotrack.geofence.cell.cover.bytes", this, e -> e.registry.snapshot().cellCoverBytes())
+                .description("Approximate heap held by all geofence cell covers")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("geotrack.geofence.cell.cover.max.bytes", this, e -> e.registry.snapshot().maxCellCoverBytes())
+                .description("Approximate heap held by the largest single geofence cell cover")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("geotrack.geofence.dwell.timers", this, GeofenceEngine::getPendingDwellCount)
+                .description("Dwell timers waiting to fire")
+                .register(meterRegistry);
+    }
+
+    /** Constructor for testing without CDI, with explicit settings and state backend (null for none) */
+    public GeofenceEngine(SpatialEngine spatialEngine, Settings settings, GeofenceStateBackend stateBackend) {
         this.spatialEngine = spatialEngine;
+        this.settings = settings;
+        this.registry = new GeofenceRegistry(settings.cellSizeMetres(), settings.maxCellsPerFence());
+        this.stateBackend = stateBackend;
+        this.nearCacheTtlNanos = settings.nearCacheTtl().toNanos();
+        this.maxSweepGapMillis = settings.maxSweepGap().toMillis();
+    }
+
+    /** Constructor for testing without CDI, with explicit settings */
+    public GeofenceEngine(SpatialEngine spatialEngine, Settings settings) {
+        this(spatialEngine, settings, null);
     }
 
     /** Constructor for testing without CDI */
     public GeofenceEngine() {
-        this.spatialEngine = new SpatialEngine();
+        this(new SpatialEngine(), Settings.DEFAULTS);
     }
 
     /**
-     * Register a geofence for monitoring.
+     * Register a geofence for monitoring, replacing any fence with the same ID.
+     * Takes effect atomically for subsequent checks.
      */
     public void registerGeofence(UUID id, String name, Polygon geometry) {
-        registeredFences.add(new Geofence(id, name, geometry));
+        registerGeofence(new Geofence(id, name, geometry));
+    }
+
+    /**
+     * Register (or replace) a fully described geofence.
+     */
+    public void registerGeofence(Geofence fence) {
+        registry.register(fence);
+    }
+
+    /**
+     * Register (or replace) many geofences in a single snapshot.
+     */
+    public void registerGeofences(Collection<Geofence> fences) {
+        registry.registerAll(fences);
     }
 
     /**
-     * Register a circular geofence.
+     * Register a circular geofence, evaluated by geodesic distance from its centre.
      */
     public void registerCircularGeofence(UUID id, String name,
                                           double centreLon, double centreLat, double radiusMetres) {
-        Polygon circle = spatialEngine.createCircularFence(centreLon, centreLat, radiusMetres);
-        registerGeofence(id, name, circle);
+        Polygon outline = spatialEngine.createCircularFence(centreLon, centreLat, radiusMetres);
+        registerGeofence(new Geofence(id, name, outline)
+                .withCircle(new Circle(centreLon, centreLat, radiusMetres)));
+    }
+
+    /**
+     * Stop monitoring a geofence. Assets inside it are released without an exit event.
+     *
+     * @return true if the geofence was registered
+     */
+    public boolean removeGeofence(UUID id) {
+        return registry.remove(id);
     }
 
     /**
      * Check a position against all registered geofences.
      * Returns state transitions (entries and exits) detected.
+     * The asset type is inferred from the position source (see {@link #inferAssetType}).
      *
      * @param position The position to check
      * @return List of geofence state transitions (may be empty)
      */
     public List<GeofenceTransition> checkPosition(Position position) {
-        Point point = spatialEngine.createPoint(position.longitude(), position.latitude());
+        return checkPosition(position, inferAssetType(position.source()));
+    }
+
+    /**
+     * Check a position from an asset of known type against the geofences that apply to it.
+     *
+     * @param assetType the asset's type, or null if unknown (only unrestricted fences apply)
+     */
+    public List<GeofenceTransition> checkPosition(Position position, AssetType assetType) {
+        if (stateBackend == null) {
+            return evaluate(position, assetType);
+        }
+        List<String> assetIds = List.of(position.assetId());
+        loadState(assetIds);
+        List<GeofenceTransition> transitions = evaluate(position, assetType);
+        storeState(assetIds);
+        return transitions;
+    }
+
+    private List<GeofenceTransition> evaluate(Position position, AssetType assetType) {
+        int assetTypeBit = PreparedGeofence.assetTypeBit(assetType);
+        int sourceBit = PreparedGeofence.sourceBit(position.source());
+        double longitude = position.longitude();
+        double latitude = position.latitude();
+        String assetId = position.assetId();
+        Snapshot snapshot = registry.snapshot();
+        AssetFenceState state = stateStore.stateFor(assetId);
         List<GeofenceTransition> transitions = new ArrayList<>();
 
-        for (Geofence fence : registeredFences) {
-            boolean inside = spatialEngine.contains(fence.geometry(), point);
-            GeofenceState currentState = inside ? GeofenceState.INSIDE : GeofenceState.OUTSIDE;
+        synchronized (state) {
+            long evaluatedVersion = state.evaluatedVersion();
+            long timestampMillis = position.timestamp().toEpochMilli();
+            boolean sweep = settings.sweptSegments() && isSweepable(state, longitude, latitude, timestampMillis);
+            double fromLon = sweep ? state.lastLongitude() : longitude;
+            double fromLat = sweep ? state.lastLatitude() : latitude;
+            LineString path = null;
 
-            String stateKey = position.assetId() + ":" + fence.id();
-            GeofenceState previousState = stateMap.getOrDefault(stateKey, GeofenceState.UNKNOWN);
+            // Exact test only on fences whose envelope meets the point (or the path to it)
+            Envelope searchEnv = new Envelope(fromLon, longitude, fromLat, latitude);
+            for (PreparedGeofence fence : snapshot.query(searchEnv, assetTypeBit, sourceBit)) {
+                int ordinal = fence.ordinal();
+                // Fences registered (or slots reused) since the last check were UNKNOWN — no transition
+                boolean known = fence.registeredVersion() <= evaluatedVersion;
+                int zone = fence.zone(longitude, latitude);
+                boolean inside = zone == PreparedGeofence.ZONE_INSIDE;
+                boolean wasInside = known && state.isInside(ordinal);
+                boolean wasApproaching = known && state.isApproaching(ordinal);
+                GeofenceState previous = wasInside ? GeofenceState.INSIDE
+                        : wasApproaching ? GeofenceState.APPROACHING : GeofenceState.OUTSIDE;
+                GeofenceState current = inside ? GeofenceState.INSIDE
+                        : zone == PreparedGeofence.ZONE_APPROACHING ? GeofenceState.APPROACHING : GeofenceState.OUTSIDE;
 
-            if (previousState != currentState && previousState != GeofenceState.UNKNOWN) {
-                transitions.add(new GeofenceTransition(
-                        fence.id(), fence.name(), position.assetId(),
-                        previousState, currentState, Instant.now()
-                ));
+                boolean crossed = false;
+                if (sweep && known && !inside && !wasInside) {
+                    // Not inside at either sample — but did the path run through the fence?
+                    if (path == null) {
+                        path = fence.fence().geometry().getFactory().createLineString(new Coordinate[]{
+                                new Coordinate(fromLon, fromLat), new Coordinate(longitude, latitude)});
+                    }
+                    crossed = fence.crossedBy(path);
+                    if (crossed) {
+                        if (fence.fence().alertOnEnter()) {
+                            transitions.add(transition(fence, assetId, previous, GeofenceState.INSIDE));
+                        }
+                        if (fence.fence().alertOnExit()) {
+                            transitions.add(transition(fence, assetId, GeofenceState.INSIDE, current));
+                        }
+                    }
+                }
+
+                state.setApproaching(ordinal, current == GeofenceState.APPROACHING);
+                if (inside && !wasInside) {
+                    state.setInside(ordinal, true);
+                    startDwell(state, fence, position.timestamp());
+                    if (known && fence.fence().alertOnEnter()) {
+                        transitions.add(transition(fence, assetId, previous, GeofenceState.INSIDE));
+                    }
+                } else if (!inside) {
+                    if (state.isInside(ordinal)) {
+                        state.setInside(ordinal, false);
+                        cancelDwell(state, ordinal);
+                    }
+                    if (wasInside && fence.fence().alertOnExit()) {
+                        transitions.add(transition(fence, assetId, GeofenceState.INSIDE, current));
+                    } else if (known && !crossed && previous == GeofenceState.OUTSIDE
+                            && current == GeofenceState.APPROACHING && fence.fence().alertOnEnter()) {
+                        transitions.add(transition(fence, assetId, previous, current));
+                    }
+                }
+            }
+
+            // Fences the asset was INSIDE whose envelope no longer contains the point
+            // were not candidates above — they are exits, unless the fence has since gone
+            // (or no longer applies to this asset's class)
+            for (int ordinal = state.nextInside(0); ordinal >= 0; ordinal = state.nextInside(ordinal + 1)) {
+                PreparedGeofence fence = snapshot.fence(ordinal);
+                boolean applies = fence != null && fence.appliesTo(assetTypeBit, sourceBit);
+                if (applies && fence.envelopeContains(longitude, latitude)) {
+                    continue;
+                }
+                state.setInside(ordinal, false);
+                cancelDwell(state, ordinal);
+                if (applies && fence.registeredVersion() <= evaluatedVersion
+                        && fence.fence().alertOnExit()) {
+                    transitions.add(transition(fence, assetId,
+                            GeofenceState.INSIDE, GeofenceState.OUTSIDE));
+                }
+            }
+            // Likewise buffer zones left, which need no event
+            for (int ordinal = state.nextApproaching(0); ordinal >= 0; ordinal = state.nextApproaching(ordinal + 1)) {
+                PreparedGeofence fence = snapshot.fence(ordinal);
+                if (fence == null || !fence.appliesTo(assetTypeBit, sourceBit)
+                        || !fence.envelopeContains(longitude, latitude)) {
+                    state.setApproaching(ordinal, false);
+                }
             }
 
-            stateMap.put(stateKey, currentState);
+            state.evaluatedVersion(snapshot.version());
+            state.lastPosition(longitude, latitude, timestampMillis);
+            state.markDirty();
         }
 
         return transitions;
     }
 
+    /**
+     * Whether the hop from the asset's previous position is short enough, in
+     * time and distance, to be taken as a straight path; caller holds the
+     * state's lock.
+     */
+    private boolean isSweepable(AssetFenceState state, double longitude, double latitude, long timestampMillis) {
+        if (!state.hasLastPosition() || state.lastTimestampMillis() == AssetFenceState.UNKNOWN_TIME
+                || Math.abs(timestampMillis - state.lastTimestampMillis()) > maxSweepGapMillis
+                // A jump across the antimeridian is not a straight path in lon/lat
+                || Math.abs(longitude - state.lastLongitude()) > 180.0) {
+            return false;
+        }
+        return spatialEngine.distanceMetres(state.lastLongitude(), state.lastLatitude(), longitude, latitude,
+                DistanceStrategy.HAVERSINE) <= settings.maxSweepMetres();
+    }
+
+    /**
+     * Check a batch of positions, e.g. a whole Kafka poll or a backfill chunk.
+     * <p>
+     * Positions are grouped by asset and the groups evaluated in parallel on the
+     * common fork-join pool. Within an asset, positions are checked in list order,
+     * so its transitions come out exactly as if {@link #checkPosition} had been
+     * called for each in turn. With a {@link GeofenceStateBackend}, the whole
+     * batch's state is read before and written after in one round trip each.
+     *
+     * @return transitions for each position, index-aligned with {@code positions}
+     */
+    public List<List<GeofenceTransition>> checkPositions(List<Position> positions) {
+        int count = positions.size();
+        @SuppressWarnings("unchecked")
+        List<GeofenceTransition>[] results = new List[count];
+
+        // Group indices by asset: assign group ids, then lay each group out contiguously in input order
+        Map<String, Integer> groupIds = new HashMap<>();
+        int[] groupOf = new int[count];
+        int[] groupSizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            int group = groupIds.computeIfAbsent(positions.get(i).assetId(), k -> groupIds.size());
+            groupOf[i] = group;
+            groupSizes[group]++;
+        }
+        int groupCount = groupIds.size();
+        int[] groupStart = new int[groupCount + 1];
+        for (int g = 0; g < groupCount; g++) {
+            groupStart[g + 1] = groupStart[g] + groupSizes[g];
+        }
+        int[] ordered = new int[count];
+        int[] cursor = Arrays.copyOf(groupStart, groupCount);
+        for (int i = 0; i < count; i++) {
+            ordered[cursor[groupOf[i]]++] = i;
+        }
+
+        List<String> assetIds = stateBackend != null ? List.copyOf(groupIds.keySet()) : null;
+        if (assetIds != null) {
+            loadState(assetIds);
+        }
+        BatchTask task = new BatchTask(positions, results, ordered, groupStart, 0, groupCount);
+        if (count < PARALLEL_BATCH_THRESHOLD || groupCount == 1) {
+            task.compute();
+        } else {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+        if (assetIds != null) {
+            storeState(assetIds);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Check positions one after another on the calling thread, in list order,
+     * without touching the {@link GeofenceStateBackend}.
+     * <p>
+     * For callers that already spread assets over their own threads, such as
+     * the consumer's keyed lanes, where forking onto the common pool as well
+     * would only oversubscribe the cores. Such a caller brackets a whole poll
+     * with {@link #loadStates} and {@link #storeStates}, one round trip each,
+     * instead of one per lane.
+     *
+     * @return transitions for each position, index-aligned with {@code positions}
+     */
+    public List<List<GeofenceTransition>> checkPositionsInOrder(List<Position> positions) {
+        List<List<GeofenceTransition>> results = new ArrayList<>(positions.size());
+        for (Position position : positions) {
+            results.add(evaluate(position, inferAssetType(position.source())));
+        }
+        return results;
+    }
+
+    /** Whether per-asset state is shared with other instances through a {@link GeofenceStateBackend} */
+    public boolean hasStateBackend() {
+        return stateBackend != null;
+    }
+
+    /**
+     * Read these assets' state from the backend in one round trip, ahead of
+     * {@link #checkPositionsInOrder}. Does nothing without a backend.
+     */
+    public void loadStates(List<String> assetIds) {
+        if (stateBackend != null && !assetIds.isEmpty()) {
+            loadState(assetIds);
+        }
+    }
+
+    /**
+     * Write these assets' state to the backend in one round trip, after
+     * {@link #checkPositionsInOrder}. Does nothing without a backend.
+     */
+    public void storeStates(List<String> assetIds) {
+        if (stateBackend != null && !assetIds.isEmpty()) {
+            storeState(assetIds);
+        }
+    }
+
+    /**
+     * Fire the dwell timers due by {@code now}. Call periodically (about once a
+     * second); the cost is proportional to the timers expiring, not to the
+     * number of assets or fences. Each asset/fence visit yields at most one
+     * dwell. Timers for fences removed, replaced in their slot, or left since
+     * they were scheduled are dropped, as are timers for assets whose state
+     * another instance has written to the {@link GeofenceStateBackend} since —
+     * that instance now evaluates them and owns their dwells.
+     *
+     * @return assets whose dwell threshold has passed and are still inside
+     */
+    public List<GeofenceDwell> expireDwellTimers(Instant now) {
+        List<DwellTimer> due = new ArrayList<>();
+        synchronized (dwellTimers) {
+            dwellTimers.advance(now.toEpochMilli(), due::add);
+        }
+        if (due.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> dueAssets = new LinkedHashSet<>();
+        for (DwellTimer timer : due) {
+            dueAssets.add(timer.state.assetId());
+        }
+        // If the backend is unavailable, firing twice beats not firing at all
+        Map<String, byte[]> stored = stateBackend != null ? stateBackend.load(List.copyOf(dueAssets)) : null;
+
+        Snapshot snapshot = registry.snapshot();
+        List<GeofenceDwell> dwells = new ArrayList<>();
+        Set<String> expired = new LinkedHashSet<>();
+        for (DwellTimer timer : due) {
+            AssetFenceState state = timer.state;
+            synchronized (state) {
+                // An exit or re-entry since the timer came due has already superseded it
+                if (state.dwellTimer(timer.fenceOrdinal) != timer) {
+                    continue;
+                }
+                state.removeDwellTimer(timer.fenceOrdinal);
+                state.markDirty();
+                if (stored != null && supersedes(stored.get(state.assetId()), state)) {
+                    continue;
+                }
+                expired.add(state.assetId());
+                PreparedGeofence fence = snapshot.fence(timer.fenceOrdinal);
+                if (fence == null || !fence.fence().id().equals(timer.geofenceId)
+                        || fence.registeredVersion() > state.evaluatedVersion()
+                        || !state.isInside(timer.fenceOrdinal)) {
+                    continue;
+                }
+                dwells.add(new GeofenceDwell(
+                        timer.geofenceId, fence.fence().name(), state.assetId(),
+                        timer.enteredAt, timer.threshold));
+            }
+        }
+        if (stateBackend != null && !expired.isEmpty()) {
+            // So the next owner does not raise them again
+            storeState(List.copyOf(expired));
+        }
+        return dwells;
+    }
+
+    /**
+     * Write every asset whose state changed since the last checkpoint to the
+     * checkpoint file. Assets are copied one at a time under their own lock, so
+     * evaluation carries on throughout.
+     * <p>
+     * Does nothing until {@link #restoreState()} has run: a checkpoint taken
+     * before would record the still-empty registry as the known fences, and
+     * stamp newer generations on records that would shadow the ones to restore.
+     *
+     * @return number of asset records written; 0 if checkpointing is disabled
+     *         or state has not been restored yet
+     */
+    public int checkpointState() throws IOException {
+        synchronized (checkpointLock) {
+            if (!restoreAttempted) {
+                return 0;
+            }
+            StateCheckpoint file = openCheckpoint();
+            if (file == null) {
+                return 0;
+            }
+            int written = 0;
+            int assetCount = stateStore.assetCount();
+            for (int ordinal = 0; ordinal < assetCount; ordinal++) {
+                AssetFenceState state = stateStore.state(ordinal);
+                if (state == null || !state.isDirty()) {
+                    continue;
+                }
+                synchronized (state) {
+                    state.clearDirty();
+                    encode(file.codec(), file.nextGeneration(), state, registry.snapshot());
+                }
+                file.commitRecord(ordinal);
+                written++;
+            }
+
+            Snapshot snapshot = registry.snapshot();
+            boolean fencesChanged = snapshot.version() != checkpointedRegistryVersion;
+            file.finish(fencesChanged ? snapshot.ids() : null);
+            checkpointedRegistryVersion = snapshot.version();
+            return written;
+        }
+    }
+
+    /**
+     * Restore per-asset state from the checkpoint file. Call once fences are
+     * registered and before positions flow: assets already evaluated live are
+     * left alone. Checkpointing only starts once this has run. Fences registered since the checkpoint was taken start out
+     * UNKNOWN for the restored assets, as they would for a live one.
+     *
+     * @return number of assets restored; 0 if checkpointing is disabled
+     */
+    public int restoreState() throws IOException {
+        synchronized (checkpointLock) {
+            // Even a failed restore lets checkpointing start: the assets carry on from UNKNOWN
+            restoreAttempted = true;
+            StateCheckpoint file = openCheckpoint();
+            if (file == null) {
+                return 0;
+            }
+            Set<UUID> knownFences = file.knownFences();
+            Map<String, AssetStateCodec.AssetState> assets = file.read();
+            Snapshot snapshot = registry.snapshot();
+
+            int restored = 0;
+            for (AssetStateCodec.AssetState asset : assets.values()) {
+                if (!asset.hasLastPosition()) {
+                    continue; // never evaluated
+                }
+                AssetFenceState state = stateStore.stateFor(asset.assetId());
+                synchronized (state) {
+                    if (state.evaluatedVersion() != 0) {
+                        continue;
+                    }
+                    hydrate(state, asset, snapshot);
+                    // Rewrite under this process's ordinal and generation
+                    state.markDirty();
+                    restored++;
+                }
+            }
+
+            if (knownFences != null) {
+                List<UUID> created = new ArrayList<>();
+                for (UUID id : snapshot.ids()) {
+                    if (!knownFences.contains(id)) {
+                        created.add(id);
+                    }
+                }
+                if (!created.isEmpty()) {
+                    registry.renew(created);
+                }
+            }
+            return restored;
+        }
+    }
+
+    /**
+     * The state backend named by {@code geotrack.geofence.state.backend}: "memory"
+     * for none, otherwise the {@link GeofenceStateBackend} bean with that name.
+     */
+    private static GeofenceStateBackend selectBackend(String name, Instance<GeofenceStateBackend> backends) {
+        if ("memory".equals(name)) {
+            return null;
+        }
+        Instance<GeofenceStateBackend> named = backends.select(NamedLiteral.of(name));
+        if (!named.isResolvable()) {
+            throw new IllegalArgumentException("Unknown geotrack.geofence.state.backend: " + name);
+        }
+        return named.get();
+    }
+
+    /**
+     * Asset type implied by a position source, where the feed only carries one
+     * kind of asset: AIS → VESSEL, ADS-B → AIRCRAFT. Null (unknown) otherwise.
+     *
+     * @see PositionSource#impliedAssetType()
+     */
+    public static AssetType inferAssetType(PositionSource source) {
+        return source.impliedAssetType();
+    }
+
     /**
      * Get current state for an asset-geofence pair.
      */
     public GeofenceState getState(String assetId, UUID geofenceId) {
-        return stateMap.getOrDefault(assetId + ":" + geofenceId, GeofenceState.UNKNOWN);
+        PreparedGeofence fence = registry.snapshot().byId(geofenceId);
+        AssetFenceState state = stateStore.find(assetId);
+        if (fence == null || state == null) {
+            return GeofenceState.UNKNOWN;
+        }
+        synchronized (state) {
+            if (fence.registeredVersion() > state.evaluatedVersion()) {
+                return GeofenceState.UNKNOWN;
+            }
+            if (state.isInside(fence.ordinal())) {
+                return GeofenceState.INSIDE;
+            }
+            return state.isApproaching(fence.ordinal()) ? GeofenceState.APPROACHING : GeofenceState.OUTSIDE;
+        }
     }
 
     /**
      * Get count of registered geofences.
      */
     public int getGeofenceCount() {
-        return registeredFences.size();
+        return registry.snapshot().size();
+    }
+
+    /**
+     * Approximate heap held by all registered fences' cell covers.
+     */
+    public long getCellCoverBytes() {
+        return registry.snapshot().cellCoverBytes();
+    }
+
+    /**
+     * Number of dwell timers waiting to fire.
+     */
+    public int getPendingDwellCount() {
+        synchronized (dwellTimers) {
+            return dwellTimers.size();
+        }
+    }
+
+    /**
+     * Version of the fence snapshot currently being evaluated; bumps on every edit.
+     */
+    public long getRegistryVersion() {
+        return registry.snapshot().version();
     }
 
     /**
      * Clear all geofences and state (for testing).
      */
     public void clear() {
-        registeredFences.clear();
-        stateMap.clear();
+        registry.clear();
+        stateStore.clear();
+        synchronized (dwellTimers) {
+            dwellTimers.clear();
+        }
+    }
+
+    /** The checkpoint file, opened on first use; null when checkpointing is disabled */
+    private StateCheckpoint openCheckpoint() throws IOException {
+        if (checkpoint == null && settings.checkpointPath() != null) {
+            checkpoint = StateCheckpoint.open(settings.checkpointPath());
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Re-read from the backend, in one round trip, the state of any of these
+     * assets not under a current near-cache lease. Where another instance has
+     * written a newer record since (the asset's partition moved here), local
+     * state is replaced by it. If the backend is unavailable, local state stands.
+     */
+    private void loadState(List<String> assetIds) {
+        long now = System.nanoTime();
+        List<String> expired = new ArrayList<>();
+        for (String assetId : assetIds) {
+            AssetFenceState state = stateStore.find(assetId);
+            if (state == null) {
+                expired.add(assetId);
+                continue;
+            }
+            synchronized (state) {
+                if (!state.leaseValid(now)) {
+                    expired.add(assetId);
+                }
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        Map<String, byte[]> records = stateBackend.load(expired);
+        if (records == null) {
+            return;
+        }
+
+        Snapshot snapshot = registry.snapshot();
+        long leaseDeadline = now + nearCacheTtlNanos;
+        for (String assetId : expired) {
+            AssetFenceState state = stateStore.stateFor(assetId);
+            byte[] record = records.get(assetId);
+            synchronized (state) {
+                if (supersedes(record, state)) {
+                    AssetStateCodec.AssetState stored = AssetStateCodec.decode(record, 0);
+                    reset(state);
+                    hydrate(state, stored, snapshot);
+                    state.storedGeneration(stored.generation());
+                    state.markDirty();
+                }
+                state.renewLease(leaseDeadline);
+            }
+        }
+    }
+
+    /**
+     * Write these assets' state to the backend in one round trip, extending
+     * the near-cache leases they still hold. A lease released since the load
+     * stays released.
+     * <p>
+     * Where the backend refuses a write because another instance has stored as
+     * new a record, the asset's lease is dropped, so its next check takes up
+     * that record.
+     */
+    private void storeState(List<String> assetIds) {
+        AssetStateCodec codec = new AssetStateCodec();
+        Snapshot snapshot = registry.snapshot();
+        long now = System.nanoTime();
+        long leaseDeadline = now + nearCacheTtlNanos;
+        Map<String, GeofenceStateBackend.VersionedRecord> records = new HashMap<>(assetIds.size() * 2);
+        for (String assetId : assetIds) {
+            AssetFenceState state = stateStore.find(assetId);
+            if (state == null) {
+                continue;
+            }
+            long generation;
+            synchronized (state) {
+                generation = state.storedGeneration() + 1;
+                if (!encode(codec, generation, state, snapshot)) {
+                    continue;
+                }
+                state.storedGeneration(generation);
+                if (state.leaseValid(now)) {
+                    state.renewLease(leaseDeadline);
+                }
+            }
+            records.put(assetId, new GeofenceStateBackend.VersionedRecord(generation, codec.finish()));
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+
+        for (String assetId : stateBackend.store(records)) {
+            AssetFenceState state = stateStore.find(assetId);
+            long generation = records.get(assetId).generation();
+            synchronized (state) {
+                if (state.storedGeneration() == generation) {
+                    // Not ours after all: let a stored record of the same generation supersede it
+                    state.storedGeneration(generation - 1);
+                }
+                state.releaseLease();
+            }
+        }
+    }
+
+    /**
+     * Stop trusting local state for these assets, e.g. because their partition
+     * has been revoked and another instance is about to carry on from the
+     * backend. Their next check re-reads it.
+     */
+    public void releaseLeases(Collection<String> assetIds) {
+        if (stateBackend == null) {
+            return;
+        }
+        for (String assetId : assetIds) {
+            AssetFenceState state = stateStore.find(assetId);
+            if (state != null) {
+                synchronized (state) {
+                    state.releaseLease();
+                }
+            }
+        }
+    }
+
+    /** Whether a stored record is for this asset and newer than anything it has written or read */
+    private static boolean supersedes(byte[] record, AssetFenceState state) {
+        AssetStateCodec.AssetState stored = record != null ? AssetStateCodec.decode(record, 0) : null;
+        return stored != null && stored.assetId().equals(state.assetId())
+                && stored.generation() > state.storedGeneration();
+    }
+
+    /**
+     * Encode an asset's known state; caller holds the state's lock.
+     *
+     * @return false if the asset ID is too long to store
+     */
+    private static boolean encode(AssetStateCodec codec, long generation, AssetFenceState state, Snapshot snapshot) {
+        if (!codec.begin(state.assetId(), generation, state.hasLastPosition(),
+                state.lastLongitude(), state.lastLatitude(), state.lastTimestampMillis())) {
+            return false;
+        }
+        for (int ordinal = state.nextInside(0); ordinal >= 0; ordinal = state.nextInside(ordinal + 1)) {
+            PreparedGeofence fence = snapshot.fence(ordinal);
+            // Bits for removed fences, or slots reused since the last evaluation, are stale
+            if (fence == null || fence.registeredVersion() > state.evaluatedVersion()) {
+                continue;
+            }
+            int index = codec.addInside(fence.fence().id());
+            if (state.dwellTimer(ordinal) instanceof DwellTimer timer) {
+                codec.addDwell(index, timer.enteredAt);
+            }
+        }
+        for (int ordinal = state.nextApproaching(0); ordinal >= 0; ordinal = state.nextApproaching(ordinal + 1)) {
+            PreparedGeofence fence = snapshot.fence(ordinal);
+            if (fence == null || fence.registeredVersion() > state.evaluatedVersion()) {
+                continue;
+            }
+            codec.addApproaching(fence.fence().id());
+        }
+        return true;
+    }
+
+    /**
+     * Load a stored record into an asset's empty state, as if evaluated against
+     * {@code snapshot}; caller holds the state's lock. Fences since removed are
+     * dropped, and pending dwells restart from their original entry time.
+     */
+    private void hydrate(AssetFenceState state, AssetStateCodec.AssetState stored, Snapshot snapshot) {
+        if (!stored.hasLastPosition()) {
+            return; // never evaluated: leave it UNKNOWN
+        }
+        for (UUID fenceId : stored.insideFences()) {
+            PreparedGeofence fence = snapshot.byId(fenceId);
+            if (fence == null) {
+                continue;
+            }
+            state.setInside(fence.ordinal(), true);
+            Instant enteredAt = stored.dwellEnteredAt().get(fenceId);
+            if (enteredAt != null) {
+                startDwell(state, fence, enteredAt);
+            }
+        }
+        for (UUID fenceId : stored.approachingFences()) {
+            PreparedGeofence fence = snapshot.byId(fenceId);
+            if (fence != null) {
+                state.setApproaching(fence.ordinal(), true);
+            }
+        }
+        state.evaluatedVersion(snapshot.version());
+        state.lastPosition(stored.lastLongitude(), stored.lastLatitude(), stored.lastTimestampMillis());
+    }
+
+    /** Forget an asset's local state and cancel its dwell timers; caller holds the state's lock */
+    private void reset(AssetFenceState state) {
+        for (int ordinal = state.nextInside(0); ordinal >= 0; ordinal = state.nextInside(ordinal + 1)) {
+            state.setInside(ordinal, false);
+            cancelDwell(state, ordinal);
+        }
+        for (int ordinal = state.nextApproaching(0); ordinal >= 0; ordinal = state.nextApproaching(ordinal + 1)) {
+            state.setApproaching(ordinal, false);
+        }
+        state.evaluatedVersion(0);
+        state.forgetLastPosition();
+    }
+
+    /** Start (or restart) the dwell timer for an asset that has just gone inside a fence */
+    private void startDwell(AssetFenceState state, PreparedGeofence fence, Instant enteredAt) {
+        Duration threshold = fence.fence().dwellThreshold();
+        if (threshold == null) {
+            return;
+        }
+        DwellTimer timer = new DwellTimer(state, fence.ordinal(), fence.fence().id(), enteredAt, threshold);
+        DwellTimer previous = (DwellTimer) state.putDwellTimer(fence.ordinal(), timer);
+        synchronized (dwellTimers) {
+            if (previous != null) {
+                dwellTimers.cancel(previous);
+            }
+            dwellTimers.schedule(timer, enteredAt.plus(threshold).toEpochMilli());
+        }
+    }
+
+    private void cancelDwell(AssetFenceState state, int fenceOrdinal) {
+        DwellTimer timer = (DwellTimer) state.removeDwellTimer(fenceOrdinal);
+        if (timer != null) {
+            synchronized (dwellTimers) {
+                dwellTimers.cancel(timer);
+            }
+        }
+    }
+
+    private static GeofenceTransition transition(PreparedGeofence prepared, String assetId,
+                                                 GeofenceState previousState, GeofenceState currentState) {
+        Geofence fence = prepared.fence();
+        return new GeofenceTransition(
+                fence.id(), fence.name(), assetId,
+                previousState, currentState, Instant.now()
+        );
+    }
+
+    /**
+     * Pending dwell for one asset in one fence. Lock order is asset state, then
+     * the wheel; expiry releases the wheel before taking any asset's lock.
+     */
+    private static final class DwellTimer extends HierarchicalTimingWheel.Timer {
+
+        private final AssetFenceState state;
+        private final int fenceOrdinal;
+        private final UUID geofenceId;
+        private final Instant enteredAt;
+        private final Duration threshold;
+
+        DwellTimer(AssetFenceState state, int fenceOrdinal, UUID geofenceId,
+                   Instant enteredAt, Duration threshold) {
+            this.state = state;
+            this.fenceOrdinal = fenceOrdinal;
+            this.geofenceId = geofenceId;
+            this.enteredAt = enteredAt;
+            this.threshold = threshold;
+        }
+    }
+
+    /**
+     * Evaluates the asset groups in {@code [fromGroup, toGroup)}, splitting in
+     * half until a range holds few enough positions to run directly.
+     */
+    private final class BatchTask extends RecursiveAction {
+
+        private final List<Position> positions;
+        private final List<GeofenceTransition>[] results;
+        private final int[] ordered;
+        private final int[] groupStart;
+        private final int fromGroup;
+        private final int toGroup;
+
+        BatchTask(List<Position> positions, List<GeofenceTransition>[] results,
+                  int[] ordered, int[] groupStart, int fromGroup, int toGroup) {
+            this.positions = positions;
+            this.results = results;
+            this.ordered = ordered;
+            this.groupStart = groupStart;
+            this.fromGroup = fromGroup;
+            this.toGroup = toGroup;
+        }
+
+        @Override
+        protected void compute() {
+            int positionCount = groupStart[toGroup] - groupStart[fromGroup];
+            if (toGroup - fromGroup > 1 && positionCount > POSITIONS_PER_TASK) {
+                int mid = (fromGroup + toGroup) >>> 1;
+                invokeAll(new BatchTask(positions, results, ordered, groupStart, fromGroup, mid),
+                        new BatchTask(positions, results, ordered, groupStart, mid, toGroup));
+                return;
+            }
+            for (int k = groupStart[fromGroup]; k < groupStart[toGroup]; k++) {
+                int index = ordered[k];
+                Position position = positions.get(index);
+                results[index] = evaluate(position, inferAssetType(position.source()));
+            }
+        }
     }
 }
@@ -0,0 +1,117 @@
+package com.geotrack.processing.geofence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geotrack.common.model.AssetType;
+import com.geotrack.common.model.Circle;
+import com.geotrack.common.model.FenceType;
+import com.geotrack.common.model.PositionSource;
+import com.geotrack.processing.geofence.GeofenceEngine.Geofence;
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reads active geofences straight from the PostGIS {@code geofences} table.
+ * <p>
+ * Plain JDBC rather than Hibernate: the processing service only ever needs this
+ * one bulk read at startup, and geometry comes back as WKB so it can be decoded
+ * without a spatial dialect.
+ */
+@ApplicationScoped
+public class GeofenceLoader {
+
+    private static final String ACTIVE_FENCES_SQL = """
+            SELECT id, name, fence_type, ST_AsBinary(geometry) AS wkb,
+                   buffer_metres, alert_on_enter, alert_on_exit,
+                   asset_types::text AS asset_types, position_sources::text AS position_sources,
+                   dwell_minutes,
+                   ST_X(centre) AS centre_lon, ST_Y(centre) AS centre_lat, radius_metres
+            FROM geofences
+            WHERE active = true
+            """;
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final TypeReference<Set<AssetType>> ASSET_TYPES = new TypeReference<>() {};
+    private static final TypeReference<Set<PositionSource>> POSITION_SOURCES = new TypeReference<>() {};
+
+    private final AgroalDataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+
+    @Inject
+    public GeofenceLoader(AgroalDataSource dataSource, ObjectMapper objectMapper) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Load every active geofence.
+     */
+    public List<Geofence> loadActive() throws SQLException {
+        List<Geofence> fences = new ArrayList<>();
+        WKBReader wkbReader = new WKBReader(geometryFactory);
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(ACTIVE_FENCES_SQL)) {
+            // The PostgreSQL driver only streams rows outside auto-commit
+            connection.setAutoCommit(false);
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    fences.add(new Geofence(
+                            rs.getObject("id", UUID.class),
+                            rs.getString("name"),
+                            (Polygon) wkbReader.read(rs.getBytes("wkb")),
+                            FenceType.valueOf(rs.getString("fence_type")),
+                            rs.getBoolean("alert_on_enter"),
+                            rs.getBoolean("alert_on_exit"),
+                            rs.getDouble("buffer_metres"),
+                            objectMapper.readValue(rs.getString("asset_types"), ASSET_TYPES),
+                            objectMapper.readValue(rs.getString("position_sources"), POSITION_SOURCES),
+                            dwellThreshold(rs.getObject("dwell_minutes", Integer.class)),
+                            circle(rs)
+                    ));
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (ParseException e) {
+            throw new SQLException("Unreadable geofence geometry", e);
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Unreadable geofence applicability", e);
+        }
+        return fences;
+    }
+
+    /** Centre and radius of a circular fence; null for polygons */
+    private static Circle circle(ResultSet rs) throws SQLException {
+        Double radiusMetres = rs.getObject("radius_metres", Double.class);
+        if (radiusMetres == null) {
+            return null;
+        }
+        return new Circle(rs.getDouble("centre_lon"), rs.getDouble("centre_lat"), radiusMetres);
+    }
+
+    /** Dwell threshold for a fence's {@code dwell_minutes}; null (no dwell alerts) when unset */
+    public static Duration dwellThreshold(Integer dwellMinutes) {
+        return dwellMinutes != null ? Duration.ofMinutes(dwellMinutes) : null;
+    }
+}
@@ -0,0 +1,246 @@
+package com.geotrack.processing.geofence;
+
+import com.geotrack.processing.geofence.GeofenceEngine.Geofence;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import java.util.*;
+
+/**
+ * Copy-on-write registry of prepared geofences.
+ * <p>
+ * Readers take the current {@link Snapshot} with a single volatile read and
+ * evaluate a whole position against it — fences, slots and the STRtree index
+ * are immutable once published. Writers are serialised, build the next
+ * snapshot off to the side (re-using already prepared fences) and publish it
+ * atomically, so fence edits never pause or slow the consumer threads.
+ * <p>
+ * Each fence occupies a slot that is stable while the fence exists; slots of
+ * removed fences are reused. A fence also remembers the snapshot version in
+ * which it first appeared, which lets per-asset state tell a known fence from
+ * one registered (or a slot reused) since the asset was last evaluated.
+ */
+final class GeofenceRegistry {
+
+    private final double cellSizeMetres;
+    private final int maxCellsPerFence;
+
+    private volatile Snapshot current = Snapshot.EMPTY;
+
+    /** Guarded by {@code this} */
+    private final BitSet usedSlots = new BitSet();
+
+    /** Registry without cell covers */
+    GeofenceRegistry() {
+        this(0, 0);
+    }
+
+    /**
+     * @param cellSizeMetres   cell-cover resolution for new fences; 0 or less disables covers
+     * @param maxCellsPerFence cap on cover cells per fence
+     */
+    GeofenceRegistry(double cellSizeMetres, int maxCellsPerFence) {
+        this.cellSizeMetres = cellSizeMetres;
+        this.maxCellsPerFence = maxCellsPerFence;
+    }
+
+    Snapshot snapshot() {
+        return current;
+    }
+
+    /**
+     * Add or replace a single fence. Replacing keeps the slot and first-seen
+     * version, so assets inside the old geometry see an exit if the new one
+     * no longer contains them.
+     */
+    synchronized void register(Geofence fence) {
+        registerAll(List.of(fence));
+    }
+
+    /**
+     * Add or replace a batch of fences in one snapshot.
+     */
+    synchronized void registerAll(Collection<Geofence> fences) {
+        Snapshot previous = current;
+        long version = previous.version + 1;
+        PreparedGeofence[] slots = previous.slots.clone();
+        Map<UUID, PreparedGeofence> working = new HashMap<>(previous.byId);
+
+        for (Geofence fence : fences) {
+            PreparedGeofence existing = working.get(fence.id());
+            int slot;
+            long registeredVersion;
+            if (existing != null) {
+                slot = existing.ordinal();
+                registeredVersion = existing.registeredVersion();
+            } else {
+                slot = usedSlots.nextClearBit(0);
+                usedSlots.set(slot);
+                registeredVersion = version;
+            }
+            if (slot >= slots.length) {
+                slots = Arrays.copyOf(slots, Math.max(slot + 1, slots.length * 2));
+            }
+            PreparedGeofence prepared = new PreparedGeofence(fence, slot, registeredVersion,
+                    cellSizeMetres, maxCellsPerFence);
+            slots[slot] = prepared;
+            working.put(fence.id(), prepared);
+        }
+
+        current = new Snapshot(version, slots);
+    }
+
+    /**
+     * Remove a fence; its slot becomes free for reuse.
+     *
+     * @return true if the fence was registered
+     */
+    synchronized boolean remove(UUID id) {
+        Snapshot previous = current;
+        PreparedGeofence existing = previous.byId.get(id);
+        if (existing == null) {
+            return false;
+        }
+        PreparedGeofence[] slots = previous.slots.clone();
+        slots[existing.ordinal()] = null;
+        usedSlots.clear(existing.ordinal());
+        current = new Snapshot(previous.version + 1, slots);
+        return true;
+    }
+
+    /**
+     * Treat fences as newly registered: they keep their slots but become
+     * UNKNOWN to every asset evaluated before this call.
+     */
+    synchronized void renew(Collection<UUID> ids) {
+        Snapshot previous = current;
+        long version = previous.version + 1;
+        PreparedGeofence[] slots = previous.slots.clone();
+        for (UUID id : ids) {
+            PreparedGeofence existing = previous.byId.get(id);
+            if (existing != null) {
+                slots[existing.ordinal()] = existing.withRegisteredVersion(version);
+            }
+        }
+        current = new Snapshot(version, slots);
+    }
+
+    synchronized void clear() {
+        usedSlots.clear();
+        current = new Snapshot(current.version + 1, new PreparedGeofence[0]);
+    }
+
+    /**
+     * Immutable, fully built view of the registered fences at one version.
+     * <p>
+     * Fences are bucketed by their applicability masks, one STRtree per distinct
+     * pair, so a query only descends the trees relevant to the asset's class.
+     * In practice there are a handful of buckets (all assets, vessels, aircraft).
+     */
+    static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0, new PreparedGeofence[0]);
+
+        private final long version;
+        private final PreparedGeofence[] slots;
+        private final Map<UUID, PreparedGeofence> byId;
+        private final int[] bucketAssetTypeMasks;
+        private final int[] bucketSourceMasks;
+        private final STRtree[] bucketIndexes;
+        private final long cellCoverBytes;
+        private final long maxCellCoverBytes;
+
+        private Snapshot(long version, PreparedGeofence[] slots) {
+            this.version = version;
+            this.slots = slots;
+            this.byId = new HashMap<>();
+            Map<Long, STRtree> buckets = new LinkedHashMap<>();
+            long coverBytes = 0;
+            long maxCoverBytes = 0;
+            for (PreparedGeofence fence : slots) {
+                if (fence != null) {
+                    byId.put(fence.fence().id(), fence);
+                    long bucket = ((long) fence.assetTypeMask() << 32) | (fence.sourceMask() & 0xFFFF_FFFFL);
+                    buckets.computeIfAbsent(bucket, k -> new STRtree()).insert(fence.envelope(), fence);
+                    coverBytes += fence.cellCoverBytes();
+                    maxCoverBytes = Math.max(maxCoverBytes, fence.cellCoverBytes());
+                }
+            }
+            this.cellCoverBytes = coverBytes;
+            this.maxCellCoverBytes = maxCoverBytes;
+
+            this.bucketAssetTypeMasks = new int[buckets.size()];
+            this.bucketSourceMasks = new int[buckets.size()];
+            this.bucketIndexes = new STRtree[buckets.size()];
+            int b = 0;
+            for (Map.Entry<Long, STRtree> entry : buckets.entrySet()) {
+                bucketAssetTypeMasks[b] = (int) (entry.getKey() >>> 32);
+                bucketSourceMasks[b] = entry.getKey().intValue();
+                // Build before publishing: a built STRtree is read-only and safe to share
+                entry.getValue().build();
+                bucketIndexes[b++] = entry.getValue();
+            }
+        }
+
+        long version() {
+            return version;
+        }
+
+        /**
+         * Fences applicable to the given asset class whose envelope intersects
+         * {@code searchEnv}.
+         *
+         * @param assetTypeBit {@link PreparedGeofence#assetTypeBit} of the asset
+         * @param sourceBit    {@link PreparedGeofence#sourceBit} of the position
+         */
+        @SuppressWarnings("unchecked")
+        List<PreparedGeofence> query(Envelope searchEnv, int assetTypeBit, int sourceBit) {
+            List<PreparedGeofence> result = null;
+            for (int b = 0; b < bucketIndexes.length; b++) {
+                if ((bucketAssetTypeMasks[b] & assetTypeBit) == 0 || (bucketSourceMasks[b] & sourceBit) == 0) {
+                    continue;
+                }
+                List<PreparedGeofence> matches = bucketIndexes[b].query(searchEnv);
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.addAll(matches);
+                }
+            }
+            return result != null ? result : List.of();
+        }
+
+        /** Number of applicability buckets (one STRtree each) */
+        int bucketCount() {
+            return bucketIndexes.length;
+        }
+
+        int size() {
+            return byId.size();
+        }
+
+        /** Approximate heap held by all fences' cell covers */
+        long cellCoverBytes() {
+            return cellCoverBytes;
+        }
+
+        /** Largest single fence's cell cover */
+        long maxCellCoverBytes() {
+            return maxCellCoverBytes;
+        }
+
+        /** Fence in a slot, or null if the slot is free */
+        PreparedGeofence fence(int slot) {
+            return slot < slots.length ? slots[slot] : null;
+        }
+
+        PreparedGeofence byId(UUID id) {
+            return byId.get(id);
+        }
+
+        /** IDs of every fence in the snapshot */
+        Set<UUID> ids() {
+            return Collections.unmodifiableSet(byId.keySet());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.geotrack.processing.geofence;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shared store for per-asset geofence state, so that whichever instance a
+ * partition rebalance hands an asset to carries on from where the last one
+ * left off, instead of starting it over as UNKNOWN.
+ * <p>
+ * Values are opaque records owned by the engine, sized by the asset's fences.
+ * Every call covers a whole batch of assets and should cost one round trip,
+ * however many assets it names. Implementations are CDI beans selected by their
+ * {@code @Named} name through {@code geotrack.geofence.state.backend}.
+ */
+public interface GeofenceStateBackend {
+
+    /**
+     * An asset's encoded state with its generation, which grows by one with
+     * every write the asset's owner makes.
+     */
+    record VersionedRecord(long generation, byte[] bytes) {}
+
+    /**
+     * Fetch the stored records for these assets.
+     *
+     * @return records by asset ID, with assets that have none left out; null if
+     *         the backend could not be reached
+     */
+    Map<String, byte[]> load(List<String> assetIds);
+
+    /**
+     * Store records by asset ID, each only if its generation is higher than
+     * that of the record already held — atomically, so of two instances racing
+     * through a rebalance the one holding older state cannot overwrite newer.
+     * A failed write is logged rather than thrown: state stays correct locally
+     * and the next write for the asset supersedes it.
+     *
+     * @return the assets whose write was refused because the stored record is
+     *         as new or newer; empty if every write applied or the backend could
+     *         not be reached
+     */
+    Set<String> store(Map<String, VersionedRecord> records);
+}
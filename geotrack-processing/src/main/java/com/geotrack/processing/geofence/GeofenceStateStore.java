@@ -0,0 +1,253 @@
+package com.geotrack.processing.geofence;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact per-asset geofence state.
+ * <p>
+ * Asset IDs are interned to dense int ordinals on first sight, and each asset
+ * keeps a {@link BitSet} of the fence slots it is currently INSIDE (and one of
+ * those whose buffer zone it is APPROACHING in) plus the registry version it
+ * was last evaluated against. Pairs are
+ * never materialised: 50k assets × 2k fences costs one small bitset per asset
+ * rather than 100M map entries, and a check on an existing asset allocates nothing.
+ */
+final class GeofenceStateStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<String, Integer> assetOrdinals = new ConcurrentHashMap<>();
+
+    /** Indexed by asset ordinal; replaced (never shrunk) when it fills up */
+    private volatile AssetFenceState[] states = new AssetFenceState[INITIAL_CAPACITY];
+
+    /** Guarded by {@code this} */
+    private int assetCount;
+
+    /**
+     * State for an asset, interning it on first sight.
+     */
+    AssetFenceState stateFor(String assetId) {
+        Integer ordinal = assetOrdinals.get(assetId);
+        if (ordinal == null) {
+            ordinal = intern(assetId);
+        }
+        return states[ordinal];
+    }
+
+    /**
+     * State for an asset, or null if it has never been evaluated.
+     */
+    AssetFenceState find(String assetId) {
+        Integer ordinal = assetOrdinals.get(assetId);
+        return ordinal != null ? states[ordinal] : null;
+    }
+
+    /**
+     * State for an interned ordinal, or null. Every ordinal below
+     * {@link #assetCount()} has a state.
+     */
+    AssetFenceState state(int ordinal) {
+        AssetFenceState[] current = states;
+        return ordinal < current.length ? current[ordinal] : null;
+    }
+
+    int assetCount() {
+        return assetOrdinals.size();
+    }
+
+    synchronized void clear() {
+        assetOrdinals.clear();
+        states = new AssetFenceState[INITIAL_CAPACITY];
+        assetCount = 0;
+    }
+
+    private synchronized int intern(String assetId) {
+        Integer existing = assetOrdinals.get(assetId);
+        if (existing != null) {
+            return existing;
+        }
+        int ordinal = assetCount++;
+        AssetFenceState[] current = states;
+        if (ordinal == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[ordinal] = new AssetFenceState(ordinal, assetId);
+        states = current;
+        // Publish the ordinal only once its slot is visible
+        assetOrdinals.put(assetId, ordinal);
+        return ordinal;
+    }
+
+    /**
+     * Geofence state of a single asset. Callers synchronise on the instance
+     * while evaluating a position, so one asset's transitions stay ordered.
+     */
+    static final class AssetFenceState {
+
+        /** {@link #lastTimestampMillis()} of a position whose time is not known */
+        static final long UNKNOWN_TIME = Long.MIN_VALUE;
+
+        private final int ordinal;
+        private final String assetId;
+        private final BitSet inside = new BitSet(0);
+        private final BitSet approaching = new BitSet(0);
+        private long evaluatedVersion;
+        private boolean hasLastPosition;
+        private double lastLongitude;
+        private double lastLatitude;
+        private long lastTimestampMillis = UNKNOWN_TIME;
+
+        /** Pending dwell timers by fence ordinal; created on the first one */
+        private Map<Integer, HierarchicalTimingWheel.Timer> dwellTimers;
+
+        /** Changed since last checkpointed; read without the lock by the checkpointer */
+        private volatile boolean dirty;
+
+        /** Generation of the record last written to or read from the state backend */
+        private long storedGeneration;
+
+        /** {@link System#nanoTime()} until which local state is trusted over the backend's */
+        private long leaseDeadline;
+        private boolean leased;
+
+        private AssetFenceState(int ordinal, String assetId) {
+            this.ordinal = ordinal;
+            this.assetId = assetId;
+        }
+
+        int ordinal() {
+            return ordinal;
+        }
+
+        String assetId() {
+            return assetId;
+        }
+
+        boolean isInside(int fenceOrdinal) {
+            return inside.get(fenceOrdinal);
+        }
+
+        void setInside(int fenceOrdinal, boolean isInside) {
+            inside.set(fenceOrdinal, isInside);
+        }
+
+        /** Next fence ordinal at or after {@code from} the asset is inside, or -1 */
+        int nextInside(int from) {
+            return inside.nextSetBit(from);
+        }
+
+        /** Whether the asset is in the fence's buffer zone but not the fence itself */
+        boolean isApproaching(int fenceOrdinal) {
+            return approaching.get(fenceOrdinal);
+        }
+
+        void setApproaching(int fenceOrdinal, boolean isApproaching) {
+            approaching.set(fenceOrdinal, isApproaching);
+        }
+
+        /** Next fence ordinal at or after {@code from} the asset is approaching, or -1 */
+        int nextApproaching(int from) {
+            return approaching.nextSetBit(from);
+        }
+
+        /**
+         * Registry version at the last evaluation (0 = never evaluated). Fences
+         * first registered after this version are UNKNOWN for the asset; older
+         * fences it is not inside are OUTSIDE.
+         */
+        long evaluatedVersion() {
+            return evaluatedVersion;
+        }
+
+        void evaluatedVersion(long version) {
+            this.evaluatedVersion = version;
+        }
+
+        /** Whether a previous position has been evaluated, for swept-segment checks */
+        boolean hasLastPosition() {
+            return hasLastPosition;
+        }
+
+        double lastLongitude() {
+            return lastLongitude;
+        }
+
+        double lastLatitude() {
+            return lastLatitude;
+        }
+
+        /** Sample time of the previous position in epoch millis, or {@link #UNKNOWN_TIME} */
+        long lastTimestampMillis() {
+            return lastTimestampMillis;
+        }
+
+        void lastPosition(double longitude, double latitude, long timestampMillis) {
+            this.lastLongitude = longitude;
+            this.lastLatitude = latitude;
+            this.lastTimestampMillis = timestampMillis;
+            this.hasLastPosition = true;
+        }
+
+        /** Forget the previous position, so the next check is a point check */
+        void forgetLastPosition() {
+            this.hasLastPosition = false;
+        }
+
+        boolean isDirty() {
+            return dirty;
+        }
+
+        void markDirty() {
+            dirty = true;
+        }
+
+        void clearDirty() {
+            dirty = false;
+        }
+
+        long storedGeneration() {
+            return storedGeneration;
+        }
+
+        void storedGeneration(long generation) {
+            this.storedGeneration = generation;
+        }
+
+        /** Whether the near-cache lease on this state is still current at {@code nowNanos} */
+        boolean leaseValid(long nowNanos) {
+            return leased && leaseDeadline - nowNanos > 0;
+        }
+
+        void renewLease(long deadlineNanos) {
+            this.leaseDeadline = deadlineNanos;
+            this.leased = true;
+        }
+
+        void releaseLease() {
+            this.leased = false;
+        }
+
+        /** Pending dwell timer for a fence, or null */
+        HierarchicalTimingWheel.Timer dwellTimer(int fenceOrdinal) {
+            return dwellTimers != null ? dwellTimers.get(fenceOrdinal) : null;
+        }
+
+        /** Record the dwell timer for a fence, returning the one it replaces (or null) */
+        HierarchicalTimingWheel.Timer putDwellTimer(int fenceOrdinal, HierarchicalTimingWheel.Timer timer) {
+            if (dwellTimers == null) {
+                dwellTimers = new HashMap<>(4);
+            }
+            return dwellTimers.put(fenceOrdinal, timer);
+        }
+
+        /** Forget the dwell timer for a fence, returning it (or null) */
+        HierarchicalTimingWheel.Timer removeDwellTimer(int fenceOrdinal) {
+            return dwellTimers != null ? dwellTimers.remove(fenceOrdinal) : null;
+        }
+    }
+}
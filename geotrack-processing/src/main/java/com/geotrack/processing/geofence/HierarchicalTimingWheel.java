@@ -0,0 +1,224 @@
+package com.geotrack.processing.geofence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for large numbers of long-lived, mostly cancelled timers.
+ * <p>
+ * Four levels of 64 slots each: level 0 holds timers due within 64 ticks, level 1
+ * within 64², and so on — about 194 days at a one-second tick. Scheduling and
+ * cancelling are O(1) list splices; as time advances, a higher-level slot is
+ * cascaded down once per lap of the level below it, so each timer is touched at
+ * most once per level before it fires. Timers further out than the top level
+ * are parked in its furthest slot and re-placed when that slot cascades.
+ * <p>
+ * Timers are intrusive (callers subclass {@link Timer}), so a scheduled timer
+ * costs one object and no wrapper nodes. Not thread-safe; callers synchronise.
+ *
+ * @param <T> the caller's timer type
+ */
+final class HierarchicalTimingWheel<T extends HierarchicalTimingWheel.Timer> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    /** Ticks covered by all levels together */
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    /**
+     * A schedulable timer. A timer is in at most one wheel slot at a time;
+     * scheduling it again moves it.
+     */
+    abstract static class Timer {
+        private Timer prev;
+        private Timer next;
+        private long deadlineTick;
+
+        /** Whether the timer is currently scheduled */
+        final boolean isScheduled() {
+            return prev != null;
+        }
+    }
+
+    private final long tickMillis;
+
+    /** Circular list sentinels, one per slot per level */
+    private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+
+    private long currentTick;
+    private int size;
+
+    HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        for (Timer[] level : slots) {
+            for (int s = 0; s < SLOTS; s++) {
+                Timer sentinel = new Timer() {};
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                level[s] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Schedule (or reschedule) a timer to fire at the first tick at or after
+     * {@code deadlineMillis}. Deadlines already past fire on the next tick.
+     */
+    void schedule(T timer, long deadlineMillis) {
+        Timer node = timer;
+        if (node.isScheduled()) {
+            unlink(node);
+        } else {
+            size++;
+        }
+        // Round up so a timer never fires before its deadline
+        node.deadlineTick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        place(node);
+    }
+
+    /**
+     * Cancel a timer.
+     *
+     * @return true if it was scheduled
+     */
+    boolean cancel(T timer) {
+        if (!timer.isScheduled()) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Advance the wheel to {@code nowMillis}, handing every timer that comes due
+     * to {@code expired} in deadline order. Expired timers are unscheduled before
+     * the callback runs, so it may schedule them again.
+     */
+    void advance(long nowMillis, Consumer<? super T> expired) {
+        long targetTick = nowMillis / tickMillis;
+        if (size == 0) {
+            // Nothing to cascade or fire — jump straight there
+            currentTick = Math.max(currentTick, targetTick);
+            return;
+        }
+        List<Timer> due = new ArrayList<>();
+        while (currentTick < targetTick && size > 0) {
+            currentTick++;
+            // Cascade top-down, so a timer dropped from level n lands in level n-1
+            // before that level's own slot is cascaded at the same tick
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, slotIndex(currentTick, level));
+                }
+            }
+            collectDue(slotIndex(currentTick, 0), due);
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        // Callbacks run once the slots are consistent, so they may schedule or cancel freely
+        for (Timer timer : due) {
+            @SuppressWarnings("unchecked")
+            T typed = (T) timer;
+            expired.accept(typed);
+        }
+    }
+
+    /** Number of scheduled timers */
+    int size() {
+        return size;
+    }
+
+    /** Unschedule every timer */
+    void clear() {
+        for (Timer[] level : slots) {
+            for (Timer sentinel : level) {
+                Timer timer = sentinel.next;
+                while (timer != sentinel) {
+                    Timer next = timer.next;
+                    timer.prev = null;
+                    timer.next = null;
+                    timer = next;
+                }
+                detachAll(sentinel);
+            }
+        }
+        size = 0;
+    }
+
+    private void place(Timer timer) {
+        long deadline = timer.deadlineTick;
+        long delta = deadline - currentTick;
+        if (delta >= SPAN) {
+            // Beyond the top level: park in its furthest slot, re-placed on cascade
+            deadline = currentTick + SPAN - 1;
+            delta = SPAN - 1;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        link(slots[level][slotIndex(deadline, level)], timer);
+    }
+
+    private void cascade(int level, int slot) {
+        Timer sentinel = slots[level][slot];
+        Timer timer = sentinel.next;
+        detachAll(sentinel);
+        while (timer != sentinel) {
+            Timer next = timer.next;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    private void collectDue(int slot, List<Timer> due) {
+        Timer sentinel = slots[0][slot];
+        Timer timer = sentinel.next;
+        detachAll(sentinel);
+        while (timer != sentinel) {
+            Timer next = timer.next;
+            if (timer.deadlineTick <= currentTick) {
+                timer.prev = null;
+                timer.next = null;
+                size--;
+                due.add(timer);
+            } else {
+                place(timer);
+            }
+            timer = next;
+        }
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK;
+    }
+
+    private static void link(Timer sentinel, Timer timer) {
+        Timer tail = sentinel.prev;
+        timer.prev = tail;
+        timer.next = sentinel;
+        tail.next = timer;
+        sentinel.prev = timer;
+    }
+
+    private static void unlink(Timer timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+
+    /** Empty a slot; its former members keep their links until re-placed */
+    private static void detachAll(Timer sentinel) {
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+    }
+}
@@ -0,0 +1,404 @@
+package com.geotrack.processing.geofence;
+
+import com.geotrack.common.model.AssetType;
+import com.geotrack.common.model.PositionSource;
+import com.geotrack.common.spatial.SpatialEngine;
+import com.geotrack.processing.geofence.GeofenceEngine.Geofence;
+import org.locationtech.jts.algorithm.LineIntersector;
+import org.locationtech.jts.algorithm.RobustLineIntersector;
+import org.locationtech.jts.algorithm.locate.IndexedPointInAreaLocator;
+import org.locationtech.jts.algorithm.locate.PointOnGeometryLocator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Location;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.geom.prep.PreparedPolygon;
+import org.locationtech.jts.noding.BasicSegmentString;
+import org.locationtech.jts.noding.SegmentIntersector;
+import org.locationtech.jts.noding.SegmentString;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A registered geofence with its evaluation structures built once, up front.
+ * <p>
+ * Port and depot polygons run to thousands of vertices, and a raw
+ * {@code Polygon.contains} rebuilds its intersection machinery on every call.
+ * Here the polygon is prepared at registration time and point checks go
+ * through an {@link IndexedPointInAreaLocator} (an interval index over the
+ * ring edges), after a primitive envelope comparison has rejected anything
+ * outside the fence's bounding box.
+ * <p>
+ * Optionally a {@link FenceCellCover} is built as well, so points well inside
+ * or well outside the fence skip the locator entirely.
+ * <p>
+ * A fence with {@code bufferMetres} also gets its geodesic buffer computed once
+ * here, prepared the same way. Its envelope — not the core polygon's — is what
+ * goes into the registry index, so a position in the buffer zone is already a
+ * candidate and {@link #zone} classifies it with a locator lookup, never a
+ * buffer or distance computation.
+ * <p>
+ * Circular fences skip all of the above: a {@link GeodesicCircle} decides
+ * containment and the buffer zone by distance from the centre.
+ * <p>
+ * The fence's asset-type and position-source restrictions are folded into int
+ * bitmasks (one bit per enum ordinal) so applicability is a single AND.
+ */
+final class PreparedGeofence {
+
+    /** Mask of a fence with no applicability restriction */
+    private static final int ALL = ~0;
+    private static final int UNKNOWN_ASSET_TYPE_BIT = AssetType.values().length;
+
+    /** {@link #zone} results */
+    static final int ZONE_OUTSIDE = 0;
+    static final int ZONE_APPROACHING = 1;
+    static final int ZONE_INSIDE = 2;
+
+    private static final SpatialEngine SPATIAL = new SpatialEngine();
+
+    private final Geofence fence;
+    private final int ordinal;
+    private final long registeredVersion;
+    /** Null for circular fences, along with the locator */
+    private final PreparedPolygon prepared;
+    private final PointOnGeometryLocator locator;
+    /** Null when cell covers are disabled */
+    private final FenceCellCover cellCover;
+
+    /** Distance-based evaluation of a circular fence; null for polygons */
+    private final GeodesicCircle circle;
+
+    /** Fence grown by its buffer; all three null for unbuffered or circular fences */
+    private final Polygon buffered;
+    private final PointOnGeometryLocator bufferLocator;
+    private final FenceCellCover bufferCellCover;
+
+    private final int assetTypeMask;
+    private final int sourceMask;
+
+    /** Envelope of the fence itself */
+    private final double minLon;
+    private final double minLat;
+    private final double maxLon;
+    private final double maxLat;
+
+    /** Envelope including the buffer; the same as the fence's when unbuffered */
+    private final Envelope outerEnvelope;
+    private final double outerMinLon;
+    private final double outerMinLat;
+    private final double outerMaxLon;
+    private final double outerMaxLat;
+
+    PreparedGeofence(Geofence fence, int ordinal, long registeredVersion) {
+        this(fence, ordinal, registeredVersion, 0, 0);
+    }
+
+    /**
+     * @param cellSizeMetres cell-cover resolution; 0 or less builds no cover
+     * @param maxCells       cap on cover cells, coarsening the resolution for large fences
+     */
+    PreparedGeofence(Geofence fence, int ordinal, long registeredVersion, double cellSizeMetres, int maxCells) {
+        this.fence = fence;
+        this.ordinal = ordinal;
+        this.registeredVersion = registeredVersion;
+        this.assetTypeMask = fence.assetTypes().isEmpty() ? ALL : mask(fence.assetTypes());
+        this.sourceMask = fence.positionSources().isEmpty() ? ALL : mask(fence.positionSources());
+
+        if (fence.circle() != null) {
+            this.circle = new GeodesicCircle(fence.circle(), fence.bufferMetres());
+            this.prepared = null;
+            this.locator = null;
+            this.cellCover = null;
+            this.buffered = null;
+            this.bufferLocator = null;
+            this.bufferCellCover = null;
+            Envelope core = circle.coreEnvelope();
+            this.minLon = core.getMinX();
+            this.minLat = core.getMinY();
+            this.maxLon = core.getMaxX();
+            this.maxLat = core.getMaxY();
+            this.outerEnvelope = circle.outerEnvelope();
+            this.outerMinLon = outerEnvelope.getMinX();
+            this.outerMinLat = outerEnvelope.getMinY();
+            this.outerMaxLon = outerEnvelope.getMaxX();
+            this.outerMaxLat = outerEnvelope.getMaxY();
+            return;
+        }
+        this.circle = null;
+        this.prepared = (PreparedPolygon) PreparedGeometryFactory.prepare(fence.geometry());
+        // The prepared polygon's IndexedPointInAreaLocator; fetched once as the getter is synchronized
+        this.locator = prepared.getPointLocator();
+
+        Envelope envelope = fence.geometry().getEnvelopeInternal();
+        this.minLon = envelope.getMinX();
+        this.minLat = envelope.getMinY();
+        this.maxLon = envelope.getMaxX();
+        this.maxLat = envelope.getMaxY();
+
+        // Build the edge index now rather than on the first position
+        locator.locate(envelope.centre());
+
+        this.cellCover = cellSizeMetres > 0
+                ? FenceCellCover.build(fence.geometry(), locator, cellSizeMetres, maxCells)
+                : null;
+
+        if (fence.bufferMetres() > 0) {
+            this.buffered = SPATIAL.bufferGeodesic(fence.geometry(), fence.bufferMetres());
+            this.bufferLocator = new IndexedPointInAreaLocator(buffered);
+            bufferLocator.locate(envelope.centre());
+            this.bufferCellCover = cellSizeMetres > 0
+                    ? FenceCellCover.build(buffered, bufferLocator, cellSizeMetres, maxCells)
+                    : null;
+            this.outerEnvelope = buffered.getEnvelopeInternal();
+        } else {
+            this.buffered = null;
+            this.bufferLocator = null;
+            this.bufferCellCover = null;
+            this.outerEnvelope = envelope;
+        }
+        this.outerMinLon = outerEnvelope.getMinX();
+        this.outerMinLat = outerEnvelope.getMinY();
+        this.outerMaxLon = outerEnvelope.getMaxX();
+        this.outerMaxLat = outerEnvelope.getMaxY();
+    }
+
+    /** Copy of an already prepared fence under a new first-seen version */
+    private PreparedGeofence(PreparedGeofence source, long registeredVersion) {
+        this.fence = source.fence;
+        this.ordinal = source.ordinal;
+        this.registeredVersion = registeredVersion;
+        this.prepared = source.prepared;
+        this.locator = source.locator;
+        this.cellCover = source.cellCover;
+        this.circle = source.circle;
+        this.buffered = source.buffered;
+        this.bufferLocator = source.bufferLocator;
+        this.bufferCellCover = source.bufferCellCover;
+        this.outerEnvelope = source.outerEnvelope;
+        this.outerMinLon = source.outerMinLon;
+        this.outerMinLat = source.outerMinLat;
+        this.outerMaxLon = source.outerMaxLon;
+        this.outerMaxLat = source.outerMaxLat;
+        this.assetTypeMask = source.assetTypeMask;
+        this.sourceMask = source.sourceMask;
+        this.minLon = source.minLon;
+        this.minLat = source.minLat;
+        this.maxLon = source.maxLon;
+        this.maxLat = source.maxLat;
+    }
+
+    PreparedGeofence withRegisteredVersion(long registeredVersion) {
+        return new PreparedGeofence(this, registeredVersion);
+    }
+
+    Geofence fence() {
+        return fence;
+    }
+
+    /** Registry slot — stable for the lifetime of the fence, reused after removal */
+    int ordinal() {
+        return ordinal;
+    }
+
+    /** Registry snapshot version in which this fence first appeared */
+    long registeredVersion() {
+        return registeredVersion;
+    }
+
+    /** Envelope to index the fence under, including any buffer zone */
+    Envelope envelope() {
+        return outerEnvelope;
+    }
+
+    /** Whether the fence has a buffer zone, so {@link #zone} can return {@link #ZONE_APPROACHING} */
+    boolean isBuffered() {
+        return buffered != null || (circle != null && circle.isBuffered());
+    }
+
+    /** Asset types the fence applies to, as {@link #assetTypeBit} bits */
+    int assetTypeMask() {
+        return assetTypeMask;
+    }
+
+    /** Position sources the fence applies to, as {@link #sourceBit} bits */
+    int sourceMask() {
+        return sourceMask;
+    }
+
+    boolean appliesTo(int assetTypeBit, int sourceBit) {
+        return (assetTypeMask & assetTypeBit) != 0 && (sourceMask & sourceBit) != 0;
+    }
+
+    /**
+     * Mask bit for an asset type. Unknown types (null) get a bit of their own
+     * that only unrestricted fences carry.
+     */
+    static int assetTypeBit(AssetType assetType) {
+        return 1 << (assetType != null ? assetType.ordinal() : UNKNOWN_ASSET_TYPE_BIT);
+    }
+
+    static int sourceBit(PositionSource source) {
+        return 1 << source.ordinal();
+    }
+
+    private static int mask(Set<? extends Enum<?>> values) {
+        int mask = 0;
+        for (Enum<?> value : values) {
+            mask |= 1 << value.ordinal();
+        }
+        return mask;
+    }
+
+    /** Cell cover, or null if none was built */
+    FenceCellCover cellCover() {
+        return cellCover;
+    }
+
+    /** Approximate heap held by the cell covers (fence and buffer); 0 without any */
+    long cellCoverBytes() {
+        return (cellCover != null ? cellCover.memoryBytes() : 0)
+                + (bufferCellCover != null ? bufferCellCover.memoryBytes() : 0);
+    }
+
+    /**
+     * Primitive bounding-box test against the indexed envelope, buffer zone
+     * included — no JTS call, no allocation.
+     */
+    boolean envelopeContains(double longitude, double latitude) {
+        return longitude >= outerMinLon && longitude <= outerMaxLon
+                && latitude >= outerMinLat && latitude <= outerMaxLat;
+    }
+
+    /**
+     * Point-in-polygon with the same semantics as {@code Polygon.contains(Point)}:
+     * true only for points in the interior (boundary points are not contained).
+     * Tests the fence itself, ignoring any buffer.
+     */
+    boolean contains(double longitude, double latitude) {
+        if (circle != null) {
+            return circle.contains(longitude, latitude);
+        }
+        if (longitude < minLon || longitude > maxLon || latitude < minLat || latitude > maxLat) {
+            return false;
+        }
+        return locate(cellCover, locator, longitude, latitude);
+    }
+
+    /**
+     * Which zone of the fence a point is in: {@link #ZONE_INSIDE} the fence,
+     * {@link #ZONE_APPROACHING} (in the buffer but not the fence), or
+     * {@link #ZONE_OUTSIDE}. Points outside the buffer cost one lookup, as for
+     * an unbuffered fence; points in it, two.
+     */
+    int zone(double longitude, double latitude) {
+        if (circle != null) {
+            return circle.zone(longitude, latitude);
+        }
+        if (buffered != null) {
+            if (!envelopeContains(longitude, latitude)
+                    || !locate(bufferCellCover, bufferLocator, longitude, latitude)) {
+                return ZONE_OUTSIDE;
+            }
+            return contains(longitude, latitude) ? ZONE_INSIDE : ZONE_APPROACHING;
+        }
+        return contains(longitude, latitude) ? ZONE_INSIDE : ZONE_OUTSIDE;
+    }
+
+    private static boolean locate(FenceCellCover cover, PointOnGeometryLocator locator,
+                                  double longitude, double latitude) {
+        if (cover != null) {
+            byte cell = cover.classify(longitude, latitude);
+            if (cell != FenceCellCover.BOUNDARY) {
+                return cell == FenceCellCover.INSIDE;
+            }
+        }
+        return locator.locate(new Coordinate(longitude, latitude)) == Location.INTERIOR;
+    }
+
+    /**
+     * Whether a path passes through the fence interior. Merely grazing the
+     * boundary (touching a vertex or running along an edge) does not count.
+     * <p>
+     * The path is split where it meets the fence boundary, found through the
+     * prepared polygon's segment index, and each piece is classified by the
+     * locator at its midpoint — a piece is either wholly inside, wholly outside
+     * or lying along an edge.
+     */
+    boolean crossedBy(LineString path) {
+        if (circle != null) {
+            return circle.crossedBy(path);
+        }
+        if (!prepared.intersects(path)) {
+            return false;
+        }
+        Coordinate from = path.getCoordinateN(0);
+        Coordinate to = path.getCoordinateN(path.getNumPoints() - 1);
+        BoundaryCrossings crossings = new BoundaryCrossings(from, to);
+        prepared.getIntersectionFinder().getSegmentSetIntersector()
+                .process(List.of(crossings.path), crossings);
+        double[] fractions = crossings.sortedFractions();
+        for (int i = 1; i < fractions.length; i++) {
+            double mid = (fractions[i - 1] + fractions[i]) / 2;
+            if (locate(cellCover, locator,
+                    from.x + (to.x - from.x) * mid, from.y + (to.y - from.y) * mid)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Collects where a straight path meets the fence boundary, as fractions along it */
+    private static final class BoundaryCrossings implements SegmentIntersector {
+
+        private final SegmentString path;
+        private final LineIntersector intersector = new RobustLineIntersector();
+        private double[] fractions = new double[8];
+        private int count;
+
+        BoundaryCrossings(Coordinate from, Coordinate to) {
+            this.path = new BasicSegmentString(new Coordinate[]{from, to}, null);
+            add(0);
+            add(1);
+        }
+
+        @Override
+        public void processIntersections(SegmentString e0, int segIndex0, SegmentString e1, int segIndex1) {
+            SegmentString edge = e0 == path ? e1 : e0;
+            int edgeIndex = e0 == path ? segIndex1 : segIndex0;
+            Coordinate from = path.getCoordinate(0);
+            Coordinate to = path.getCoordinate(1);
+            intersector.computeIntersection(from, to,
+                    edge.getCoordinate(edgeIndex), edge.getCoordinate(edgeIndex + 1));
+            double dx = to.x - from.x;
+            double dy = to.y - from.y;
+            double lengthSquared = dx * dx + dy * dy;
+            for (int i = 0; i < intersector.getIntersectionNum() && lengthSquared > 0; i++) {
+                Coordinate at = intersector.getIntersection(i);
+                add(((at.x - from.x) * dx + (at.y - from.y) * dy) / lengthSquared);
+            }
+        }
+
+        @Override
+        public boolean isDone() {
+            return false;
+        }
+
+        private void add(double fraction) {
+            if (count == fractions.length) {
+                fractions = Arrays.copyOf(fractions, count * 2);
+            }
+            fractions[count++] = Math.clamp(fraction, 0.0, 1.0);
+        }
+
+        double[] sortedFractions() {
+            double[] sorted = Arrays.copyOf(fractions, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
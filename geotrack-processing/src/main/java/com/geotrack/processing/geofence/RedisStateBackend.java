@@ -0,0 +1,139 @@
+package com.geotrack.processing.geofence;
+
+import io.quarkus.logging.Log;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.Request;
+import io.vertx.mutiny.redis.client.Response;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Redis-backed geofence state, one hash per asset holding the record and its
+ * generation.
+ * <p>
+ * Each load or store is sent as a single pipelined batch, so a Kafka poll of
+ * any size costs one round trip each way. Writes go through a compare-and-set
+ * script that only replaces a lower generation, so an instance still finishing
+ * a revoked partition's batch cannot overwrite what the partition's new owner
+ * has since written. Keys expire after {@code geotrack.geofence.state.redis.ttl}
+ * without a write, so assets that stop reporting do not accumulate forever.
+ */
+@ApplicationScoped
+@Named("redis")
+public class RedisStateBackend implements GeofenceStateBackend {
+
+    private static final String KEY_PREFIX = "geotrack:geofence:asset:";
+    private static final String FIELD_RECORD = "r";
+
+    /** KEYS[1] asset key; ARGV generation, record, TTL millis. Returns 1 if written, 0 if refused */
+    static final String COMPARE_AND_SET = """
+            local stored = tonumber(redis.call('HGET', KEYS[1], 'g'))
+            if stored and stored >= tonumber(ARGV[1]) then
+              return 0
+            end
+            redis.call('HSET', KEYS[1], 'g', ARGV[1], 'r', ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """;
+    private static final String COMPARE_AND_SET_SHA = sha1Hex(COMPARE_AND_SET);
+
+    private final Redis redis;
+    private final long ttlMillis;
+
+    @Inject
+    public RedisStateBackend(
+            Redis redis,
+            @ConfigProperty(name = "geotrack.geofence.state.redis.ttl", defaultValue = "24h")
+            Duration ttl) {
+        this.redis = redis;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    @Override
+    public Map<String, byte[]> load(List<String> assetIds) {
+        List<Request> gets = new ArrayList<>(assetIds.size());
+        for (String assetId : assetIds) {
+            gets.add(Request.cmd(Command.HGET).arg(KEY_PREFIX + assetId).arg(FIELD_RECORD));
+        }
+        try {
+            List<Response> responses = redis.batchAndAwait(gets);
+            Map<String, byte[]> records = new HashMap<>(assetIds.size() * 2);
+            for (int i = 0; i < responses.size(); i++) {
+                Response response = responses.get(i);
+                if (response != null) {
+                    records.put(assetIds.get(i), response.toBytes());
+                }
+            }
+            return records;
+        } catch (Exception e) {
+            Log.warnf("Redis geofence state read failed for %d assets: %s", assetIds.size(), e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public Set<String> store(Map<String, VersionedRecord> records) {
+        List<String> assetIds = new ArrayList<>(records.keySet());
+        List<Request> writes = new ArrayList<>(assetIds.size());
+        for (String assetId : assetIds) {
+            VersionedRecord record = records.get(assetId);
+            writes.add(Request.cmd(Command.EVALSHA)
+                    .arg(COMPARE_AND_SET_SHA)
+                    .arg(1)
+                    .arg(KEY_PREFIX + assetId)
+                    .arg(record.generation())
+                    .arg(record.bytes())
+                    .arg(ttlMillis));
+        }
+        try {
+            List<Response> responses = sendWrites(writes);
+            Set<String> refused = new HashSet<>();
+            for (int i = 0; i < responses.size(); i++) {
+                if (responses.get(i).toInteger() == 0) {
+                    refused.add(assetIds.get(i));
+                }
+            }
+            return refused;
+        } catch (Exception e) {
+            Log.warnf("Redis geofence state write failed for %d assets: %s", records.size(), e.getMessage());
+            return Set.of();
+        }
+    }
+
+    /** Send the pipelined writes, loading the script first if this Redis has not seen it */
+    private List<Response> sendWrites(List<Request> writes) {
+        try {
+            return redis.batchAndAwait(writes);
+        } catch (Exception e) {
+            if (e.getMessage() == null || !e.getMessage().contains("NOSCRIPT")) {
+                throw e;
+            }
+            redis.sendAndAwait(Request.cmd(Command.SCRIPT).arg("LOAD").arg(COMPARE_AND_SET));
+            return redis.batchAndAwait(writes);
+        }
+    }
+
+    private static String sha1Hex(String script) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1")
+                    .digest(script.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.geotrack.processing.geofence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Memory-mapped checkpoint of per-asset geofence state.
+ * <p>
+ * The file is a header followed by one fixed-size slot per asset ordinal,
+ * holding that asset's {@link AssetStateCodec} record, so an incremental
+ * checkpoint overwrites just the records of assets that changed, in place,
+ * with plain memory stores. Records carry a CRC and the checkpoint generation
+ * that wrote them: torn records are skipped on restore, and where an asset
+ * appears twice (its ordinal changed across a restart) the newer generation
+ * wins.
+ * <p>
+ * A record too large for its slot, for an asset inside many fences at once,
+ * spills to a file of its own in a side directory, replaced atomically, and
+ * the slot holds a stub naming the asset and generation. The spill file is
+ * written first, so after a crash between the two it is never older than the
+ * stub pointing at it.
+ * <p>
+ * The IDs of the fences registered at the last checkpoint are kept in a small
+ * side file that is replaced atomically, so fences created while the service
+ * was down can be told apart from fences the assets were evaluated against.
+ * <p>
+ * Not thread-safe: one checkpointing thread at a time.
+ */
+final class StateCheckpoint implements Closeable {
+
+    static final int SLOT_SIZE = 256;
+
+    private static final int MAGIC = 0x47544350; // "GTCP"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = SLOT_SIZE;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE;
+    private static final int FENCE_ID_BYTES = 16;
+
+    private final Path path;
+    private final Path fencesPath;
+    private final Path spillDir;
+    private final FileChannel channel;
+    /** Ordinals with a spill file */
+    private final BitSet spilled = new BitSet();
+    private MappedByteBuffer mapped;
+    private int capacity;
+    private long generation;
+
+    private final AssetStateCodec codec = new AssetStateCodec();
+
+    private StateCheckpoint(Path path, FileChannel channel) {
+        this.path = path;
+        this.fencesPath = path.resolveSibling(path.getFileName() + ".fences");
+        this.spillDir = path.resolveSibling(path.getFileName() + ".spill");
+        this.channel = channel;
+    }
+
+    /**
+     * Open (or create) the checkpoint at {@code path}. A file with an
+     * unrecognised header is treated as empty and overwritten.
+     */
+    static StateCheckpoint open(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        StateCheckpoint checkpoint = new StateCheckpoint(path, channel);
+        try {
+            checkpoint.init();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return checkpoint;
+    }
+
+    private void init() throws IOException {
+        long size = channel.size();
+        boolean valid = false;
+        if (size >= HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            valid = header.getInt(0) == MAGIC && header.getInt(4) == FORMAT_VERSION
+                    && header.getInt(8) == SLOT_SIZE;
+            if (valid) {
+                generation = header.getLong(16);
+            }
+        }
+        if (!valid) {
+            channel.truncate(0);
+            size = 0;
+        }
+        long records = Math.max(0, (size - HEADER_SIZE) / SLOT_SIZE);
+        map((int) Math.min(MAX_CAPACITY, Math.max(INITIAL_CAPACITY, records)));
+        if (!valid) {
+            mapped.putInt(0, MAGIC);
+            mapped.putInt(4, FORMAT_VERSION);
+            mapped.putInt(8, SLOT_SIZE);
+            mapped.putLong(16, 0L);
+        }
+
+        Files.createDirectories(spillDir);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!valid || !name.chars().allMatch(Character::isDigit)) {
+                    Files.delete(file); // left by another file, or a write cut short
+                } else {
+                    spilled.set(Integer.parseInt(name));
+                }
+            }
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /** Generation of the last completed checkpoint (0 = none) */
+    long generation() {
+        return generation;
+    }
+
+    // --- Writing ----------------------------------------------------------------------
+
+    /**
+     * Encoder for the next record; records are stamped with the generation in progress.
+     */
+    AssetStateCodec codec() {
+        return codec;
+    }
+
+    /** Generation to stamp on records written by the checkpoint in progress */
+    long nextGeneration() {
+        return generation + 1;
+    }
+
+    /**
+     * Write the record just encoded by {@link #codec()} into the slot for
+     * {@code ordinal}, growing the file as needed, or spill it if it is too
+     * large for the slot.
+     */
+    void commitRecord(int ordinal) throws IOException {
+        ensureCapacity(ordinal);
+        byte[] record = codec.finish();
+        if (record.length <= SLOT_SIZE) {
+            mapped.put(recordOffset(ordinal), record, 0, record.length);
+            if (spilled.get(ordinal)) {
+                Files.deleteIfExists(spillPath(ordinal));
+                spilled.clear(ordinal);
+            }
+            return;
+        }
+        Path spill = spillPath(ordinal);
+        Path temp = spill.resolveSibling(spill.getFileName() + ".tmp");
+        Files.write(temp, record);
+        Files.move(temp, spill, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        spilled.set(ordinal);
+        byte[] stub = codec.stub();
+        mapped.put(recordOffset(ordinal), stub, 0, stub.length);
+    }
+
+    /**
+     * Complete a checkpoint: flush the records to disk, then publish the new
+     * generation and, if given, the set of fences the records were taken against.
+     */
+    void finish(Collection<UUID> knownFences) throws IOException {
+        mapped.force();
+        generation++;
+        mapped.putLong(16, generation);
+        mapped.force(0, HEADER_SIZE);
+
+        if (knownFences != null) {
+            ByteBuffer ids = ByteBuffer.allocate(4 + knownFences.size() * FENCE_ID_BYTES);
+            ids.putInt(knownFences.size());
+            for (UUID id : knownFences) {
+                ids.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+            }
+            Path temp = fencesPath.resolveSibling(fencesPath.getFileName() + ".tmp");
+            Files.write(temp, ids.array());
+            Files.move(temp, fencesPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    // --- Reading ----------------------------------------------------------------------
+
+    /**
+     * Every intact record, keyed by asset ID; the newest wins where an asset appears twice.
+     */
+    Map<String, AssetStateCodec.AssetState> read() throws IOException {
+        Map<String, AssetStateCodec.AssetState> assets = new HashMap<>();
+        byte[] record = new byte[SLOT_SIZE];
+        for (int ordinal = 0; ordinal < capacity; ordinal++) {
+            mapped.get(recordOffset(ordinal), record, 0, SLOT_SIZE);
+            // Null for empty slots and for records torn by a crash mid-write
+            AssetStateCodec.AssetState asset = AssetStateCodec.decode(record, 0);
+            if (asset != null && asset.stub()) {
+                asset = readSpilled(ordinal, asset);
+            }
+            if (asset == null) {
+                continue;
+            }
+            assets.merge(asset.assetId(), asset, (a, b) -> a.generation() >= b.generation() ? a : b);
+        }
+        return assets;
+    }
+
+    /** The spilled record a stub points at, or null if it is missing, corrupt or older */
+    private AssetStateCodec.AssetState readSpilled(int ordinal, AssetStateCodec.AssetState stub) throws IOException {
+        if (!spilled.get(ordinal)) {
+            return null;
+        }
+        AssetStateCodec.AssetState asset = AssetStateCodec.decode(Files.readAllBytes(spillPath(ordinal)), 0);
+        return asset != null && !asset.stub() && asset.assetId().equals(stub.assetId())
+                && asset.generation() >= stub.generation() ? asset : null;
+    }
+
+    /**
+     * Fences registered at the last checkpoint, or null if that was never recorded.
+     */
+    Set<UUID> knownFences() throws IOException {
+        if (!Files.exists(fencesPath)) {
+            return null;
+        }
+        ByteBuffer ids = ByteBuffer.wrap(Files.readAllBytes(fencesPath));
+        int count = ids.getInt();
+        if (ids.remaining() != count * FENCE_ID_BYTES) {
+            return null;
+        }
+        Set<UUID> known = new HashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            known.add(new UUID(ids.getLong(), ids.getLong()));
+        }
+        return known;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mapped.force();
+        channel.close();
+    }
+
+    // --- Mapping ----------------------------------------------------------------------
+
+    private static int recordOffset(int ordinal) {
+        return HEADER_SIZE + ordinal * SLOT_SIZE;
+    }
+
+    private Path spillPath(int ordinal) {
+        return spillDir.resolve(Integer.toString(ordinal));
+    }
+
+    private void ensureCapacity(int ordinal) throws IOException {
+        if (ordinal < capacity) {
+            return;
+        }
+        if (ordinal >= MAX_CAPACITY) {
+            throw new IOException("Checkpoint is full at " + MAX_CAPACITY + " assets: " + path);
+        }
+        map((int) Math.min(MAX_CAPACITY, Math.max(ordinal + 1L, capacity * 2L)));
+    }
+
+    private void map(int records) throws IOException {
+        long size = HEADER_SIZE + (long) records * SLOT_SIZE;
+        // Mapping past the end extends the file; the new records read as zero (empty)
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        capacity = records;
+    }
+}
@@ -1,62 +1,71 @@
 package com.geotrack.processing.publisher;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geotrack.common.event.GeofenceApproached;
 import com.geotrack.common.event.GeofenceBreached;
+import com.geotrack.common.event.GeofenceDwellExceeded;
 import com.geotrack.common.event.GeofenceExited;
 import com.geotrack.common.event.PositionUpdated;
+import com.geotrack.common.event.TrackingEvent;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
 
+import java.util.concurrent.CompletionStage;
+
 /**
  * Publishes processed events to downstream Kafka topics.
+ * <p>
+ * Both channels serialise through {@code TrackingEventSerializer}, so whether
+ * events go out as JSON or binary is channel configuration
+ * ({@code geotrack.kafka.format}), not code.
+ * <p>
+ * Each publish completes once Kafka has acknowledged the event, so a caller
+ * can hold back its own offset commit until everything it sent is durable.
  */
 @ApplicationScoped
 public class EventPublisher {
 
     @Inject
     @Channel("position-processed")
-    Emitter<String> positionEmitter;
+    Emitter<PositionUpdated> positionEmitter;
 
     @Inject
     @Channel("alert-geofence")
-    Emitter<String> alertEmitter;
+    Emitter<TrackingEvent> alertEmitter;
 
-    @Inject
-    ObjectMapper objectMapper;
-
-    public void publishProcessedPosition(PositionUpdated event) {
-        try {
-            String json = objectMapper.writeValueAsString(event);
-            positionEmitter.send(json);
-            Log.debugf("Published processed position for asset %s", event.assetId());
-        } catch (JsonProcessingException e) {
-            Log.errorf(e, "Failed to serialise PositionUpdated event");
-        }
+    public CompletionStage<Void> publishProcessedPosition(PositionUpdated event) {
+        CompletionStage<Void> sent = positionEmitter.send(event);
+        Log.debugf("Published processed position for asset %s", event.assetId());
+        return sent;
+    }
+
+    public CompletionStage<Void> publishGeofenceApproach(GeofenceApproached event) {
+        CompletionStage<Void> sent = alertEmitter.send(event);
+        Log.infof("Published geofence APPROACH: asset %s nearing '%s'",
+                event.assetId(), event.geofenceName());
+        return sent;
+    }
+
+    public CompletionStage<Void> publishGeofenceBreach(GeofenceBreached event) {
+        CompletionStage<Void> sent = alertEmitter.send(event);
+        Log.warnf("Published geofence BREACH alert: asset %s entered '%s'",
+                event.assetId(), event.geofenceName());
+        return sent;
     }
 
-    public void publishGeofenceBreach(GeofenceBreached event) {
-        try {
-            String json = objectMapper.writeValueAsString(event);
-            alertEmitter.send(json);
-            Log.warnf("Published geofence BREACH alert: asset %s entered '%s'",
-                    event.assetId(), event.geofenceName());
-        } catch (JsonProcessingException e) {
-            Log.errorf(e, "Failed to serialise GeofenceBreached event");
-        }
+    public CompletionStage<Void> publishGeofenceExit(GeofenceExited event) {
+        CompletionStage<Void> sent = alertEmitter.send(event);
+        Log.infof("Published geofence EXIT: asset %s left '%s'",
+                event.assetId(), event.geofenceName());
+        return sent;
     }
 
-    public void publishGeofenceExit(GeofenceExited event) {
-        try {
-            String json = objectMapper.writeValueAsString(event);
-            alertEmitter.send(json);
-            Log.infof("Published geofence EXIT: asset %s left '%s'",
-                    event.assetId(), event.geofenceName());
-        } catch (JsonProcessingException e) {
-            Log.errorf(e, "Failed to serialise GeofenceExited event");
-        }
+    public CompletionStage<Void> publishGeofenceDwell(GeofenceDwellExceeded event) {
+        CompletionStage<Void> sent = alertEmitter.send(event);
+        Log.warnf("Published geofence DWELL alert: asset %s in '%s' since %s",
+                event.assetId(), event.geofenceName(), event.enteredAt());
+        return sent;
     }
 }
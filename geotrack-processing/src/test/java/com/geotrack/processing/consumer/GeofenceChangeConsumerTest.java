@@ -0,0 +1,168 @@
+package com.geotrack.processing.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geotrack.common.event.GeofenceChanged;
+import com.geotrack.common.model.Circle;
+import com.geotrack.common.model.FenceType;
+import com.geotrack.common.model.Position;
+import com.geotrack.common.spatial.SpatialEngine;
+import com.geotrack.processing.geofence.GeofenceEngine;
+import com.geotrack.processing.geofence.GeofenceEngine.Geofence;
+import com.geotrack.processing.geofence.GeofenceLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.WKTWriter;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for GeofenceChangeConsumer — startup bootstrap plus live change application.
+ */
+@ExtendWith(MockitoExtension.class)
+class GeofenceChangeConsumerTest {
+
+    private static final String NEWCASTLE_WKT =
+            "POLYGON ((-1.65 54.96, -1.58 54.96, -1.58 55.00, -1.65 55.00, -1.65 54.96))";
+
+    @Mock
+    GeofenceLoader geofenceLoader;
+
+    private GeofenceEngine engine;
+    private GeofenceChangeConsumer consumer;
+    private ObjectMapper objectMapper;
+    private Polygon newcastle;
+
+    @BeforeEach
+    void setUp() {
+        engine = new GeofenceEngine();
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        consumer = new GeofenceChangeConsumer(engine, geofenceLoader, objectMapper, 5000);
+        newcastle = new SpatialEngine().createPolygon(List.of(
+                new double[]{-1.65, 54.96},
+                new double[]{-1.58, 54.96},
+                new double[]{-1.58, 55.00},
+                new double[]{-1.65, 55.00}
+        ));
+    }
+
+    private String json(GeofenceChanged change) throws Exception {
+        return objectMapper.writeValueAsString(change);
+    }
+
+    @Test
+    @DisplayName("Should bulk-load active geofences on startup")
+    void shouldBootstrapFromDatabase() throws Exception {
+        when(geofenceLoader.loadActive()).thenReturn(List.of(
+                new Geofence(UUID.randomUUID(), "Newcastle", newcastle),
+                new Geofence(UUID.randomUUID(), "Depot", newcastle, FenceType.EXCLUSION, true, false, 25.0)));
+
+        consumer.bootstrap();
+
+        assertThat(engine.getGeofenceCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should apply upserts and deactivations after startup")
+    void shouldApplyLiveChanges() throws Exception {
+        when(geofenceLoader.loadActive()).thenReturn(List.of());
+        consumer.bootstrap();
+        UUID id = UUID.randomUUID();
+
+        consumer.consume(json(GeofenceChanged.upserted(
+                id, "Newcastle", FenceType.INCLUSION, NEWCASTLE_WKT, 0, true, true, Set.of(), Set.of(), null, null)));
+        assertThat(engine.getGeofenceCount()).isEqualTo(1);
+
+        consumer.consume(json(GeofenceChanged.deactivated(id)));
+        assertThat(engine.getGeofenceCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Changes received during bootstrap should be replayed after it")
+    void shouldReplayChangesAfterBootstrap() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(geofenceLoader.loadActive()).thenReturn(List.of(new Geofence(id, "Newcastle", newcastle)));
+
+        consumer.consume(json(GeofenceChanged.deactivated(id)));
+        assertThat(engine.getGeofenceCount()).isZero();
+
+        consumer.bootstrap();
+
+        assertThat(engine.getGeofenceCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should hold changes back until a retried load succeeds")
+    void shouldRetryFailedBootstrap() throws Exception {
+        UUID loadedId = UUID.randomUUID();
+        when(geofenceLoader.loadActive())
+                .thenThrow(new SQLException("connection refused"))
+                .thenReturn(List.of(new Geofence(loadedId, "Depot", newcastle)));
+
+        assertThat(consumer.bootstrap()).isFalse();
+        assertThat(consumer.isBootstrapped()).isFalse();
+        consumer.consume(json(GeofenceChanged.upserted(
+                UUID.randomUUID(), "Newcastle", FenceType.INCLUSION, NEWCASTLE_WKT, 0, true, true, Set.of(), Set.of(), null, null)));
+        assertThat(engine.getGeofenceCount()).isZero();
+
+        assertThat(consumer.bootstrap()).isTrue();
+        assertThat(consumer.isBootstrapped()).isTrue();
+        assertThat(engine.getGeofenceCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should honour alert flags carried on the change")
+    void shouldHonourAlertFlags() throws Exception {
+        when(geofenceLoader.loadActive()).thenReturn(List.of());
+        consumer.bootstrap();
+        consumer.consume(json(GeofenceChanged.upserted(
+                UUID.randomUUID(), "Newcastle", FenceType.INCLUSION, NEWCASTLE_WKT, 0, false, true, Set.of(), Set.of(), null, null)));
+
+        engine.checkPosition(Position.of("VEHICLE-001", 51.5074, -0.1276, Instant.now())); // London
+        var entries = engine.checkPosition(Position.of("VEHICLE-001", 54.9783, -1.6178, Instant.now()));
+        var exits = engine.checkPosition(Position.of("VEHICLE-001", 51.5074, -0.1276, Instant.now()));
+
+        assertThat(entries).isEmpty();
+        assertThat(exits).hasSize(1);
+        assertThat(exits.getFirst().isExit()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Circular fences should arrive with their centre and radius")
+    void shouldApplyCircularFence() throws Exception {
+        when(geofenceLoader.loadActive()).thenReturn(List.of());
+        consumer.bootstrap();
+        Circle depot = new Circle(-1.6131, 54.9738, 500);
+        String outline = new WKTWriter().write(new SpatialEngine().createCircularFence(-1.6131, 54.9738, 500));
+
+        consumer.consume(json(GeofenceChanged.upserted(
+                UUID.randomUUID(), "Depot", FenceType.INCLUSION, outline, 0, true, true, Set.of(), Set.of(), null, depot)));
+
+        engine.checkPosition(Position.of("VEHICLE-001", 51.5074, -0.1276, Instant.now())); // London
+        var entries = engine.checkPosition(Position.of("VEHICLE-001", 54.9738, -1.6131, Instant.now()));
+        assertThat(entries).hasSize(1);
+        assertThat(entries.getFirst().isEntry()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should skip malformed changes")
+    void shouldSkipMalformedChange() throws Exception {
+        when(geofenceLoader.loadActive()).thenReturn(List.of());
+        consumer.bootstrap();
+
+        consumer.consume("{not json");
+
+        assertThat(engine.getGeofenceCount()).isZero();
+    }
+}
@@ -0,0 +1,87 @@
+package com.geotrack.processing.consumer;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for GeofenceChangesRebalanceListener — seeking the changes topic back
+ * to before the startup load, and resuming revoked partitions without commits.
+ */
+@ExtendWith(MockitoExtension.class)
+class GeofenceChangesRebalanceListenerTest {
+
+    private static final TopicPartition P0 = new TopicPartition("geofence.changes", 0);
+    private static final TopicPartition P1 = new TopicPartition("geofence.changes", 1);
+    private static final Instant REPLAY_FROM = Instant.parse("2025-06-01T11:59:00Z");
+
+    @Mock
+    GeofenceChangeConsumer changeConsumer;
+
+    @Mock
+    Consumer<String, String> kafka;
+
+    @Test
+    @DisplayName("Should seek each newly assigned partition to the replay timestamp")
+    void shouldSeekToReplayTimestamp() {
+        when(changeConsumer.replayFrom()).thenReturn(REPLAY_FROM);
+        Map<TopicPartition, OffsetAndTimestamp> offsets = new HashMap<>();
+        offsets.put(P0, new OffsetAndTimestamp(42, REPLAY_FROM.toEpochMilli() + 5));
+        offsets.put(P1, null);
+        when(kafka.offsetsForTimes(Map.of(P0, REPLAY_FROM.toEpochMilli(), P1, REPLAY_FROM.toEpochMilli())))
+                .thenReturn(offsets);
+
+        new GeofenceChangesRebalanceListener(changeConsumer).onPartitionsAssigned(kafka, List.of(P0, P1));
+
+        verify(kafka).seek(P0, 42);
+        verify(kafka).seekToEnd(List.of(P1));
+    }
+
+    @Test
+    @DisplayName("Should resume a reassigned partition where it was revoked")
+    void shouldResumeOnReassignment() {
+        when(changeConsumer.replayFrom()).thenReturn(REPLAY_FROM);
+        when(kafka.offsetsForTimes(any())).thenReturn(Map.of(P0, new OffsetAndTimestamp(7, REPLAY_FROM.toEpochMilli())));
+        when(kafka.position(P0)).thenReturn(19L);
+        var listener = new GeofenceChangesRebalanceListener(changeConsumer);
+        listener.onPartitionsAssigned(kafka, List.of(P0));
+        listener.onPartitionsRevoked(kafka, List.of(P0));
+
+        listener.onPartitionsAssigned(kafka, List.of(P0));
+
+        verify(kafka).seek(P0, 7);
+        verify(kafka).seek(P0, 19);
+        verify(kafka, times(1)).offsetsForTimes(any());
+    }
+
+    @Test
+    @DisplayName("Should replay a lost partition from the replay timestamp again")
+    void shouldReplayLostPartition() {
+        when(changeConsumer.replayFrom()).thenReturn(REPLAY_FROM);
+        when(kafka.offsetsForTimes(any())).thenReturn(Map.of(P0, new OffsetAndTimestamp(7, REPLAY_FROM.toEpochMilli())));
+        var listener = new GeofenceChangesRebalanceListener(changeConsumer);
+        listener.onPartitionsAssigned(kafka, List.of(P0));
+        listener.onPartitionsLost(kafka, List.of(P0));
+
+        listener.onPartitionsAssigned(kafka, List.of(P0));
+
+        verify(kafka, times(2)).seek(P0, 7);
+        verify(kafka, never()).position(any());
+    }
+}
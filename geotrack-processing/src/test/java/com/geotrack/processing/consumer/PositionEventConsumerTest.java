@@ -0,0 +1,390 @@
+package com.geotrack.processing.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geotrack.common.codec.BinaryCodec;
+import com.geotrack.common.event.GeofenceBreached;
+import com.geotrack.common.event.PositionUpdated;
+import com.geotrack.common.model.Position;
+import com.geotrack.common.spatial.SpatialEngine;
+import com.geotrack.processing.engine.KeyedLaneExecutor;
+import com.geotrack.processing.geofence.GeofenceEngine;
+import com.geotrack.processing.geofence.GeofenceLoader;
+import com.geotrack.processing.geofence.GeofenceStateBackend;
+import com.geotrack.processing.publisher.EventPublisher;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.reactive.messaging.kafka.KafkaRecord;
+import io.smallrye.reactive.messaging.kafka.KafkaRecordBatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for PositionEventConsumer — batch validation, geofence evaluation on
+ * lanes, publishing and acknowledgement.
+ */
+@ExtendWith(MockitoExtension.class)
+class PositionEventConsumerTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+    private static final int LANES = 4;
+    private static final long WAIT_MILLIS = 5_000;
+
+    @Mock
+    EventPublisher eventPublisher;
+
+    @Mock
+    GeofenceChangeConsumer changeConsumer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PositionEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        GeofenceEngine engine = new GeofenceEngine();
+        engine.registerGeofence(UUID.randomUUID(), "Newcastle", new SpatialEngine().createPolygon(List.of(
+                new double[]{-1.65, 54.96},
+                new double[]{-1.58, 54.96},
+                new double[]{-1.58, 55.00},
+                new double[]{-1.65, 55.00}
+        )));
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(changeConsumer.isBootstrapped()).thenReturn(true);
+        consumer = new PositionEventConsumer(engine, changeConsumer, eventPublisher,
+                new ObjectMapper().findAndRegisterModules(), meterRegistry, LANES, 2, 500, 128, 1024);
+
+        lenient().when(eventPublisher.publishProcessedPosition(any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        lenient().when(eventPublisher.publishGeofenceBreach(any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        consumer.onStop(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static KafkaRecord<String, byte[]> record(byte[] payload) {
+        KafkaRecord<String, byte[]> record = mock(KafkaRecord.class);
+        lenient().when(record.getPayload()).thenReturn(payload);
+        lenient().when(record.nack(any())).thenReturn(CompletableFuture.completedFuture(null));
+        return record;
+    }
+
+    private static KafkaRecord<String, byte[]> json(String assetId, double lat, double lon) {
+        return record(String.format(Locale.ROOT,
+                "{\"assetId\":\"%s\",\"latitude\":%f,\"longitude\":%f,\"timestamp\":\"%s\"}",
+                assetId, lat, lon, NOW).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static KafkaRecordBatch<String, byte[]> batch(List<KafkaRecord<String, byte[]>> records) {
+        KafkaRecordBatch<String, byte[]> batch = mock(KafkaRecordBatch.class);
+        when(batch.getRecords()).thenReturn(records);
+        lenient().when(batch.ack()).thenReturn(CompletableFuture.completedFuture(null));
+        return batch;
+    }
+
+    @Test
+    @DisplayName("Should publish every valid position and its geofence alerts, then ack the batch")
+    void shouldProcessWholeBatch() {
+        // TRUCK-1 drives from London into Newcastle within the one batch
+        var london = json("TRUCK-1", 51.5, -0.12);
+        var binary = record(BinaryCodec.encode(Position.of("TRUCK-2", 51.5, -0.12, NOW)));
+        var newcastle = json("TRUCK-1", 54.98, -1.61);
+        var nullIsland = json("TRUCK-3", 0, 0);
+        var batch = batch(List.of(london, binary, newcastle, nullIsland));
+
+        consumer.consume(batch).toCompletableFuture().join();
+        verify(batch, timeout(WAIT_MILLIS)).ack();
+
+        ArgumentCaptor<PositionUpdated> published = ArgumentCaptor.forClass(PositionUpdated.class);
+        verify(eventPublisher, times(3)).publishProcessedPosition(published.capture());
+        assertThat(published.getAllValues()).extracting(PositionUpdated::assetId)
+                .containsExactlyInAnyOrder("TRUCK-1", "TRUCK-2", "TRUCK-1");
+        ArgumentCaptor<GeofenceBreached> breach = ArgumentCaptor.forClass(GeofenceBreached.class);
+        verify(eventPublisher).publishGeofenceBreach(breach.capture());
+        assertThat(breach.getValue().geofenceName()).isEqualTo("Newcastle");
+        verify(nullIsland, never()).nack(any());
+    }
+
+    @Test
+    @DisplayName("Should dead-letter an undecodable record without failing its batch")
+    void shouldDeadLetterPoisonRecordAlone() {
+        var good = json("TRUCK-1", 51.5, -0.12);
+        var poison = record("{\"assetId\":".getBytes(StandardCharsets.UTF_8));
+        var batch = batch(List.of(good, poison));
+
+        consumer.consume(batch).toCompletableFuture().join();
+        verify(batch, timeout(WAIT_MILLIS)).ack();
+
+        verify(poison).nack(any(PositionProcessingException.class));
+        verify(good, never()).nack(any());
+        verify(eventPublisher).publishProcessedPosition(any());
+    }
+
+    @Test
+    @DisplayName("Should dead-letter only the failed lane's records and still ack the batch")
+    void shouldDeadLetterFailedLaneOnly() {
+        String failing = "TRUCK-1";
+        String healthy = assetOnAnotherLane(failing);
+        when(eventPublisher.publishProcessedPosition(any())).thenAnswer(invocation ->
+                invocation.<PositionUpdated>getArgument(0).assetId().equals(failing)
+                        ? CompletableFuture.failedFuture(new IllegalStateException("broker down"))
+                        : CompletableFuture.completedFuture(null));
+        var first = json(failing, 51.5, -0.12);
+        var second = json(healthy, 51.6, -0.13);
+        var third = json(failing, 51.7, -0.14);
+        var batch = batch(List.of(first, second, third));
+
+        consumer.consume(batch).toCompletableFuture().join();
+        verify(batch, timeout(WAIT_MILLIS)).ack();
+
+        verify(first).nack(any(PositionProcessingException.class));
+        verify(third).nack(any(PositionProcessingException.class));
+        verify(second, never()).nack(any());
+    }
+
+    @Test
+    @DisplayName("Should dead-letter only the record whose events failed to publish")
+    void shouldDeadLetterFailedRecordOnly() {
+        when(eventPublisher.publishProcessedPosition(any())).thenAnswer(invocation ->
+                invocation.<PositionUpdated>getArgument(0).position().latitude() == 51.5
+                        ? CompletableFuture.failedFuture(new IllegalStateException("broker down"))
+                        : CompletableFuture.completedFuture(null));
+        var failed = json("TRUCK-1", 51.5, -0.12);
+        var published = json("TRUCK-1", 51.6, -0.13);
+        var batch = batch(List.of(failed, published));
+
+        consumer.consume(batch).toCompletableFuture().join();
+        verify(batch, timeout(WAIT_MILLIS)).ack();
+
+        verify(failed).nack(any(PositionProcessingException.class));
+        verify(published, never()).nack(any());
+    }
+
+    @Test
+    @DisplayName("Should refuse more positions in flight than the emitter can hold")
+    void shouldCheckEmitterCapacity() {
+        assertThatThrownBy(() -> PositionEventConsumer.checkEmitterCapacity(1000, 2, 128, 1024))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("2000 positions in flight");
+        assertThatCode(() -> PositionEventConsumer.checkEmitterCapacity(500, 2, 128, 1024))
+                .doesNotThrowAnyException();
+        assertThatCode(() -> PositionEventConsumer.checkEmitterCapacity(1000, 2, 128, 0))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Should keep each asset's positions in order across lanes and batches")
+    void shouldKeepPerAssetOrder() {
+        Map<String, List<Double>> published = new ConcurrentHashMap<>();
+        when(eventPublisher.publishProcessedPosition(any())).thenAnswer(invocation -> {
+            Position position = invocation.<PositionUpdated>getArgument(0).position();
+            published.computeIfAbsent(position.assetId(), k -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(position.latitude());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        List<KafkaRecordBatch<String, byte[]>> batches = new ArrayList<>();
+        for (int b = 0; b < 10; b++) {
+            List<KafkaRecord<String, byte[]>> records = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                records.add(json("TRUCK-" + (i % 20), 50 + b * 0.1 + i * 0.001, -0.12));
+            }
+            var batch = batch(records);
+            batches.add(batch);
+            consumer.consume(batch).toCompletableFuture().join();
+        }
+        for (var batch : batches) {
+            verify(batch, timeout(WAIT_MILLIS)).ack();
+        }
+
+        assertThat(published).hasSize(20);
+        published.values().forEach(latitudes -> assertThat(latitudes).hasSize(20).isSorted());
+    }
+
+    @Test
+    @DisplayName("Should ack batches in poll order even when a later batch finishes first")
+    void shouldAckInPollOrder() {
+        String slow = "TRUCK-1";
+        String fast = assetOnAnotherLane(slow);
+        CompletableFuture<Void> slowSend = new CompletableFuture<>();
+        when(eventPublisher.publishProcessedPosition(any())).thenAnswer(invocation ->
+                invocation.<PositionUpdated>getArgument(0).assetId().equals(slow)
+                        ? slowSend
+                        : CompletableFuture.completedFuture(null));
+        var first = batch(List.of(json(slow, 51.5, -0.12)));
+        var second = batch(List.of(json(fast, 51.5, -0.12)));
+
+        consumer.consume(first).toCompletableFuture().join();
+        consumer.consume(second).toCompletableFuture().join();
+        verify(eventPublisher, timeout(WAIT_MILLIS).times(2)).publishProcessedPosition(any());
+        verify(second, after(200).never()).ack();
+
+        slowSend.complete(null);
+        InOrder acks = inOrder(first, second);
+        acks.verify(first, timeout(WAIT_MILLIS)).ack();
+        acks.verify(second, timeout(WAIT_MILLIS)).ack();
+    }
+
+    @Test
+    @DisplayName("Should neither evaluate nor ack positions until the geofences are loaded")
+    void shouldHoldPositionsUntilBootstrapped() throws Exception {
+        GeofenceEngine engine = mock(GeofenceEngine.class);
+        lenient().when(engine.checkPositionsInOrder(any())).thenAnswer(invocation -> invocation
+                .<List<Position>>getArgument(0).stream().map(p -> List.<GeofenceEngine.GeofenceTransition>of()).toList());
+        GeofenceLoader loader = mock(GeofenceLoader.class);
+        when(loader.loadActive()).thenReturn(List.of());
+        var bootstrapping = new GeofenceChangeConsumer(engine, loader, new ObjectMapper(), 5000);
+        var held = new PositionEventConsumer(engine, bootstrapping, eventPublisher,
+                new ObjectMapper().findAndRegisterModules(), meterRegistry, LANES, 2, 500, 128, 1024);
+        var batch = batch(List.of(json("TRUCK-1", 51.5, -0.12)));
+
+        try {
+            Thread.ofPlatform().start(() -> held.consume(batch));
+            verify(engine, after(200).never()).checkPositionsInOrder(any());
+            verify(batch, never()).ack();
+
+            bootstrapping.bootstrap();
+            verify(batch, timeout(WAIT_MILLIS)).ack();
+            verify(engine).checkPositionsInOrder(any());
+        } finally {
+            held.onStop(null);
+        }
+    }
+
+    @Test
+    @DisplayName("Should release the leases of assets seen on a revoked partition only")
+    void shouldReleaseRevokedPartitionsAssets() {
+        GeofenceEngine engine = mock(GeofenceEngine.class);
+        when(engine.checkPositionsInOrder(any())).thenAnswer(invocation -> invocation.<List<Position>>getArgument(0)
+                .stream().map(p -> List.<GeofenceEngine.GeofenceTransition>of()).toList());
+        var tracking = new PositionEventConsumer(engine, changeConsumer, eventPublisher,
+                new ObjectMapper().findAndRegisterModules(), meterRegistry, LANES, 2, 500, 128, 1024);
+        var first = json("TRUCK-1", 51.5, -0.12);
+        var second = json("TRUCK-2", 51.5, -0.12);
+        when(first.getPartition()).thenReturn(0);
+        when(second.getPartition()).thenReturn(1);
+        var batch = batch(List.of(first, second));
+
+        try {
+            tracking.consume(batch).toCompletableFuture().join();
+            verify(batch, timeout(WAIT_MILLIS)).ack();
+            tracking.releasePartitions(List.of(1));
+            tracking.releasePartitions(List.of(1));
+        } finally {
+            tracking.onStop(null);
+        }
+
+        InOrder releases = inOrder(engine);
+        releases.verify(engine).releaseLeases(List.of("TRUCK-2"));
+        releases.verify(engine).releaseLeases(List.of());
+    }
+
+    @Test
+    @DisplayName("Should read and write shared state once per batch, not once per lane")
+    void shouldRoundTripStateOncePerBatch() {
+        List<List<String>> loads = Collections.synchronizedList(new ArrayList<>());
+        List<Set<String>> stores = Collections.synchronizedList(new ArrayList<>());
+        GeofenceStateBackend backend = new GeofenceStateBackend() {
+            @Override
+            public Map<String, byte[]> load(List<String> assetIds) {
+                loads.add(assetIds);
+                return Map.of();
+            }
+
+            @Override
+            public Set<String> store(Map<String, VersionedRecord> records) {
+                stores.add(records.keySet());
+                return Set.of();
+            }
+        };
+        var shared = new PositionEventConsumer(
+                new GeofenceEngine(new SpatialEngine(), GeofenceEngine.Settings.DEFAULTS, backend),
+                changeConsumer, eventPublisher, new ObjectMapper().findAndRegisterModules(), meterRegistry, LANES, 2, 500, 128, 1024);
+        List<KafkaRecord<String, byte[]>> records = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            records.add(json("TRUCK-" + (i % 20), 51.5, -0.12));
+        }
+        var batch = batch(records);
+
+        try {
+            shared.consume(batch).toCompletableFuture().join();
+            verify(batch, timeout(WAIT_MILLIS)).ack();
+        } finally {
+            shared.onStop(null);
+        }
+
+        assertThat(loads).hasSize(1);
+        assertThat(loads.getFirst()).hasSize(20);
+        assertThat(stores).hasSize(1);
+        assertThat(stores.getFirst()).hasSize(20);
+    }
+
+    /** An asset id that hashes to a different lane from {@code assetId} */
+    private static String assetOnAnotherLane(String assetId) {
+        KeyedLaneExecutor lanes = new KeyedLaneExecutor("test", LANES);
+        try {
+            for (int i = 2; ; i++) {
+                if (lanes.laneOf("TRUCK-" + i) != lanes.laneOf(assetId)) {
+                    return "TRUCK-" + i;
+                }
+            }
+        } finally {
+            lanes.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should record the size of every batch")
+    void shouldRecordBatchSizes() {
+        List<KafkaRecord<String, byte[]>> records = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            records.add(json("TRUCK-" + i, 51.5, -0.12));
+        }
+        var first = batch(records);
+        var second = batch(records.subList(0, 1));
+        consumer.consume(first).toCompletableFuture().join();
+        consumer.consume(second).toCompletableFuture().join();
+        verify(second, timeout(WAIT_MILLIS)).ack();
+
+        DistributionSummary summary = meterRegistry.get("geotrack.positions.batch.size").summary();
+        assertThat(summary.count()).isEqualTo(2);
+        assertThat(summary.totalAmount()).isEqualTo(6);
+        assertThat(summary.max()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,110 @@
+package com.geotrack.processing.consumer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.geotrack.common.model.Position;
+import com.geotrack.common.model.PositionSource;
+import com.geotrack.processing.consumer.PositionEventConsumer.RawPositionEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for RawPositionEventReader — every payload must read exactly as the
+ * ObjectMapper would read it, whichever path it takes.
+ */
+class RawPositionEventReaderTest {
+
+    /** Configured as the Quarkus-managed ObjectMapper */
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final RawPositionEventReader reader = new RawPositionEventReader(objectMapper);
+
+    private RawPositionEvent read(String json) throws Exception {
+        byte[] payload = json.getBytes(StandardCharsets.UTF_8);
+        RawPositionEvent event = reader.read(payload);
+        assertThat(event).isEqualTo(objectMapper.readValue(payload, RawPositionEvent.class));
+        return event;
+    }
+
+    @Test
+    @DisplayName("Should read the ingestion payload field for field")
+    void shouldReadIngestionPayload() throws Exception {
+        RawPositionEvent event = read("""
+                {"assetId":"VESSEL-0042","latitude":54.978312,"longitude":-1.617800,"altitude":0.0,\
+                "speed":12.5,"heading":87.0,"timestamp":"2025-06-01T12:34:56.789Z","source":"AIS"}""");
+
+        assertThat(event.assetId()).isEqualTo("VESSEL-0042");
+        assertThat(event.latitude()).isEqualTo(54.978312);
+        assertThat(event.timestamp()).isEqualTo(Instant.parse("2025-06-01T12:34:56.789Z"));
+        assertThat(event.source()).isEqualTo(PositionSource.AIS);
+    }
+
+    @Test
+    @DisplayName("Should read a serialised Position as the simulator sends it")
+    void shouldReadSimulatorPosition() throws Exception {
+        Position position = new Position(UUID.randomUUID(), "TYNE-BUS-01", 54.97, -1.61, 12, 30, 270,
+                Instant.now(), PositionSource.SIMULATED);
+
+        RawPositionEvent event = read(objectMapper.writeValueAsString(position));
+
+        assertThat(event.timestamp()).isEqualTo(position.timestamp());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // Missing fields default; nulls
+            "{\"assetId\":\"A\",\"latitude\":1,\"longitude\":2}",
+            "{\"assetId\":\"A\",\"latitude\":1,\"longitude\":2,\"timestamp\":null,\"source\":null}",
+            // Fallback: unknown field, offset, epoch number, coerced string number, unknown enum shape
+            "{\"assetId\":\"A\",\"latitude\":1,\"longitude\":2,\"accuracy\":5}",
+            "{\"assetId\":\"A\",\"latitude\":1,\"longitude\":2,\"timestamp\":\"2025-06-01T13:34:56+01:00\"}",
+            "{\"assetId\":\"A\",\"latitude\":1,\"longitude\":2,\"timestamp\":1748781296.5}",
+            "{\"assetId\":\"A\",\"latitude\":\"54.9\",\"longitude\":2}",
+            "{\"assetId\":\"A\",\"latitude\":1,\"longitude\":2,\"altitude\":null}",
+            // Fraction lengths and leap years
+            "{\"assetId\":\"A\",\"timestamp\":\"2024-02-29T23:59:59.1Z\"}",
+            "{\"assetId\":\"A\",\"timestamp\":\"1969-12-31T23:59:59.123456789Z\"}",
+            "{\"assetId\":\"A\",\"timestamp\":\"2000-03-01T00:00:00Z\"}"
+    })
+    @DisplayName("Should agree with the ObjectMapper on every shape")
+    void shouldAgreeWithObjectMapper(String json) throws Exception {
+        read(json);
+    }
+
+    @Test
+    @DisplayName("Hand-parsed timestamps should match Instant.parse")
+    void timestampsShouldMatchInstantParse() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 10_000; i++) {
+            Instant instant = Instant.ofEpochSecond(random.nextLong(-2_000_000_000L, 4_000_000_000L),
+                    random.nextInt(4) == 0 ? 0 : random.nextInt(1_000_000_000));
+            char[] text = instant.toString().toCharArray();
+
+            assertThat(RawPositionEventReader.parseUtcInstant(text, 0, text.length)).isEqualTo(instant);
+        }
+        char[] invalid = "2025-02-30T00:00:00Z".toCharArray();
+        assertThat(RawPositionEventReader.parseUtcInstant(invalid, 0, invalid.length)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should fail on malformed JSON as the ObjectMapper does")
+    void shouldFailOnMalformedJson() {
+        assertThatThrownBy(() -> reader.read("{\"assetId\":".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(JsonProcessingException.class);
+    }
+}
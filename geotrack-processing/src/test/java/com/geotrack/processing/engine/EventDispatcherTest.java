@@ -39,6 +39,16 @@ class EventDispatcherTest {
         assertTrue(result.contains("ASSET-001"));
     }
 
+    @Test
+    @DisplayName("Should dispatch GeofenceApproached events")
+    void shouldDispatchGeofenceApproach() {
+        var event = GeofenceApproached.create(
+                "ASSET-001", UUID.randomUUID(), "Restricted Zone", samplePosition());
+        String result = dispatcher.dispatch(event);
+        assertTrue(result.contains("approach"));
+        assertTrue(result.contains("Restricted Zone"));
+    }
+
     @Test
     @DisplayName("Should dispatch GeofenceBreached events")
     void shouldDispatchGeofenceBreach() {
@@ -59,6 +69,17 @@ class EventDispatcherTest {
         assertTrue(result.contains("Safe Zone"));
     }
 
+    @Test
+    @DisplayName("Should dispatch GeofenceDwellExceeded events")
+    void shouldDispatchGeofenceDwell() {
+        var event = GeofenceDwellExceeded.create(
+                "ASSET-001", UUID.randomUUID(), "Loading Bay",
+                Instant.now().minusSeconds(1800), Duration.ofMinutes(30));
+        String result = dispatcher.dispatch(event);
+        assertTrue(result.contains("dwell"));
+        assertTrue(result.contains("Loading Bay"));
+    }
+
     @Test
     @DisplayName("Should dispatch AssetOffline events")
     void shouldDispatchAssetOffline() {
@@ -87,8 +108,10 @@ class EventDispatcherTest {
         // the dispatcher, this test (and the dispatcher) won't compile.
         TrackingEvent[] events = {
                 PositionUpdated.create(samplePosition(), null),
+                GeofenceApproached.create("A", UUID.randomUUID(), "Z", samplePosition()),
                 GeofenceBreached.create("A", UUID.randomUUID(), "Z", samplePosition()),
                 GeofenceExited.create("A", UUID.randomUUID(), "Z", samplePosition()),
+                GeofenceDwellExceeded.create("A", UUID.randomUUID(), "Z", Instant.now(), Duration.ofMinutes(5)),
                 new AssetOffline(UUID.randomUUID(), "A", Instant.now(), Instant.now(), Duration.ZERO),
                 new SpeedLimitExceeded(UUID.randomUUID(), "A", Instant.now(), 100, 60, samplePosition())
         };
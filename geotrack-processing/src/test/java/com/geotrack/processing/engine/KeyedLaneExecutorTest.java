@@ -0,0 +1,128 @@
+package com.geotrack.processing.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for KeyedLaneExecutor — per-lane ordering, parallelism across lanes,
+ * stable key hashing and draining on close.
+ */
+class KeyedLaneExecutorTest {
+
+    private KeyedLaneExecutor lanes;
+
+    @BeforeEach
+    void setUp() {
+        lanes = new KeyedLaneExecutor("test-lane", 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lanes.close();
+    }
+
+    @Test
+    @DisplayName("Should run a lane's tasks one at a time in submission order")
+    void shouldKeepLaneOrder() {
+        List<Integer> order = new ArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        List<CompletableFuture<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            int task = i;
+            tasks.add(lanes.submit(2, () -> {
+                boolean alone = running.incrementAndGet() == 1;
+                order.add(task);
+                running.decrementAndGet();
+                return alone;
+            }));
+        }
+
+        assertThat(tasks).allMatch(CompletableFuture::join);
+        assertThat(order).hasSize(1_000).isSorted();
+    }
+
+    @Test
+    @DisplayName("Should run different lanes at the same time")
+    void shouldRunLanesInParallel() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        List<CompletableFuture<Boolean>> tasks = List.of(0, 1).stream()
+                .map(lane -> lanes.submit(lane, () -> {
+                    bothStarted.countDown();
+                    try {
+                        return bothStarted.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }))
+                .toList();
+
+        assertThat(tasks).allMatch(CompletableFuture::join);
+    }
+
+    @Test
+    @DisplayName("Should map each key to one lane and spread keys over every lane")
+    void shouldHashKeysToStableLanes() {
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            String key = "VESSEL-" + i;
+            int lane = lanes.laneOf(key);
+            assertThat(lane).isBetween(0, 3).isEqualTo(lanes.laneOf(new String(key)));
+            used.add(lane);
+        }
+
+        assertThat(used).containsExactlyInAnyOrder(0, 1, 2, 3);
+        assertThat(lanes.laneOf(null)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should surface a task's exception through its future")
+    void shouldCompleteExceptionally() {
+        CompletableFuture<Object> failed = lanes.submit(0, () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThatThrownBy(failed::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(lanes.submit(0, () -> "still running").join()).isEqualTo("still running");
+    }
+
+    @Test
+    @DisplayName("Should finish queued tasks on close")
+    void shouldDrainOnClose() {
+        AtomicInteger completed = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            lanes.submit(i % 4, () -> {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return completed.incrementAndGet();
+            });
+        }
+
+        lanes.close();
+
+        assertThat(completed).hasValue(100);
+    }
+
+    @Test
+    @DisplayName("Should reject fewer than one lane")
+    void shouldRejectNoLanes() {
+        assertThatThrownBy(() -> new KeyedLaneExecutor("none", 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
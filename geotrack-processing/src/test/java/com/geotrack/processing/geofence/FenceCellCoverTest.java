@@ -0,0 +1,93 @@
+package com.geotrack.processing.geofence;
+
+import com.geotrack.common.spatial.SpatialEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.algorithm.locate.IndexedPointInAreaLocator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Location;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the pre-classified geofence cell cover.
+ */
+class FenceCellCoverTest {
+
+    private static final double CENTRE_LON = -1.44;
+    private static final double CENTRE_LAT = 55.01;
+
+    private Polygon star;
+    private IndexedPointInAreaLocator locator;
+
+    @BeforeEach
+    void setUp() {
+        // Concave 5-pointed star roughly 4 km across
+        List<double[]> ring = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            double angle = 2 * Math.PI * i / 1_000;
+            double radius = 0.02 + 0.01 * Math.cos(5 * angle);
+            ring.add(new double[]{
+                    CENTRE_LON + radius * Math.cos(angle),
+                    CENTRE_LAT + radius * Math.sin(angle)});
+        }
+        star = new SpatialEngine().createPolygon(ring);
+        locator = new IndexedPointInAreaLocator(star);
+    }
+
+    @Test
+    @DisplayName("Resolved cells should agree with the exact locator")
+    void resolvedCellsShouldAgreeWithLocator() {
+        FenceCellCover cover = FenceCellCover.build(star, locator, 100, 65_536);
+        var envelope = star.getEnvelopeInternal();
+        SplittableRandom random = new SplittableRandom(11);
+
+        for (int i = 0; i < 20_000; i++) {
+            double lon = random.nextDouble(envelope.getMinX(), envelope.getMaxX());
+            double lat = random.nextDouble(envelope.getMinY(), envelope.getMaxY());
+            byte cell = cover.classify(lon, lat);
+            if (cell == FenceCellCover.BOUNDARY) {
+                continue;
+            }
+            boolean inside = locator.locate(new Coordinate(lon, lat)) == Location.INTERIOR;
+            assertEquals(inside, cell == FenceCellCover.INSIDE, "Point (%f, %f)".formatted(lon, lat));
+        }
+    }
+
+    @Test
+    @DisplayName("Most cells of a fine cover should avoid the exact test")
+    void mostCellsShouldBeResolved() {
+        FenceCellCover cover = FenceCellCover.build(star, locator, 50, 65_536);
+
+        int boundary = cover.count(FenceCellCover.BOUNDARY);
+        assertTrue(cover.count(FenceCellCover.INSIDE) > 0);
+        assertTrue(cover.count(FenceCellCover.OUTSIDE) > 0);
+        assertTrue(boundary < cover.cellCount() / 4,
+                "%d of %d cells on the boundary".formatted(boundary, cover.cellCount()));
+    }
+
+    @Test
+    @DisplayName("Points on the fence outline should always fall in boundary cells")
+    void outlineShouldBeBoundary() {
+        FenceCellCover cover = FenceCellCover.build(star, locator, 100, 65_536);
+
+        for (Coordinate vertex : star.getExteriorRing().getCoordinates()) {
+            assertEquals(FenceCellCover.BOUNDARY, cover.classify(vertex.x, vertex.y));
+        }
+    }
+
+    @Test
+    @DisplayName("Should coarsen the grid to respect the cell cap")
+    void shouldRespectCellCap() {
+        FenceCellCover cover = FenceCellCover.build(star, locator, 1, 4_096);
+
+        assertTrue(cover.cellCount() <= 4_096);
+        assertTrue(cover.memoryBytes() >= cover.cellCount());
+    }
+}
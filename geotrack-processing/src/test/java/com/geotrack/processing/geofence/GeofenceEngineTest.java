@@ -1,5 +1,8 @@
 package com.geotrack.processing.geofence;
 
+import com.geotrack.common.model.AssetType;
+import com.geotrack.common.model.Circle;
+import com.geotrack.common.model.FenceType;
 import com.geotrack.common.model.Position;
 import com.geotrack.common.model.PositionSource;
 import com.geotrack.common.spatial.SpatialEngine;
@@ -7,11 +10,20 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.locationtech.jts.geom.Polygon;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -196,6 +208,1040 @@ class GeofenceEngineTest {
         }
     }
 
+    @Nested
+    @DisplayName("Spatial Index")
+    class SpatialIndex {
+
+        @Test
+        @DisplayName("Should only transition the matching fence out of a large grid")
+        void shouldFindMatchInLargeGrid() {
+            engine.clear();
+            // 40 x 40 grid of 0.01° cells around Newcastle
+            UUID target = null;
+            List<GeofenceEngine.Geofence> cells = new ArrayList<>();
+            for (int row = 0; row < 40; row++) {
+                for (int col = 0; col < 40; col++) {
+                    double lon = -1.80 + col * 0.01;
+                    double lat = 54.80 + row * 0.01;
+                    UUID id = UUID.randomUUID();
+                    cells.add(new GeofenceEngine.Geofence(id, "Cell " + row + "/" + col, spatial.createPolygon(List.of(
+                            new double[]{lon, lat},
+                            new double[]{lon + 0.01, lat},
+                            new double[]{lon + 0.01, lat + 0.01},
+                            new double[]{lon, lat + 0.01}
+                    ))));
+                    if (row == 17 && col == 18) {
+                        target = id;
+                    }
+                }
+            }
+            engine.registerGeofences(cells);
+
+            engine.checkPosition(positionAt(51.5074, -0.1276)); // London
+            var transitions = engine.checkPosition(positionAt(54.975, -1.615));
+
+            assertEquals(1, transitions.size());
+            assertEquals(target, transitions.getFirst().geofenceId());
+            assertEquals(GeofenceEngine.GeofenceState.INSIDE, engine.getState(ASSET_ID, target));
+        }
+
+        @Test
+        @DisplayName("Should exit a fence whose envelope no longer matches")
+        void shouldExitFenceOutsideEnvelope() {
+            engine.checkPosition(positionAt(54.9783, -1.6178)); // Newcastle
+
+            var transitions = engine.checkPosition(positionAt(54.7753, -1.5491)); // Durham
+
+            assertEquals(1, transitions.size());
+            assertTrue(transitions.getFirst().isExit());
+            assertEquals(GeofenceEngine.GeofenceState.OUTSIDE,
+                    engine.getState(ASSET_ID, newcastleFenceId));
+        }
+
+        @Test
+        @DisplayName("Fence registered after the last check should start UNKNOWN")
+        void lateRegisteredFenceShouldStartUnknown() {
+            engine.checkPosition(positionAt(51.5074, -0.1276)); // London
+
+            UUID lateFenceId = UUID.randomUUID();
+            engine.registerGeofence(lateFenceId, "Late Fence", spatial.createPolygon(List.of(
+                    new double[]{-1.70, 54.90},
+                    new double[]{-1.50, 54.90},
+                    new double[]{-1.50, 55.05},
+                    new double[]{-1.70, 55.05}
+            )));
+            assertEquals(GeofenceEngine.GeofenceState.UNKNOWN, engine.getState(ASSET_ID, lateFenceId));
+
+            // Newcastle fence was known OUTSIDE → entry; late fence was UNKNOWN → silent
+            var transitions = engine.checkPosition(positionAt(54.9783, -1.6178));
+
+            assertEquals(1, transitions.size());
+            assertEquals(newcastleFenceId, transitions.getFirst().geofenceId());
+            assertEquals(GeofenceEngine.GeofenceState.INSIDE, engine.getState(ASSET_ID, lateFenceId));
+        }
+    }
+
+    @Nested
+    @DisplayName("Prepared Geometry")
+    class PreparedGeometry {
+
+        /** A 5-pointed star with {@code vertices} ring points — concave, like a real port outline */
+        private Polygon star(double centreLon, double centreLat, int vertices) {
+            List<double[]> ring = new ArrayList<>();
+            for (int i = 0; i < vertices; i++) {
+                double angle = 2 * Math.PI * i / vertices;
+                double radius = 0.02 + 0.01 * Math.cos(5 * angle);
+                ring.add(new double[]{
+                        centreLon + radius * Math.cos(angle),
+                        centreLat + radius * Math.sin(angle)});
+            }
+            return spatial.createPolygon(ring);
+        }
+
+        @Test
+        @DisplayName("Should agree with raw JTS containment on a detailed polygon")
+        void shouldAgreeWithRawContainment() {
+            engine.clear();
+            Polygon port = star(-1.44, 55.01, 2_000);
+            UUID portId = UUID.randomUUID();
+            engine.registerGeofence(portId, "Port of Tyne", port);
+
+            java.util.SplittableRandom random = new java.util.SplittableRandom(7);
+            for (int i = 0; i < 500; i++) {
+                double lon = random.nextDouble(-1.48, -1.40);
+                double lat = random.nextDouble(54.97, 55.05);
+                engine.checkPosition(positionAt(lat, lon));
+
+                boolean expected = port.contains(spatial.createPoint(lon, lat));
+                assertEquals(expected ? GeofenceEngine.GeofenceState.INSIDE : GeofenceEngine.GeofenceState.OUTSIDE,
+                        engine.getState(ASSET_ID, portId),
+                        "Point (%f, %f)".formatted(lon, lat));
+            }
+        }
+
+        @Test
+        @DisplayName("Cell-covered fences should agree with raw JTS containment")
+        void cellCoverShouldAgreeWithRawContainment() {
+            engine = new GeofenceEngine(spatial, GeofenceEngine.Settings.DEFAULTS.withCellCover(100, 65_536));
+            Polygon port = star(-1.44, 55.01, 2_000);
+            UUID portId = UUID.randomUUID();
+            engine.registerGeofence(portId, "Port of Tyne", port);
+            assertTrue(engine.getCellCoverBytes() > 0);
+
+            java.util.SplittableRandom random = new java.util.SplittableRandom(7);
+            for (int i = 0; i < 500; i++) {
+                double lon = random.nextDouble(-1.48, -1.40);
+                double lat = random.nextDouble(54.97, 55.05);
+                engine.checkPosition(positionAt(lat, lon));
+
+                boolean expected = port.contains(spatial.createPoint(lon, lat));
+                assertEquals(expected ? GeofenceEngine.GeofenceState.INSIDE : GeofenceEngine.GeofenceState.OUTSIDE,
+                        engine.getState(ASSET_ID, portId),
+                        "Point (%f, %f)".formatted(lon, lat));
+            }
+        }
+
+        @Test
+        @DisplayName("Boundary points should not count as inside (JTS contains semantics)")
+        void boundaryPointIsNotInside() {
+            // Western edge of the Newcastle fence
+            engine.checkPosition(positionAt(54.98, -1.65));
+
+            assertEquals(GeofenceEngine.GeofenceState.OUTSIDE,
+                    engine.getState(ASSET_ID, newcastleFenceId));
+        }
+    }
+
+    @Nested
+    @DisplayName("Swept Segments")
+    class SweptSegments {
+
+        private UUID tunnelId;
+
+        @BeforeEach
+        void setUp() {
+            engine = new GeofenceEngine(spatial, GeofenceEngine.Settings.DEFAULTS.withSweptSegments(true));
+            // A ~1 km square that a fast mover can jump straight over
+            tunnelId = UUID.randomUUID();
+            engine.registerGeofence(tunnelId, "Tyne Tunnel", spatial.createPolygon(List.of(
+                    new double[]{-1.50, 54.99},
+                    new double[]{-1.48, 54.99},
+                    new double[]{-1.48, 55.00},
+                    new double[]{-1.50, 55.00}
+            )));
+        }
+
+        @Test
+        @DisplayName("Should emit an entry and exit for a fence crossed between samples")
+        void shouldDetectFlyThrough() {
+            engine.checkPosition(positionAt(54.995, -1.55)); // west of the fence
+
+            var transitions = engine.checkPosition(positionAt(54.995, -1.43)); // east of it
+
+            assertEquals(2, transitions.size());
+            assertTrue(transitions.get(0).isEntry());
+            assertTrue(transitions.get(1).isExit());
+            assertEquals(tunnelId, transitions.get(0).geofenceId());
+            assertEquals(GeofenceEngine.GeofenceState.OUTSIDE, engine.getState(ASSET_ID, tunnelId));
+        }
+
+        @Test
+        @DisplayName("Should not emit when the path passes beside the fence")
+        void shouldIgnoreNearMiss() {
+            engine.checkPosition(positionAt(54.985, -1.55));
+
+            var transitions = engine.checkPosition(positionAt(54.985, -1.43)); // just south
+
+            assertTrue(transitions.isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should not emit when the path only grazes a corner")
+        void shouldIgnoreGrazingPath() {
+            engine.checkPosition(positionAt(55.00, -1.51));
+
+            // Diagonal touching the south-west corner (-1.50, 54.99) and nothing else
+            var transitions = engine.checkPosition(positionAt(54.98, -1.49));
+
+            assertTrue(transitions.isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should not sweep across a gap longer than the limit")
+        void shouldNotSweepAcrossLongGap() {
+            Instant start = Instant.parse("2025-06-01T12:00:00Z");
+            engine.checkPosition(new Position(UUID.randomUUID(), ASSET_ID, 54.995, -1.55, 0, 0, 0,
+                    start, PositionSource.GPS));
+
+            var transitions = engine.checkPosition(new Position(UUID.randomUUID(), ASSET_ID, 54.995, -1.43, 0, 0, 0,
+                    start.plus(Duration.ofMinutes(10)), PositionSource.GPS));
+
+            assertTrue(transitions.isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should not sweep a jump longer than the distance limit")
+        void shouldNotSweepLongJump() {
+            engine = new GeofenceEngine(spatial, GeofenceEngine.Settings.DEFAULTS.withSweptSegments(true)
+                    .withSweepLimits(Duration.ofMinutes(2), 5_000));
+            engine.registerGeofence(tunnelId, "Tyne Tunnel", spatial.createPolygon(List.of(
+                    new double[]{-1.50, 54.99},
+                    new double[]{-1.48, 54.99},
+                    new double[]{-1.48, 55.00},
+                    new double[]{-1.50, 55.00}
+            )));
+            engine.checkPosition(positionAt(54.995, -1.55));
+
+            // ~7.7 km east, past the 5 km limit
+            assertTrue(engine.checkPosition(positionAt(54.995, -1.43)).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should not emit when the path runs along an edge")
+        void shouldIgnorePathAlongEdge() {
+            engine.checkPosition(positionAt(54.99, -1.52));
+
+            // Along the southern edge from west of the fence to east of it
+            var transitions = engine.checkPosition(positionAt(54.99, -1.46));
+
+            assertTrue(transitions.isEmpty());
+        }
+
+        @Test
+        @DisplayName("Point mode should miss the same fly-through")
+        void pointModeShouldMissFlyThrough() {
+            engine = new GeofenceEngine();
+            engine.registerGeofence(tunnelId, "Tyne Tunnel", spatial.createPolygon(List.of(
+                    new double[]{-1.50, 54.99},
+                    new double[]{-1.48, 54.99},
+                    new double[]{-1.48, 55.00},
+                    new double[]{-1.50, 55.00}
+            )));
+            engine.checkPosition(positionAt(54.995, -1.55));
+
+            assertTrue(engine.checkPosition(positionAt(54.995, -1.43)).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Checking")
+    class BatchChecking {
+
+        /** 50 assets, each hopping in and out of Newcastle 20 times, interleaved */
+        private List<Position> zigzagBatch() {
+            List<Position> batch = new ArrayList<>();
+            for (int step = 0; step < 20; step++) {
+                for (int asset = 0; asset < 50; asset++) {
+                    boolean inside = (step + asset) % 2 == 0;
+                    batch.add(new Position(UUID.randomUUID(), "BUS-" + asset,
+                            inside ? 54.9783 : 54.7753, inside ? -1.6178 : -1.5491,
+                            0, 0, 0, Instant.now(), PositionSource.GPS));
+                }
+            }
+            return batch;
+        }
+
+        @Test
+        @DisplayName("Checking in order on one thread should give the same transitions as checking in parallel")
+        void inOrderShouldMatchParallel() {
+            GeofenceEngine parallel = new GeofenceEngine();
+            parallel.registerGeofence(newcastleFenceId, "Newcastle City Centre", spatial.createPolygon(List.of(
+                    new double[]{-1.65, 54.96},
+                    new double[]{-1.58, 54.96},
+                    new double[]{-1.58, 55.00},
+                    new double[]{-1.65, 55.00}
+            )));
+            List<Position> batch = zigzagBatch();
+
+            var inOrder = engine.checkPositionsInOrder(batch);
+            var forked = parallel.checkPositions(batch);
+
+            assertEquals(forked.size(), inOrder.size());
+            for (int i = 0; i < batch.size(); i++) {
+                assertEquals(forked.get(i).stream().map(GeofenceEngine.GeofenceTransition::isEntry).toList(),
+                        inOrder.get(i).stream().map(GeofenceEngine.GeofenceTransition::isEntry).toList());
+            }
+        }
+
+        @Test
+        @DisplayName("Should match one-by-one checking, index for index")
+        void shouldMatchSequentialChecks() {
+            List<Position> batch = zigzagBatch();
+            GeofenceEngine sequential = new GeofenceEngine();
+            sequential.registerGeofence(newcastleFenceId, "Newcastle City Centre",
+                    spatial.createPolygon(List.of(
+                            new double[]{-1.65, 54.96},
+                            new double[]{-1.58, 54.96},
+                            new double[]{-1.58, 55.00},
+                            new double[]{-1.65, 55.00})));
+
+            var results = engine.checkPositions(batch);
+
+            assertEquals(batch.size(), results.size());
+            for (int i = 0; i < batch.size(); i++) {
+                var expected = sequential.checkPosition(batch.get(i));
+                var actual = results.get(i);
+                assertEquals(expected.size(), actual.size(), "Position " + i);
+                for (int t = 0; t < expected.size(); t++) {
+                    assertEquals(expected.get(t).isEntry(), actual.get(t).isEntry(), "Position " + i);
+                    assertEquals(expected.get(t).assetId(), actual.get(t).assetId());
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep each asset's transitions in input order")
+        void shouldPreserveAssetOrder() {
+            var results = engine.checkPositions(zigzagBatch());
+
+            // BUS-0 is inside at even steps: silent first sight, then exit, entry, exit...
+            assertTrue(results.get(0).isEmpty());
+            for (int step = 1; step < 20; step++) {
+                var transitions = results.get(step * 50);
+                assertEquals(1, transitions.size());
+                assertEquals(step % 2 == 0, transitions.getFirst().isEntry(), "Step " + step);
+            }
+        }
+
+        @Test
+        @DisplayName("Should accept an empty batch")
+        void shouldAcceptEmptyBatch() {
+            assertTrue(engine.checkPositions(List.of()).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Applicability")
+    class Applicability {
+
+        private UUID harbourId;
+
+        @BeforeEach
+        void setUp() {
+            engine.clear();
+            // Tyne harbour mouth — vessels only
+            harbourId = UUID.randomUUID();
+            engine.registerGeofence(new GeofenceEngine.Geofence(harbourId, "Tyne Harbour", spatial.createPolygon(List.of(
+                    new double[]{-1.45, 55.00},
+                    new double[]{-1.40, 55.00},
+                    new double[]{-1.40, 55.02},
+                    new double[]{-1.45, 55.02}
+            ))).withApplicability(Set.of(AssetType.VESSEL), Set.of()));
+        }
+
+        private Position from(PositionSource source, double lat, double lon) {
+            return new Position(UUID.randomUUID(), ASSET_ID, lat, lon, 0, 0, 0, Instant.now(), source);
+        }
+
+        @Test
+        @DisplayName("AIS positions should be checked against vessel-only fences")
+        void aisShouldMatchVesselFence() {
+            engine.checkPosition(from(PositionSource.AIS, 54.90, -1.30)); // at sea
+
+            var transitions = engine.checkPosition(from(PositionSource.AIS, 55.01, -1.42));
+
+            assertEquals(1, transitions.size());
+            assertEquals(harbourId, transitions.getFirst().geofenceId());
+        }
+
+        @Test
+        @DisplayName("Positions of unknown asset type should skip restricted fences")
+        void gpsShouldSkipVesselFence() {
+            engine.checkPosition(from(PositionSource.GPS, 54.90, -1.30));
+
+            assertTrue(engine.checkPosition(from(PositionSource.GPS, 55.01, -1.42)).isEmpty());
+        }
+
+        @Test
+        @DisplayName("An explicit asset type should override inference from the source")
+        void explicitAssetTypeShouldApply() {
+            engine.checkPosition(from(PositionSource.GPS, 54.90, -1.30), AssetType.VESSEL);
+
+            var transitions = engine.checkPosition(from(PositionSource.GPS, 55.01, -1.42), AssetType.VESSEL);
+
+            assertEquals(1, transitions.size());
+        }
+
+        @Test
+        @DisplayName("Source restrictions should combine with asset-type restrictions")
+        void sourceRestrictionShouldApply() {
+            UUID approachId = UUID.randomUUID();
+            engine.registerGeofence(new GeofenceEngine.Geofence(approachId, "NCL Approach", spatial.createPolygon(List.of(
+                    new double[]{-1.75, 55.02},
+                    new double[]{-1.65, 55.02},
+                    new double[]{-1.65, 55.06},
+                    new double[]{-1.75, 55.06}
+            ))).withApplicability(Set.of(), Set.of(PositionSource.ADS_B)));
+
+            engine.checkPosition(from(PositionSource.ADS_B, 54.90, -1.90));
+            engine.checkPosition(from(PositionSource.GPS, 54.90, -1.90));
+            var aircraft = engine.checkPosition(from(PositionSource.ADS_B, 55.04, -1.70));
+
+            assertEquals(1, aircraft.size());
+            assertEquals(approachId, aircraft.getFirst().geofenceId());
+        }
+    }
+
+    @Nested
+    @DisplayName("Hot Reload")
+    class HotReload {
+
+        private Polygon durhamFence;
+
+        @BeforeEach
+        void setUp() {
+            durhamFence = spatial.createPolygon(List.of(
+                    new double[]{-1.60, 54.75},
+                    new double[]{-1.50, 54.75},
+                    new double[]{-1.50, 54.80},
+                    new double[]{-1.60, 54.80}
+            ));
+        }
+
+        @Test
+        @DisplayName("Removing a fence should release assets inside it silently")
+        void removeShouldNotEmitExit() {
+            engine.checkPosition(positionAt(54.9783, -1.6178)); // Newcastle
+
+            assertTrue(engine.removeGeofence(newcastleFenceId));
+            assertFalse(engine.removeGeofence(newcastleFenceId));
+
+            var transitions = engine.checkPosition(positionAt(54.7753, -1.5491)); // Durham
+
+            assertTrue(transitions.isEmpty());
+            assertEquals(0, engine.getGeofenceCount());
+            assertEquals(GeofenceEngine.GeofenceState.UNKNOWN,
+                    engine.getState(ASSET_ID, newcastleFenceId));
+        }
+
+        @Test
+        @DisplayName("A new fence reusing a removed slot should start UNKNOWN")
+        void reusedSlotShouldStartUnknown() {
+            engine.checkPosition(positionAt(54.9783, -1.6178)); // inside Newcastle
+            engine.removeGeofence(newcastleFenceId);
+
+            // Takes the freed slot; the asset's stale inside bit must not leak into it
+            UUID durhamId = UUID.randomUUID();
+            engine.registerGeofence(durhamId, "Durham City", durhamFence);
+            assertEquals(GeofenceEngine.GeofenceState.UNKNOWN, engine.getState(ASSET_ID, durhamId));
+
+            var transitions = engine.checkPosition(positionAt(54.7753, -1.5491)); // Durham
+
+            assertTrue(transitions.isEmpty());
+            assertEquals(GeofenceEngine.GeofenceState.INSIDE, engine.getState(ASSET_ID, durhamId));
+        }
+
+        @Test
+        @DisplayName("Replacing a fence's geometry should exit assets it no longer contains")
+        void replacedGeometryShouldExit() {
+            engine.checkPosition(positionAt(54.9783, -1.6178)); // Newcastle
+            long before = engine.getRegistryVersion();
+
+            engine.registerGeofence(newcastleFenceId, "Newcastle City Centre", durhamFence);
+
+            assertTrue(engine.getRegistryVersion() > before);
+            assertEquals(1, engine.getGeofenceCount());
+            assertEquals(GeofenceEngine.GeofenceState.INSIDE,
+                    engine.getState(ASSET_ID, newcastleFenceId));
+
+            var transitions = engine.checkPosition(positionAt(54.9783, -1.6178));
+
+            assertEquals(1, transitions.size());
+            assertTrue(transitions.getFirst().isExit());
+        }
+
+        @Test
+        @DisplayName("Should keep evaluating while fences are registered concurrently")
+        void shouldCheckWhileRegistering() throws Exception {
+            Thread writer = Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 200; i++) {
+                    engine.registerGeofence(UUID.randomUUID(), "Churn " + i, durhamFence);
+                }
+            });
+
+            // Stay inside Newcastle throughout: churn elsewhere must never produce a transition
+            engine.checkPosition(positionAt(54.9783, -1.6178));
+            int spurious = 0;
+            while (writer.isAlive()) {
+                spurious += engine.checkPosition(positionAt(54.9783, -1.6178)).size();
+            }
+            writer.join();
+
+            assertEquals(0, spurious);
+            assertEquals(201, engine.getGeofenceCount());
+            assertEquals(GeofenceEngine.GeofenceState.INSIDE,
+                    engine.getState(ASSET_ID, newcastleFenceId));
+        }
+    }
+
+    @Nested
+    @DisplayName("Dwell Detection")
+    class DwellDetection {
+
+        private final Instant t0 = Instant.now();
+        private UUID dwellFenceId;
+
+        @BeforeEach
+        void registerDwellFence() {
+            engine.clear();
+            dwellFenceId = UUID.randomUUID();
+            Polygon quayside = spatial.createPolygon(List.of(
+                    new double[]{-1.65, 54.96},
+                    new double[]{-1.58, 54.96},
+                    new double[]{-1.58, 55.00},
+                    new double[]{-1.65, 55.00}
+            ));
+            engine.registerGeofence(new GeofenceEngine.Geofence(dwellFenceId, "Quayside", quayside)
+                    .withDwellThreshold(Duration.ofMinutes(10)));
+        }
+
+        private Position positionAt(double lat, double lon, Instant timestamp) {
+            return new Position(UUID.randomUUID(), ASSET_ID, lat, lon, 0, 0, 0,
+                    timestamp, PositionSource.GPS);
+        }
+
+        @Test
+        @DisplayName("Should raise a dwell once the threshold passes inside")
+        void shouldRaiseDwellAfterThreshold() {
+            engine.checkPosition(positionAt(51.5074, -0.1276, t0)); // London
+            engine.checkPosition(positionAt(54.9783, -1.6178, t0)); // Newcastle
+
+            assertTrue(engine.expireDwellTimers(t0.plus(Duration.ofMinutes(9))).isEmpty());
+            var dwells = engine.expireDwellTimers(t0.plus(Duration.ofMinutes(10).plusSeconds(1)));
+
+            assertEquals(1, dwells.size());
+            assertEquals(dwellFenceId, dwells.getFirst().geofenceId());
+            assertEquals(ASSET_ID, dwells.getFirst().assetId());
+            assertEquals(t0, dwells.getFirst().enteredAt());
+            assertEquals(0, engine.getPendingDwellCount());
+        }
+
+        @Test
+        @DisplayName("Leaving before the threshold should cancel the dwell")
+        void exitShouldCancelDwell() {
+            engine.checkPosition(positionAt(54.9783, -1.6178, t0));
+            assertEquals(1, engine.getPendingDwellCount());
+
+            engine.checkPosition(positionAt(51.5074, -0.1276, t0.plus(Duration.ofMinutes(5))));
+
+            assertEquals(0, engine.getPendingDwellCount());
+            assertTrue(engine.expireDwellTimers(t0.plus(Duration.ofMinutes(30))).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should raise at most one dwell per visit")
+        void shouldRaiseOncePerVisit() {
+            engine.checkPosition(positionAt(54.9783, -1.6178, t0));
+            engine.checkPosition(positionAt(54.9790, -1.6170, t0.plus(Duration.ofMinutes(2))));
+
+            assertEquals(1, engine.expireDwellTimers(t0.plus(Duration.ofMinutes(11))).size());
+            assertTrue(engine.expireDwellTimers(t0.plus(Duration.ofMinutes(30))).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Removing the fence should drop its pending dwell")
+        void removalShouldDropDwell() {
+            engine.checkPosition(positionAt(54.9783, -1.6178, t0));
+            engine.removeGeofence(dwellFenceId);
+
+            assertTrue(engine.expireDwellTimers(t0.plus(Duration.ofMinutes(11))).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Fences without a threshold should not schedule timers")
+        void noThresholdShouldNotSchedule() {
+            engine.registerGeofence(UUID.randomUUID(), "Plain", spatial.createPolygon(List.of(
+                    new double[]{-1.65, 54.96},
+                    new double[]{-1.58, 54.96},
+                    new double[]{-1.58, 55.00},
+                    new double[]{-1.65, 55.00}
+            )));
+            engine.checkPosition(positionAt(54.9783, -1.6178, t0));
+
+            assertEquals(1, engine.getPendingDwellCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Buffer Zones")
+    class BufferZones {
+
+        private final UUID harbourId = UUID.randomUUID();
+        private Polygon harbour;
+
+        @BeforeEach
+        void setUpBufferedFence() {
+            harbour = spatial.createPolygon(List.of(
+                    new double[]{-1.45, 55.00},
+                    new double[]{-1.42, 55.00},
+                    new double[]{-1.42, 55.02},
+                    new double[]{-1.45, 55.02}
+            ));
+            engine.registerGeofence(new GeofenceEngine.Geofence(harbourId, "Tyne Harbour", harbour,
+                    FenceType.INCLUSION, true, true, 1000.0));
+        }
+
+        private Position nearHarbour() {
+            return positionAt(55.025, -1.435); // ~560m north of the fence
+        }
+
+        private Position inHarbour() {
+            return positionAt(55.01, -1.435);
+        }
+
+        private Position farFromHarbour() {
+            return positionAt(55.10, -1.435);
+        }
+
+        @Test
+        @DisplayName("Should report an approach when entering the buffer from outside")
+        void shouldDetectApproach() {
+            engine.checkPosition(farFromHarbour());
+            var transitions = engine.checkPosition(nearHarbour());
+
+            assertEquals(1, transitions.size());
+            assertTrue(transitions.getFirst().isApproach());
+            assertFalse(transitions.getFirst().isEntry());
+            assertEquals(GeofenceEngine.GeofenceState.APPROACHING, engine.getState(ASSET_ID, harbourId));
+        }
+
+        @Test
+        @DisplayName("Moving from the buffer into the fence should be an entry")
+        void approachThenEntry() {
+            engine.checkPosition(farFromHarbour());
+            engine.checkPosition(nearHarbour());
+            var transitions = engine.checkPosition(inHarbour());
+
+            assertEquals(1, transitions.size());
+            assertTrue(transitions.getFirst().isEntry());
+            assertEquals(GeofenceEngine.GeofenceState.APPROACHING, transitions.getFirst().previousState());
+        }
+
+        @Test
+        @DisplayName("Moving from the fence into its buffer should be an exit")
+        void exitIntoBuffer() {
+            engine.checkPosition(inHarbour());
+            var transitions = engine.checkPosition(nearHarbour());
+
+            assertEquals(1, transitions.size());
+            assertTrue(transitions.getFirst().isExit());
+            assertEquals(GeofenceEngine.GeofenceState.APPROACHING, transitions.getFirst().currentState());
+        }
+
+        @Test
+        @DisplayName("Leaving the buffer should return to OUTSIDE silently")
+        void leavingBufferShouldBeSilent() {
+            engine.checkPosition(farFromHarbour());
+            engine.checkPosition(nearHarbour());
+
+            assertTrue(engine.checkPosition(farFromHarbour()).isEmpty());
+            assertEquals(GeofenceEngine.GeofenceState.OUTSIDE, engine.getState(ASSET_ID, harbourId));
+        }
+
+        @Test
+        @DisplayName("Unbuffered fences should never report APPROACHING")
+        void unbufferedFenceShouldNotApproach() {
+            engine.checkPosition(positionAt(55.10, -1.6178));
+            var transitions = engine.checkPosition(positionAt(55.003, -1.6178)); // 330m north of Newcastle
+
+            assertTrue(transitions.isEmpty());
+            assertEquals(GeofenceEngine.GeofenceState.OUTSIDE, engine.getState(ASSET_ID, newcastleFenceId));
+        }
+
+        @Test
+        @DisplayName("APPROACHING should survive a checkpoint and restore")
+        void approachingShouldBeCheckpointed(@TempDir Path dir) throws Exception {
+            var fence = new GeofenceEngine.Geofence(harbourId, "Tyne Harbour", harbour,
+                    FenceType.INCLUSION, true, true, 1000.0);
+            var settings = GeofenceEngine.Settings.DEFAULTS.withCheckpoint(dir.resolve("state.ckpt"));
+            GeofenceEngine before = new GeofenceEngine(spatial, settings);
+            before.registerGeofences(List.of(fence));
+            before.checkPosition(farFromHarbour());
+            before.restoreState();
+            before.checkPosition(nearHarbour());
+            before.checkpointState();
+
+            GeofenceEngine after = new GeofenceEngine(spatial, settings);
+            after.registerGeofences(List.of(fence));
+            after.restoreState();
+
+            assertEquals(GeofenceEngine.GeofenceState.APPROACHING, after.getState(ASSET_ID, harbourId));
+            var transitions = after.checkPosition(inHarbour());
+            assertEquals(1, transitions.size());
+            assertEquals(GeofenceEngine.GeofenceState.APPROACHING, transitions.getFirst().previousState());
+        }
+    }
+
+    @Nested
+    @DisplayName("Checkpointing")
+    class Checkpointing {
+
+        @TempDir
+        Path dir;
+
+        private Polygon newcastleFence;
+
+        @BeforeEach
+        void setUpFence() {
+            newcastleFence = spatial.createPolygon(List.of(
+                    new double[]{-1.65, 54.96},
+                    new double[]{-1.58, 54.96},
+                    new double[]{-1.58, 55.00},
+                    new double[]{-1.65, 55.00}
+            ));
+        }
+
+        /** A fresh engine, as after a restart, with the same fences loaded */
+        private GeofenceEngine restart(List<GeofenceEngine.Geofence> fences) {
+            GeofenceEngine restarted = new GeofenceEngine(spatial,
+                    GeofenceEngine.Settings.DEFAULTS.withCheckpoint(dir.resolve("state.ckpt")));
+            restarted.registerGeofences(fences);
+            return restarted;
+        }
+
+        @Test
+        @DisplayName("Restored state should report the first exit after a restart")
+        void shouldResumeAfterRestart() throws Exception {
+            var fence = new GeofenceEngine.Geofence(newcastleFenceId, "Newcastle City Centre", newcastleFence);
+            GeofenceEngine before = restart(List.of(fence));
+            before.restoreState();
+            before.checkPosition(positionAt(54.9783, -1.6178));
+            assertEquals(1, before.checkpointState());
+            assertEquals(0, before.checkpointState(), "only changed assets are rewritten");
+
+            GeofenceEngine after = restart(List.of(fence));
+            assertEquals(1, after.restoreState());
+
+            assertEquals(GeofenceEngine.GeofenceState.INSIDE, after.getState(ASSET_ID, newcastleFenceId));
+            var transitions = after.checkPosition(positionAt(51.5074, -0.1276)); // London
+            assertEquals(1, transitions.size());
+            assertTrue(transitions.getFirst().isExit());
+        }
+
+        @Test
+        @DisplayName("Fences created while down should start UNKNOWN for restored assets")
+        void newFencesShouldBeUnknown() throws Exception {
+            var fence = new GeofenceEngine.Geofence(newcastleFenceId, "Newcastle City Centre", newcastleFence);
+            GeofenceEngine before = restart(List.of(fence));
+            before.restoreState();
+            before.checkPosition(positionAt(51.5074, -0.1276)); // London
+            before.checkpointState();
+
+            UUID londonId = UUID.randomUUID();
+            Polygon london = spatial.createPolygon(List.of(
+                    new double[]{-0.20, 51.45},
+                    new double[]{-0.05, 51.45},
+                    new double[]{-0.05, 51.55},
+                    new double[]{-0.20, 51.55}
+            ));
+            GeofenceEngine after = restart(List.of(fence, new GeofenceEngine.Geofence(londonId, "London", london)));
+            after.restoreState();
+
+            assertEquals(GeofenceEngine.GeofenceState.OUTSIDE, after.getState(ASSET_ID, newcastleFenceId));
+            assertEquals(GeofenceEngine.GeofenceState.UNKNOWN, after.getState(ASSET_ID, londonId));
+            assertTrue(after.checkPosition(positionAt(51.5074, -0.1276)).isEmpty(),
+                    "already inside a fence it was never evaluated against — no entry");
+        }
+
+        @Test
+        @DisplayName("Pending dwell timers should be restored with their entry time")
+        void shouldRestoreDwell() throws Exception {
+            var fence = new GeofenceEngine.Geofence(newcastleFenceId, "Newcastle City Centre", newcastleFence)
+                    .withDwellThreshold(Duration.ofMinutes(10));
+            Instant enteredAt = Instant.now();
+            GeofenceEngine before = restart(List.of(fence));
+            before.restoreState();
+            before.checkPosition(new Position(UUID.randomUUID(), ASSET_ID, 54.9783, -1.6178, 0, 0, 0,
+                    enteredAt, PositionSource.GPS));
+            before.checkpointState();
+
+            GeofenceEngine after = restart(List.of(fence));
+            after.restoreState();
+            var dwells = after.expireDwellTimers(enteredAt.plus(Duration.ofMinutes(11)));
+
+            assertEquals(1, dwells.size());
+            assertEquals(enteredAt.toEpochMilli(), dwells.getFirst().enteredAt().toEpochMilli());
+        }
+
+        @Test
+        @DisplayName("Restored state should keep its sample time, so the next jump is swept")
+        void shouldRestoreSampleTime() throws Exception {
+            var settings = GeofenceEngine.Settings.DEFAULTS.withSweptSegments(true)
+                    .withCheckpoint(dir.resolve("state.ckpt"));
+            var tunnel = new GeofenceEngine.Geofence(UUID.randomUUID(), "Tyne Tunnel", spatial.createPolygon(List.of(
+                    new double[]{-1.50, 54.99},
+                    new double[]{-1.48, 54.99},
+                    new double[]{-1.48, 55.00},
+                    new double[]{-1.50, 55.00}
+            )));
+            Instant start = Instant.now();
+            GeofenceEngine before = new GeofenceEngine(spatial, settings);
+            before.registerGeofences(List.of(tunnel));
+            before.restoreState();
+            before.checkPosition(new Position(UUID.randomUUID(), ASSET_ID, 54.995, -1.55, 0, 0, 0,
+                    start, PositionSource.GPS));
+            before.checkpointState();
+
+            GeofenceEngine after = new GeofenceEngine(spatial, settings);
+            after.registerGeofences(List.of(tunnel));
+            after.restoreState();
+            var transitions = after.checkPosition(new Position(UUID.randomUUID(), ASSET_ID, 54.995, -1.43, 0, 0, 0,
+                    start.plus(Duration.ofMinutes(1)), PositionSource.GPS));
+
+            assertEquals(2, transitions.size(), "entry and exit of the fence crossed in between");
+        }
+
+        @Test
+        @DisplayName("Nothing should be checkpointed until state is restored, however late the bootstrap")
+        void shouldNotCheckpointBeforeRestore() throws Exception {
+            var fence = new GeofenceEngine.Geofence(newcastleFenceId, "Newcastle City Centre", newcastleFence);
+            GeofenceEngine before = restart(List.of(fence));
+            before.restoreState();
+            before.checkPosition(positionAt(54.9783, -1.6178));
+            before.checkpointState();
+
+            // Restarted, with the fence load still retrying when the checkpoint timer fires
+            GeofenceEngine after = new GeofenceEngine(spatial,
+                    GeofenceEngine.Settings.DEFAULTS.withCheckpoint(dir.resolve("state.ckpt")));
+            assertEquals(0, after.checkpointState());
+
+            after.registerGeofences(List.of(fence));
+            assertEquals(1, after.restoreState());
+            assertEquals(GeofenceEngine.GeofenceState.INSIDE, after.getState(ASSET_ID, newcastleFenceId));
+        }
+
+        @Test
+        @DisplayName("Checkpointing should be a no-op when disabled")
+        void disabledShouldBeNoOp() throws Exception {
+            engine.checkPosition(positionAt(54.9783, -1.6178));
+
+            assertEquals(0, engine.checkpointState());
+            assertEquals(0, engine.restoreState());
+        }
+    }
+
+    @Nested
+    @DisplayName("Shared State Backend")
+    class SharedState {
+
+        /** In-process stand-in for Redis, counting round trips */
+        private final class MapBackend implements GeofenceStateBackend {
+            final Map<String, byte[]> records = new ConcurrentHashMap<>();
+            final Map<String, Long> generations = new ConcurrentHashMap<>();
+            int loads;
+            int stores;
+            boolean down;
+
+            @Override
+            public Map<String, byte[]> load(List<String> assetIds) {
+                loads++;
+                if (down) {
+                    return null;
+                }
+                Map<String, byte[]> found = new HashMap<>();
+                for (String assetId : assetIds) {
+                    byte[] record = records.get(assetId);
+                    if (record != null) {
+                        found.put(assetId, record);
+                    }
+                }
+                return found;
+            }
+
+            @Override
+            public Set<String> store(Map<String, VersionedRecord> batch) {
+                stores++;
+                Set<String> refused = new HashSet<>();
+                if (!down) {
+                    batch.forEach((assetId, record) -> {
+                        if (generations.getOrDefault(assetId, 0L) >= record.generation()) {
+                            refused.add(assetId);
+                        } else {
+                            generations.put(assetId, record.generation());
+                            records.put(assetId, record.bytes());
+                        }
+                    });
+                }
+                return refused;
+            }
+        }
+
+        private MapBackend backend;
+        private GeofenceEngine.Geofence fence;
+
+        @BeforeEach
+        void setUpBackend() {
+            backend = new MapBackend();
+            fence = new GeofenceEngine.Geofence(newcastleFenceId, "Newcastle City Centre",
+                    spatial.createPolygon(List.of(
+                            new double[]{-1.65, 54.96},
+                            new double[]{-1.58, 54.96},
+                            new double[]{-1.58, 55.00},
+                            new double[]{-1.65, 55.00}
+                    )));
+        }
+
+        /** One processing instance sharing {@code backend} */
+        private GeofenceEngine instance(Duration nearCacheTtl, GeofenceEngine.Geofence... fences) {
+            GeofenceEngine instance = new GeofenceEngine(spatial,
+                    GeofenceEngine.Settings.DEFAULTS.withNearCacheTtl(nearCacheTtl), backend);
+            instance.registerGeofences(List.of(fences));
+            return instance;
+        }
+
+        @Test
+        @DisplayName("An asset moved by a rebalance should keep its state on the new instance")
+        void rebalanceShouldKeepState() {
+            GeofenceEngine first = instance(Duration.ofSeconds(30), fence);
+            GeofenceEngine second = instance(Duration.ofSeconds(30), fence);
+            first.checkPosition(positionAt(54.9783, -1.6178));
+
+            var transitions = second.checkPosition(positionAt(51.5074, -0.1276)); // London
+
+            assertEquals(1, transitions.size());
+            assertTrue(transitions.getFirst().isExit());
+        }
+
+        @Test
+        @DisplayName("A batch should cost one read and one write, and leased assets no read")
+        void batchShouldPipeline() {
+            GeofenceEngine instance = instance(Duration.ofSeconds(30), fence);
+            List<Position> batch = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                batch.add(new Position(UUID.randomUUID(), "VEHICLE-" + (i % 10), 54.9783, -1.6178,
+                        0, 0, 0, Instant.now(), PositionSource.GPS));
+            }
+
+            instance.checkPositions(batch);
+            assertEquals(1, backend.loads);
+            assertEquals(1, backend.stores);
+            assertEquals(10, backend.records.size());
+
+            instance.checkPositions(batch);
+            assertEquals(1, backend.loads, "all ten assets are still leased");
+            assertEquals(2, backend.stores);
+        }
+
+        @Test
+        @DisplayName("An expired lease should pick up state written by another instance")
+        void expiredLeaseShouldReload() {
+            GeofenceEngine first = instance(Duration.ZERO, fence);
+            GeofenceEngine second = instance(Duration.ZERO, fence);
+            first.checkPosition(positionAt(54.9783, -1.6178));
+            second.checkPosition(positionAt(51.5074, -0.1276)); // exits on the second instance
+
+            // Back on the first, which still remembers the asset inside
+            assertTrue(first.checkPosition(positionAt(51.5080, -0.1280)).isEmpty(),
+                    "the exit was already reported");
+            assertEquals(GeofenceEngine.GeofenceState.OUTSIDE, first.getState(ASSET_ID, newcastleFenceId));
+        }
+
+        @Test
+        @DisplayName("A released lease should pick up state written by another instance")
+        void releasedLeaseShouldReload() {
+            GeofenceEngine first = instance(Duration.ofMinutes(5), fence);
+            GeofenceEngine second = instance(Duration.ofMinutes(5), fence);
+            first.checkPosition(positionAt(54.9783, -1.6178));
+            // The partition moves to the second instance, where the asset leaves
+            first.releaseLeases(List.of(ASSET_ID));
+            second.checkPosition(positionAt(51.5074, -0.1276));
+
+            // ...and back, well inside the first instance's old lease
+            assertTrue(first.checkPosition(positionAt(51.5080, -0.1280)).isEmpty(),
+                    "the exit was already reported");
+            assertEquals(GeofenceEngine.GeofenceState.OUTSIDE, first.getState(ASSET_ID, newcastleFenceId));
+        }
+
+        @Test
+        @DisplayName("A write older than the stored record should be refused and the stored state taken up")
+        void staleWriteShouldBeRefused() {
+            GeofenceEngine first = instance(Duration.ofMinutes(5), fence);
+            GeofenceEngine second = instance(Duration.ofMinutes(5), fence);
+            first.checkPosition(positionAt(54.9783, -1.6178)); // generation 1, inside
+            second.checkPosition(positionAt(51.5074, -0.1276)); // generation 2, outside
+
+            // The first instance, still leased, finishes a late batch: its generation 2 is refused
+            first.checkPosition(positionAt(54.9790, -1.6170));
+            assertEquals(2L, backend.generations.get(ASSET_ID), "the second instance's record stands");
+
+            // Its lease is gone, so the next check starts from the second instance's record
+            var transitions = first.checkPosition(positionAt(54.9795, -1.6165));
+            assertEquals(1, transitions.size());
+            assertTrue(transitions.getFirst().isEntry());
+        }
+
+        @Test
+        @DisplayName("Only the instance now evaluating an asset should raise its dwell")
+        void dwellShouldFireOnOwnerOnly() {
+            var dwellFence = fence.withDwellThreshold(Duration.ofMinutes(10));
+            GeofenceEngine first = instance(Duration.ofSeconds(30), dwellFence);
+            GeofenceEngine second = instance(Duration.ofSeconds(30), dwellFence);
+            Instant t0 = Instant.now();
+            first.checkPosition(new Position(UUID.randomUUID(), ASSET_ID, 54.9783, -1.6178, 0, 0, 0,
+                    t0, PositionSource.GPS));
+
+            assertTrue(second.checkPosition(new Position(UUID.randomUUID(), ASSET_ID, 54.9790, -1.6170,
+                    0, 0, 0, t0.plus(Duration.ofMinutes(1)), PositionSource.GPS)).isEmpty());
+
+            Instant due = t0.plus(Duration.ofMinutes(11));
+            assertTrue(first.expireDwellTimers(due).isEmpty());
+            assertEquals(1, second.expireDwellTimers(due).size());
+        }
+
+        @Test
+        @DisplayName("An unreachable backend should fall back to local state")
+        void unavailableBackendShouldUseLocalState() {
+            GeofenceEngine instance = instance(Duration.ZERO, fence);
+            backend.down = true;
+
+            instance.checkPosition(positionAt(51.5074, -0.1276));
+            var transitions = instance.checkPosition(positionAt(54.9783, -1.6178));
+
+            assertEquals(1, transitions.size());
+            assertTrue(transitions.getFirst().isEntry());
+        }
+    }
+
     @Nested
     @DisplayName("Circular Geofence")
     class CircularGeofence {
@@ -218,5 +1264,82 @@ class GeofenceEngineTest {
             assertTrue(transitions.getFirst().isEntry());
             assertEquals("1km around Monument", transitions.getFirst().geofenceName());
         }
+
+        // Tromsø, where a degree of longitude is barely a third of a degree of latitude
+        private static final double CENTRE_LON = 18.9553;
+        private static final double CENTRE_LAT = 69.6492;
+
+        /** Longitude {@code metres} due east of the centre */
+        private double eastOfCentre(double metres) {
+            return CENTRE_LON + Math.toDegrees(metres
+                    / (SpatialEngine.EARTH_RADIUS_METRES * Math.cos(Math.toRadians(CENTRE_LAT))));
+        }
+
+        /** Latitude {@code metres} due north of the centre */
+        private double northOfCentre(double metres) {
+            return CENTRE_LAT + Math.toDegrees(metres / SpatialEngine.EARTH_RADIUS_METRES);
+        }
+
+        @Test
+        @DisplayName("Should hold the true radius east-west at high latitude")
+        void shouldBeExactAtHighLatitude() {
+            UUID circleId = UUID.randomUUID();
+            engine.registerCircularGeofence(circleId, "Harbour depot", CENTRE_LON, CENTRE_LAT, 1000);
+
+            engine.checkPosition(positionAt(CENTRE_LAT, eastOfCentre(980)));
+            assertEquals(GeofenceEngine.GeofenceState.INSIDE, engine.getState(ASSET_ID, circleId));
+
+            engine.checkPosition(positionAt(CENTRE_LAT, eastOfCentre(1020)));
+            assertEquals(GeofenceEngine.GeofenceState.OUTSIDE, engine.getState(ASSET_ID, circleId));
+        }
+
+        @Test
+        @DisplayName("Should contain points across the antimeridian from the centre")
+        void shouldWrapAcrossAntimeridian() {
+            UUID circleId = UUID.randomUUID();
+            // Taveuni, Fiji, straddled by the 180th meridian
+            engine.registerCircularGeofence(circleId, "Taveuni", 179.99, -16.8, 5000);
+
+            engine.checkPosition(positionAt(-16.8, -179.98)); // ~3 km east, across ±180
+            assertEquals(GeofenceEngine.GeofenceState.INSIDE, engine.getState(ASSET_ID, circleId));
+
+            engine.checkPosition(positionAt(-16.8, -179.90)); // ~11 km east
+            assertEquals(GeofenceEngine.GeofenceState.OUTSIDE, engine.getState(ASSET_ID, circleId));
+        }
+
+        @Test
+        @DisplayName("Should report an approach inside a circular fence's buffer")
+        void shouldApproachCircle() {
+            UUID circleId = UUID.randomUUID();
+            Polygon outline = spatial.createCircularFence(CENTRE_LON, CENTRE_LAT, 1000);
+            engine.registerGeofence(new GeofenceEngine.Geofence(circleId, "Harbour depot", outline,
+                    FenceType.INCLUSION, true, true, 500.0).withCircle(new Circle(CENTRE_LON, CENTRE_LAT, 1000)));
+
+            engine.checkPosition(positionAt(northOfCentre(2000), CENTRE_LON));
+            var approach = engine.checkPosition(positionAt(northOfCentre(1400), CENTRE_LON));
+            var entry = engine.checkPosition(positionAt(northOfCentre(900), CENTRE_LON));
+
+            assertEquals(1, approach.size());
+            assertTrue(approach.getFirst().isApproach());
+            assertEquals(1, entry.size());
+            assertTrue(entry.getFirst().isEntry());
+        }
+
+        @Test
+        @DisplayName("Swept segments should catch a pass through the circle, and only through it")
+        void sweptSegmentsShouldCrossCircle() {
+            GeofenceEngine swept = new GeofenceEngine(spatial, GeofenceEngine.Settings.DEFAULTS.withSweptSegments(true));
+            swept.registerCircularGeofence(UUID.randomUUID(), "Harbour depot", CENTRE_LON, CENTRE_LAT, 1000);
+
+            swept.checkPosition(positionAt(CENTRE_LAT, eastOfCentre(-3000)));
+            var through = swept.checkPosition(positionAt(CENTRE_LAT, eastOfCentre(3000)));
+            swept.checkPosition(positionAt(northOfCentre(1200), eastOfCentre(-3000)));
+            var beside = swept.checkPosition(positionAt(northOfCentre(1200), eastOfCentre(3000)));
+
+            assertEquals(2, through.size());
+            assertTrue(through.get(0).isEntry());
+            assertTrue(through.get(1).isExit());
+            assertTrue(beside.isEmpty());
+        }
     }
 }
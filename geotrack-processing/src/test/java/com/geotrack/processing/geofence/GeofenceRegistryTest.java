@@ -0,0 +1,123 @@
+package com.geotrack.processing.geofence;
+
+import com.geotrack.common.model.AssetType;
+import com.geotrack.common.model.PositionSource;
+import com.geotrack.common.spatial.SpatialEngine;
+import com.geotrack.processing.geofence.GeofenceEngine.Geofence;
+import com.geotrack.processing.geofence.GeofenceRegistry.Snapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the copy-on-write geofence registry.
+ */
+class GeofenceRegistryTest {
+
+    private GeofenceRegistry registry;
+    private Polygon square;
+
+    @BeforeEach
+    void setUp() {
+        registry = new GeofenceRegistry();
+        square = new SpatialEngine().createPolygon(List.of(
+                new double[]{-1.65, 54.96},
+                new double[]{-1.58, 54.96},
+                new double[]{-1.58, 55.00},
+                new double[]{-1.65, 55.00}
+        ));
+    }
+
+    @Test
+    @DisplayName("Published snapshots should not change under later edits")
+    void snapshotShouldBeIsolated() {
+        UUID id = UUID.randomUUID();
+        registry.register(new Geofence(id, "Quayside", square));
+        Snapshot before = registry.snapshot();
+
+        registry.remove(id);
+
+        assertEquals(1, before.size());
+        assertNotNull(before.byId(id));
+        assertEquals(0, registry.snapshot().size());
+        assertTrue(registry.snapshot().version() > before.version());
+    }
+
+    @Test
+    @DisplayName("Replacing a fence should keep its slot and first-seen version")
+    void upsertShouldKeepSlot() {
+        UUID id = UUID.randomUUID();
+        registry.register(new Geofence(id, "Quayside", square));
+        PreparedGeofence original = registry.snapshot().byId(id);
+
+        registry.register(new Geofence(id, "Quayside (extended)", square));
+        PreparedGeofence replaced = registry.snapshot().byId(id);
+
+        assertEquals(original.ordinal(), replaced.ordinal());
+        assertEquals(original.registeredVersion(), replaced.registeredVersion());
+        assertEquals("Quayside (extended)", replaced.fence().name());
+        assertEquals(1, registry.snapshot().size());
+    }
+
+    @Test
+    @DisplayName("Should reuse a freed slot with a fresh version")
+    void shouldReuseFreedSlot() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        registry.registerAll(List.of(
+                new Geofence(first, "A", square),
+                new Geofence(second, "B", square)));
+        PreparedGeofence removed = registry.snapshot().byId(first);
+        registry.remove(first);
+
+        UUID third = UUID.randomUUID();
+        registry.register(new Geofence(third, "C", square));
+        PreparedGeofence reused = registry.snapshot().byId(third);
+
+        assertEquals(removed.ordinal(), reused.ordinal());
+        assertTrue(reused.registeredVersion() > removed.registeredVersion());
+        assertSame(reused, registry.snapshot().fence(reused.ordinal()));
+    }
+
+    @Test
+    @DisplayName("Should index fences in one bucket per distinct applicability")
+    void shouldBucketByApplicability() {
+        registry.registerAll(List.of(
+                new Geofence(UUID.randomUUID(), "Any", square),
+                new Geofence(UUID.randomUUID(), "Harbour", square)
+                        .withApplicability(Set.of(AssetType.VESSEL), Set.of()),
+                new Geofence(UUID.randomUUID(), "Marina", square)
+                        .withApplicability(Set.of(AssetType.VESSEL), Set.of())));
+
+        Snapshot snapshot = registry.snapshot();
+        var envelope = square.getEnvelopeInternal();
+        int vessel = PreparedGeofence.assetTypeBit(AssetType.VESSEL);
+        int unknown = PreparedGeofence.assetTypeBit(null);
+        int ais = PreparedGeofence.sourceBit(PositionSource.AIS);
+
+        assertEquals(2, snapshot.bucketCount());
+        assertEquals(3, snapshot.query(envelope, vessel, ais).size());
+        assertEquals(1, snapshot.query(envelope, unknown, ais).size());
+    }
+
+    @Test
+    @DisplayName("Duplicate IDs in one batch should occupy a single slot")
+    void batchDuplicatesShouldShareSlot() {
+        UUID id = UUID.randomUUID();
+        registry.registerAll(List.of(
+                new Geofence(id, "First", square),
+                new Geofence(id, "Second", square)));
+
+        Snapshot snapshot = registry.snapshot();
+        assertEquals(1, snapshot.size());
+        assertEquals("Second", snapshot.byId(id).fence().name());
+        assertNull(snapshot.fence(1));
+    }
+}
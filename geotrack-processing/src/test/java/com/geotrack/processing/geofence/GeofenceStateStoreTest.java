@@ -0,0 +1,69 @@
+package com.geotrack.processing.geofence;
+
+import com.geotrack.processing.geofence.GeofenceStateStore.AssetFenceState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the compact per-asset geofence state store.
+ */
+class GeofenceStateStoreTest {
+
+    private GeofenceStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new GeofenceStateStore();
+    }
+
+    @Test
+    @DisplayName("Should intern each asset to a stable dense ordinal")
+    void shouldInternAssetsToStableOrdinals() {
+        AssetFenceState a = store.stateFor("TYNE-BUS-01");
+        AssetFenceState b = store.stateFor("TYNE-BUS-02");
+
+        assertEquals(0, a.ordinal());
+        assertEquals(1, b.ordinal());
+        assertSame(a, store.stateFor("TYNE-BUS-01"));
+        assertEquals(2, store.assetCount());
+    }
+
+    @Test
+    @DisplayName("Should not create state on lookup of an unseen asset")
+    void findShouldNotIntern() {
+        assertNull(store.find("GHOST"));
+        assertEquals(0, store.assetCount());
+    }
+
+    @Test
+    @DisplayName("Should keep earlier states when the slot array grows")
+    void shouldSurviveGrowth() {
+        AssetFenceState first = store.stateFor("ASSET-0");
+        first.setInside(1500, true);
+
+        for (int i = 1; i < 5_000; i++) {
+            store.stateFor("ASSET-" + i);
+        }
+
+        assertSame(first, store.find("ASSET-0"));
+        assertTrue(store.find("ASSET-0").isInside(1500));
+        assertEquals(4_999, store.find("ASSET-4999").ordinal());
+    }
+
+    @Test
+    @DisplayName("Should iterate inside fences in ordinal order")
+    void shouldIterateInsideFences() {
+        AssetFenceState state = store.stateFor("VESSEL-1");
+        state.setInside(3, true);
+        state.setInside(64, true);
+        state.setInside(3, false);
+        state.setInside(700, true);
+
+        assertEquals(64, state.nextInside(0));
+        assertEquals(700, state.nextInside(65));
+        assertEquals(-1, state.nextInside(701));
+    }
+}
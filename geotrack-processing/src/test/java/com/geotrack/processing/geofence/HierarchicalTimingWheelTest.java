@@ -0,0 +1,131 @@
+package com.geotrack.processing.geofence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the hierarchical timing wheel behind dwell detection.
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private HierarchicalTimingWheel<TestTimer> wheel;
+    private List<TestTimer> fired;
+
+    static final class TestTimer extends HierarchicalTimingWheel.Timer {
+        final long deadline;
+
+        TestTimer(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        wheel = new HierarchicalTimingWheel<>(1_000, START);
+        fired = new ArrayList<>();
+    }
+
+    private TestTimer schedule(long delayMillis) {
+        TestTimer timer = new TestTimer(START + delayMillis);
+        wheel.schedule(timer, timer.deadline);
+        return timer;
+    }
+
+    @Test
+    @DisplayName("Should fire at the deadline tick, not before")
+    void shouldFireAtDeadline() {
+        TestTimer timer = schedule(5_000);
+
+        wheel.advance(START + 4_999, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(START + 5_000, fired::add);
+        assertEquals(List.of(timer), fired);
+        assertFalse(timer.isScheduled());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Cancelled timers should never fire")
+    void cancelledTimerShouldNotFire() {
+        TestTimer timer = schedule(90_000);
+
+        assertTrue(wheel.cancel(timer));
+        assertFalse(wheel.cancel(timer));
+        wheel.advance(START + 600_000, fired::add);
+
+        assertTrue(fired.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Timers on every level should cascade down and fire in deadline order")
+    void shouldCascadeAcrossLevels() {
+        Random random = new Random(42);
+        List<TestTimer> timers = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            // Up to ~3 days out, spread over levels 0–3
+            timers.add(schedule(1_000 + (long) (random.nextDouble() * 3 * 86_400_000L)));
+        }
+
+        long now = START;
+        for (long step = 0; step < 3 * 24 * 60; step++) {
+            now += 60_000;
+            wheel.advance(now, fired::add);
+            long current = now;
+            fired.forEach(t -> assertTrue(t.deadline <= current, "fired early"));
+        }
+        wheel.advance(now + 86_400_000L, fired::add);
+
+        assertEquals(timers.size(), fired.size());
+        for (int i = 1; i < fired.size(); i++) {
+            assertTrue((fired.get(i - 1).deadline + 999) / 1_000 <= (fired.get(i).deadline + 999) / 1_000,
+                    "out of order");
+        }
+    }
+
+    @Test
+    @DisplayName("Timers beyond the wheel's span should still fire on time")
+    void shouldHandleDeadlinesBeyondSpan() {
+        long yearMillis = 365L * 86_400_000L;
+        TestTimer timer = schedule(yearMillis);
+
+        wheel.advance(START + yearMillis - 1_000, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(START + yearMillis, fired::add);
+        assertEquals(List.of(timer), fired);
+    }
+
+    @Test
+    @DisplayName("Rescheduling should move a timer rather than duplicate it")
+    void rescheduleShouldMove() {
+        TestTimer timer = schedule(5_000);
+        wheel.schedule(timer, START + 20_000);
+
+        wheel.advance(START + 10_000, fired::add);
+        assertTrue(fired.isEmpty());
+        assertEquals(1, wheel.size());
+
+        wheel.advance(START + 20_000, fired::add);
+        assertEquals(List.of(timer), fired);
+    }
+
+    @Test
+    @DisplayName("Deadlines already past should fire on the next tick")
+    void pastDeadlineShouldFireNextTick() {
+        TestTimer timer = schedule(-60_000);
+
+        wheel.advance(START + 1_000, fired::add);
+
+        assertEquals(List.of(timer), fired);
+    }
+}
@@ -0,0 +1,133 @@
+package com.geotrack.processing.geofence;
+
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.Request;
+import io.vertx.mutiny.redis.client.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for RedisStateBackend — one pipelined batch per call, conditional writes,
+ * degrading on failure.
+ */
+@ExtendWith(MockitoExtension.class)
+class RedisStateBackendTest {
+
+    @Mock
+    Redis redis;
+
+    @Mock
+    Response record;
+
+    @Mock
+    Response written;
+
+    @Captor
+    ArgumentCaptor<List<Request>> batch;
+
+    private RedisStateBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        backend = new RedisStateBackend(redis, Duration.ofHours(24));
+    }
+
+    @Test
+    @DisplayName("Should read every asset in one pipelined batch, leaving out missing keys")
+    void loadShouldPipeline() {
+        byte[] bytes = {1, 2, 3};
+        when(record.toBytes()).thenReturn(bytes);
+        when(redis.batchAndAwait(anyList())).thenReturn(Arrays.asList(record, null));
+
+        Map<String, byte[]> records = backend.load(List.of("VESSEL-001", "VESSEL-002"));
+
+        verify(redis, times(1)).batchAndAwait(batch.capture());
+        assertThat(batch.getValue()).hasSize(2).allMatch(r -> r.command().equals(Command.HGET));
+        assertThat(records).containsOnlyKeys("VESSEL-001");
+        assertThat(records.get("VESSEL-001")).isEqualTo(bytes);
+    }
+
+    @Test
+    @DisplayName("Should write every asset in one pipelined batch of compare-and-sets")
+    void storeShouldPipeline() {
+        when(written.toInteger()).thenReturn(1);
+        when(redis.batchAndAwait(anyList())).thenReturn(List.of(written, written));
+
+        Set<String> refused = backend.store(Map.of(
+                "VESSEL-001", new GeofenceStateBackend.VersionedRecord(3, new byte[]{1}),
+                "VESSEL-002", new GeofenceStateBackend.VersionedRecord(7, new byte[]{2})));
+
+        verify(redis, times(1)).batchAndAwait(batch.capture());
+        assertThat(batch.getValue()).hasSize(2).allMatch(r -> r.command().equals(Command.EVALSHA));
+        assertThat(refused).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should report the assets whose stored record was as new or newer")
+    void storeShouldReportRefused() {
+        when(written.toInteger()).thenReturn(1);
+        when(record.toInteger()).thenReturn(0);
+        when(redis.batchAndAwait(anyList())).thenReturn(List.of(written, record));
+        Map<String, GeofenceStateBackend.VersionedRecord> records = new LinkedHashMap<>();
+        records.put("VESSEL-001", new GeofenceStateBackend.VersionedRecord(3, new byte[]{1}));
+        records.put("VESSEL-002", new GeofenceStateBackend.VersionedRecord(7, new byte[]{2}));
+
+        Set<String> refused = backend.store(records);
+
+        assertThat(refused).containsExactly("VESSEL-002");
+    }
+
+    @Test
+    @DisplayName("Should load the script and retry once when Redis does not know it")
+    void storeShouldLoadMissingScript() {
+        when(written.toInteger()).thenReturn(1);
+        when(redis.batchAndAwait(anyList()))
+                .thenThrow(new RuntimeException("NOSCRIPT No matching script. Please use EVAL."))
+                .thenReturn(List.of(written));
+
+        Set<String> refused = backend.store(Map.of(
+                "VESSEL-001", new GeofenceStateBackend.VersionedRecord(1, new byte[]{1})));
+
+        verify(redis).sendAndAwait(argThat(r -> r.command().equals(Command.SCRIPT)));
+        verify(redis, times(2)).batchAndAwait(anyList());
+        assertThat(refused).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A failed read should report the backend unavailable, not throw")
+    void failedLoadShouldReturnNull() {
+        when(redis.batchAndAwait(anyList())).thenThrow(new RuntimeException("Connection refused"));
+
+        assertThat(backend.load(List.of("VESSEL-001"))).isNull();
+    }
+
+    @Test
+    @DisplayName("A failed write should be swallowed, refusing nothing")
+    void failedStoreShouldNotThrow() {
+        when(redis.batchAndAwait(anyList())).thenThrow(new RuntimeException("Connection refused"));
+
+        assertThat(backend.store(Map.of(
+                "VESSEL-001", new GeofenceStateBackend.VersionedRecord(1, new byte[]{1})))).isEmpty();
+    }
+}
@@ -0,0 +1,144 @@
+package com.geotrack.processing.geofence;
+
+import com.geotrack.processing.geofence.AssetStateCodec.AssetState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the memory-mapped state checkpoint file format.
+ */
+class StateCheckpointTest {
+
+    @TempDir
+    Path dir;
+
+    private void write(StateCheckpoint file, int ordinal, String assetId, UUID... inside) throws IOException {
+        file.codec().begin(assetId, file.nextGeneration(), true, -1.6178, 54.9783, 1_700_000_000_000L);
+        for (UUID fence : inside) {
+            file.codec().addInside(fence);
+        }
+        file.commitRecord(ordinal);
+    }
+
+    @Test
+    @DisplayName("Records should survive closing and reopening the file")
+    void shouldRoundTrip() throws IOException {
+        Path path = dir.resolve("state.ckpt");
+        UUID quayside = UUID.randomUUID();
+        UUID depot = UUID.randomUUID();
+        Instant enteredAt = Instant.ofEpochMilli(1_700_000_000_000L);
+
+        try (StateCheckpoint file = StateCheckpoint.open(path)) {
+            AssetStateCodec codec = file.codec();
+            codec.begin("VESSEL-001", file.nextGeneration(), true, -1.6178, 54.9783, 1_700_000_060_000L);
+            codec.addInside(quayside);
+            int depotIndex = codec.addInside(depot);
+            codec.addDwell(depotIndex, enteredAt);
+            file.commitRecord(0);
+            file.finish(Set.of(quayside, depot));
+        }
+
+        try (StateCheckpoint file = StateCheckpoint.open(path)) {
+            AssetState asset = file.read().get("VESSEL-001");
+
+            assertEquals(1, file.generation());
+            assertEquals(List.of(quayside, depot), asset.insideFences());
+            assertEquals(Map.of(depot, enteredAt), asset.dwellEnteredAt());
+            assertTrue(asset.hasLastPosition());
+            assertEquals(-1.6178, asset.lastLongitude());
+            assertEquals(1_700_000_060_000L, asset.lastTimestampMillis());
+            assertEquals(Set.of(quayside, depot), file.knownFences());
+        }
+    }
+
+    @Test
+    @DisplayName("A torn record should be skipped, not misread")
+    void shouldSkipTornRecord() throws IOException {
+        Path path = dir.resolve("state.ckpt");
+        try (StateCheckpoint file = StateCheckpoint.open(path)) {
+            write(file, 0, "VESSEL-001", UUID.randomUUID());
+            write(file, 1, "VESSEL-002", UUID.randomUUID());
+            file.finish(null);
+        }
+        // Corrupt a byte inside the second record, as a crash mid-write would
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}),
+                    StateCheckpoint.SLOT_SIZE * 2 + 60);
+        }
+
+        try (StateCheckpoint file = StateCheckpoint.open(path)) {
+            assertEquals(Set.of("VESSEL-001"), file.read().keySet());
+        }
+    }
+
+    @Test
+    @DisplayName("The newest record should win when an asset moved ordinal")
+    void newestGenerationShouldWin() throws IOException {
+        UUID before = UUID.randomUUID();
+        UUID after = UUID.randomUUID();
+        try (StateCheckpoint file = StateCheckpoint.open(dir.resolve("state.ckpt"))) {
+            write(file, 5, "VESSEL-001", before);
+            file.finish(null);
+            write(file, 0, "VESSEL-001", after);
+            file.finish(null);
+
+            assertEquals(List.of(after), file.read().get("VESSEL-001").insideFences());
+        }
+    }
+
+    @Test
+    @DisplayName("State too large for a slot should spill and survive reopening")
+    void shouldSpillLargeRecord() throws IOException {
+        Path path = dir.resolve("state.ckpt");
+        UUID[] fences = new UUID[100];
+        Arrays.setAll(fences, i -> UUID.randomUUID());
+        try (StateCheckpoint file = StateCheckpoint.open(path)) {
+            write(file, 3, "VESSEL-001", fences);
+            file.finish(null);
+        }
+
+        try (StateCheckpoint file = StateCheckpoint.open(path)) {
+            AssetState asset = file.read().get("VESSEL-001");
+            assertEquals(List.of(fences), asset.insideFences());
+            assertTrue(asset.hasLastPosition());
+
+            // Shrinking back into the slot drops the spill file
+            write(file, 3, "VESSEL-001", fences[0]);
+            file.finish(null);
+            assertEquals(List.of(fences[0]), file.read().get("VESSEL-001").insideFences());
+        }
+        try (Stream<Path> spilled = Files.list(dir.resolve("state.ckpt.spill"))) {
+            assertEquals(0, spilled.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should grow the mapping for high asset ordinals")
+    void shouldGrow() throws IOException {
+        Path path = dir.resolve("state.ckpt");
+        try (StateCheckpoint file = StateCheckpoint.open(path)) {
+            write(file, 10_000, "AIRCRAFT-10000");
+            file.finish(null);
+        }
+        try (StateCheckpoint file = StateCheckpoint.open(path)) {
+            assertTrue(file.read().containsKey("AIRCRAFT-10000"));
+        }
+    }
+}
@@ -1,8 +1,5 @@
 package com.geotrack.simulator;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.geotrack.common.model.Position;
 import io.quarkus.logging.Log;
 import io.smallrye.reactive.messaging.kafka.Record;
@@ -15,6 +12,9 @@ import org.eclipse.microprofile.reactive.messaging.Emitter;
 /**
  * Publishes Position events to Kafka's position.raw topic.
  * Thread-safe — called from multiple virtual threads during fleet simulation.
+ * <p>
+ * Positions are serialised by {@code PositionSerializer}, as JSON or binary
+ * per {@code geotrack.kafka.format}.
  */
 @Unremovable
 @ApplicationScoped
@@ -22,16 +22,11 @@ public class PositionProducer {
 
     @Inject
     @Channel("sim-positions")
-    Emitter<Record<String, String>> emitter;
-
-    private final ObjectMapper objectMapper = new ObjectMapper()
-            .registerModule(new JavaTimeModule())
-            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    Emitter<Record<String, Position>> emitter;
 
     public void send(Position position) {
         try {
-            String json = objectMapper.writeValueAsString(position);
-            emitter.send(Record.of(position.assetId(), json));
+            emitter.send(Record.of(position.assetId(), position));
             Log.debugf("Sent position for %s: [%.6f, %.6f] speed=%.1f km/h",
                     position.assetId(), position.latitude(), position.longitude(), position.speed());
         } catch (Exception e) {
@@ -4,7 +4,6 @@ import com.geotrack.common.model.Position;
 import com.geotrack.common.model.PositionSource;
 import com.geotrack.common.spatial.SpatialEngine;
 import io.quarkus.logging.Log;
-import org.locationtech.jts.geom.Point;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -48,11 +47,10 @@ public class RouteReplayer {
             RoutePoint prev = route.get(i - 1);
             RoutePoint current = route.get(i);
 
-            Point prevPt = spatial.createPoint(prev.longitude(), prev.latitude());
-            Point currPt = spatial.createPoint(current.longitude(), current.latitude());
-
-            double distanceM = spatial.distanceMetres(prevPt, currPt);
-            double heading = spatial.bearing(prevPt, currPt);
+            double distanceM = spatial.distanceMetres(
+                    prev.longitude(), prev.latitude(), current.longitude(), current.latitude());
+            double heading = spatial.bearing(
+                    prev.longitude(), prev.latitude(), current.longitude(), current.latitude());
 
             Duration timeDelta = Duration.between(prev.timestamp(), current.timestamp());
             long segmentMs = (long) (timeDelta.toMillis() / speedMultiplier);